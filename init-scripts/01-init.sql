@@ -2,15 +2,30 @@
 -- This script sets up the database with proper permissions
 
 -- Create additional indexes for performance
+-- (Also declared on the JPA entities so they exist wherever Hibernate manages the schema)
 CREATE INDEX IF NOT EXISTS idx_loads_shipper_id ON loads(shipper_id);
 CREATE INDEX IF NOT EXISTS idx_loads_status ON loads(status);
 CREATE INDEX IF NOT EXISTS idx_loads_truck_type ON loads(truck_type);
 CREATE INDEX IF NOT EXISTS idx_loads_date_posted ON loads(date_posted);
+-- Supports keyset (cursor) pagination ordered by (date_posted DESC, id DESC)
+CREATE INDEX IF NOT EXISTS idx_loads_date_posted_id ON loads(date_posted DESC, id DESC);
+-- Supports delta sync (GET /api/load/changes) as a range scan over the change sequence
+CREATE INDEX IF NOT EXISTS idx_loads_change_seq ON loads(change_seq);
+-- Supports loading window overlap filters (GET /api/load?availableFrom=&availableTo=); an expression
+-- index, so it cannot be declared on the entity. The expression must match LoadingWindowFunctions.
+CREATE INDEX IF NOT EXISTS idx_loads_loading_window ON loads USING gist
+    (tsrange(least(loading_date, unloading_date), greatest(loading_date, unloading_date), '[]'));
+-- Supports radius and bounding box filters (GET /api/load?latitude=&longitude=&radiusKm=); must match
+-- LoadLocationFunctions. Rows without coordinates have a NULL point and are not indexed.
+CREATE INDEX IF NOT EXISTS idx_loads_loading_location ON loads USING gist (point(loading_longitude, loading_latitude));
 
 CREATE INDEX IF NOT EXISTS idx_bookings_load_id ON bookings(load_id);
 CREATE INDEX IF NOT EXISTS idx_bookings_transporter_id ON bookings(transporter_id);
 CREATE INDEX IF NOT EXISTS idx_bookings_status ON bookings(status);
 CREATE INDEX IF NOT EXISTS idx_bookings_requested_at ON bookings(requested_at);
+-- Supports keyset (cursor) pagination ordered by (requested_at DESC, id DESC)
+CREATE INDEX IF NOT EXISTS idx_bookings_requested_at_id ON bookings(requested_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_change_seq ON bookings(change_seq);
 
 -- Insert some sample data for testing
 -- (This will be executed only if tables are empty)
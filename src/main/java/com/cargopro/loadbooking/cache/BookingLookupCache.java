@@ -0,0 +1,19 @@
+package com.cargopro.loadbooking.cache;
+
+import com.cargopro.loadbooking.dto.BookingResponseDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class BookingLookupCache extends LookupCache<BookingResponseDto> {
+
+    @Autowired
+    public BookingLookupCache(@Value("${loadbooking.cache.bookings.maximum-size:20000}") long maximumSize,
+                              @Value("${loadbooking.cache.bookings.ttl:5m}") Duration ttl,
+                              @Value("${loadbooking.cache.bookings.negative-ttl:30s}") Duration negativeTtl) {
+        super(maximumSize, ttl, negativeTtl);
+    }
+}
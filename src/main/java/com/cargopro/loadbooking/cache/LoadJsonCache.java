@@ -0,0 +1,103 @@
+package com.cargopro.loadbooking.cache;
+
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Holds the serialized JSON of recently read loads so hot load detail reads can skip
+ * Jackson entirely. An entry is only reused while its version matches the load being
+ * returned, and the cache is bounded by the total number of bytes it holds.
+ */
+@Component
+public class LoadJsonCache {
+
+    private final ObjectMapper objectMapper;
+    private final Cache<UUID, SerializedLoad> cache;
+
+    @Autowired
+    public LoadJsonCache(ObjectMapper objectMapper,
+                         @Value("${loadbooking.cache.load-json.maximum-bytes:67108864}") long maximumBytes,
+                         @Value("${loadbooking.cache.load-json.ttl:10m}") Duration ttl) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maximumBytes)
+            .weigher((UUID id, SerializedLoad serialized) -> serialized.getBytes().length)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Returns the JSON for {@code load}, serializing it only if no entry exists for its
+     * ID and version.
+     */
+    public SerializedLoad serialize(LoadResponseDto load) {
+        SerializedLoad cached = cache.getIfPresent(load.getId());
+        if (cached != null && Objects.equals(cached.getVersion(), load.getVersion())) {
+            return cached;
+        }
+        SerializedLoad serialized = new SerializedLoad(load.getVersion(), write(load));
+        cache.put(load.getId(), serialized);
+        return serialized;
+    }
+
+    public void invalidate(UUID loadId) {
+        cache.invalidate(loadId);
+        LookupCache.afterCompletion(() -> cache.invalidate(loadId));
+    }
+
+    /**
+     * Exposes the underlying Caffeine cache for metrics binding.
+     */
+    public Cache<UUID, SerializedLoad> nativeCache() {
+        return cache;
+    }
+
+    private byte[] write(LoadResponseDto load) {
+        try {
+            return objectMapper.writeValueAsBytes(load);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize load " + load.getId(), e);
+        }
+    }
+
+    /**
+     * Serialized JSON of one version of a load.
+     */
+    public static final class SerializedLoad {
+
+        private final Long version;
+        private final byte[] bytes;
+
+        public SerializedLoad(Long version, byte[] bytes) {
+            this.version = version;
+            this.bytes = bytes;
+        }
+
+        public Long getVersion() {
+            return version;
+        }
+
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Strong entity tag derived from the load version, so it changes exactly when the
+         * serialized representation does.
+         */
+        public String getETag() {
+            return "\"" + version + "\"";
+        }
+    }
+}
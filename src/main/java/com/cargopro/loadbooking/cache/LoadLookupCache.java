@@ -0,0 +1,19 @@
+package com.cargopro.loadbooking.cache;
+
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class LoadLookupCache extends LookupCache<LoadResponseDto> {
+
+    @Autowired
+    public LoadLookupCache(@Value("${loadbooking.cache.loads.maximum-size:10000}") long maximumSize,
+                           @Value("${loadbooking.cache.loads.ttl:5m}") Duration ttl,
+                           @Value("${loadbooking.cache.loads.negative-ttl:30s}") Duration negativeTtl) {
+        super(maximumSize, ttl, negativeTtl);
+    }
+}
@@ -0,0 +1,110 @@
+package com.cargopro.loadbooking.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Bounded read-through cache of response DTOs keyed by ID. Eviction is size based
+ * (Caffeine's W-TinyLFU policy) plus a time to live; IDs that do not exist are cached
+ * as empty entries with their own, shorter time to live.
+ *
+ * <p>Writers call {@link #invalidate} inside their transaction. The entry is dropped
+ * immediately and again once the transaction completes, so a reader that loaded the
+ * old row while the write was in flight cannot leave a stale entry behind.
+ */
+public abstract class LookupCache<V> {
+
+    private final Cache<UUID, Optional<V>> cache;
+
+    protected LookupCache(long maximumSize, Duration ttl, Duration negativeTtl) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new PresenceAwareExpiry<V>(ttl, negativeTtl))
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Returns the cached value for {@code id}, calling {@code loader} on a miss.
+     * Concurrent misses for the same ID share a single load.
+     */
+    public Optional<V> get(UUID id, Function<UUID, Optional<V>> loader) {
+        return cache.get(id, loader);
+    }
+
+    public void invalidate(UUID id) {
+        cache.invalidate(id);
+        afterCompletion(() -> cache.invalidate(id));
+    }
+
+    /**
+     * Drops every present entry matching {@code predicate}. Scans the whole cache, so it
+     * is meant for rare writes that touch rows whose IDs are not known up front.
+     */
+    public void invalidateIf(Predicate<V> predicate) {
+        Runnable sweep = () -> cache.asMap().values().removeIf(value -> value.isPresent() && predicate.test(value.get()));
+        sweep.run();
+        afterCompletion(sweep);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Exposes the underlying Caffeine cache for metrics binding.
+     */
+    public Cache<UUID, Optional<V>> nativeCache() {
+        return cache;
+    }
+
+    /**
+     * Runs {@code action} once the current transaction completes, or not at all outside one.
+     */
+    static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private static final class PresenceAwareExpiry<V> implements Expiry<UUID, Optional<V>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        PresenceAwareExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(UUID key, Optional<V> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(UUID key, Optional<V> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(UUID key, Optional<V> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.cargopro.loadbooking.config;
+
+import com.cargopro.loadbooking.cache.BookingLookupCache;
+import com.cargopro.loadbooking.cache.LoadJsonCache;
+import com.cargopro.loadbooking.cache.LoadLookupCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Publishes hit, miss, eviction and size metrics of the lookup caches as
+ * {@code cache.*} meters tagged {@code cache=loads}, {@code cache=bookings} and
+ * {@code cache=load-json}, plus the hit ratio of every Hibernate second-level cache
+ * region as {@code hibernate.cache.region.hit.ratio}.
+ */
+@Configuration
+public class CacheMetricsConfig {
+
+    /**
+     * Second-level cache regions declared on the entities and repositories; see application.conf.
+     */
+    private static final List<String> ENTITY_CACHE_REGIONS = List.of("loads", "bookings", "load-bookings");
+    private static final List<String> QUERY_CACHE_REGIONS = List.of("load-counts", "booking-counts");
+
+    @Bean
+    public MeterBinder lookupCacheMetrics(LoadLookupCache loadLookupCache, BookingLookupCache bookingLookupCache,
+                                          LoadJsonCache loadJsonCache) {
+        return registry -> {
+            CaffeineCacheMetrics.monitor(registry, loadLookupCache.nativeCache(), "loads");
+            CaffeineCacheMetrics.monitor(registry, bookingLookupCache.nativeCache(), "bookings");
+            CaffeineCacheMetrics.monitor(registry, loadJsonCache.nativeCache(), "load-json");
+        };
+    }
+
+    @Bean
+    public MeterBinder secondLevelCacheHitRatios(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            for (String region : ENTITY_CACHE_REGIONS) {
+                registerHitRatio(registry, region, () -> statistics.getCacheRegionStatistics(region));
+            }
+            for (String region : QUERY_CACHE_REGIONS) {
+                registerHitRatio(registry, region, () -> statistics.getQueryRegionStatistics(region));
+            }
+        };
+    }
+
+    private static void registerHitRatio(MeterRegistry registry, String region,
+                                         Supplier<CacheRegionStatistics> regionStatistics) {
+        Gauge.builder("hibernate.cache.region.hit.ratio", regionStatistics, CacheMetricsConfig::hitRatio)
+            .tag("region", region)
+            .description("Share of second-level cache lookups in the region that were hits")
+            .strongReference(true)
+            .register(registry);
+    }
+
+    private static double hitRatio(Supplier<CacheRegionStatistics> statistics) {
+        // Query regions are created on first use, so their statistics may not exist yet
+        CacheRegionStatistics regionStatistics = statistics.get();
+        if (regionStatistics == null) {
+            return Double.NaN;
+        }
+        long lookups = regionStatistics.getHitCount() + regionStatistics.getMissCount();
+        return lookups == 0 ? Double.NaN : (double) regionStatistics.getHitCount() / lookups;
+    }
+}
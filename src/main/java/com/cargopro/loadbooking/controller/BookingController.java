@@ -1,9 +1,21 @@
 package com.cargopro.loadbooking.controller;
 
+import com.cargopro.loadbooking.dto.BookingBatchResultDto;
+import com.cargopro.loadbooking.dto.BookingDecisionDto;
 import com.cargopro.loadbooking.dto.BookingRequestDto;
 import com.cargopro.loadbooking.dto.BookingResponseDto;
+import com.cargopro.loadbooking.dto.BookingTicketDto;
+import com.cargopro.loadbooking.dto.ChangesPageDto;
+import com.cargopro.loadbooking.dto.CursorPageDto;
 import com.cargopro.loadbooking.entity.BookingStatus;
+import com.cargopro.loadbooking.service.BookingBatchService;
+import com.cargopro.loadbooking.service.BookingIntakeService;
 import com.cargopro.loadbooking.service.BookingService;
+import com.cargopro.loadbooking.service.ChangeService;
+import com.cargopro.loadbooking.service.ExportService;
+import com.cargopro.loadbooking.service.GroupCommitExecutor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,10 +25,19 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -28,29 +49,107 @@ public class BookingController {
     
     private static final Logger logger = LoggerFactory.getLogger(BookingController.class);
     
+    private static final int STREAM_FLUSH_INTERVAL = 500;
+    
     private final BookingService bookingService;
+    private final BookingBatchService bookingBatchService;
+    private final BookingIntakeService bookingIntakeService;
+    private final ExportService exportService;
+    private final GroupCommitExecutor groupCommitExecutor;
+    private final ObjectMapper objectMapper;
+    private final ChangeService changeService;
     
     @Autowired
-    public BookingController(BookingService bookingService) {
+    public BookingController(BookingService bookingService, BookingBatchService bookingBatchService,
+                             BookingIntakeService bookingIntakeService, ExportService exportService,
+                             GroupCommitExecutor groupCommitExecutor, ObjectMapper objectMapper,
+                             ChangeService changeService) {
         this.bookingService = bookingService;
+        this.bookingBatchService = bookingBatchService;
+        this.bookingIntakeService = bookingIntakeService;
+        this.exportService = exportService;
+        this.groupCommitExecutor = groupCommitExecutor;
+        this.objectMapper = objectMapper;
+        this.changeService = changeService;
     }
     
     @PostMapping
-    @Operation(summary = "Create a new booking", description = "Creates a new booking with default status PENDING")
+    @Operation(summary = "Create a new booking", 
+               description = "Creates a new booking with default status PENDING. When asynchronous intake is enabled, " +
+                             "the request is journaled and answered with a ticket to poll instead.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Booking created successfully"),
+        @ApiResponse(responseCode = "202", description = "Booking request accepted; poll the ticket for the outcome"),
         @ApiResponse(responseCode = "400", description = "Invalid input data or business rule violation"),
         @ApiResponse(responseCode = "404", description = "Load not found"),
-        @ApiResponse(responseCode = "500", description = "Internal server error")
+        @ApiResponse(responseCode = "500", description = "Internal server error"),
+        @ApiResponse(responseCode = "503", description = "Booking intake is full; retry later")
     })
-    public ResponseEntity<BookingResponseDto> createBooking(@Valid @RequestBody BookingRequestDto requestDto) {
+    public ResponseEntity<?> createBooking(@Valid @RequestBody BookingRequestDto requestDto) {
         logger.info("Creating new booking for load: {} by transporter: {}", 
                    requestDto.getLoadId(), requestDto.getTransporterId());
         
-        BookingResponseDto responseDto = bookingService.createBooking(requestDto);
+        if (bookingIntakeService.isEnabled()) {
+            BookingTicketDto ticket = bookingIntakeService.submit(requestDto);
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/booking/tickets/" + ticket.getTicketId()))
+                .body(ticket);
+        }
+        
+        BookingResponseDto responseDto = groupCommitExecutor.execute(() -> bookingService.createBooking(requestDto));
         return new ResponseEntity<>(responseDto, HttpStatus.CREATED);
     }
     
+    @GetMapping("/tickets/{ticketId}")
+    @Operation(summary = "Get booking ticket", 
+               description = "Returns the state of a booking request accepted by asynchronous intake: QUEUED, " +
+                             "COMPLETED with the booking, or FAILED with the reason")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Ticket found"),
+        @ApiResponse(responseCode = "404", description = "Ticket not found"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<BookingTicketDto> getTicket(
+            @Parameter(description = "Ticket ID") @PathVariable UUID ticketId) {
+        
+        logger.info("Fetching booking ticket with ID: {}", ticketId);
+        
+        BookingTicketDto ticket = bookingIntakeService.getTicket(ticketId);
+        return ResponseEntity.ok(ticket);
+    }
+    
+    @PostMapping("/batch")
+    @Operation(summary = "Create bookings in a batch", 
+               description = "Creates many bookings at once. Items are grouped by load and each load is read once. " +
+                             "Every item gets its own result; an invalid item does not fail the rest of the batch.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed; see the per-item results"),
+        @ApiResponse(responseCode = "400", description = "Batch too large or malformed"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<BookingBatchResultDto> createBookings(@RequestBody List<BookingRequestDto> requests) {
+        logger.info("Creating batch of {} bookings", requests.size());
+        
+        BookingBatchResultDto result = bookingBatchService.createBookings(requests);
+        return ResponseEntity.ok(result);
+    }
+    
+    @PostMapping("/batch/decisions")
+    @Operation(summary = "Accept or reject bookings in a batch", 
+               description = "Applies many ACCEPT or REJECT decisions at once with the same rules as the single " +
+                             "accept and reject endpoints. Decisions for one load apply in request order.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Batch processed; see the per-item results"),
+        @ApiResponse(responseCode = "400", description = "Batch too large or malformed"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<BookingBatchResultDto> decideBookings(@RequestBody List<BookingDecisionDto> decisions) {
+        logger.info("Deciding batch of {} bookings", decisions.size());
+        
+        BookingBatchResultDto result = bookingBatchService.decideBookings(decisions);
+        return ResponseEntity.ok(result);
+    }
+    
     @GetMapping
     @Operation(summary = "Get bookings with filters", description = "Retrieves bookings with optional filtering")
     @ApiResponses(value = {
@@ -70,6 +169,119 @@ public class BookingController {
         return ResponseEntity.ok(bookings);
     }
     
+    @GetMapping(params = "cursor")
+    @Operation(summary = "Get bookings by cursor", 
+               description = "Retrieves bookings newest first using keyset pagination. Pass an empty cursor to start " +
+                             "and the returned nextCursor to continue.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Bookings retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid parameters or malformed cursor"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<CursorPageDto<BookingResponseDto>> getBookingsByCursor(
+            @Parameter(description = "Filter by load ID") @RequestParam(required = false) UUID loadId,
+            @Parameter(description = "Filter by transporter ID") @RequestParam(required = false) String transporterId,
+            @Parameter(description = "Filter by status") @RequestParam(required = false) BookingStatus status,
+            @Parameter(description = "Opaque cursor from a previous page (empty for the first page)") @RequestParam String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size) {
+        
+        logger.info("Fetching bookings by cursor - loadId: {}, transporterId: {}, status: {}, size: {}", 
+                   loadId, transporterId, status, size);
+        
+        CursorPageDto<BookingResponseDto> bookings = bookingService.getBookingsByCursor(
+            loadId, transporterId, status, cursor, size);
+        return ResponseEntity.ok(bookings);
+    }
+    
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Stream bookings", 
+               description = "Streams all matching bookings as a JSON array, newest first, reading from a database " +
+                             "cursor so that memory use does not depend on the number of matches")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Bookings streamed successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid parameters"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<StreamingResponseBody> streamBookings(
+            @Parameter(description = "Filter by load ID") @RequestParam(required = false) UUID loadId,
+            @Parameter(description = "Filter by transporter ID") @RequestParam(required = false) String transporterId,
+            @Parameter(description = "Filter by status") @RequestParam(required = false) BookingStatus status) {
+        
+        logger.info("Streaming bookings with filters - loadId: {}, transporterId: {}, status: {}", 
+                   loadId, transporterId, status);
+        
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                long[] written = {0};
+                bookingService.streamBookings(loadId, transporterId, status, booking -> {
+                    try {
+                        generator.writeObject(booking);
+                        if (++written[0] % STREAM_FLUSH_INTERVAL == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+    
+    @GetMapping("/export")
+    @Operation(summary = "Export bookings", 
+               description = "Streams every matching booking as NDJSON or CSV, oldest first, straight from a " +
+                             "database cursor, so exports of any size run in constant memory. The date range applies to requestedAt.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Bookings exported successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid parameters"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @Parameter(description = "Filter by load ID") @RequestParam(required = false) UUID loadId,
+            @Parameter(description = "Filter by transporter ID") @RequestParam(required = false) String transporterId,
+            @Parameter(description = "Filter by status") @RequestParam(required = false) BookingStatus status,
+            @Parameter(description = "Only include bookings from this time on (ISO date-time)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Only include bookings before this time (ISO date-time)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Output format: NDJSON or CSV") @RequestParam(defaultValue = "NDJSON") ExportService.Format format,
+            @Parameter(description = "Compress the export with gzip") @RequestParam(defaultValue = "false") boolean gzip) {
+        
+        logger.info("Exporting bookings as {} - loadId: {}, transporterId: {}, status: {}, from: {}, to: {}, gzip: {}", 
+                   format, loadId, transporterId, status, from, to, gzip);
+        
+        StreamingResponseBody body = outputStream ->
+            exportService.exportBookings(loadId, transporterId, status, from, to, format, gzip, outputStream);
+        ContentDisposition disposition = ContentDisposition.attachment()
+            .filename("bookings." + format.getExtension() + (gzip ? ".gz" : ""))
+            .build();
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+            .body(body);
+    }
+    
+    @GetMapping("/changes")
+    @Operation(summary = "Get booking changes", 
+               description = "Returns the bookings created, updated or deleted since a sync token, oldest change " +
+                             "first. Changed bookings are returned in their current state and deleted ones as " +
+                             "tombstones. Start without since and pass the returned token back until hasMore is false.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Changes retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid parameters"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<ChangesPageDto<BookingResponseDto>> getBookingChanges(
+            @Parameter(description = "Token from a previous response; omit for everything") @RequestParam(required = false) String since,
+            @Parameter(description = "Maximum number of changes and deletions") @RequestParam(defaultValue = "100") int size) {
+        
+        logger.info("Fetching booking changes - since: {}, size: {}", since, size);
+        
+        ChangesPageDto<BookingResponseDto> changes = changeService.getBookingChanges(since, size);
+        return ResponseEntity.ok(changes);
+    }
+    
     @GetMapping("/{bookingId}")
     @Operation(summary = "Get booking by ID", description = "Retrieves a specific booking by its ID")
     @ApiResponses(value = {
@@ -107,7 +319,8 @@ public class BookingController {
     @PutMapping("/{bookingId}/accept")
     @Operation(summary = "Accept booking", description = "Accepts a pending booking and rejects others for the same load")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Booking accepted successfully"),
+        @ApiResponse(responseCode = "200", description = "Booking accepted successfully; rejectedBookings counts " +
+                     "the other pending bookings rejected with it"),
         @ApiResponse(responseCode = "400", description = "Business rule violation"),
         @ApiResponse(responseCode = "404", description = "Booking not found"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
@@ -117,7 +330,7 @@ public class BookingController {
         
         logger.info("Accepting booking with ID: {}", bookingId);
         
-        BookingResponseDto responseDto = bookingService.acceptBooking(bookingId);
+        BookingResponseDto responseDto = groupCommitExecutor.execute(() -> bookingService.acceptBooking(bookingId));
         return ResponseEntity.ok(responseDto);
     }
     
@@ -134,7 +347,7 @@ public class BookingController {
         
         logger.info("Rejecting booking with ID: {}", bookingId);
         
-        BookingResponseDto responseDto = bookingService.rejectBooking(bookingId);
+        BookingResponseDto responseDto = groupCommitExecutor.execute(() -> bookingService.rejectBooking(bookingId));
         return ResponseEntity.ok(responseDto);
     }
     
@@ -150,7 +363,10 @@ public class BookingController {
         
         logger.info("Deleting booking with ID: {}", bookingId);
         
-        bookingService.deleteBooking(bookingId);
+        groupCommitExecutor.execute(() -> {
+            bookingService.deleteBooking(bookingId);
+            return null;
+        });
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
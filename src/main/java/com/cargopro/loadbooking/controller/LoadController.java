@@ -1,11 +1,22 @@
 package com.cargopro.loadbooking.controller;
 
+import com.cargopro.loadbooking.cache.LoadJsonCache;
+import com.cargopro.loadbooking.dto.BulkIngestResultDto;
+import com.cargopro.loadbooking.dto.ChangesPageDto;
+import com.cargopro.loadbooking.dto.CursorPageDto;
 import com.cargopro.loadbooking.dto.LoadRequestDto;
 import com.cargopro.loadbooking.dto.LoadResponseDto;
 import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.feed.LoadFeed;
+import com.cargopro.loadbooking.geo.GeoArea;
+import com.cargopro.loadbooking.service.ChangeService;
+import com.cargopro.loadbooking.service.ExportService;
+import com.cargopro.loadbooking.service.LoadIngestService;
 import com.cargopro.loadbooking.service.LoadService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -14,10 +25,22 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -29,10 +52,21 @@ public class LoadController {
     private static final Logger logger = LoggerFactory.getLogger(LoadController.class);
     
     private final LoadService loadService;
+    private final LoadJsonCache loadJsonCache;
+    private final LoadIngestService loadIngestService;
+    private final ExportService exportService;
+    private final LoadFeed loadFeed;
+    private final ChangeService changeService;
     
     @Autowired
-    public LoadController(LoadService loadService) {
+    public LoadController(LoadService loadService, LoadJsonCache loadJsonCache, LoadIngestService loadIngestService,
+                          ExportService exportService, LoadFeed loadFeed, ChangeService changeService) {
         this.loadService = loadService;
+        this.loadJsonCache = loadJsonCache;
+        this.loadIngestService = loadIngestService;
+        this.exportService = exportService;
+        this.loadFeed = loadFeed;
+        this.changeService = changeService;
     }
     
     @PostMapping
@@ -49,8 +83,42 @@ public class LoadController {
         return new ResponseEntity<>(responseDto, HttpStatus.CREATED);
     }
     
+    @PostMapping(value = "/bulk", consumes = {"application/x-ndjson", "text/csv"})
+    @Operation(summary = "Create loads in bulk", 
+               description = "Creates many loads from an NDJSON body (one LoadRequestDto per line) or a CSV body with " +
+                             "a header row (shipperId, loadingPoint, unloadingPoint, loadingDate, unloadingDate, " +
+                             "productType, truckType, noOfTrucks, weight, comment, and optionally loadingLatitude, " +
+                             "loadingLongitude, unloadingLatitude, unloadingLongitude). Rows are streamed and written in " +
+                             "chunks; invalid rows are reported by line number without failing the upload.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Upload processed; see the per-row errors"),
+        @ApiResponse(responseCode = "400", description = "CSV header is missing required columns"),
+        @ApiResponse(responseCode = "415", description = "Unsupported content type"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<BulkIngestResultDto> ingestLoads(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        
+        logger.info("Bulk ingest of loads, content type: {}", contentType);
+        
+        LoadIngestService.Format format = MediaType.valueOf("text/csv").isCompatibleWith(contentType)
+            ? LoadIngestService.Format.CSV
+            : LoadIngestService.Format.NDJSON;
+        BulkIngestResultDto result = loadIngestService.ingest(body, format,
+            contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8);
+        return ResponseEntity.ok(result);
+    }
+    
     @GetMapping
-    @Operation(summary = "Get loads with filters", description = "Retrieves loads with optional filtering and pagination")
+    @Operation(summary = "Get loads with filters", 
+               description = "Retrieves loads with optional filtering and pagination. With origin and destination, " +
+                             "returns the POSTED loads on that lane from an in-memory lane index; points and truck " +
+                             "type are then matched ignoring case. availableFrom/availableTo return the loads whose " +
+                             "loading window (loading to unloading date) overlaps the given window. latitude, " +
+                             "longitude and radiusKm, or a bounding box, return the loads whose loading point lies " +
+                             "in that area; loads without coordinates never match. POSTED and BOOKED loads are " +
+                             "served from an in-memory snapshot once it has been built.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Loads retrieved successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid parameters"),
@@ -59,31 +127,205 @@ public class LoadController {
     public ResponseEntity<Page<LoadResponseDto>> getLoads(
             @Parameter(description = "Filter by shipper ID") @RequestParam(required = false) String shipperId,
             @Parameter(description = "Filter by truck type") @RequestParam(required = false) String truckType,
+            @Parameter(description = "Filter by product type") @RequestParam(required = false) String productType,
             @Parameter(description = "Filter by status") @RequestParam(required = false) LoadStatus status,
+            @Parameter(description = "Lane origin (loading point); POSTED loads only, requires destination") @RequestParam(required = false) String origin,
+            @Parameter(description = "Lane destination (unloading point); POSTED loads only, requires origin") @RequestParam(required = false) String destination,
+            @Parameter(description = "Only loads whose loading window ends at or after this time (ISO date-time)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime availableFrom,
+            @Parameter(description = "Only loads whose loading window starts at or before this time (ISO date-time)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime availableTo,
+            @Parameter(description = "Minimum weight, inclusive") @RequestParam(required = false) Double minWeight,
+            @Parameter(description = "Maximum weight, inclusive") @RequestParam(required = false) Double maxWeight,
+            @Parameter(description = "Latitude of the search center; requires longitude and radiusKm") @RequestParam(required = false) Double latitude,
+            @Parameter(description = "Longitude of the search center; requires latitude and radiusKm") @RequestParam(required = false) Double longitude,
+            @Parameter(description = "Search radius around the center in kilometres") @RequestParam(required = false) Double radiusKm,
+            @Parameter(description = "Bounding box south edge; requires the other three edges") @RequestParam(required = false) Double minLatitude,
+            @Parameter(description = "Bounding box west edge; greater than maxLongitude to cross the antimeridian") @RequestParam(required = false) Double minLongitude,
+            @Parameter(description = "Bounding box north edge") @RequestParam(required = false) Double maxLatitude,
+            @Parameter(description = "Bounding box east edge") @RequestParam(required = false) Double maxLongitude,
             @Parameter(description = "Page number (1-based)") @RequestParam(defaultValue = "1") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size) {
         
-        logger.info("Fetching loads with filters - shipperId: {}, truckType: {}, status: {}, page: {}, size: {}", 
-                   shipperId, truckType, status, page, size);
+        GeoArea near = GeoArea.of(latitude, longitude, radiusKm, minLatitude, minLongitude, maxLatitude, maxLongitude);
+        logger.info("Fetching loads with filters - shipperId: {}, truckType: {}, productType: {}, status: {}, " +
+                   "origin: {}, destination: {}, availableFrom: {}, availableTo: {}, minWeight: {}, maxWeight: {}, " +
+                   "near: {}, page: {}, size: {}", shipperId, truckType, productType, status, origin, destination,
+                   availableFrom, availableTo, minWeight, maxWeight, near, page, size);
+        
+        Page<LoadResponseDto> loads = loadService.getLoads(shipperId, truckType, productType, status, origin,
+                                                           destination, availableFrom, availableTo, minWeight,
+                                                           maxWeight, near, page, size);
+        return ResponseEntity.ok(loads);
+    }
+    
+    @GetMapping(params = "q")
+    @Operation(summary = "Search loads", 
+               description = "Full-text search of the POSTED and BOOKED loads' product type, loading and unloading " +
+                             "points and comment. Every word must match, either whole or as the start of a longer " +
+                             "word, ignoring case. Results are ranked by relevance, then newest first; pass an empty " +
+                             "cursor to start and the returned nextCursor to continue.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Loads retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid parameters, search text or cursor"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<CursorPageDto<LoadResponseDto>> searchLoads(
+            @Parameter(description = "Words to search for, at most 10") @RequestParam String q,
+            @Parameter(description = "Filter by status: POSTED or BOOKED") @RequestParam(required = false) LoadStatus status,
+            @Parameter(description = "Opaque cursor from a previous page (empty for the first page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size) {
+        
+        logger.info("Searching loads - q: {}, status: {}, size: {}", q, status, size);
         
-        Page<LoadResponseDto> loads = loadService.getLoads(shipperId, truckType, status, page, size);
+        CursorPageDto<LoadResponseDto> loads = loadService.searchLoads(q, status, cursor, size);
         return ResponseEntity.ok(loads);
     }
     
-    @GetMapping("/{loadId}")
-    @Operation(summary = "Get load by ID", description = "Retrieves a specific load by its ID")
+    @GetMapping(params = {"cursor", "!q"})
+    @Operation(summary = "Get loads by cursor", 
+               description = "Retrieves loads newest first using keyset pagination. Pass an empty cursor to start " +
+                             "and the returned nextCursor to continue. No exact total is computed.")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Load found"),
+        @ApiResponse(responseCode = "200", description = "Loads retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid parameters or malformed cursor"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<CursorPageDto<LoadResponseDto>> getLoadsByCursor(
+            @Parameter(description = "Filter by shipper ID") @RequestParam(required = false) String shipperId,
+            @Parameter(description = "Filter by truck type") @RequestParam(required = false) String truckType,
+            @Parameter(description = "Filter by status") @RequestParam(required = false) LoadStatus status,
+            @Parameter(description = "Opaque cursor from a previous page (empty for the first page)") @RequestParam String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Include the planner's approximate total") @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        logger.info("Fetching loads by cursor - shipperId: {}, truckType: {}, status: {}, size: {}", 
+                   shipperId, truckType, status, size);
+        
+        CursorPageDto<LoadResponseDto> loads = loadService.getLoadsByCursor(
+            shipperId, truckType, status, cursor, size, includeTotal);
+        return ResponseEntity.ok(loads);
+    }
+    
+    @GetMapping("/export")
+    @Operation(summary = "Export loads", 
+               description = "Streams every matching load as NDJSON or CSV, oldest first, straight from a " +
+                             "database cursor, so exports of any size run in constant memory. The date range applies to datePosted.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Loads exported successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid parameters"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<StreamingResponseBody> exportLoads(
+            @Parameter(description = "Filter by shipper ID") @RequestParam(required = false) String shipperId,
+            @Parameter(description = "Filter by truck type") @RequestParam(required = false) String truckType,
+            @Parameter(description = "Filter by status") @RequestParam(required = false) LoadStatus status,
+            @Parameter(description = "Only include loads from this time on (ISO date-time)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Only include loads before this time (ISO date-time)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Output format: NDJSON or CSV") @RequestParam(defaultValue = "NDJSON") ExportService.Format format,
+            @Parameter(description = "Compress the export with gzip") @RequestParam(defaultValue = "false") boolean gzip) {
+        
+        logger.info("Exporting loads as {} - shipperId: {}, truckType: {}, status: {}, from: {}, to: {}, gzip: {}", 
+                   format, shipperId, truckType, status, from, to, gzip);
+        
+        StreamingResponseBody body = outputStream ->
+            exportService.exportLoads(shipperId, truckType, status, from, to, format, gzip, outputStream);
+        ContentDisposition disposition = ContentDisposition.attachment()
+            .filename("loads." + format.getExtension() + (gzip ? ".gz" : ""))
+            .build();
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+            .body(body);
+    }
+    
+    @GetMapping(value = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to load changes", 
+               description = "Server-Sent Events stream of loads as they are created, updated, cancelled or change " +
+                             "status, filtered by truck type, shipper and status. Reconnect with Last-Event-ID to " +
+                             "receive missed events; a 'reset' event means too much was missed and the board should " +
+                             "be reloaded.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Subscribed"),
+        @ApiResponse(responseCode = "400", description = "Invalid parameters"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public SseEmitter subscribeToLoads(
+            @Parameter(description = "Filter by truck type") @RequestParam(required = false) String truckType,
+            @Parameter(description = "Filter by shipper ID") @RequestParam(required = false) String shipperId,
+            @Parameter(description = "Filter by status; also matches loads leaving that status") @RequestParam(required = false) LoadStatus status,
+            @Parameter(description = "ID of the last event received, to resume after a disconnect") @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        
+        logger.info("Subscribing to load feed - truckType: {}, shipperId: {}, status: {}, lastEventId: {}", 
+                   truckType, shipperId, status, lastEventId);
+        
+        return loadFeed.subscribe(truckType, shipperId, status, lastEventId);
+    }
+    
+    @GetMapping("/points")
+    @Operation(summary = "Suggest points", 
+               description = "Suggests known loading and unloading points that begin with the typed prefix, ignoring " +
+                             "case and surrounding spaces, most used first. Served from memory; the points of all " +
+                             "loads are loaded at startup and those of new loads are added as they are created.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Suggestions retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid parameters"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<List<String>> suggestPoints(
+            @Parameter(description = "Beginning of the point typed so far (empty for the most used points)") @RequestParam(defaultValue = "") String prefix,
+            @Parameter(description = "Maximum number of suggestions, up to 10") @RequestParam(defaultValue = "10") int limit) {
+        
+        // Called on every keystroke, so kept out of the info log
+        logger.debug("Suggesting points - prefix: {}, limit: {}", prefix, limit);
+        
+        return ResponseEntity.ok(loadService.suggestPoints(prefix, limit));
+    }
+    
+    @GetMapping("/changes")
+    @Operation(summary = "Get load changes", 
+               description = "Returns the loads created, updated or cancelled since a sync token, oldest change " +
+                             "first, each in its current state. Start without since and pass the returned token back " +
+                             "until hasMore is false.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Changes retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid parameters"),
+        @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<ChangesPageDto<LoadResponseDto>> getLoadChanges(
+            @Parameter(description = "Token from a previous response; omit for everything") @RequestParam(required = false) String since,
+            @Parameter(description = "Maximum number of changes") @RequestParam(defaultValue = "100") int size) {
+        
+        logger.info("Fetching load changes - since: {}, size: {}", since, size);
+        
+        ChangesPageDto<LoadResponseDto> changes = changeService.getLoadChanges(since, size);
+        return ResponseEntity.ok(changes);
+    }
+    
+    @GetMapping(value = "/{loadId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get load by ID", 
+               description = "Retrieves a specific load by its ID. The response carries a strong ETag derived from " +
+                             "the load version; send it back in If-None-Match to receive 304 while the load is unchanged.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Load found",
+                     content = @Content(schema = @Schema(implementation = LoadResponseDto.class))),
+        @ApiResponse(responseCode = "304", description = "Load unchanged since the given ETag"),
         @ApiResponse(responseCode = "404", description = "Load not found"),
         @ApiResponse(responseCode = "500", description = "Internal server error")
     })
-    public ResponseEntity<LoadResponseDto> getLoadById(
-            @Parameter(description = "Load ID") @PathVariable UUID loadId) {
+    public ResponseEntity<byte[]> getLoadById(
+            @Parameter(description = "Load ID") @PathVariable UUID loadId,
+            WebRequest webRequest) {
         
         logger.info("Fetching load with ID: {}", loadId);
         
-        LoadResponseDto responseDto = loadService.getLoadById(loadId);
-        return ResponseEntity.ok(responseDto);
+        LoadJsonCache.SerializedLoad serialized = loadJsonCache.serialize(loadService.getLoadById(loadId));
+        if (webRequest.checkNotModified(serialized.getETag())) {
+            // 304 status and ETag header have already been set
+            return null;
+        }
+        return ResponseEntity.ok()
+            .eTag(serialized.getETag())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(serialized.getBytes());
     }
     
     @PutMapping("/{loadId}")
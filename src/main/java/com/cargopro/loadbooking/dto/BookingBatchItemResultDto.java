@@ -0,0 +1,53 @@
+package com.cargopro.loadbooking.dto;
+
+public class BookingBatchItemResultDto {
+    
+    private int index;
+    private boolean success;
+    private BookingResponseDto booking;
+    private String error;
+    
+    // Default constructor
+    public BookingBatchItemResultDto() {}
+    
+    // Constructor
+    public BookingBatchItemResultDto(int index, boolean success, BookingResponseDto booking, String error) {
+        this.index = index;
+        this.success = success;
+        this.booking = booking;
+        this.error = error;
+    }
+    
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+    
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    
+    public boolean isSuccess() {
+        return success;
+    }
+    
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+    
+    public BookingResponseDto getBooking() {
+        return booking;
+    }
+    
+    public void setBooking(BookingResponseDto booking) {
+        this.booking = booking;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
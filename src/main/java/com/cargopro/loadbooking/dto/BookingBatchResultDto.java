@@ -0,0 +1,55 @@
+package com.cargopro.loadbooking.dto;
+
+import java.util.List;
+
+public class BookingBatchResultDto {
+    
+    private int received;
+    private int succeeded;
+    private int failed;
+    private List<BookingBatchItemResultDto> items;
+    
+    // Default constructor
+    public BookingBatchResultDto() {}
+    
+    // Constructor
+    public BookingBatchResultDto(List<BookingBatchItemResultDto> items) {
+        this.items = items;
+        this.received = items.size();
+        this.succeeded = (int) items.stream().filter(BookingBatchItemResultDto::isSuccess).count();
+        this.failed = received - succeeded;
+    }
+    
+    // Getters and Setters
+    public int getReceived() {
+        return received;
+    }
+    
+    public void setReceived(int received) {
+        this.received = received;
+    }
+    
+    public int getSucceeded() {
+        return succeeded;
+    }
+    
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+    
+    public int getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+    
+    public List<BookingBatchItemResultDto> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<BookingBatchItemResultDto> items) {
+        this.items = items;
+    }
+}
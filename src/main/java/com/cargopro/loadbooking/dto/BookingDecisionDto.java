@@ -0,0 +1,45 @@
+package com.cargopro.loadbooking.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+public class BookingDecisionDto {
+    
+    public enum Decision {
+        ACCEPT,
+        REJECT
+    }
+    
+    @NotNull(message = "Booking ID is required")
+    private UUID bookingId;
+    
+    @NotNull(message = "Decision is required")
+    private Decision decision;
+    
+    // Default constructor
+    public BookingDecisionDto() {}
+    
+    // Constructor
+    public BookingDecisionDto(UUID bookingId, Decision decision) {
+        this.bookingId = bookingId;
+        this.decision = decision;
+    }
+    
+    // Getters and Setters
+    public UUID getBookingId() {
+        return bookingId;
+    }
+    
+    public void setBookingId(UUID bookingId) {
+        this.bookingId = bookingId;
+    }
+    
+    public Decision getDecision() {
+        return decision;
+    }
+    
+    public void setDecision(Decision decision) {
+        this.decision = decision;
+    }
+}
@@ -1,6 +1,7 @@
 package com.cargopro.loadbooking.dto;
 
 import com.cargopro.loadbooking.entity.BookingStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -15,6 +16,10 @@ public class BookingResponseDto {
     private BookingStatus status;
     private LocalDateTime requestedAt;
     
+    // Set only when accepting: how many other pending bookings for the load were rejected
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer rejectedBookings;
+    
     // Default constructor
     public BookingResponseDto() {}
     
@@ -86,4 +91,12 @@ public class BookingResponseDto {
     public void setRequestedAt(LocalDateTime requestedAt) {
         this.requestedAt = requestedAt;
     }
+    
+    public Integer getRejectedBookings() {
+        return rejectedBookings;
+    }
+    
+    public void setRejectedBookings(Integer rejectedBookings) {
+        this.rejectedBookings = rejectedBookings;
+    }
 }
\ No newline at end of file
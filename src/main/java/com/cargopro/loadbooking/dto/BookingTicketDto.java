@@ -0,0 +1,59 @@
+package com.cargopro.loadbooking.dto;
+
+import java.util.UUID;
+
+public class BookingTicketDto {
+    
+    public enum Status {
+        QUEUED, COMPLETED, FAILED
+    }
+    
+    private UUID ticketId;
+    private Status status;
+    private BookingResponseDto booking;
+    private String error;
+    
+    // Default constructor
+    public BookingTicketDto() {}
+    
+    // Constructor
+    public BookingTicketDto(UUID ticketId, Status status, BookingResponseDto booking, String error) {
+        this.ticketId = ticketId;
+        this.status = status;
+        this.booking = booking;
+        this.error = error;
+    }
+    
+    // Getters and Setters
+    public UUID getTicketId() {
+        return ticketId;
+    }
+    
+    public void setTicketId(UUID ticketId) {
+        this.ticketId = ticketId;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    public BookingResponseDto getBooking() {
+        return booking;
+    }
+    
+    public void setBooking(BookingResponseDto booking) {
+        this.booking = booking;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,57 @@
+package com.cargopro.loadbooking.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkIngestResultDto {
+    
+    private long received;
+    private long inserted;
+    private long failed;
+    private List<RowErrorDto> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+    
+    // Default constructor
+    public BulkIngestResultDto() {}
+    
+    // Getters and Setters
+    public long getReceived() {
+        return received;
+    }
+    
+    public void setReceived(long received) {
+        this.received = received;
+    }
+    
+    public long getInserted() {
+        return inserted;
+    }
+    
+    public void setInserted(long inserted) {
+        this.inserted = inserted;
+    }
+    
+    public long getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+    
+    public List<RowErrorDto> getErrors() {
+        return errors;
+    }
+    
+    public void setErrors(List<RowErrorDto> errors) {
+        this.errors = errors;
+    }
+    
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+    
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+}
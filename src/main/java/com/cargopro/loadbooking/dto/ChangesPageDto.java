@@ -0,0 +1,63 @@
+package com.cargopro.loadbooking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Changes after a sync token, oldest first. Each entity appears once, in its current
+ * state; {@code deleted} lists the entities removed since the token. Pass {@code token}
+ * back as {@code since} to fetch the following changes.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChangesPageDto<T> {
+    
+    private List<T> changes;
+    private List<TombstoneDto> deleted;
+    private String token;
+    private boolean hasMore;
+    
+    // Default constructor
+    public ChangesPageDto() {}
+    
+    // Constructor
+    public ChangesPageDto(List<T> changes, List<TombstoneDto> deleted, String token, boolean hasMore) {
+        this.changes = changes;
+        this.deleted = deleted;
+        this.token = token;
+        this.hasMore = hasMore;
+    }
+    
+    // Getters and Setters
+    public List<T> getChanges() {
+        return changes;
+    }
+    
+    public void setChanges(List<T> changes) {
+        this.changes = changes;
+    }
+    
+    public List<TombstoneDto> getDeleted() {
+        return deleted;
+    }
+    
+    public void setDeleted(List<TombstoneDto> deleted) {
+        this.deleted = deleted;
+    }
+    
+    public String getToken() {
+        return token;
+    }
+    
+    public void setToken(String token) {
+        this.token = token;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
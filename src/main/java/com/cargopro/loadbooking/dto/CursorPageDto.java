@@ -0,0 +1,72 @@
+package com.cargopro.loadbooking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Count-free page of results addressed by an opaque cursor. Pass {@code nextCursor}
+ * back as the {@code cursor} parameter to fetch the following page.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPageDto<T> {
+    
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    private Long approximateTotal;
+    
+    // Default constructor
+    public CursorPageDto() {}
+    
+    // Constructor
+    public CursorPageDto(List<T> content, int size, boolean hasNext, String nextCursor, Long approximateTotal) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+        this.approximateTotal = approximateTotal;
+    }
+    
+    // Getters and Setters
+    public List<T> getContent() {
+        return content;
+    }
+    
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public void setSize(int size) {
+        this.size = size;
+    }
+    
+    public boolean isHasNext() {
+        return hasNext;
+    }
+    
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public Long getApproximateTotal() {
+        return approximateTotal;
+    }
+    
+    public void setApproximateTotal(Long approximateTotal) {
+        this.approximateTotal = approximateTotal;
+    }
+}
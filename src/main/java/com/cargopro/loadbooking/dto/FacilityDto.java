@@ -1,5 +1,9 @@
 package com.cargopro.loadbooking.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
@@ -19,6 +23,23 @@ public class FacilityDto {
     @NotNull(message = "Unloading date is required")
     private LocalDateTime unloadingDate;
     
+    // Optional coordinates; a point is either fully located or not at all
+    @DecimalMin(value = "-90.0", message = "Loading latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Loading latitude must be between -90 and 90")
+    private Double loadingLatitude;
+    
+    @DecimalMin(value = "-180.0", message = "Loading longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Loading longitude must be between -180 and 180")
+    private Double loadingLongitude;
+    
+    @DecimalMin(value = "-90.0", message = "Unloading latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Unloading latitude must be between -90 and 90")
+    private Double unloadingLatitude;
+    
+    @DecimalMin(value = "-180.0", message = "Unloading longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Unloading longitude must be between -180 and 180")
+    private Double unloadingLongitude;
+    
     // Default constructor
     public FacilityDto() {}
     
@@ -63,4 +84,48 @@ public class FacilityDto {
     public void setUnloadingDate(LocalDateTime unloadingDate) {
         this.unloadingDate = unloadingDate;
     }
+    
+    public Double getLoadingLatitude() {
+        return loadingLatitude;
+    }
+    
+    public void setLoadingLatitude(Double loadingLatitude) {
+        this.loadingLatitude = loadingLatitude;
+    }
+    
+    public Double getLoadingLongitude() {
+        return loadingLongitude;
+    }
+    
+    public void setLoadingLongitude(Double loadingLongitude) {
+        this.loadingLongitude = loadingLongitude;
+    }
+    
+    public Double getUnloadingLatitude() {
+        return unloadingLatitude;
+    }
+    
+    public void setUnloadingLatitude(Double unloadingLatitude) {
+        this.unloadingLatitude = unloadingLatitude;
+    }
+    
+    public Double getUnloadingLongitude() {
+        return unloadingLongitude;
+    }
+    
+    public void setUnloadingLongitude(Double unloadingLongitude) {
+        this.unloadingLongitude = unloadingLongitude;
+    }
+    
+    @JsonIgnore
+    @AssertTrue(message = "Loading latitude and longitude must be given together")
+    public boolean isLoadingLocationComplete() {
+        return (loadingLatitude == null) == (loadingLongitude == null);
+    }
+    
+    @JsonIgnore
+    @AssertTrue(message = "Unloading latitude and longitude must be given together")
+    public boolean isUnloadingLocationComplete() {
+        return (unloadingLatitude == null) == (unloadingLongitude == null);
+    }
 }
\ No newline at end of file
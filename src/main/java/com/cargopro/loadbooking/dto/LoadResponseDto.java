@@ -18,6 +18,14 @@ public class LoadResponseDto {
     private LocalDateTime datePosted;
     private LoadStatus status;
     
+    private Integer pendingBookings;
+    
+    private Integer acceptedBookings;
+    
+    private Integer rejectedBookings;
+    
+    private Long version;
+    
     // Default constructor
     public LoadResponseDto() {}
     
@@ -37,6 +45,25 @@ public class LoadResponseDto {
         this.status = status;
     }
     
+    // Flat constructor for query projections, which cannot build the nested facility themselves
+    public LoadResponseDto(UUID id, String shipperId, String loadingPoint, String unloadingPoint,
+                          LocalDateTime loadingDate, LocalDateTime unloadingDate, Double loadingLatitude,
+                          Double loadingLongitude, Double unloadingLatitude, Double unloadingLongitude,
+                          String productType, String truckType, Integer noOfTrucks, Double weight, String comment,
+                          LocalDateTime datePosted, LoadStatus status, Integer pendingBookings,
+                          Integer acceptedBookings, Integer rejectedBookings, Long version) {
+        this(id, shipperId, new FacilityDto(loadingPoint, unloadingPoint, loadingDate, unloadingDate),
+             productType, truckType, noOfTrucks, weight, comment, datePosted, status);
+        facility.setLoadingLatitude(loadingLatitude);
+        facility.setLoadingLongitude(loadingLongitude);
+        facility.setUnloadingLatitude(unloadingLatitude);
+        facility.setUnloadingLongitude(unloadingLongitude);
+        this.pendingBookings = pendingBookings;
+        this.acceptedBookings = acceptedBookings;
+        this.rejectedBookings = rejectedBookings;
+        this.version = version;
+    }
+    
     // Getters and Setters
     public UUID getId() {
         return id;
@@ -117,4 +144,36 @@ public class LoadResponseDto {
     public void setStatus(LoadStatus status) {
         this.status = status;
     }
-}
\ No newline at end of file
+    
+    public Integer getPendingBookings() {
+        return pendingBookings;
+    }
+    
+    public void setPendingBookings(Integer pendingBookings) {
+        this.pendingBookings = pendingBookings;
+    }
+    
+    public Integer getAcceptedBookings() {
+        return acceptedBookings;
+    }
+    
+    public void setAcceptedBookings(Integer acceptedBookings) {
+        this.acceptedBookings = acceptedBookings;
+    }
+    
+    public Integer getRejectedBookings() {
+        return rejectedBookings;
+    }
+    
+    public void setRejectedBookings(Integer rejectedBookings) {
+        this.rejectedBookings = rejectedBookings;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,33 @@
+package com.cargopro.loadbooking.dto;
+
+public class RowErrorDto {
+    
+    private long line;
+    private String message;
+    
+    // Default constructor
+    public RowErrorDto() {}
+    
+    // Constructor
+    public RowErrorDto(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+    
+    // Getters and Setters
+    public long getLine() {
+        return line;
+    }
+    
+    public void setLine(long line) {
+        this.line = line;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,46 @@
+package com.cargopro.loadbooking.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class TombstoneDto {
+    
+    private UUID id;
+    private UUID loadId;
+    private LocalDateTime deletedAt;
+    
+    // Default constructor
+    public TombstoneDto() {}
+    
+    // Constructor
+    public TombstoneDto(UUID id, UUID loadId, LocalDateTime deletedAt) {
+        this.id = id;
+        this.loadId = loadId;
+        this.deletedAt = deletedAt;
+    }
+    
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+    
+    public void setId(UUID id) {
+        this.id = id;
+    }
+    
+    public UUID getLoadId() {
+        return loadId;
+    }
+    
+    public void setLoadId(UUID loadId) {
+        this.loadId = loadId;
+    }
+    
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+    
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
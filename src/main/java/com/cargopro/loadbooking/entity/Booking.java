@@ -4,6 +4,9 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.GenericGenerator;
 
@@ -11,7 +14,15 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+    @Index(name = "idx_bookings_load_id", columnList = "load_id"),
+    @Index(name = "idx_bookings_transporter_id", columnList = "transporter_id"),
+    @Index(name = "idx_bookings_status", columnList = "status"),
+    @Index(name = "idx_bookings_requested_at", columnList = "requested_at"),
+    @Index(name = "idx_bookings_requested_at_id", columnList = "requested_at DESC, id DESC"),
+    @Index(name = "idx_bookings_change", columnList = "change_xid, change_seq")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "bookings")
 public class Booking {
     
     @Id
@@ -44,6 +55,20 @@ public class Booking {
     @Column(name = "requested_at", nullable = false, updatable = false)
     private LocalDateTime requestedAt;
     
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
+    // Assigned by the database on every write and not read back; see ChangeSequence
+    @ColumnDefault(ChangeSequence.NEXT_VALUE)
+    @Column(name = "change_seq", nullable = false, insertable = false, updatable = false)
+    private Long changeSeq;
+    
+    @ColumnDefault(ChangeSequence.CURRENT_TRANSACTION)
+    @Column(name = "change_xid", nullable = false, insertable = false, updatable = false)
+    private Long changeXid;
+    
     // Default constructor
     public Booking() {}
     
@@ -111,4 +136,20 @@ public class Booking {
     public void setRequestedAt(LocalDateTime requestedAt) {
         this.requestedAt = requestedAt;
     }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+    
+    public Long getChangeXid() {
+        return changeXid;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.cargopro.loadbooking.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Records that a booking was deleted, so that clients syncing changes learn about it.
+ * The tombstone is numbered from the same change sequence as loads and bookings.
+ */
+@Entity
+@Table(name = "booking_tombstones", indexes = {
+    @Index(name = "idx_booking_tombstones_change", columnList = "change_xid, change_seq")
+})
+public class BookingTombstone {
+    
+    // Also makes Hibernate create the change sequence
+    @Id
+    @SequenceGenerator(name = ChangeSequence.SEQUENCE_NAME, sequenceName = ChangeSequence.SEQUENCE_NAME,
+                       allocationSize = 1)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ChangeSequence.SEQUENCE_NAME)
+    @Column(name = "change_seq", updatable = false, nullable = false)
+    private Long changeSeq;
+    
+    @ColumnDefault(ChangeSequence.CURRENT_TRANSACTION)
+    @Column(name = "change_xid", nullable = false, insertable = false, updatable = false)
+    private Long changeXid;
+    
+    @Column(name = "booking_id", updatable = false, nullable = false)
+    private UUID bookingId;
+    
+    @Column(name = "load_id", updatable = false, nullable = false)
+    private UUID loadId;
+    
+    @CreationTimestamp
+    @Column(name = "deleted_at", nullable = false, updatable = false)
+    private LocalDateTime deletedAt;
+    
+    // Default constructor
+    public BookingTombstone() {}
+    
+    // Constructor
+    public BookingTombstone(UUID bookingId, UUID loadId) {
+        this.bookingId = bookingId;
+        this.loadId = loadId;
+    }
+    
+    // Getters and Setters
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+    
+    public Long getChangeXid() {
+        return changeXid;
+    }
+    
+    public UUID getBookingId() {
+        return bookingId;
+    }
+    
+    public void setBookingId(UUID bookingId) {
+        this.bookingId = bookingId;
+    }
+    
+    public UUID getLoadId() {
+        return loadId;
+    }
+    
+    public void setLoadId(UUID loadId) {
+        this.loadId = loadId;
+    }
+    
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+    
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
@@ -0,0 +1,25 @@
+package com.cargopro.loadbooking.entity;
+
+/**
+ * SQL for the columns that record the order of changes. Every load and booking row
+ * carries the number it was last written with and the transaction that wrote it. The
+ * database assigns both: the column defaults on insert and the {@code stamp_change}
+ * trigger in {@code schema.sql} on update. Hibernate therefore never reads them back
+ * and keeps batching the statements, and rows written with plain SQL or COPY are
+ * numbered too.
+ */
+public final class ChangeSequence {
+    
+    public static final String SEQUENCE_NAME = "change_seq";
+    
+    // For column defaults and hand-written SQL
+    public static final String NEXT_VALUE = "nextval('" + SEQUENCE_NAME + "')";
+    public static final String CURRENT_TRANSACTION = "CAST(CAST(pg_current_xact_id() AS text) AS bigint)";
+    
+    // Every transaction below this one has ended, so its changes can no longer appear or move
+    public static final String OLDEST_RUNNING_TRANSACTION =
+        "CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)";
+    
+    private ChangeSequence() {
+    }
+}
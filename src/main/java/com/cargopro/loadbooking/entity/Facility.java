@@ -21,6 +21,15 @@ public class Facility {
     @NotNull(message = "Unloading date is required")
     private LocalDateTime unloadingDate;
     
+    // Optional; the loading point's position is indexed for radius searches (idx_loads_loading_location)
+    private Double loadingLatitude;
+    
+    private Double loadingLongitude;
+    
+    private Double unloadingLatitude;
+    
+    private Double unloadingLongitude;
+    
     // Default constructor
     public Facility() {}
     
@@ -65,4 +74,36 @@ public class Facility {
     public void setUnloadingDate(LocalDateTime unloadingDate) {
         this.unloadingDate = unloadingDate;
     }
+    
+    public Double getLoadingLatitude() {
+        return loadingLatitude;
+    }
+    
+    public void setLoadingLatitude(Double loadingLatitude) {
+        this.loadingLatitude = loadingLatitude;
+    }
+    
+    public Double getLoadingLongitude() {
+        return loadingLongitude;
+    }
+    
+    public void setLoadingLongitude(Double loadingLongitude) {
+        this.loadingLongitude = loadingLongitude;
+    }
+    
+    public Double getUnloadingLatitude() {
+        return unloadingLatitude;
+    }
+    
+    public void setUnloadingLatitude(Double unloadingLatitude) {
+        this.unloadingLatitude = unloadingLatitude;
+    }
+    
+    public Double getUnloadingLongitude() {
+        return unloadingLongitude;
+    }
+    
+    public void setUnloadingLongitude(Double unloadingLongitude) {
+        this.unloadingLongitude = unloadingLongitude;
+    }
 }
\ No newline at end of file
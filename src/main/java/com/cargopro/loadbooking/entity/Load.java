@@ -3,6 +3,9 @@ package com.cargopro.loadbooking.entity;
 import jakarta.persistence.*;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.GenericGenerator;
 
@@ -12,7 +15,15 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "loads")
+@Table(name = "loads", indexes = {
+    @Index(name = "idx_loads_shipper_id", columnList = "shipper_id"),
+    @Index(name = "idx_loads_status", columnList = "status"),
+    @Index(name = "idx_loads_truck_type", columnList = "truck_type"),
+    @Index(name = "idx_loads_date_posted", columnList = "date_posted"),
+    @Index(name = "idx_loads_date_posted_id", columnList = "date_posted DESC, id DESC"),
+    @Index(name = "idx_loads_change", columnList = "change_xid, change_seq")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "loads")
 public class Load {
     
     @Id
@@ -56,7 +67,34 @@ public class Load {
     @Column(name = "status", nullable = false)
     private LoadStatus status = LoadStatus.POSTED;
     
+    @ColumnDefault("0")
+    @Column(name = "pending_bookings", nullable = false)
+    private Integer pendingBookings = 0;
+    
+    @ColumnDefault("0")
+    @Column(name = "accepted_bookings", nullable = false)
+    private Integer acceptedBookings = 0;
+    
+    @ColumnDefault("0")
+    @Column(name = "rejected_bookings", nullable = false)
+    private Integer rejectedBookings = 0;
+    
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
+    // Assigned by the database on every write and not read back; see ChangeSequence
+    @ColumnDefault(ChangeSequence.NEXT_VALUE)
+    @Column(name = "change_seq", nullable = false, insertable = false, updatable = false)
+    private Long changeSeq;
+    
+    @ColumnDefault(ChangeSequence.CURRENT_TRANSACTION)
+    @Column(name = "change_xid", nullable = false, insertable = false, updatable = false)
+    private Long changeXid;
+    
     @OneToMany(mappedBy = "load", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "load-bookings")
     private List<Booking> bookings = new ArrayList<>();
     
     // Default constructor
@@ -162,4 +200,68 @@ public class Load {
     public void setBookings(List<Booking> bookings) {
         this.bookings = bookings;
     }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+    
+    public Long getChangeXid() {
+        return changeXid;
+    }
+    
+    public Integer getPendingBookings() {
+        return pendingBookings;
+    }
+    
+    public void setPendingBookings(Integer pendingBookings) {
+        this.pendingBookings = pendingBookings;
+    }
+    
+    public Integer getAcceptedBookings() {
+        return acceptedBookings;
+    }
+    
+    public void setAcceptedBookings(Integer acceptedBookings) {
+        this.acceptedBookings = acceptedBookings;
+    }
+    
+    public Integer getRejectedBookings() {
+        return rejectedBookings;
+    }
+    
+    public void setRejectedBookings(Integer rejectedBookings) {
+        this.rejectedBookings = rejectedBookings;
+    }
+    
+    /**
+     * Adjusts the denormalized booking counter for {@code status} by {@code delta}.
+     * Callers must hold the per-load booking lock so counters stay exact.
+     */
+    public void adjustBookingCount(BookingStatus status, int delta) {
+        switch (status) {
+            case PENDING:
+                pendingBookings += delta;
+                break;
+            case ACCEPTED:
+                acceptedBookings += delta;
+                break;
+            case REJECTED:
+                rejectedBookings += delta;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown booking status: " + status);
+        }
+    }
+    
+    public boolean hasActiveBookings() {
+        return pendingBookings > 0 || acceptedBookings > 0;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.cargopro.loadbooking.exception;
+
+public class IntakeFullException extends RuntimeException {
+    
+    public IntakeFullException(String message) {
+        super(message);
+    }
+    
+    public IntakeFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
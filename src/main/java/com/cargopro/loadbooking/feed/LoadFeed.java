@@ -0,0 +1,389 @@
+package com.cargopro.loadbooking.feed;
+
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed load changes to Server-Sent Events subscribers, so that load boards
+ * do not have to poll. Each change is serialized once and numbered; subscribers only
+ * receive the changes that match their filters.
+ *
+ * <p>A subscriber holds no thread while idle. Matching events go into its bounded
+ * buffer and a small shared pool of sender threads writes them out. A subscriber whose
+ * buffer overflows is disconnected rather than slowing down everyone else, and so is
+ * one whose send has not returned within {@code send-timeout}. The sender thread stuck
+ * in that send is replaced until it returns, so other subscribers keep the full pool. The most
+ * recent {@code history-size} events are kept, so a client that reconnects with
+ * {@code Last-Event-ID} receives what it missed. If it missed more than that, it gets a
+ * {@code reset} event and should reload the board.
+ */
+@Component
+public class LoadFeed {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LoadFeed.class);
+    
+    static final String RESET_EVENT = "reset";
+    
+    public enum EventType {
+        CREATED, UPDATED, STATUS_CHANGED, CANCELLED
+    }
+    
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+    private final Event[] history;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Subscribers a sender thread is working on, including ones already dropped
+    private final Set<Subscriber> draining = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor sender;
+    private final ScheduledExecutorService heartbeat;
+    private final long firstEventId;
+    
+    // Guarded by this
+    private long lastEventId;
+    
+    @Autowired
+    public LoadFeed(ObjectMapper objectMapper,
+                    @Value("${loadbooking.feed.buffer-size:256}") int bufferSize,
+                    @Value("${loadbooking.feed.history-size:10000}") int historySize,
+                    @Value("${loadbooking.feed.sender-threads:8}") int senderThreads,
+                    @Value("${loadbooking.feed.heartbeat:30s}") Duration heartbeatInterval,
+                    @Value("${loadbooking.feed.timeout:30m}") Duration timeout,
+                    @Value("${loadbooking.feed.send-timeout:10s}") Duration sendTimeout) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.history = new Event[historySize];
+        // IDs continue from the clock, so an ID from before a restart is never mistaken for a retained event
+        this.lastEventId = System.currentTimeMillis() * 1000;
+        this.firstEventId = lastEventId + 1;
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), daemonThreads("load-feed-sender"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(daemonThreads("load-feed-heartbeat"));
+        // Lets clients and proxies see that an idle connection is still alive, and finds dead ones
+        heartbeat.scheduleAtFixedRate(() -> subscribers.forEach(Subscriber::heartbeat),
+            heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+        long checkMillis = Math.max(100, sendTimeout.toMillis() / 4);
+        heartbeat.scheduleAtFixedRate(() -> draining.forEach(Subscriber::checkSend),
+            checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Opens a subscription for loads matching the given filters; {@code null} filters
+     * match everything. A status filter matches a load that has or had that status, so
+     * subscribers also see loads leave their board. With {@code lastEventId}, the
+     * retained events after it are sent first.
+     */
+    public SseEmitter subscribe(String truckType, String shipperId, LoadStatus status, Long lastEventId) {
+        return subscribe(new SseEmitter(timeoutMillis), truckType, shipperId, status, lastEventId);
+    }
+    
+    SseEmitter subscribe(SseEmitter emitter, String truckType, String shipperId, LoadStatus status, Long lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter, new Filter(truckType, shipperId, status));
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        
+        synchronized (this) {
+            if (lastEventId != null) {
+                replay(subscriber, lastEventId);
+            }
+            subscribers.add(subscriber);
+        }
+        
+        logger.debug("Load feed subscriber added - truckType: {}, shipperId: {}, status: {}, subscribers: {}",
+                    truckType, shipperId, status, subscribers.size());
+        return emitter;
+    }
+    
+    /**
+     * Publishes a change to {@code load} once the current transaction commits, or at once
+     * outside a transaction. {@code previousStatus} is the status before the change when
+     * the change moved the load between statuses. The load is serialized at once, so it
+     * must be mapped after the change is flushed and carry the version the change wrote.
+     */
+    public void publish(EventType type, LoadResponseDto load, LoadStatus previousStatus) {
+        Event event = new Event(type, serialize(load), load.getTruckType(), load.getShipperId(), load.getStatus(),
+                                previousStatus);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broadcast(event);
+                }
+            });
+        } else {
+            broadcast(event);
+        }
+    }
+    
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        sender.shutdown();
+    }
+    
+    private synchronized void broadcast(Event event) {
+        event.id = ++lastEventId;
+        history[(int) (event.id % history.length)] = event;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.filter.matches(event)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+    
+    // Called with the lock held, so no event can be published between the replay and going live
+    private void replay(Subscriber subscriber, long afterEventId) {
+        long oldestRetained = Math.max(firstEventId, lastEventId - history.length + 1);
+        if (afterEventId < oldestRetained - 1 || afterEventId > lastEventId) {
+            subscriber.offer(Event.reset(lastEventId));
+            return;
+        }
+        List<Event> missed = new ArrayList<>();
+        for (long id = afterEventId + 1; id <= lastEventId; id++) {
+            Event event = history[(int) (id % history.length)];
+            if (subscriber.filter.matches(event)) {
+                missed.add(event);
+            }
+        }
+        if (missed.size() > bufferSize) {
+            subscriber.offer(Event.reset(lastEventId));
+            return;
+        }
+        missed.forEach(subscriber::offer);
+    }
+    
+    /**
+     * Grows or shrinks the sender pool by {@code delta} threads.
+     */
+    private void resizeSender(int delta) {
+        synchronized (sender) {
+            if (delta > 0) {
+                sender.setMaximumPoolSize(sender.getMaximumPoolSize() + delta);
+                sender.setCorePoolSize(sender.getCorePoolSize() + delta);
+            } else {
+                sender.setCorePoolSize(sender.getCorePoolSize() + delta);
+                sender.setMaximumPoolSize(sender.getMaximumPoolSize() + delta);
+            }
+        }
+    }
+    
+    private String serialize(LoadResponseDto load) {
+        try {
+            return objectMapper.writeValueAsString(load);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize load " + load.getId(), e);
+        }
+    }
+    
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    
+    /**
+     * One load change, serialized once for all subscribers.
+     */
+    private static final class Event {
+        
+        private static final Event HEARTBEAT = new Event(null, null, null, null, null, null);
+        
+        private final EventType type;
+        private final String data;
+        private final String truckType;
+        private final String shipperId;
+        private final LoadStatus status;
+        private final LoadStatus previousStatus;
+        private long id;
+        
+        Event(EventType type, String data, String truckType, String shipperId, LoadStatus status,
+              LoadStatus previousStatus) {
+            this.type = type;
+            this.data = data;
+            this.truckType = truckType;
+            this.shipperId = shipperId;
+            this.status = status;
+            this.previousStatus = previousStatus;
+        }
+        
+        static Event reset(long lastEventId) {
+            Event event = new Event(null, "{}", null, null, null, null);
+            event.id = lastEventId;
+            return event;
+        }
+        
+        SseEmitter.SseEventBuilder toSse() {
+            if (this == HEARTBEAT) {
+                return SseEmitter.event().comment("");
+            }
+            return SseEmitter.event()
+                .id(Long.toString(id))
+                .name(type != null ? type.name() : RESET_EVENT)
+                .data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+    
+    private record Filter(String truckType, String shipperId, LoadStatus status) {
+        
+        boolean matches(Event event) {
+            return (truckType == null || truckType.equals(event.truckType))
+                && (shipperId == null || shipperId.equals(event.shipperId))
+                && (status == null || status == event.status || status == event.previousStatus);
+        }
+    }
+    
+    /**
+     * One connected client with its own bounded buffer. At most one sender thread works
+     * on a subscriber at a time, so its events go out in order.
+     */
+    private final class Subscriber {
+        
+        private static final long ABANDONED = Long.MIN_VALUE;
+        
+        private final SseEmitter emitter;
+        private final Filter filter;
+        private final BlockingQueue<Event> buffer;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // When the send in progress started, 0 while none is, or ABANDONED once checkSend gave up on it
+        private final AtomicLong sendStarted = new AtomicLong();
+        private volatile boolean closed;
+        // Set when the feed drops the subscriber, which then completes the emitter once no send is in progress
+        private volatile boolean dropped;
+        
+        Subscriber(SseEmitter emitter, Filter filter) {
+            this.emitter = emitter;
+            this.filter = filter;
+            // Linked, so an idle subscriber does not hold a preallocated array
+            this.buffer = new LinkedBlockingQueue<>(bufferSize);
+        }
+        
+        void offer(Event event) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                // The client can reconnect with its Last-Event-ID and catch up from the history
+                logger.info("Dropping slow load feed subscriber after {} undelivered events", bufferSize);
+                drop();
+                return;
+            }
+            schedule();
+        }
+        
+        void heartbeat() {
+            // A full buffer already has sends pending, which detect a dead connection just as well
+            if (!closed && buffer.offer(Event.HEARTBEAT)) {
+                schedule();
+            }
+        }
+        
+        /**
+         * Drops this subscriber if a send has been in progress for longer than the send
+         * timeout, and starts a sender thread in place of the one stuck in the send.
+         */
+        void checkSend() {
+            long started = sendStarted.get();
+            if (started != 0 && started != ABANDONED && System.nanoTime() - started > sendTimeoutNanos
+                    && sendStarted.compareAndSet(started, ABANDONED)) {
+                logger.info("Dropping load feed subscriber whose send has not returned for {} ms",
+                           TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+                resizeSender(1);
+                drop();
+            }
+        }
+        
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+        
+        private void drop() {
+            dropped = true;
+            close();
+            // Completing waits for a send in progress, so it is left to the sender thread
+            schedule();
+        }
+        
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+        
+        private void drain() {
+            draining.add(this);
+            boolean abandoned = false;
+            try {
+                Event event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    long started = System.nanoTime();
+                    sendStarted.set(started);
+                    try {
+                        emitter.send(event.toSse());
+                    } finally {
+                        abandoned = !sendStarted.compareAndSet(started, 0);
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter already completed
+                close();
+            } finally {
+                draining.remove(this);
+                scheduled.set(false);
+            }
+            if (abandoned) {
+                // The send returned at last; this thread's replacement is no longer needed
+                resizeSender(-1);
+            }
+            if (dropped) {
+                emitter.complete();
+                return;
+            }
+            // An event offered after the loop ended but before the flag was cleared must not be stranded
+            if (!closed && !buffer.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.cargopro.loadbooking.geo;
+
+/**
+ * An area to search for loads in: a circle around a position or a latitude/longitude
+ * box. Every area also has a bounding box, which indexes use to pick the candidates
+ * that {@link #contains} then checks exactly. A box whose minimum longitude is greater
+ * than its maximum wraps around the antimeridian.
+ */
+public final class GeoArea {
+    
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+    
+    private static final double KM_PER_DEGREE_LATITUDE = Math.PI * EARTH_RADIUS_KM / 180;
+    
+    private final double minLatitude;
+    private final double maxLatitude;
+    private final double minLongitude;
+    private final double maxLongitude;
+    
+    // Set only for a circle
+    private final Double latitude;
+    private final Double longitude;
+    private final Double radiusKm;
+    
+    private GeoArea(double minLatitude, double maxLatitude, double minLongitude, double maxLongitude,
+                    Double latitude, Double longitude, Double radiusKm) {
+        this.minLatitude = minLatitude;
+        this.maxLatitude = maxLatitude;
+        this.minLongitude = minLongitude;
+        this.maxLongitude = maxLongitude;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.radiusKm = radiusKm;
+    }
+    
+    public static GeoArea circle(double latitude, double longitude, double radiusKm) {
+        checkLatitude(latitude);
+        checkLongitude(longitude);
+        if (!(radiusKm > 0)) {
+            throw new IllegalArgumentException("Radius must be positive");
+        }
+        double latitudeDelta = radiusKm / KM_PER_DEGREE_LATITUDE;
+        double minLatitude = latitude - latitudeDelta;
+        double maxLatitude = latitude + latitudeDelta;
+        if (minLatitude <= -90 || maxLatitude >= 90) {
+            // The circle covers a pole, so every longitude
+            return new GeoArea(Math.max(minLatitude, -90), Math.min(maxLatitude, 90), -180, 180,
+                               latitude, longitude, radiusKm);
+        }
+        // Widest at the latitude nearest the pole
+        double widest = Math.max(Math.abs(minLatitude), Math.abs(maxLatitude));
+        double longitudeDelta = latitudeDelta / Math.cos(Math.toRadians(widest));
+        if (longitudeDelta >= 180) {
+            return new GeoArea(minLatitude, maxLatitude, -180, 180, latitude, longitude, radiusKm);
+        }
+        return new GeoArea(minLatitude, maxLatitude, wrap(longitude - longitudeDelta), wrap(longitude + longitudeDelta),
+                           latitude, longitude, radiusKm);
+    }
+    
+    public static GeoArea box(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        checkLatitude(minLatitude);
+        checkLatitude(maxLatitude);
+        checkLongitude(minLongitude);
+        checkLongitude(maxLongitude);
+        if (minLatitude > maxLatitude) {
+            throw new IllegalArgumentException("Minimum latitude must not be greater than maximum latitude");
+        }
+        return new GeoArea(minLatitude, maxLatitude, minLongitude, maxLongitude, null, null, null);
+    }
+    
+    /**
+     * Builds the area described by the search parameters: a circle from {@code latitude},
+     * {@code longitude} and {@code radiusKm}, or a box from the four bounds. Returns
+     * {@code null} when none are given.
+     */
+    public static GeoArea of(Double latitude, Double longitude, Double radiusKm, Double minLatitude,
+                             Double minLongitude, Double maxLatitude, Double maxLongitude) {
+        boolean anyCircle = latitude != null || longitude != null || radiusKm != null;
+        boolean anyBox = minLatitude != null || minLongitude != null || maxLatitude != null || maxLongitude != null;
+        if (anyCircle && anyBox) {
+            throw new IllegalArgumentException("Search either a radius or a bounding box, not both");
+        }
+        if (anyCircle) {
+            if (latitude == null || longitude == null || radiusKm == null) {
+                throw new IllegalArgumentException("Latitude, longitude and radiusKm must be given together");
+            }
+            return circle(latitude, longitude, radiusKm);
+        }
+        if (anyBox) {
+            if (minLatitude == null || minLongitude == null || maxLatitude == null || maxLongitude == null) {
+                throw new IllegalArgumentException("All four bounding box coordinates must be given together");
+            }
+            return box(minLatitude, minLongitude, maxLatitude, maxLongitude);
+        }
+        return null;
+    }
+    
+    public boolean contains(double latitude, double longitude) {
+        if (latitude < minLatitude || latitude > maxLatitude || !withinLongitudes(longitude)) {
+            return false;
+        }
+        return radiusKm == null || distanceKm(this.latitude, this.longitude, latitude, longitude) <= radiusKm;
+    }
+    
+    public boolean isCircle() {
+        return radiusKm != null;
+    }
+    
+    public boolean wrapsAntimeridian() {
+        return minLongitude > maxLongitude;
+    }
+    
+    /**
+     * Great-circle distance by the haversine formula.
+     */
+    public static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double latitudeSine = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+        double longitudeSine = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double a = latitudeSine * latitudeSine
+            + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * longitudeSine * longitudeSine;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+    
+    public static void checkLatitude(double latitude) {
+        if (!(latitude >= -90 && latitude <= 90)) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90: " + latitude);
+        }
+    }
+    
+    public static void checkLongitude(double longitude) {
+        if (!(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Longitude must be between -180 and 180: " + longitude);
+        }
+    }
+    
+    private boolean withinLongitudes(double longitude) {
+        return wrapsAntimeridian()
+            ? longitude >= minLongitude || longitude <= maxLongitude
+            : longitude >= minLongitude && longitude <= maxLongitude;
+    }
+    
+    private static double wrap(double longitude) {
+        return longitude < -180 ? longitude + 360 : longitude > 180 ? longitude - 360 : longitude;
+    }
+    
+    // Getters
+    public double getMinLatitude() {
+        return minLatitude;
+    }
+    
+    public double getMaxLatitude() {
+        return maxLatitude;
+    }
+    
+    public double getMinLongitude() {
+        return minLongitude;
+    }
+    
+    public double getMaxLongitude() {
+        return maxLongitude;
+    }
+    
+    public Double getLatitude() {
+        return latitude;
+    }
+    
+    public Double getLongitude() {
+        return longitude;
+    }
+    
+    public Double getRadiusKm() {
+        return radiusKm;
+    }
+    
+    @Override
+    public String toString() {
+        return isCircle()
+            ? String.format("%.5f,%.5f within %.1f km", latitude, longitude, radiusKm)
+            : String.format("box %.5f,%.5f to %.5f,%.5f", minLatitude, minLongitude, maxLatitude, maxLongitude);
+    }
+}
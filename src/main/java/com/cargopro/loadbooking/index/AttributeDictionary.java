@@ -0,0 +1,154 @@
+package com.cargopro.loadbooking.index;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Small integer codes for the load attributes that repeat across many loads: shipper,
+ * truck type and product type. Every row read from the database brings its own copies
+ * of these strings. The in-memory indexes keep codes instead, and long-lived DTOs can
+ * share one instance of each value through {@link #intern(LoadResponseDto)}.
+ *
+ * <p>Codes are assigned in the order values are first seen, separately per attribute,
+ * and never reused, so a code stays valid after the last load with its value is gone.
+ * The dictionary only grows; it is meant for low-cardinality values, not free text.
+ * Loading and unloading points are free text, so they get no codes: interning shares
+ * only the {@value #MAX_SHARED_POINTS} points used most, and forgets the rest.
+ * Lookups do not lock.
+ */
+@Component
+public class AttributeDictionary {
+    
+    public static final int UNKNOWN = -1;
+    
+    // Stands for a filter that is not set, which matches every code
+    public static final int ANY = -2;
+    
+    // Two for each load the load cache holds by default
+    private static final long MAX_SHARED_POINTS = 20_000;
+    
+    public enum Attribute {
+        SHIPPER_ID, TRUCK_TYPE, PRODUCT_TYPE
+    }
+    
+    private final Map<Attribute, Codes> codes = new EnumMap<>(Attribute.class);
+    private final Cache<String, String> points;
+    
+    public AttributeDictionary() {
+        this(MAX_SHARED_POINTS);
+    }
+    
+    AttributeDictionary(long maxSharedPoints) {
+        for (Attribute attribute : Attribute.values()) {
+            codes.put(attribute, new Codes());
+        }
+        this.points = Caffeine.newBuilder().maximumSize(maxSharedPoints).build();
+    }
+    
+    /**
+     * Returns the code of {@code value}, assigning the next one if it is new.
+     */
+    public int encode(Attribute attribute, String value) {
+        return codes.get(attribute).encode(value);
+    }
+    
+    /**
+     * Returns the code of {@code value}, or {@link #UNKNOWN} if it has never been
+     * encoded, in which case no indexed load has it.
+     */
+    public int codeOf(Attribute attribute, String value) {
+        Integer code = codes.get(attribute).byValue.get(value);
+        return code != null ? code : UNKNOWN;
+    }
+    
+    /**
+     * Returns the code to compare with for an optional filter: {@link #ANY} for
+     * {@code null}, otherwise as {@link #codeOf}.
+     */
+    public int filterCode(Attribute attribute, String value) {
+        return value == null ? ANY : codeOf(attribute, value);
+    }
+    
+    public String decode(Attribute attribute, int code) {
+        return codes.get(attribute).values[code];
+    }
+    
+    public int size(Attribute attribute) {
+        return codes.get(attribute).byValue.size();
+    }
+    
+    /**
+     * Returns the one shared instance equal to {@code value}, or {@code null} for
+     * {@code null}.
+     */
+    public String intern(Attribute attribute, String value) {
+        return value == null ? null : decode(attribute, encode(attribute, value));
+    }
+    
+    /**
+     * Replaces the repeating strings of {@code load} with their shared instances, for
+     * DTOs that are kept around, and returns it.
+     */
+    public LoadResponseDto intern(LoadResponseDto load) {
+        load.setShipperId(intern(Attribute.SHIPPER_ID, load.getShipperId()));
+        load.setTruckType(intern(Attribute.TRUCK_TYPE, load.getTruckType()));
+        load.setProductType(intern(Attribute.PRODUCT_TYPE, load.getProductType()));
+        FacilityDto facility = load.getFacility();
+        if (facility != null) {
+            facility.setLoadingPoint(internPoint(facility.getLoadingPoint()));
+            facility.setUnloadingPoint(internPoint(facility.getUnloadingPoint()));
+        }
+        return load;
+    }
+    
+    /**
+     * The number of points currently shared.
+     */
+    long sharedPoints() {
+        points.cleanUp();
+        return points.estimatedSize();
+    }
+    
+    private String internPoint(String point) {
+        return point == null ? null : points.get(point, value -> value);
+    }
+    
+    /**
+     * The codes of one attribute. A value is stored before its code is published, so a
+     * reader that finds a code can always decode it.
+     */
+    private static final class Codes {
+        
+        private final Map<String, Integer> byValue = new ConcurrentHashMap<>();
+        private volatile String[] values = new String[64];
+        
+        int encode(String value) {
+            Integer code = byValue.get(value);
+            return code != null ? code : add(value);
+        }
+        
+        private synchronized int add(String value) {
+            Integer code = byValue.get(value);
+            if (code != null) {
+                return code;
+            }
+            int next = byValue.size();
+            String[] current = values;
+            if (next == current.length) {
+                current = Arrays.copyOf(current, next * 2);
+            }
+            current[next] = value;
+            values = current;
+            byValue.put(value, next);
+            return next;
+        }
+    }
+}
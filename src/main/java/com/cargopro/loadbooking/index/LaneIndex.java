@@ -0,0 +1,160 @@
+package com.cargopro.loadbooking.index;
+
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+
+/**
+ * POSTED loads by lane: normalized origin, destination and truck type. Each lane holds
+ * its loads newest first, so a page of a lane is read straight off the index and only
+ * the loads on that page are fetched from the database. Every load is also listed
+ * under its lane for any truck type.
+ *
+ * <p>Updates are synchronized and lookups walk the concurrent lane sets without locking,
+ * so a lookup made while a load moves between lanes may find it on neither.
+ */
+@Component
+public class LaneIndex implements LoadIndex {
+    
+    private static final Comparator<Entry> NEWEST_FIRST = Comparator.comparing(Entry::datePosted)
+        .thenComparing(Entry::id)
+        .reversed();
+    
+    private final AttributeDictionary dictionary;
+    private final Map<Lane, LaneLoads> lanes = new ConcurrentHashMap<>();
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final VersionGuard versions = new VersionGuard();
+    
+    @Autowired
+    public LaneIndex(AttributeDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+    
+    @Override
+    public synchronized void update(LoadResponseDto load) {
+        UUID id = load.getId();
+        long version = VersionGuard.versionOf(load);
+        Entry current = entries.get(id);
+        if (versions.isStale(id, version, current != null ? current.version() : null)) {
+            return;
+        }
+        
+        if (current != null) {
+            current.lane().remove(current);
+            current.anyTruckType().remove(current);
+        }
+        if (load.getStatus() == LoadStatus.POSTED) {
+            Lane lane = lane(load.getFacility().getLoadingPoint(), load.getFacility().getUnloadingPoint(),
+                             load.getTruckType());
+            // Entries point at the shared lane holders, so the normalized strings are stored once per lane
+            Entry entry = new Entry(id, load.getDatePosted(),
+                                    dictionary.encode(AttributeDictionary.Attribute.SHIPPER_ID, load.getShipperId()),
+                                    version, lanes.computeIfAbsent(lane, LaneLoads::new),
+                                    lanes.computeIfAbsent(lane.anyTruckType(), LaneLoads::new));
+            entry.lane().add(entry);
+            entry.anyTruckType().add(entry);
+            entries.put(id, entry);
+            versions.indexed(id);
+        } else {
+            entries.remove(id);
+            versions.removed(id, version);
+        }
+    }
+    
+    /**
+     * Returns one page of the POSTED loads on a lane, newest first. A {@code null} truck
+     * type, shipper or {@code filter} matches any. Filtering by shipper or by another
+     * index's {@code filter} walks the whole lane.
+     */
+    public LoadSlice find(String origin, String destination, String truckType, String shipperId,
+                          Predicate<UUID> filter, long offset, int limit) {
+        LaneLoads loads = lanes.get(lane(origin, destination, truckType));
+        int shipper = dictionary.filterCode(AttributeDictionary.Attribute.SHIPPER_ID, shipperId);
+        if (loads == null || shipper == AttributeDictionary.UNKNOWN) {
+            return new LoadSlice(List.of(), 0);
+        }
+        
+        List<UUID> ids = new ArrayList<>(Math.min(limit, 1024));
+        long matched = 0;
+        for (Entry entry : loads.entries) {
+            if ((shipper != AttributeDictionary.ANY && shipper != entry.shipper())
+                    || (filter != null && !filter.test(entry.id()))) {
+                continue;
+            }
+            if (matched >= offset && ids.size() < limit) {
+                ids.add(entry.id());
+            }
+            matched++;
+            if (shipper == AttributeDictionary.ANY && filter == null && ids.size() == limit) {
+                // Without filters the lane's size is the total
+                return new LoadSlice(ids, loads.size);
+            }
+        }
+        return new LoadSlice(ids, matched);
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    /**
+     * The form in which points and truck types are compared: trimmed and lower case.
+     */
+    public static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static Lane lane(String origin, String destination, String truckType) {
+        return new Lane(normalize(origin), normalize(destination), normalize(truckType));
+    }
+    
+    private record Lane(String origin, String destination, String truckType) {
+        
+        Lane anyTruckType() {
+            return new Lane(origin, destination, null);
+        }
+    }
+    
+    private record Entry(UUID id, LocalDateTime datePosted, int shipper, long version, LaneLoads lane,
+                         LaneLoads anyTruckType) {}
+    
+    /**
+     * The loads on one lane. Modified only under the index lock.
+     */
+    private final class LaneLoads {
+        
+        private final Lane lane;
+        private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>(NEWEST_FIRST);
+        
+        // The skip list's own size() walks every element
+        private volatile int size;
+        
+        LaneLoads(Lane lane) {
+            this.lane = lane;
+        }
+        
+        void add(Entry entry) {
+            if (entries.add(entry)) {
+                size++;
+            }
+        }
+        
+        void remove(Entry entry) {
+            if (entries.remove(entry) && --size == 0) {
+                lanes.remove(lane);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.cargopro.loadbooking.index;
+
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+
+/**
+ * An in-memory index over loads, kept current by {@link LoadIndexer}.
+ *
+ * <p>Lookups are served while updates are applied; each index says how it keeps the
+ * two apart. Updates for one load come from the thread that committed it, so two of
+ * them can arrive in the opposite order to their commits. Every index serializes its
+ * updates and checks them with a {@link VersionGuard}, which drops the older one even
+ * after the load has left the index.
+ */
+public interface LoadIndex {
+    
+    /**
+     * Applies the committed state of a load: adds it, moves it or drops it. Updates may
+     * arrive out of commit order, so an update whose version is older than the one
+     * already applied must be ignored.
+     */
+    void update(LoadResponseDto load);
+}
@@ -0,0 +1,158 @@
+package com.cargopro.loadbooking.index;
+
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.mapper.LoadMapper;
+import com.cargopro.loadbooking.repository.LoadRepository;
+import com.cargopro.loadbooking.repository.LoadSpecifications;
+import com.cargopro.loadbooking.repository.PointCount;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the in-memory {@link LoadIndex}es in step with the database. Writers pass every
+ * load they change; the indexes see it once the transaction commits, so a rollback
+ * never reaches them. On startup the indexes are filled from the open loads in the
+ * background. Until that finishes {@link #isReady()} is false and queries should go
+ * to the database instead. The {@link PointTrie} is filled from every load at the same
+ * time and counts the points of each load created after.
+ */
+@Component
+public class LoadIndexer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LoadIndexer.class);
+    
+    private final List<LoadIndex> indexes;
+    private final LoadRepository loadRepository;
+    private final LoadMapper loadMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final PointTrie pointTrie;
+    private volatile boolean ready;
+    
+    @Autowired
+    public LoadIndexer(List<LoadIndex> indexes, LoadRepository loadRepository, LoadMapper loadMapper,
+                       TransactionTemplate transactionTemplate, PointTrie pointTrie) {
+        this.indexes = indexes;
+        this.loadRepository = loadRepository;
+        this.loadMapper = loadMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.pointTrie = pointTrie;
+    }
+    
+    /**
+     * Indexes {@code load} as it is when the current transaction commits, or at once
+     * outside a transaction. The entity is read at commit, so changes flushed after this
+     * call, including the version bump, are included.
+     */
+    public void index(Load load) {
+        afterCommit(() -> index(loadMapper.toResponseDto(load)));
+    }
+    
+    /**
+     * Indexes a newly created load as {@link #index(Load)} does and counts its points.
+     */
+    public void indexCreated(Load load) {
+        afterCommit(() -> {
+            LoadResponseDto created = loadMapper.toResponseDto(load);
+            index(created);
+            pointTrie.add(created.getFacility().getLoadingPoint(), 1);
+            pointTrie.add(created.getFacility().getUnloadingPoint(), 1);
+        });
+    }
+    
+    public void index(LoadResponseDto load) {
+        for (LoadIndex index : indexes) {
+            index.update(load);
+        }
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread loader = new Thread(this::rebuild, "load-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+    
+    /**
+     * Counts the points of all loads and streams the open loads, POSTED and BOOKED, into
+     * the indexes. Writes that commit meanwhile are applied as usual; the version check
+     * in each index keeps the streamed rows from undoing them.
+     */
+    void rebuild() {
+        long started = System.nanoTime();
+        try {
+            long count = transactionTemplate.execute(status -> {
+                addPoints();
+                long indexed = 0;
+                try (Stream<LoadResponseDto> loads = loadRepository.streamViews(
+                        LoadSpecifications.hasStatusIn(EnumSet.of(LoadStatus.POSTED, LoadStatus.BOOKED)), Sort.unsorted())) {
+                    Iterator<LoadResponseDto> iterator = loads.iterator();
+                    while (iterator.hasNext()) {
+                        index(iterator.next());
+                        indexed++;
+                    }
+                }
+                return indexed;
+            });
+            ready = true;
+            logger.info("Load indexes built from {} open loads and {} points in {} ms", count, pointTrie.size(),
+                       (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            // Queries keep going to the database
+            logger.error("Building the load indexes failed", e);
+        }
+    }
+    
+    /**
+     * Adds each spelling of a point by how many loads use it, most used first, so the
+     * trie shows a point as it is most often written.
+     */
+    private void addPoints() {
+        Map<String, Long> loadsBySpelling = new HashMap<>();
+        for (PointCount count : loadRepository.countByLoadingPoint()) {
+            loadsBySpelling.merge(count.point(), count.loads(), Long::sum);
+        }
+        for (PointCount count : loadRepository.countByUnloadingPoint()) {
+            loadsBySpelling.merge(count.point(), count.loads(), Long::sum);
+        }
+        List<Map.Entry<String, Long>> spellings = new ArrayList<>(loadsBySpelling.entrySet());
+        spellings.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        for (Map.Entry<String, Long> spelling : spellings) {
+            pointTrie.add(spelling.getKey(), spelling.getValue());
+        }
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
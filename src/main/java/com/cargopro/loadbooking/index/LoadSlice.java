@@ -0,0 +1,10 @@
+package com.cargopro.loadbooking.index;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One page of load IDs from an index, in page order, and the number of loads
+ * matching in total.
+ */
+public record LoadSlice(List<UUID> ids, long total) {}
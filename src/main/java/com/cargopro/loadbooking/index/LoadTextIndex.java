@@ -0,0 +1,404 @@
+package com.cargopro.loadbooking.index;
+
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.pagination.RelevanceCursor;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An inverted index over the words of the open loads, POSTED and BOOKED: product type,
+ * loading and unloading points, and comment. Words are the runs of letters and digits,
+ * lower-cased. Every word keeps a compressed bitmap of the rows it appears in, one per
+ * field, in a sorted dictionary so that a query word also matches the words it begins.
+ *
+ * <p>A load matches when it contains every query word. Each query word scores by the best
+ * field it is found in, higher for product type than points and for points than comment,
+ * halved when it only begins a longer word, and weighted by how rare the word is. Matches
+ * are grouped by score by intersecting bitmaps, so only the rows of the groups needed for a
+ * page are read one by one. Results run by score, then newest posted first. Rarity is
+ * measured on the first page and carried in the {@link RelevanceCursor}, so a load keeps
+ * its score from page to page however many loads are written in between.
+ *
+ * <p>Searches share a read lock and updates take the write lock, as in
+ * {@link OpenLoadSnapshot}.
+ */
+@Component
+public class LoadTextIndex implements LoadIndex {
+    
+    private static final int MAX_QUERY_WORDS = 10;
+    private static final int INITIAL_ROWS = 1024;
+    private static final double PREFIX_FACTOR = 0.5;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final VersionGuard versions = new VersionGuard();
+    private final Map<UUID, Integer> rows = new HashMap<>();
+    private final RoaringBitmap freeRows = new RoaringBitmap();
+    private final NavigableMap<String, Term> terms = new TreeMap<>();
+    private final Map<LoadStatus, RoaringBitmap> byStatus = new EnumMap<>(LoadStatus.class);
+    private int rowCount;
+    
+    // Columns, indexed by row
+    private UUID[] ids = new UUID[INITIAL_ROWS];
+    private long[] rowVersions = new long[INITIAL_ROWS];
+    private LoadStatus[] statuses = new LoadStatus[INITIAL_ROWS];
+    private long[] postedTimes = new long[INITIAL_ROWS];
+    private Term[][][] rowTerms = new Term[INITIAL_ROWS][][];
+    
+    public LoadTextIndex() {
+        byStatus.put(LoadStatus.POSTED, new RoaringBitmap());
+        byStatus.put(LoadStatus.BOOKED, new RoaringBitmap());
+    }
+    
+    /**
+     * The distinct words of {@code text} in order of first appearance: runs of letters
+     * and digits, lower-cased.
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        Set<String> words = new LinkedHashSet<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean inWord = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                words.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return new ArrayList<>(words);
+    }
+    
+    /**
+     * The words of a search, which must have at least one and at most
+     * {@value #MAX_QUERY_WORDS}.
+     */
+    public static List<String> queryWords(String query) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            throw new IllegalArgumentException("Search text must contain a letter or digit");
+        }
+        if (words.size() > MAX_QUERY_WORDS) {
+            throw new IllegalArgumentException("Search text must not have more than " + MAX_QUERY_WORDS + " words");
+        }
+        return words;
+    }
+    
+    @Override
+    public void update(LoadResponseDto load) {
+        lock.writeLock().lock();
+        try {
+            UUID id = load.getId();
+            long version = VersionGuard.versionOf(load);
+            Integer row = rows.get(id);
+            if (versions.isStale(id, version, row != null ? rowVersions[row] : null)) {
+                return;
+            }
+            
+            if (row != null) {
+                unlink(row);
+            }
+            if (OpenLoadSnapshot.isOpen(load.getStatus())) {
+                int target = row != null ? row : allocate();
+                write(target, load, version);
+                rows.put(id, target);
+                versions.indexed(id);
+            } else {
+                if (row != null) {
+                    rows.remove(id);
+                    ids[row] = null;
+                    rowTerms[row] = null;
+                    freeRows.add(row);
+                }
+                versions.removed(id, version);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns up to {@code limit} of the open loads containing every word of
+     * {@code query}, best first, starting after {@code after} when it is given. A
+     * {@code null} status means both open statuses. The total counts every match,
+     * whatever the cursor.
+     *
+     * @throws IllegalArgumentException if the cursor carries weights for another query
+     */
+    public SearchResult search(String query, LoadStatus status, RelevanceCursor after, int limit) {
+        if (status != null && !OpenLoadSnapshot.isOpen(status)) {
+            throw new IllegalArgumentException("Only POSTED and BOOKED loads can be searched");
+        }
+        List<String> words = queryWords(query);
+        List<Double> frozenWeights = after != null ? after.getWeights() : List.of();
+        if (!frozenWeights.isEmpty() && frozenWeights.size() != words.size()) {
+            throw new IllegalArgumentException("Cursor does not belong to this search");
+        }
+        
+        lock.readLock().lock();
+        try {
+            RoaringBitmap candidates = status != null
+                ? byStatus.get(status)
+                : RoaringBitmap.or(byStatus.get(LoadStatus.POSTED), byStatus.get(LoadStatus.BOOKED));
+            // Matches grouped by score: each word splits every group by the tier it is found in
+            Map<Double, RoaringBitmap> groups = Map.of(0.0, candidates);
+            List<Double> weights = new ArrayList<>(words.size());
+            for (int i = 0; i < words.size(); i++) {
+                List<Tier> tiers = tiers(words.get(i));
+                double weight = frozenWeights.isEmpty() ? rarity(tiers) : frozenWeights.get(i);
+                weights.add(weight);
+                Map<Double, RoaringBitmap> split = new HashMap<>();
+                for (Map.Entry<Double, RoaringBitmap> group : groups.entrySet()) {
+                    for (Tier tier : tiers) {
+                        RoaringBitmap rowsInTier = RoaringBitmap.and(group.getValue(), tier.rows());
+                        if (!rowsInTier.isEmpty()) {
+                            split.merge(group.getKey() + tier.score() * weight, rowsInTier,
+                                        (a, b) -> RoaringBitmap.or(a, b));
+                        }
+                    }
+                }
+                groups = split;
+            }
+            
+            long total = 0;
+            for (RoaringBitmap group : groups.values()) {
+                total += group.getLongCardinality();
+            }
+            List<Double> scores = new ArrayList<>(groups.keySet());
+            scores.sort(Collections.reverseOrder());
+            List<Hit> hits = new ArrayList<>(limit);
+            for (double score : scores) {
+                if (hits.size() == limit) {
+                    break;
+                }
+                if (after != null && score > after.getScore()) {
+                    continue;
+                }
+                boolean tied = after != null && score == after.getScore();
+                collect(groups.get(score), score, tied ? after : null, limit - hits.size(), hits);
+            }
+            return new SearchResult(hits, total, weights);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Adds the newest {@code limit} rows of a group with one score to {@code hits},
+     * skipping those up to {@code after} when the cursor stopped inside this group.
+     */
+    // Called with the read lock held
+    private void collect(RoaringBitmap group, double score, RelevanceCursor after, int limit, List<Hit> hits) {
+        long afterPosted = after != null ? NewestPage.micros(after.getTimestamp()) : Long.MAX_VALUE;
+        NewestPage page = new NewestPage(0, limit);
+        PeekableIntIterator iterator = group.getIntIterator();
+        while (iterator.hasNext()) {
+            int row = iterator.next();
+            long posted = postedTimes[row];
+            if (after == null || posted < afterPosted
+                    || (posted == afterPosted && ids[row].compareTo(after.getId()) < 0)) {
+                page.offer(ids[row], posted);
+            }
+        }
+        for (UUID id : page.toSlice().ids()) {
+            hits.add(new Hit(id, score, NewestPage.dateTime(postedTimes[rows.get(id)])));
+        }
+    }
+    
+    /**
+     * The rows containing {@code word} in each field, exactly or as the start of a longer
+     * word, with the score each earns before weighting. A row appears only in its best tier.
+     */
+    // Called with the read lock held
+    private List<Tier> tiers(String word) {
+        Term exact = terms.get(word);
+        Collection<Term> longer = terms.subMap(word, false, word + Character.MAX_VALUE, false).values();
+        List<Tier> tiers = new ArrayList<>(Field.values().length * 2);
+        for (Field field : Field.values()) {
+            if (exact != null && !exact.rows[field.ordinal()].isEmpty()) {
+                tiers.add(new Tier(field.weight, exact.rows[field.ordinal()]));
+            }
+            List<RoaringBitmap> prefixed = new ArrayList<>();
+            for (Term term : longer) {
+                if (!term.rows[field.ordinal()].isEmpty()) {
+                    prefixed.add(term.rows[field.ordinal()]);
+                }
+            }
+            if (!prefixed.isEmpty()) {
+                RoaringBitmap rowsWithPrefix = FastAggregation.or(prefixed.iterator());
+                tiers.add(new Tier(field.weight * PREFIX_FACTOR, rowsWithPrefix));
+            }
+        }
+        tiers.sort(Comparator.comparingDouble(Tier::score).reversed());
+        List<Tier> disjoint = new ArrayList<>(tiers.size());
+        RoaringBitmap seen = new RoaringBitmap();
+        for (Tier tier : tiers) {
+            RoaringBitmap unseen = RoaringBitmap.andNot(tier.rows(), seen);
+            seen.or(tier.rows());
+            if (!unseen.isEmpty()) {
+                disjoint.add(new Tier(tier.score(), unseen));
+            }
+        }
+        return disjoint;
+    }
+    
+    /**
+     * How much a word found in the rows of {@code tiers} counts: rarer words count for more.
+     */
+    // Called with the read lock held
+    private double rarity(List<Tier> tiers) {
+        long matching = 0;
+        for (Tier tier : tiers) {
+            matching += tier.rows().getLongCardinality();
+        }
+        return matching == 0 ? 0 : Math.log(1 + (double) rows.size() / matching);
+    }
+    
+    private void write(int row, LoadResponseDto load, long version) {
+        ids[row] = load.getId();
+        rowVersions[row] = version;
+        statuses[row] = load.getStatus();
+        postedTimes[row] = NewestPage.micros(load.getDatePosted());
+        rowTerms[row] = new Term[Field.values().length][];
+        for (Field field : Field.values()) {
+            List<String> words = tokenize(field.text(load));
+            Term[] fieldTerms = new Term[words.size()];
+            for (int i = 0; i < fieldTerms.length; i++) {
+                fieldTerms[i] = terms.computeIfAbsent(words.get(i), Term::new);
+                fieldTerms[i].rows[field.ordinal()].add(row);
+            }
+            rowTerms[row][field.ordinal()] = fieldTerms;
+        }
+        byStatus.get(statuses[row]).add(row);
+    }
+    
+    private void unlink(int row) {
+        byStatus.get(statuses[row]).remove(row);
+        for (Field field : Field.values()) {
+            for (Term term : rowTerms[row][field.ordinal()]) {
+                term.rows[field.ordinal()].remove(row);
+                if (term.isEmpty()) {
+                    terms.remove(term.word);
+                }
+            }
+        }
+    }
+    
+    private int allocate() {
+        if (!freeRows.isEmpty()) {
+            int row = freeRows.first();
+            freeRows.remove(row);
+            return row;
+        }
+        if (rowCount == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            rowVersions = Arrays.copyOf(rowVersions, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            postedTimes = Arrays.copyOf(postedTimes, capacity);
+            rowTerms = Arrays.copyOf(rowTerms, capacity);
+        }
+        return rowCount++;
+    }
+    
+    /**
+     * The searchable fields of a load, with how much a word found in each counts.
+     */
+    private enum Field {
+        PRODUCT_TYPE(3) {
+            @Override
+            String text(LoadResponseDto load) {
+                return load.getProductType();
+            }
+        },
+        POINTS(2) {
+            @Override
+            String text(LoadResponseDto load) {
+                return load.getFacility().getLoadingPoint() + " " + load.getFacility().getUnloadingPoint();
+            }
+        },
+        COMMENT(1) {
+            @Override
+            String text(LoadResponseDto load) {
+                return load.getComment();
+            }
+        };
+        
+        private final double weight;
+        
+        Field(double weight) {
+            this.weight = weight;
+        }
+        
+        abstract String text(LoadResponseDto load);
+    }
+    
+    private static final class Term {
+        
+        private final String word;
+        private final RoaringBitmap[] rows = new RoaringBitmap[Field.values().length];
+        
+        Term(String word) {
+            this.word = word;
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = new RoaringBitmap();
+            }
+        }
+        
+        boolean isEmpty() {
+            for (RoaringBitmap fieldRows : rows) {
+                if (!fieldRows.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+    
+    private record Tier(double score, RoaringBitmap rows) {}
+    
+    /**
+     * A matching load, its score and when it was posted, which together place it in the results.
+     */
+    public record Hit(UUID id, double score, LocalDateTime posted) {}
+    
+    /**
+     * One page of matches, best first, the number of loads matching in total, and the
+     * weight each query word was scored with, for the cursor of the next page.
+     */
+    public record SearchResult(List<Hit> hits, long total, List<Double> weights) {}
+}
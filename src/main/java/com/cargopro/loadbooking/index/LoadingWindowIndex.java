@@ -0,0 +1,169 @@
+package com.cargopro.loadbooking.index;
+
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+/**
+ * POSTED loads by loading window, the time from a load's loading date to its unloading
+ * date. Loads are kept in buckets by the day their window starts, and each bucket knows
+ * the latest end of any window in it. A query for the loads whose window overlaps
+ * {@code [from, to]} only opens the buckets starting by {@code to} that reach
+ * {@code from}, so the work follows the loads around the window rather than the board.
+ *
+ * <p>Updates are synchronized and lookups walk the buckets without locking. A bucket's
+ * latest end is raised after a load is added, so a lookup may skip a load being added
+ * but never one already there.
+ */
+@Component
+public class LoadingWindowIndex implements LoadIndex {
+    
+    private static final long MICROS_PER_DAY = 86_400_000_000L;
+    
+    private final AttributeDictionary dictionary;
+    private final NavigableMap<Long, Bucket> buckets = new ConcurrentSkipListMap<>();
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final VersionGuard versions = new VersionGuard();
+    
+    @Autowired
+    public LoadingWindowIndex(AttributeDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+    
+    @Override
+    public synchronized void update(LoadResponseDto load) {
+        UUID id = load.getId();
+        long version = VersionGuard.versionOf(load);
+        Entry current = entries.get(id);
+        if (versions.isStale(id, version, current != null ? current.version() : null)) {
+            return;
+        }
+        
+        if (current != null) {
+            current.bucket().remove(current);
+        }
+        if (load.getStatus() == LoadStatus.POSTED) {
+            LocalDateTime loadingDate = load.getFacility().getLoadingDate();
+            LocalDateTime unloadingDate = load.getFacility().getUnloadingDate();
+            // A window entered backwards runs from the earlier date to the later, as in the database
+            long start = NewestPage.micros(loadingDate.isAfter(unloadingDate) ? unloadingDate : loadingDate);
+            long end = NewestPage.micros(loadingDate.isAfter(unloadingDate) ? loadingDate : unloadingDate);
+            Bucket bucket = buckets.computeIfAbsent(day(start), Bucket::new);
+            Entry entry = new Entry(id, start, end, NewestPage.micros(load.getDatePosted()),
+                                    dictionary.encode(AttributeDictionary.Attribute.SHIPPER_ID, load.getShipperId()),
+                                    dictionary.encode(AttributeDictionary.Attribute.TRUCK_TYPE, load.getTruckType()),
+                                    version, bucket);
+            entry.bucket().add(entry);
+            entries.put(id, entry);
+            versions.indexed(id);
+        } else {
+            entries.remove(id);
+            versions.removed(id, version);
+        }
+    }
+    
+    /**
+     * Returns one page, newest first, of the POSTED loads whose window overlaps
+     * {@code [from, to]}. A {@code null} bound, shipper, truck type or {@code filter}
+     * matches any.
+     */
+    public LoadSlice find(LocalDateTime from, LocalDateTime to, String shipperId, String truckType,
+                          Predicate<UUID> filter, long offset, int limit) {
+        long fromMicros = from != null ? NewestPage.micros(from) : Long.MIN_VALUE;
+        long toMicros = to != null ? NewestPage.micros(to) : Long.MAX_VALUE;
+        int shipper = dictionary.filterCode(AttributeDictionary.Attribute.SHIPPER_ID, shipperId);
+        int truck = dictionary.filterCode(AttributeDictionary.Attribute.TRUCK_TYPE, truckType);
+        if (shipper == AttributeDictionary.UNKNOWN || truck == AttributeDictionary.UNKNOWN) {
+            return new LoadSlice(List.of(), 0);
+        }
+        NewestPage page = new NewestPage(offset, limit);
+        Map<Long, Bucket> candidates = to == null ? buckets : buckets.headMap(day(toMicros), true);
+        for (Bucket bucket : candidates.values()) {
+            if (bucket.latestEnd < fromMicros) {
+                continue;
+            }
+            for (Entry entry : bucket.entries) {
+                if (entry.overlaps(fromMicros, toMicros)
+                        && (shipper == AttributeDictionary.ANY || shipper == entry.shipper())
+                        && (truck == AttributeDictionary.ANY || truck == entry.truckType())
+                        && (filter == null || filter.test(entry.id()))) {
+                    page.offer(entry.id(), entry.posted());
+                }
+            }
+        }
+        return page.toSlice();
+    }
+    
+    /**
+     * Matches the IDs of the POSTED loads whose window overlaps {@code [from, to]}, for
+     * narrowing down another index's results.
+     */
+    public Predicate<UUID> overlapping(LocalDateTime from, LocalDateTime to) {
+        long fromMicros = from != null ? NewestPage.micros(from) : Long.MIN_VALUE;
+        long toMicros = to != null ? NewestPage.micros(to) : Long.MAX_VALUE;
+        return id -> {
+            Entry entry = entries.get(id);
+            return entry != null && entry.overlaps(fromMicros, toMicros);
+        };
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    private static long day(long micros) {
+        return Math.floorDiv(micros, MICROS_PER_DAY);
+    }
+    
+    private record Entry(UUID id, long start, long end, long posted, int shipper, int truckType, long version,
+                         Bucket bucket) {
+        
+        // Both windows are closed, so touching at a single moment counts
+        boolean overlaps(long from, long to) {
+            return start <= to && end >= from;
+        }
+    }
+    
+    /**
+     * The loads whose window starts on one day. Modified only under the index lock.
+     */
+    private final class Bucket {
+        
+        private final long day;
+        private final Set<Entry> entries = ConcurrentHashMap.newKeySet();
+        
+        // Never earlier than the end of any window in the bucket
+        private volatile long latestEnd = Long.MIN_VALUE;
+        
+        Bucket(long day) {
+            this.day = day;
+        }
+        
+        void add(Entry entry) {
+            entries.add(entry);
+            if (entry.end() > latestEnd) {
+                latestEnd = entry.end();
+            }
+        }
+        
+        void remove(Entry entry) {
+            entries.remove(entry);
+            if (entries.isEmpty()) {
+                buckets.remove(day);
+            } else if (entry.end() == latestEnd) {
+                latestEnd = entries.stream().mapToLong(Entry::end).max().orElse(Long.MIN_VALUE);
+            }
+        }
+    }
+}
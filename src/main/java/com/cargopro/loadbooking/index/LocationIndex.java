@@ -0,0 +1,273 @@
+package com.cargopro.loadbooking.index;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.geo.GeoArea;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * POSTED loads by the position of their loading point, for finding loads near a truck.
+ * Positions fall into the cells of a four-character geohash, a grid of 1024 by 1024
+ * cells of about 20 by 39 km at the equator. A query only reads the cells under the
+ * area's bounding box and checks the exact distance of the loads in them. Each cell
+ * keeps its positions in plain arrays, so that check reads them one after another
+ * rather than visiting every load. Loads without coordinates are not indexed.
+ *
+ * <p>Updates are synchronized. A cell holds its loads in chunks of at most
+ * {@value #CHUNK_SIZE}, and an update replaces the chunks it changes and the cell's list
+ * of them rather than change them, so lookups read the cells without locking. A cell
+ * where tens of thousands of loads cluster, such as a port, costs an update no more than
+ * a quiet one.
+ */
+@Component
+public class LocationIndex implements LoadIndex {
+    
+    private static final int CELLS_PER_AXIS = 1024;
+    private static final double CELL_LATITUDE = 180.0 / CELLS_PER_AXIS;
+    private static final double CELL_LONGITUDE = 360.0 / CELLS_PER_AXIS;
+    
+    // Beyond this many cells, walking every load is cheaper than probing the cells
+    private static final int MAX_PROBED_CELLS = 4096;
+    
+    static final int CHUNK_SIZE = 256;
+    
+    private final AttributeDictionary dictionary;
+    private final Map<Integer, Cell> cells = new ConcurrentHashMap<>();
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final VersionGuard versions = new VersionGuard();
+    
+    @Autowired
+    public LocationIndex(AttributeDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+    
+    @Override
+    public synchronized void update(LoadResponseDto load) {
+        UUID id = load.getId();
+        long version = VersionGuard.versionOf(load);
+        Entry current = entries.get(id);
+        if (versions.isStale(id, version, current != null ? current.version() : null)) {
+            return;
+        }
+        
+        if (current != null) {
+            unlink(current);
+        }
+        FacilityDto facility = load.getFacility();
+        if (load.getStatus() == LoadStatus.POSTED && facility.getLoadingLatitude() != null
+                && facility.getLoadingLongitude() != null) {
+            double latitude = facility.getLoadingLatitude();
+            double longitude = facility.getLoadingLongitude();
+            Entry entry = new Entry(id, latitude, longitude, NewestPage.micros(load.getDatePosted()),
+                                    dictionary.encode(AttributeDictionary.Attribute.SHIPPER_ID, load.getShipperId()),
+                                    dictionary.encode(AttributeDictionary.Attribute.TRUCK_TYPE, load.getTruckType()),
+                                    version, cell(row(latitude), column(longitude)));
+            cells.computeIfAbsent(entry.cell(), key -> new Cell()).add(entry);
+            entries.put(id, entry);
+        } else {
+            entries.remove(id);
+        }
+        // A load that loses its coordinates leaves the index like a booked one
+        if (entries.containsKey(id)) {
+            versions.indexed(id);
+        } else {
+            versions.removed(id, version);
+        }
+    }
+    
+    /**
+     * Returns one page, newest first, of the POSTED loads whose loading point lies in
+     * {@code area}. A {@code null} shipper, truck type or {@code filter} matches any.
+     */
+    public LoadSlice find(GeoArea area, String shipperId, String truckType, Predicate<UUID> filter,
+                          long offset, int limit) {
+        int shipper = dictionary.filterCode(AttributeDictionary.Attribute.SHIPPER_ID, shipperId);
+        int truck = dictionary.filterCode(AttributeDictionary.Attribute.TRUCK_TYPE, truckType);
+        if (shipper == AttributeDictionary.UNKNOWN || truck == AttributeDictionary.UNKNOWN) {
+            return new LoadSlice(List.of(), 0);
+        }
+        NewestPage page = new NewestPage(offset, limit);
+        Predicate<Entry> matches = entry -> (shipper == AttributeDictionary.ANY || shipper == entry.shipper())
+            && (truck == AttributeDictionary.ANY || truck == entry.truckType())
+            && (filter == null || filter.test(entry.id()));
+        
+        int minRow = row(area.getMinLatitude());
+        int maxRow = row(area.getMaxLatitude());
+        int minColumn = column(area.getMinLongitude());
+        int maxColumn = column(area.getMaxLongitude());
+        int columns = area.wrapsAntimeridian() ? CELLS_PER_AXIS - minColumn + maxColumn + 1 : maxColumn - minColumn + 1;
+        if ((long) (maxRow - minRow + 1) * columns > MAX_PROBED_CELLS) {
+            for (Entry entry : entries.values()) {
+                if (area.contains(entry.latitude(), entry.longitude()) && matches.test(entry)) {
+                    page.offer(entry.id(), entry.posted());
+                }
+            }
+            return page.toSlice();
+        }
+        
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int i = 0; i < columns; i++) {
+                Cell cell = cells.get(cell(row, (minColumn + i) % CELLS_PER_AXIS));
+                if (cell == null) {
+                    continue;
+                }
+                for (Chunk chunk : cell.chunks) {
+                    for (int j = 0; j < chunk.entries.length; j++) {
+                        if (area.contains(chunk.latitudes[j], chunk.longitudes[j]) && matches.test(chunk.entries[j])) {
+                            page.offer(chunk.entries[j].id(), chunk.entries[j].posted());
+                        }
+                    }
+                }
+            }
+        }
+        return page.toSlice();
+    }
+    
+    /**
+     * Matches the IDs of the POSTED loads whose loading point lies in {@code area}, for
+     * narrowing down another index's results.
+     */
+    public Predicate<UUID> within(GeoArea area) {
+        return id -> {
+            Entry entry = entries.get(id);
+            return entry != null && area.contains(entry.latitude(), entry.longitude());
+        };
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    private void unlink(Entry entry) {
+        Cell cell = cells.get(entry.cell());
+        cell.remove(entry);
+        if (cell.size() == 0) {
+            cells.remove(entry.cell());
+        }
+    }
+    
+    private static int row(double latitude) {
+        return Math.min((int) ((latitude + 90) / CELL_LATITUDE), CELLS_PER_AXIS - 1);
+    }
+    
+    private static int column(double longitude) {
+        return Math.min((int) ((longitude + 180) / CELL_LONGITUDE), CELLS_PER_AXIS - 1);
+    }
+    
+    private static int cell(int row, int column) {
+        return row * CELLS_PER_AXIS + column;
+    }
+    
+    private record Entry(UUID id, double latitude, double longitude, long posted, int shipper, int truckType,
+                         long version, int cell) {}
+    
+    /**
+     * The loads in one cell. Lookups read {@link #chunks}, which an update replaces along
+     * with the chunks it changes, so a lookup always sees a consistent cell. Changed only
+     * under the index's lock.
+     */
+    private static final class Cell {
+        
+        volatile Chunk[] chunks = new Chunk[0];
+        // Where each load is, as chunk * CHUNK_SIZE + position; read by updates only
+        private final Map<UUID, Integer> slots = new HashMap<>();
+        
+        int size() {
+            return slots.size();
+        }
+        
+        /**
+         * Appends {@code entry} to the last chunk, or starts a new chunk if it is full.
+         */
+        void add(Entry entry) {
+            Chunk[] current = chunks;
+            int last = current.length - 1;
+            Chunk[] changed;
+            if (last >= 0 && current[last].entries.length < CHUNK_SIZE) {
+                changed = current.clone();
+                changed[last] = current[last].with(entry);
+                slots.put(entry.id(), last * CHUNK_SIZE + current[last].entries.length);
+            } else {
+                changed = Arrays.copyOf(current, current.length + 1);
+                changed[last + 1] = Chunk.of(entry);
+                slots.put(entry.id(), (last + 1) * CHUNK_SIZE);
+            }
+            chunks = changed;
+        }
+        
+        /**
+         * Moves the cell's last entry into the slot of {@code entry}, so that only that
+         * chunk and the last one change.
+         */
+        void remove(Entry entry) {
+            int slot = slots.remove(entry.id());
+            Chunk[] current = chunks;
+            int lastChunk = current.length - 1;
+            Chunk last = current[lastChunk];
+            Entry moved = last.entries[last.entries.length - 1];
+            Chunk shortened = last.withoutLast();
+            Chunk[] changed = shortened == null ? Arrays.copyOf(current, lastChunk) : current.clone();
+            if (shortened != null) {
+                changed[lastChunk] = shortened;
+            }
+            if (moved != entry) {
+                int chunk = slot / CHUNK_SIZE;
+                changed[chunk] = changed[chunk].replace(slot % CHUNK_SIZE, moved);
+                slots.put(moved.id(), slot);
+            }
+            chunks = changed;
+        }
+    }
+    
+    /**
+     * Up to {@value #CHUNK_SIZE} loads of a cell, their positions side by side in plain
+     * arrays. Never changed once built.
+     */
+    private static final class Chunk {
+        
+        final Entry[] entries;
+        final double[] latitudes;
+        final double[] longitudes;
+        
+        private Chunk(Entry[] entries) {
+            this.entries = entries;
+            this.latitudes = new double[entries.length];
+            this.longitudes = new double[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                latitudes[i] = entries[i].latitude();
+                longitudes[i] = entries[i].longitude();
+            }
+        }
+        
+        static Chunk of(Entry entry) {
+            return new Chunk(new Entry[] {entry});
+        }
+        
+        Chunk with(Entry entry) {
+            Entry[] added = Arrays.copyOf(entries, entries.length + 1);
+            added[entries.length] = entry;
+            return new Chunk(added);
+        }
+        
+        Chunk replace(int position, Entry entry) {
+            Entry[] replaced = entries.clone();
+            replaced[position] = entry;
+            return new Chunk(replaced);
+        }
+        
+        // Null when that leaves the chunk empty
+        Chunk withoutLast() {
+            return entries.length == 1 ? null : new Chunk(Arrays.copyOf(entries, entries.length - 1));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.cargopro.loadbooking.index;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Collects one page of matches, newest posted first, from matches offered in any order.
+ * Only the matches up to the end of the page are kept while the rest are counted.
+ */
+final class NewestPage {
+    
+    private static final Comparator<Match> NEWEST_FIRST = Comparator.comparingLong(Match::posted)
+        .thenComparing(Match::id)
+        .reversed();
+    
+    private final long offset;
+    private final int keep;
+    // Ordered oldest first, so the head is the match a newer one replaces once a page's worth are kept
+    private final PriorityQueue<Match> newest = new PriorityQueue<>(NEWEST_FIRST.reversed());
+    private long total;
+    
+    NewestPage(long offset, int limit) {
+        this.offset = offset;
+        this.keep = (int) Math.min(offset + limit, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Offers a match posted at {@code posted}, as given by {@link #micros}.
+     */
+    void offer(UUID id, long posted) {
+        total++;
+        if (newest.size() < keep) {
+            newest.add(new Match(id, posted));
+            return;
+        }
+        Match oldest = newest.peek();
+        if (oldest != null && (posted > oldest.posted() || (posted == oldest.posted() && id.compareTo(oldest.id()) > 0))) {
+            newest.poll();
+            newest.add(new Match(id, posted));
+        }
+    }
+    
+    LoadSlice toSlice() {
+        List<Match> kept = new ArrayList<>(newest);
+        kept.sort(NEWEST_FIRST);
+        List<UUID> ids = new ArrayList<>(Math.max(0, kept.size() - (int) Math.min(offset, kept.size())));
+        for (int i = (int) Math.min(offset, kept.size()); i < kept.size(); i++) {
+            ids.add(kept.get(i).id());
+        }
+        return new LoadSlice(ids, total);
+    }
+    
+    /**
+     * A time as a plain number, so that indexes compare times without reaching into
+     * separate objects. Microseconds, the precision PostgreSQL stores them with.
+     */
+    static long micros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+    
+    /**
+     * The time {@link #micros} turned into {@code micros}.
+     */
+    static LocalDateTime dateTime(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                                           (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+    
+    private record Match(UUID id, long posted) {}
+}
@@ -0,0 +1,287 @@
+package com.cargopro.loadbooking.index;
+
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * The open loads, POSTED and BOOKED, stored column by column for answering board
+ * queries without the database. Each load takes one row of a set of primitive arrays,
+ * with shipper, truck type and product type stored as {@link AttributeDictionary}
+ * codes. Every status
+ * and every code has a compressed bitmap of its rows, and so does every weight bin, a
+ * quarter of a doubling of weight wide. Filters and weight ranges are answered by
+ * intersecting bitmaps, and only the rows left are checked against the exact weight
+ * and the date columns. The row of a load that leaves is reused by the next one.
+ *
+ * <p>Bitmaps cannot be read while they change, so lookups share a read lock and
+ * updates take the write lock.
+ */
+@Component
+public class OpenLoadSnapshot implements LoadIndex {
+    
+    private static final int INITIAL_ROWS = 1024;
+    
+    private final AttributeDictionary dictionary;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final VersionGuard versions = new VersionGuard();
+    private final Map<UUID, Integer> rows = new HashMap<>();
+    private final RoaringBitmap freeRows = new RoaringBitmap();
+    private int rowCount;
+    
+    // Columns, indexed by row
+    private UUID[] ids = new UUID[INITIAL_ROWS];
+    private long[] rowVersions = new long[INITIAL_ROWS];
+    private LoadStatus[] statuses = new LoadStatus[INITIAL_ROWS];
+    private int[] shippers = new int[INITIAL_ROWS];
+    private int[] truckTypes = new int[INITIAL_ROWS];
+    private int[] productTypes = new int[INITIAL_ROWS];
+    private double[] weights = new double[INITIAL_ROWS];
+    private long[] windowStarts = new long[INITIAL_ROWS];
+    private long[] windowEnds = new long[INITIAL_ROWS];
+    private long[] postedTimes = new long[INITIAL_ROWS];
+    
+    // Rows by status and by dictionary code
+    private final Map<LoadStatus, RoaringBitmap> byStatus = new EnumMap<>(LoadStatus.class);
+    private final List<RoaringBitmap> byShipper = new ArrayList<>();
+    private final List<RoaringBitmap> byTruckType = new ArrayList<>();
+    private final List<RoaringBitmap> byProductType = new ArrayList<>();
+    private final NavigableMap<Integer, RoaringBitmap> byWeightBin = new TreeMap<>();
+    
+    @Autowired
+    public OpenLoadSnapshot(AttributeDictionary dictionary) {
+        this.dictionary = dictionary;
+        byStatus.put(LoadStatus.POSTED, new RoaringBitmap());
+        byStatus.put(LoadStatus.BOOKED, new RoaringBitmap());
+    }
+    
+    /**
+     * Whether loads with {@code status} are kept in the snapshot.
+     */
+    public static boolean isOpen(LoadStatus status) {
+        return status == LoadStatus.POSTED || status == LoadStatus.BOOKED;
+    }
+    
+    @Override
+    public void update(LoadResponseDto load) {
+        lock.writeLock().lock();
+        try {
+            UUID id = load.getId();
+            long version = VersionGuard.versionOf(load);
+            Integer row = rows.get(id);
+            if (versions.isStale(id, version, row != null ? rowVersions[row] : null)) {
+                return;
+            }
+            
+            if (row != null) {
+                unlink(row);
+            }
+            if (isOpen(load.getStatus())) {
+                int target = row != null ? row : allocate();
+                write(target, load, version);
+                rows.put(id, target);
+                versions.indexed(id);
+            } else {
+                if (row != null) {
+                    rows.remove(id);
+                    ids[row] = null;
+                    freeRows.add(row);
+                }
+                versions.removed(id, version);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns one page, newest first, of the open loads matching every given filter; a
+     * {@code null} filter matches any. A {@code null} status means both open statuses.
+     * The weight range is inclusive, and the loading window must overlap
+     * {@code [from, to]} as in {@link LoadingWindowIndex}.
+     */
+    public LoadSlice find(LoadStatus status, String shipperId, String truckType, String productType,
+                          Double minWeight, Double maxWeight, LocalDateTime from, LocalDateTime to,
+                          long offset, int limit) {
+        if (status != null && !isOpen(status)) {
+            throw new IllegalArgumentException("Only POSTED and BOOKED loads are in the snapshot");
+        }
+        double lightest = minWeight != null ? minWeight : Double.NEGATIVE_INFINITY;
+        double heaviest = maxWeight != null ? maxWeight : Double.POSITIVE_INFINITY;
+        long fromMicros = from != null ? NewestPage.micros(from) : Long.MIN_VALUE;
+        long toMicros = to != null ? NewestPage.micros(to) : Long.MAX_VALUE;
+        boolean anyWindow = from != null || to != null;
+        NewestPage page = new NewestPage(offset, limit);
+        
+        lock.readLock().lock();
+        try {
+            RoaringBitmap candidates = candidates(status, shipperId, truckType, productType, minWeight, maxWeight);
+            PeekableIntIterator iterator = candidates.getIntIterator();
+            while (iterator.hasNext()) {
+                int row = iterator.next();
+                if (weights[row] >= lightest && weights[row] <= heaviest
+                        && (!anyWindow || (windowStarts[row] <= toMicros && windowEnds[row] >= fromMicros))) {
+                    page.offer(ids[row], postedTimes[row]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return page.toSlice();
+    }
+    
+    /**
+     * Matches the IDs of the open loads with {@code productType} and a weight in
+     * {@code [minWeight, maxWeight]}, for narrowing down another index's results. A
+     * {@code null} filter matches any.
+     */
+    public Predicate<UUID> matching(String productType, Double minWeight, Double maxWeight) {
+        double lightest = minWeight != null ? minWeight : Double.NEGATIVE_INFINITY;
+        double heaviest = maxWeight != null ? maxWeight : Double.POSITIVE_INFINITY;
+        int productTypeCode = dictionary.filterCode(AttributeDictionary.Attribute.PRODUCT_TYPE, productType);
+        return id -> {
+            lock.readLock().lock();
+            try {
+                Integer row = rows.get(id);
+                return row != null
+                    && (productTypeCode == AttributeDictionary.ANY || productTypes[row] == productTypeCode)
+                    && weights[row] >= lightest && weights[row] <= heaviest;
+            } finally {
+                lock.readLock().unlock();
+            }
+        };
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Called with the read lock held
+    private RoaringBitmap candidates(LoadStatus status, String shipperId, String truckType, String productType,
+                                     Double minWeight, Double maxWeight) {
+        List<RoaringBitmap> filters = new ArrayList<>(5);
+        filters.add(status != null
+            ? byStatus.get(status)
+            : RoaringBitmap.or(byStatus.get(LoadStatus.POSTED), byStatus.get(LoadStatus.BOOKED)));
+        if (shipperId != null) {
+            filters.add(rowsOf(AttributeDictionary.Attribute.SHIPPER_ID, byShipper, shipperId));
+        }
+        if (truckType != null) {
+            filters.add(rowsOf(AttributeDictionary.Attribute.TRUCK_TYPE, byTruckType, truckType));
+        }
+        if (productType != null) {
+            filters.add(rowsOf(AttributeDictionary.Attribute.PRODUCT_TYPE, byProductType, productType));
+        }
+        if (minWeight != null || maxWeight != null) {
+            // The bins at either end also hold rows just outside the range, which the caller checks
+            int lowest = minWeight != null ? weightBin(minWeight) : Integer.MIN_VALUE;
+            int highest = maxWeight != null ? weightBin(maxWeight) : Integer.MAX_VALUE;
+            Collection<RoaringBitmap> bins = byWeightBin.subMap(lowest, true, highest, true).values();
+            filters.add(bins.isEmpty() ? new RoaringBitmap() : FastAggregation.or(bins.iterator()));
+        }
+        return filters.size() == 1 ? filters.get(0) : FastAggregation.and(filters.toArray(new RoaringBitmap[0]));
+    }
+    
+    private RoaringBitmap rowsOf(AttributeDictionary.Attribute attribute, List<RoaringBitmap> bitmaps, String value) {
+        int code = dictionary.codeOf(attribute, value);
+        // Codes are shared with other indexes, so a known value may have no rows here
+        return code != AttributeDictionary.UNKNOWN && code < bitmaps.size() ? bitmaps.get(code) : new RoaringBitmap();
+    }
+    
+    private void write(int row, LoadResponseDto load, long version) {
+        LocalDateTime loadingDate = load.getFacility().getLoadingDate();
+        LocalDateTime unloadingDate = load.getFacility().getUnloadingDate();
+        ids[row] = load.getId();
+        rowVersions[row] = version;
+        statuses[row] = load.getStatus();
+        shippers[row] = encode(AttributeDictionary.Attribute.SHIPPER_ID, byShipper, load.getShipperId());
+        truckTypes[row] = encode(AttributeDictionary.Attribute.TRUCK_TYPE, byTruckType, load.getTruckType());
+        productTypes[row] = encode(AttributeDictionary.Attribute.PRODUCT_TYPE, byProductType, load.getProductType());
+        weights[row] = load.getWeight();
+        // A window entered backwards runs from the earlier date to the later, as in the database
+        windowStarts[row] = NewestPage.micros(loadingDate.isAfter(unloadingDate) ? unloadingDate : loadingDate);
+        windowEnds[row] = NewestPage.micros(loadingDate.isAfter(unloadingDate) ? loadingDate : unloadingDate);
+        postedTimes[row] = NewestPage.micros(load.getDatePosted());
+        
+        byStatus.get(statuses[row]).add(row);
+        byShipper.get(shippers[row]).add(row);
+        byTruckType.get(truckTypes[row]).add(row);
+        byProductType.get(productTypes[row]).add(row);
+        byWeightBin.computeIfAbsent(weightBin(weights[row]), bin -> new RoaringBitmap()).add(row);
+    }
+    
+    private void unlink(int row) {
+        byStatus.get(statuses[row]).remove(row);
+        byShipper.get(shippers[row]).remove(row);
+        byTruckType.get(truckTypes[row]).remove(row);
+        byProductType.get(productTypes[row]).remove(row);
+        RoaringBitmap bin = byWeightBin.get(weightBin(weights[row]));
+        bin.remove(row);
+        if (bin.isEmpty()) {
+            byWeightBin.remove(weightBin(weights[row]));
+        }
+    }
+    
+    /**
+     * The exponent and two leading mantissa bits of a positive weight, which order bins
+     * the way the weights order. Weights are always positive; anything else shares the
+     * lowest bin.
+     */
+    private static int weightBin(double weight) {
+        return weight > 0 ? (int) (Double.doubleToRawLongBits(weight) >>> 50) : 0;
+    }
+    
+    private int encode(AttributeDictionary.Attribute attribute, List<RoaringBitmap> bitmaps, String value) {
+        int code = dictionary.encode(attribute, value);
+        while (bitmaps.size() <= code) {
+            bitmaps.add(new RoaringBitmap());
+        }
+        return code;
+    }
+    
+    private int allocate() {
+        if (!freeRows.isEmpty()) {
+            int row = freeRows.first();
+            freeRows.remove(row);
+            return row;
+        }
+        if (rowCount == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            rowVersions = Arrays.copyOf(rowVersions, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            shippers = Arrays.copyOf(shippers, capacity);
+            truckTypes = Arrays.copyOf(truckTypes, capacity);
+            productTypes = Arrays.copyOf(productTypes, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            windowStarts = Arrays.copyOf(windowStarts, capacity);
+            windowEnds = Arrays.copyOf(windowEnds, capacity);
+            postedTimes = Arrays.copyOf(postedTimes, capacity);
+        }
+        return rowCount++;
+    }
+}
@@ -0,0 +1,225 @@
+package com.cargopro.loadbooking.index;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The known loading and unloading points, for suggesting points as they are typed. Points
+ * are keyed in the form {@link LaneIndex#normalize} gives them and ranked by how many
+ * loads have used them. They are stored in a compressed trie: each edge holds the longest
+ * run of characters no other point branches off from, and each node keeps its
+ * {@value #MAX_SUGGESTIONS} most used points, so a suggestion is one walk down the typed
+ * prefix with no search of the points below. A point is shown as it was first added.
+ *
+ * <p>Counts only grow, so a point can only enter or climb a node's list when loads are
+ * added to it, and adding walks the lists on its path. Lookups share a read lock and
+ * additions take the write lock.
+ */
+@Component
+public class PointTrie {
+    
+    public static final int MAX_SUGGESTIONS = 10;
+    
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Point[] NO_POINTS = new Point[0];
+    private static final Comparator<Point> MOST_USED_FIRST = Comparator.comparingLong((Point point) -> point.loads)
+        .reversed()
+        .thenComparing(point -> point.key);
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private int size;
+    
+    /**
+     * Counts {@code loads} more loads at {@code point}. Blank points are ignored.
+     */
+    public void add(String point, long loads) {
+        String key = LaneIndex.normalize(point);
+        if (key == null || key.isEmpty() || loads <= 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            List<Node> path = new ArrayList<>();
+            path.add(root);
+            Node node = root;
+            int depth = 0;
+            while (depth < key.length()) {
+                int index = childIndex(node, key.charAt(depth));
+                if (index < 0) {
+                    Node leaf = new Node(key.substring(depth));
+                    insertChild(node, -index - 1, leaf);
+                    path.add(leaf);
+                    node = leaf;
+                    break;
+                }
+                Node child = node.children[index];
+                int common = commonLength(child.edge, key, depth);
+                if (common < child.edge.length()) {
+                    // The key leaves the edge part way, so the edge is split where it does
+                    Node middle = new Node(child.edge.substring(0, common));
+                    middle.children = new Node[] {child};
+                    middle.top = child.top.clone();
+                    child.edge = child.edge.substring(common);
+                    node.children[index] = middle;
+                    child = middle;
+                }
+                path.add(child);
+                node = child;
+                depth += common;
+            }
+            
+            if (node.point == null) {
+                node.point = new Point(point.trim(), key);
+                size++;
+            }
+            node.point.loads += loads;
+            for (Node onPath : path) {
+                onPath.offer(node.point);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns up to {@code limit} points beginning with {@code prefix}, compared as
+     * {@link LaneIndex#normalize} does, most used first. A blank prefix returns the most
+     * used points of all.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        String key = prefix != null ? LaneIndex.normalize(prefix) : "";
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int depth = 0;
+            while (depth < key.length()) {
+                int index = childIndex(node, key.charAt(depth));
+                if (index < 0) {
+                    return List.of();
+                }
+                Node child = node.children[index];
+                int common = commonLength(child.edge, key, depth);
+                if (depth + common < key.length() && common < child.edge.length()) {
+                    return List.of();
+                }
+                node = child;
+                depth += common;
+            }
+            
+            List<String> names = new ArrayList<>(Math.min(limit, node.top.length));
+            for (int i = 0; i < node.top.length && i < limit; i++) {
+                names.add(node.top[i].name);
+            }
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * The index of the child whose edge starts with {@code first}, or
+     * {@code -(insertion point) - 1}.
+     */
+    private static int childIndex(Node node, char first) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char at = node.children[middle].edge.charAt(0);
+            if (at < first) {
+                low = middle + 1;
+            } else if (at > first) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+    
+    private static void insertChild(Node node, int index, Node child) {
+        Node[] children = new Node[node.children.length + 1];
+        System.arraycopy(node.children, 0, children, 0, index);
+        children[index] = child;
+        System.arraycopy(node.children, index, children, index + 1, node.children.length - index);
+        node.children = children;
+    }
+    
+    /**
+     * How many leading characters of {@code edge} match {@code key} from {@code from} on.
+     */
+    private static int commonLength(String edge, String key, int from) {
+        int length = 0;
+        while (length < edge.length() && from + length < key.length()
+                && edge.charAt(length) == key.charAt(from + length)) {
+            length++;
+        }
+        return length;
+    }
+    
+    private static final class Node {
+        
+        private String edge;
+        private Node[] children = NO_CHILDREN;
+        private Point point;
+        // The most used points at or below this node, most used first
+        private Point[] top = NO_POINTS;
+        
+        Node(String edge) {
+            this.edge = edge;
+        }
+        
+        /**
+         * Moves {@code point}, which has just gained loads, into place in {@link #top}.
+         */
+        void offer(Point point) {
+            int at = Arrays.asList(top).indexOf(point);
+            if (at < 0) {
+                if (top.length < MAX_SUGGESTIONS) {
+                    top = Arrays.copyOf(top, top.length + 1);
+                } else if (MOST_USED_FIRST.compare(point, top[top.length - 1]) > 0) {
+                    return;
+                }
+                at = top.length - 1;
+                top[at] = point;
+            }
+            while (at > 0 && MOST_USED_FIRST.compare(top[at], top[at - 1]) < 0) {
+                Point above = top[at - 1];
+                top[at - 1] = top[at];
+                top[at] = above;
+                at--;
+            }
+        }
+    }
+    
+    private static final class Point {
+        
+        private final String name;
+        private final String key;
+        private long loads;
+        
+        Point(String name, String key) {
+            this.name = name;
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.cargopro.loadbooking.index;
+
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Recognizes updates that arrive after a newer one for the same load. An index knows
+ * the version of each load it holds; this also remembers, for a while, the version of
+ * every load taken off the index, so a late update cannot put a booked or cancelled
+ * load back on the board. Callers serialize their updates; see {@link LoadIndex}.
+ */
+final class VersionGuard {
+    
+    // Far longer than any commit can lag behind the next one
+    private static final Duration REMOVED_RETENTION = Duration.ofMinutes(10);
+    
+    private final Cache<UUID, Long> removedVersions = Caffeine.newBuilder()
+        .expireAfterWrite(REMOVED_RETENTION)
+        .build();
+    
+    static long versionOf(LoadResponseDto load) {
+        return load.getVersion() != null ? load.getVersion() : 0;
+    }
+    
+    /**
+     * Whether {@code version} is older than what the index has seen; {@code indexedVersion}
+     * is the version the index holds, or {@code null}.
+     */
+    boolean isStale(UUID id, long version, Long indexedVersion) {
+        if (indexedVersion != null) {
+            return indexedVersion > version;
+        }
+        Long removedVersion = removedVersions.getIfPresent(id);
+        return removedVersion != null && removedVersion > version;
+    }
+    
+    void indexed(UUID id) {
+        removedVersions.invalidate(id);
+    }
+    
+    void removed(UUID id, long version) {
+        removedVersions.put(id, version);
+    }
+}
@@ -0,0 +1,258 @@
+package com.cargopro.loadbooking.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Ring buffer of pending requests in a memory-mapped file. Appends are a copy into the
+ * mapping, so a record survives a crash of the process as soon as
+ * {@link #tryAppend} returns; with {@code fsync} it also survives a crash of the
+ * machine, at the cost of a flush per append.
+ *
+ * <p>Each record is {@code [length][crc32][sequence][ticket id][payload]}. The header
+ * keeps the offset and sequence of the first record that has not been acknowledged.
+ * On open, records are replayed from there for as long as their sequence numbers are
+ * consecutive and their checksums match, so a torn final write is dropped and space
+ * reused from an earlier lap is never mistaken for a record.
+ *
+ * <p>Safe for many appending threads and one reading thread.
+ */
+public class IntakeJournal implements Closeable {
+    
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_OVERHEAD = 4 + 4 + 8 + 16;
+    
+    private static final int MAGIC = 0x4c424a31; // "LBJ1"
+    private static final int WRAP = -1;
+    
+    // Header layout: magic, first unacknowledged offset and sequence, checksum of both
+    private static final int ACK_OFFSET_POSITION = 8;
+    private static final int ACK_SEQUENCE_POSITION = 16;
+    private static final int HEADER_CRC_POSITION = 24;
+    
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final boolean fsync;
+    
+    private int ackOffset;
+    private long ackSequence;
+    private int writeOffset;
+    private long nextSequence;
+    
+    public IntakeJournal(Path path, int capacity, boolean fsync) throws IOException {
+        if (capacity <= HEADER_SIZE + RECORD_OVERHEAD) {
+            throw new IllegalArgumentException("Journal capacity is too small: " + capacity);
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        this.capacity = capacity;
+        this.fsync = fsync;
+        
+        if (buffer.getInt(0) == MAGIC) {
+            readHeader();
+            recover();
+        } else {
+            buffer.putInt(0, MAGIC);
+            writeHeader(HEADER_SIZE, 1);
+            writeOffset = HEADER_SIZE;
+            nextSequence = 1;
+        }
+    }
+    
+    /**
+     * Appends a record, or returns {@code false} without writing anything when the
+     * unacknowledged records leave no room for it.
+     */
+    public synchronized boolean tryAppend(UUID ticketId, byte[] payload) {
+        int size = RECORD_OVERHEAD + payload.length;
+        int offset = writeOffset;
+        if (writeOffset >= ackOffset) {
+            if (capacity - writeOffset < size) {
+                // Not enough room before the end of the file; continue at the start if the reader is past it
+                if (ackOffset - HEADER_SIZE <= size) {
+                    return false;
+                }
+                if (capacity - writeOffset >= 4) {
+                    buffer.putInt(writeOffset, WRAP);
+                }
+                offset = HEADER_SIZE;
+            }
+        } else if (ackOffset - writeOffset <= size) {
+            // Never catch up with the reader, or a full ring would look empty
+            return false;
+        }
+        
+        long sequence = nextSequence;
+        buffer.putLong(offset + 8, sequence);
+        buffer.putLong(offset + 16, ticketId.getMostSignificantBits());
+        buffer.putLong(offset + 24, ticketId.getLeastSignificantBits());
+        buffer.put(offset + RECORD_OVERHEAD, payload);
+        buffer.putInt(offset + 4, checksum(offset, payload.length));
+        // Length goes last so a record is never visible before its body
+        buffer.putInt(offset, payload.length);
+        if (fsync) {
+            buffer.force(offset, size);
+        }
+        
+        writeOffset = offset + size;
+        nextSequence = sequence + 1;
+        notifyAll();
+        return true;
+    }
+    
+    /**
+     * Returns up to {@code max} unacknowledged records, oldest first, waiting up to
+     * {@code timeout} for one to arrive if there are none. The records stay in the
+     * journal until {@link #acknowledge} is called.
+     */
+    public synchronized List<Entry> read(int max, long timeout, TimeUnit unit) throws InterruptedException {
+        if (ackSequence == nextSequence) {
+            unit.timedWait(this, timeout);
+        }
+        List<Entry> entries = new ArrayList<>();
+        int offset = ackOffset;
+        for (long sequence = ackSequence; sequence < nextSequence && entries.size() < max; sequence++) {
+            offset = skipWrap(offset);
+            int length = buffer.getInt(offset);
+            UUID ticketId = new UUID(buffer.getLong(offset + 16), buffer.getLong(offset + 24));
+            byte[] payload = new byte[length];
+            buffer.get(offset + RECORD_OVERHEAD, payload);
+            offset += RECORD_OVERHEAD + length;
+            entries.add(new Entry(sequence, ticketId, payload, offset));
+        }
+        return entries;
+    }
+    
+    /**
+     * Marks {@code entry} and every record before it as processed, freeing their space.
+     */
+    public synchronized void acknowledge(Entry entry) {
+        writeHeader(entry.nextOffset, entry.sequence + 1);
+    }
+    
+    /**
+     * Returns the number of records appended but not yet acknowledged.
+     */
+    public synchronized long pending() {
+        return nextSequence - ackSequence;
+    }
+    
+    /**
+     * Returns the sequence number the next appended record will get. Records read with a
+     * lower sequence number were already in the journal when this was called.
+     */
+    public synchronized long nextSequence() {
+        return nextSequence;
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+    
+    private void readHeader() {
+        ackOffset = buffer.getInt(ACK_OFFSET_POSITION);
+        ackSequence = buffer.getLong(ACK_SEQUENCE_POSITION);
+        if (buffer.getInt(HEADER_CRC_POSITION) != headerChecksum(ackOffset, ackSequence)
+                || ackOffset < HEADER_SIZE || ackOffset > capacity) {
+            throw new IllegalStateException("Intake journal header is corrupt");
+        }
+    }
+    
+    private void writeHeader(int offset, long sequence) {
+        buffer.putInt(ACK_OFFSET_POSITION, offset);
+        buffer.putLong(ACK_SEQUENCE_POSITION, sequence);
+        buffer.putInt(HEADER_CRC_POSITION, headerChecksum(offset, sequence));
+        if (fsync) {
+            buffer.force(0, HEADER_SIZE);
+        }
+        ackOffset = offset;
+        ackSequence = sequence;
+    }
+    
+    /**
+     * Finds the end of the intact records after the acknowledged offset.
+     */
+    private void recover() {
+        int offset = ackOffset;
+        long sequence = ackSequence;
+        while (true) {
+            int next = skipWrap(offset);
+            int length = buffer.getInt(next);
+            if (length < 0 || length > capacity - next - RECORD_OVERHEAD
+                    || buffer.getLong(next + 8) != sequence
+                    || buffer.getInt(next + 4) != checksum(next, length)) {
+                break;
+            }
+            offset = next + RECORD_OVERHEAD + length;
+            sequence++;
+        }
+        writeOffset = offset;
+        nextSequence = sequence;
+    }
+    
+    private int skipWrap(int offset) {
+        if (capacity - offset < 4 || buffer.getInt(offset) == WRAP) {
+            return HEADER_SIZE;
+        }
+        return offset;
+    }
+    
+    private int checksum(int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset + 8, 24 + length));
+        return (int) crc.getValue();
+    }
+    
+    private static int headerChecksum(int offset, long sequence) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(12).putInt(offset).putLong(sequence).flip());
+        return (int) crc.getValue();
+    }
+    
+    /**
+     * One record read from the journal.
+     */
+    public static final class Entry {
+        
+        private final long sequence;
+        private final UUID ticketId;
+        private final byte[] payload;
+        private final int nextOffset;
+        
+        Entry(long sequence, UUID ticketId, byte[] payload, int nextOffset) {
+            this.sequence = sequence;
+            this.ticketId = ticketId;
+            this.payload = payload;
+            this.nextOffset = nextOffset;
+        }
+        
+        public long getSequence() {
+            return sequence;
+        }
+        
+        public UUID getTicketId() {
+            return ticketId;
+        }
+        
+        public byte[] getPayload() {
+            return payload;
+        }
+    }
+}
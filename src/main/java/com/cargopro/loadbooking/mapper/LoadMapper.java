@@ -23,7 +23,7 @@ public class LoadMapper {
     }
     
     public LoadResponseDto toResponseDto(Load load) {
-        return new LoadResponseDto(
+        LoadResponseDto dto = new LoadResponseDto(
             load.getId(),
             load.getShipperId(),
             toFacilityDto(load.getFacility()),
@@ -35,6 +35,11 @@ public class LoadMapper {
             load.getDatePosted(),
             load.getStatus()
         );
+        dto.setPendingBookings(load.getPendingBookings());
+        dto.setAcceptedBookings(load.getAcceptedBookings());
+        dto.setRejectedBookings(load.getRejectedBookings());
+        dto.setVersion(load.getVersion());
+        return dto;
     }
     
     public void updateEntity(Load load, LoadRequestDto dto) {
@@ -48,20 +53,30 @@ public class LoadMapper {
     }
     
     private Facility toFacilityEntity(FacilityDto dto) {
-        return new Facility(
+        Facility facility = new Facility(
             dto.getLoadingPoint(),
             dto.getUnloadingPoint(),
             dto.getLoadingDate(),
             dto.getUnloadingDate()
         );
+        facility.setLoadingLatitude(dto.getLoadingLatitude());
+        facility.setLoadingLongitude(dto.getLoadingLongitude());
+        facility.setUnloadingLatitude(dto.getUnloadingLatitude());
+        facility.setUnloadingLongitude(dto.getUnloadingLongitude());
+        return facility;
     }
     
     private FacilityDto toFacilityDto(Facility facility) {
-        return new FacilityDto(
+        FacilityDto dto = new FacilityDto(
             facility.getLoadingPoint(),
             facility.getUnloadingPoint(),
             facility.getLoadingDate(),
             facility.getUnloadingDate()
         );
+        dto.setLoadingLatitude(facility.getLoadingLatitude());
+        dto.setLoadingLongitude(facility.getLoadingLongitude());
+        dto.setUnloadingLatitude(facility.getUnloadingLatitude());
+        dto.setUnloadingLongitude(facility.getUnloadingLongitude());
+        return dto;
     }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.cargopro.loadbooking.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Opaque position in the change order {@code (transaction, sequence)}: the transaction
+ * that last wrote a row, then the change number it wrote it with. The next page is
+ * every change strictly "after" this position.
+ */
+public final class ChangeToken {
+    
+    public static final ChangeToken START = new ChangeToken(0, 0);
+    
+    private static final char SEPARATOR = '|';
+    
+    private final long transaction;
+    private final long sequence;
+    
+    public ChangeToken(long transaction, long sequence) {
+        this.transaction = transaction;
+        this.sequence = sequence;
+    }
+    
+    public long getTransaction() {
+        return transaction;
+    }
+    
+    public long getSequence() {
+        return sequence;
+    }
+    
+    public String encode() {
+        String raw = Long.toString(transaction) + SEPARATOR + sequence;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decodes a token previously produced by {@link #encode()}. A blank value means
+     * "from the first change" and yields {@link #START}.
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static ChangeToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid token: " + token);
+            }
+            return new ChangeToken(Long.parseLong(raw.substring(0, separator)),
+                                   Long.parseLong(raw.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid token: " + token, e);
+        }
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ChangeToken)) return false;
+        ChangeToken that = (ChangeToken) o;
+        return transaction == that.transaction && sequence == that.sequence;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(transaction, sequence);
+    }
+}
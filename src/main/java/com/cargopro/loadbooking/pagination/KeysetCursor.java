@@ -0,0 +1,75 @@
+package com.cargopro.loadbooking.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Opaque position in a result set ordered by {@code (timestamp DESC, id DESC)}.
+ * The next page is everything strictly "after" this position in that order, so
+ * the database can seek through the matching index instead of skipping an OFFSET.
+ */
+public final class KeysetCursor {
+    
+    private static final char SEPARATOR = '|';
+    
+    private final LocalDateTime timestamp;
+    private final UUID id;
+    
+    public KeysetCursor(LocalDateTime timestamp, UUID id) {
+        this.timestamp = Objects.requireNonNull(timestamp, "timestamp");
+        this.id = Objects.requireNonNull(id, "id");
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public UUID getId() {
+        return id;
+    }
+    
+    public String encode() {
+        String raw = timestamp.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}. A blank value
+     * means "start from the first page" and yields {@code null}.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof KeysetCursor)) return false;
+        KeysetCursor that = (KeysetCursor) o;
+        return timestamp.equals(that.timestamp) && id.equals(that.id);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(timestamp, id);
+    }
+}
@@ -0,0 +1,117 @@
+package com.cargopro.loadbooking.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Opaque position in search results ordered by {@code (score DESC, timestamp DESC, id DESC)}.
+ * The next page is everything strictly "after" this position in that order, so results
+ * of equal relevance page newest first without repeats or gaps. Scores depend on how
+ * rare each query word is, which changes as loads are written, so the cursor also
+ * carries the weight each word was given and later pages score with the same weights.
+ */
+public final class RelevanceCursor {
+    
+    private static final char SEPARATOR = '|';
+    private static final char WEIGHT_SEPARATOR = ',';
+    
+    private final double score;
+    private final LocalDateTime timestamp;
+    private final UUID id;
+    private final List<Double> weights;
+    
+    public RelevanceCursor(double score, LocalDateTime timestamp, UUID id) {
+        this(score, timestamp, id, List.of());
+    }
+    
+    public RelevanceCursor(double score, LocalDateTime timestamp, UUID id, List<Double> weights) {
+        this.score = score;
+        this.timestamp = Objects.requireNonNull(timestamp, "timestamp");
+        this.id = Objects.requireNonNull(id, "id");
+        this.weights = List.copyOf(weights);
+    }
+    
+    public double getScore() {
+        return score;
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public UUID getId() {
+        return id;
+    }
+    
+    /**
+     * The weight of each query word, in query order, that the scores were computed with;
+     * empty when the results were not ranked.
+     */
+    public List<Double> getWeights() {
+        return weights;
+    }
+    
+    public String encode() {
+        StringBuilder raw = new StringBuilder().append(score).append(SEPARATOR).append(timestamp)
+            .append(SEPARATOR).append(id).append(SEPARATOR);
+        for (int i = 0; i < weights.size(); i++) {
+            if (i > 0) {
+                raw.append(WEIGHT_SEPARATOR);
+            }
+            raw.append(weights.get(i));
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}. A blank value
+     * means "start from the first page" and yields {@code null}.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static RelevanceCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int second = raw.indexOf(SEPARATOR, first + 1);
+            int third = raw.indexOf(SEPARATOR, second + 1);
+            if (first < 0 || second < 0 || third < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            List<Double> weights = new ArrayList<>();
+            if (third + 1 < raw.length()) {
+                for (String weight : raw.substring(third + 1).split(String.valueOf(WEIGHT_SEPARATOR))) {
+                    weights.add(Double.parseDouble(weight));
+                }
+            }
+            return new RelevanceCursor(Double.parseDouble(raw.substring(0, first)),
+                                       LocalDateTime.parse(raw.substring(first + 1, second)),
+                                       UUID.fromString(raw.substring(second + 1, third)), weights);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RelevanceCursor)) return false;
+        RelevanceCursor that = (RelevanceCursor) o;
+        return Double.compare(score, that.score) == 0 && timestamp.equals(that.timestamp) && id.equals(that.id)
+            && weights.equals(that.weights);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(score, timestamp, id, weights);
+    }
+}
@@ -2,24 +2,34 @@ package com.cargopro.loadbooking.repository;
 
 import com.cargopro.loadbooking.entity.Booking;
 import com.cargopro.loadbooking.entity.BookingStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, UUID> {
+public interface BookingRepository extends JpaRepository<Booking, UUID>, JpaSpecificationExecutor<Booking>,
+                                           BookingRepositoryCustom {
     
-    @Query("SELECT b FROM Booking b WHERE " +
-           "(:loadId IS NULL OR b.load.id = :loadId) AND " +
-           "(:transporterId IS NULL OR b.transporterId = :transporterId) AND " +
-           "(:status IS NULL OR b.status = :status)")
-    List<Booking> findBookingsWithFilters(@Param("loadId") UUID loadId,
-                                         @Param("transporterId") String transporterId,
-                                         @Param("status") BookingStatus status);
+    @Query("SELECT b.load.id FROM Booking b WHERE b.id = :bookingId")
+    Optional<UUID> findLoadIdById(@Param("bookingId") UUID bookingId);
+    
+    @Query("SELECT DISTINCT b.load.id FROM Booking b WHERE b.id IN :bookingIds")
+    List<UUID> findLoadIdsByIdIn(@Param("bookingIds") Collection<UUID> bookingIds);
+    
+    @Query("SELECT b FROM Booking b JOIN FETCH b.load WHERE b.id IN :bookingIds")
+    List<Booking> findWithLoadByIdIn(@Param("bookingIds") Collection<UUID> bookingIds);
     
     List<Booking> findByLoadId(UUID loadId);
     
@@ -27,6 +37,15 @@ public interface BookingRepository extends JpaRepository<Booking, UUID> {
     
     List<Booking> findByStatus(BookingStatus status);
     
+    /**
+     * Bookings last written after change {@code (xid, seq)} by transactions below {@code before},
+     * in change order.
+     */
+    @Query("SELECT b FROM Booking b WHERE b.changeXid >= :xid AND b.changeXid < :before " +
+           "AND (b.changeXid > :xid OR b.changeSeq > :seq) ORDER BY b.changeXid, b.changeSeq")
+    List<Booking> findChangedAfter(@Param("xid") long xid, @Param("seq") long seq, @Param("before") long before,
+                                   Pageable pageable);
+    
     @Query("SELECT b FROM Booking b WHERE b.load.id = :loadId ORDER BY b.requestedAt DESC")
     List<Booking> findByLoadIdOrderByRequestedAtDesc(@Param("loadId") UUID loadId);
     
@@ -34,9 +53,25 @@ public interface BookingRepository extends JpaRepository<Booking, UUID> {
     List<Booking> findByLoadIdAndStatus(@Param("loadId") UUID loadId, @Param("status") BookingStatus status);
     
     @Query("SELECT COUNT(b) FROM Booking b WHERE b.load.id = :loadId AND b.status = :status")
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "booking-counts")
+    })
     long countByLoadIdAndStatus(@Param("loadId") UUID loadId, @Param("status") BookingStatus status);
     
     @Query("SELECT b FROM Booking b WHERE b.transporterId = :transporterId AND b.status = :status ORDER BY b.requestedAt DESC")
     List<Booking> findByTransporterIdAndStatusOrderByRequestedAtDesc(@Param("transporterId") String transporterId, 
                                                                     @Param("status") BookingStatus status);
-}
\ No newline at end of file
+    
+    /**
+     * Rejects every other pending booking for the load in a single statement.
+     *
+     * @return the number of bookings rejected
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = com.cargopro.loadbooking.entity.BookingStatus.REJECTED, " +
+           "b.version = b.version + 1 " +
+           "WHERE b.load.id = :loadId AND b.status = com.cargopro.loadbooking.entity.BookingStatus.PENDING " +
+           "AND b.id <> :acceptedBookingId")
+    int rejectOtherPendingBookings(@Param("loadId") UUID loadId, @Param("acceptedBookingId") UUID acceptedBookingId);
+}
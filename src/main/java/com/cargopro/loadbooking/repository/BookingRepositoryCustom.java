@@ -0,0 +1,40 @@
+package com.cargopro.loadbooking.repository;
+
+import com.cargopro.loadbooking.dto.BookingResponseDto;
+import com.cargopro.loadbooking.entity.Booking;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface BookingRepositoryCustom {
+    
+    /**
+     * Returns matching bookings selected directly into {@link BookingResponseDto},
+     * without materializing managed entities. A {@code limit} of zero or less means
+     * no limit.
+     */
+    List<BookingResponseDto> findViews(Specification<Booking> spec, Sort sort, int limit);
+    
+    /**
+     * Streams matching bookings from a server-side cursor as {@link BookingResponseDto}
+     * projections. Nothing enters the persistence context, so memory use does not grow
+     * with the number of rows. Must be called inside a transaction and the returned
+     * stream must be closed.
+     */
+    Stream<BookingResponseDto> streamViews(Specification<Booking> spec, Sort sort);
+    
+    /**
+     * Inserts a pending booking and applies it to its load in one statement: the load's
+     * pending counter goes up and a POSTED load becomes BOOKED. Nothing is written if
+     * the load is cancelled. The row bypasses the persistence context, so the ID,
+     * status and request time must already be set, and the caller must hold the load's
+     * booking lock.
+     *
+     * @return the load's status before the insert, or empty if the load does not exist
+     */
+    Optional<LoadStatus> insertPendingBooking(Booking booking);
+}
@@ -0,0 +1,149 @@
+package com.cargopro.loadbooking.repository;
+
+import com.cargopro.loadbooking.dto.BookingResponseDto;
+import com.cargopro.loadbooking.entity.Booking;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Cache;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Hand-written query fragments for {@link BookingRepository}.
+ */
+class BookingRepositoryImpl implements BookingRepositoryCustom {
+    
+    // The load row is updated first, so the insert only happens when the load exists and is not cancelled
+    private static final String INSERT_PENDING_BOOKING_SQL =
+        "WITH target AS (" +
+        "    SELECT status FROM loads WHERE id = ?" +
+        "), updated AS (" +
+        "    UPDATE loads SET pending_bookings = pending_bookings + 1," +
+        "                     status = CASE WHEN status = 'POSTED' THEN 'BOOKED' ELSE status END," +
+        "                     version = version + 1" +
+        "    WHERE id = ? AND status <> 'CANCELLED'" +
+        "    RETURNING id" +
+        "), inserted AS (" +
+        "    INSERT INTO bookings (id, load_id, transporter_id, proposed_rate, comment, status, requested_at, version)" +
+        "    SELECT ?, id, ?, ?, ?, ?, ?, 0 FROM updated" +
+        ") " +
+        "SELECT status FROM target";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+    
+    BookingRepositoryImpl(JdbcTemplate jdbcTemplate, @Value("${loadbooking.streaming.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+    
+    @Override
+    public List<BookingResponseDto> findViews(Specification<Booking> spec, Sort sort, int limit) {
+        TypedQuery<BookingResponseDto> query = createViewQuery(spec, sort);
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+        return query.getResultList();
+    }
+    
+    @Override
+    public Stream<BookingResponseDto> streamViews(Specification<Booking> spec, Sort sort) {
+        return createViewQuery(spec, sort)
+            .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+            .getResultStream();
+    }
+    
+    @Override
+    public Optional<LoadStatus> insertPendingBooking(Booking booking) {
+        Load load = booking.getLoad();
+        UUID loadId = load.getId();
+        // Earlier writes in this transaction (e.g. an accept grouped with this create) must reach the row first,
+        // or their flush at commit would overwrite the counters below and fail the version check
+        entityManager.flush();
+        List<String> statuses = jdbcTemplate.queryForList(INSERT_PENDING_BOOKING_SQL, String.class,
+            loadId,
+            loadId,
+            booking.getId(),
+            booking.getTransporterId(),
+            booking.getProposedRate(),
+            booking.getComment(),
+            booking.getStatus().name(),
+            Timestamp.valueOf(booking.getRequestedAt()));
+        if (statuses.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        LoadStatus status = LoadStatus.valueOf(statuses.get(0));
+        if (status != LoadStatus.CANCELLED) {
+            // A load already read in this transaction would keep its old counters and version
+            if (Hibernate.isInitialized(load) && entityManager.contains(load)) {
+                entityManager.refresh(load);
+            }
+            // The write bypassed Hibernate, so its cached copies of the load and the counts are stale
+            Runnable evict = () -> evictSecondLevelCache(loadId);
+            evict.run();
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int completionStatus) {
+                        evict.run();
+                    }
+                });
+            }
+        }
+        return Optional.of(status);
+    }
+    
+    private void evictSecondLevelCache(UUID loadId) {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Load.class, loadId);
+        cache.evictCollectionData(Load.class.getName() + ".bookings", loadId);
+        cache.evictQueryRegion("booking-counts");
+        cache.evictQueryRegion("load-counts");
+    }
+    
+    private TypedQuery<BookingResponseDto> createViewQuery(Specification<Booking> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingResponseDto> query = cb.createQuery(BookingResponseDto.class);
+        Root<Booking> root = query.from(Booking.class);
+        // load.id is read from the foreign key column, so no join to loads is needed
+        query.select(cb.construct(BookingResponseDto.class,
+            root.get("id"),
+            root.get("load").get("id"),
+            root.get("transporterId"),
+            root.get("proposedRate"),
+            root.get("comment"),
+            root.get("status"),
+            root.get("requestedAt")));
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query);
+    }
+}
@@ -0,0 +1,64 @@
+package com.cargopro.loadbooking.repository;
+
+import com.cargopro.loadbooking.entity.Booking;
+import com.cargopro.loadbooking.entity.BookingStatus;
+import com.cargopro.loadbooking.pagination.KeysetCursor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Composable query predicates for {@link Booking}. Only supplied filters are
+ * rendered into SQL; see {@link LoadSpecifications} for the rationale.
+ */
+public final class BookingSpecifications {
+    
+    private BookingSpecifications() {}
+    
+    public static Specification<Booking> withFilters(UUID loadId, String transporterId, BookingStatus status) {
+        return Specification.where(hasLoadId(loadId))
+            .and(hasTransporterId(transporterId))
+            .and(hasStatus(status));
+    }
+    
+    public static Specification<Booking> hasLoadId(UUID loadId) {
+        // Compare the foreign key column directly instead of joining loads
+        return loadId == null ? null : (root, query, cb) -> cb.equal(root.get("load").get("id"), loadId);
+    }
+    
+    public static Specification<Booking> hasTransporterId(String transporterId) {
+        return transporterId == null ? null : (root, query, cb) -> cb.equal(root.get("transporterId"), transporterId);
+    }
+    
+    public static Specification<Booking> hasStatus(BookingStatus status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+    
+    /**
+     * Bookings requested at or after {@code from} and before {@code to}; either bound may be omitted.
+     */
+    public static Specification<Booking> requestedBetween(LocalDateTime from, LocalDateTime to) {
+        Specification<Booking> notBefore = from == null ? null
+            : (root, query, cb) -> cb.greaterThanOrEqualTo(root.<LocalDateTime>get("requestedAt"), from);
+        Specification<Booking> before = to == null ? null
+            : (root, query, cb) -> cb.lessThan(root.<LocalDateTime>get("requestedAt"), to);
+        return Specification.where(notBefore).and(before);
+    }
+    
+    /**
+     * Bookings strictly after the cursor in {@code (requestedAt DESC, id DESC)} order,
+     * bounded by {@code requestedAt <= ts} so the scan starts at the cursor, as in
+     * {@link LoadSpecifications#postedBefore}.
+     */
+    public static Specification<Booking> requestedBefore(KeysetCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.and(
+            cb.lessThanOrEqualTo(root.<LocalDateTime>get("requestedAt"), cursor.getTimestamp()),
+            cb.or(cb.lessThan(root.<LocalDateTime>get("requestedAt"), cursor.getTimestamp()),
+                  cb.and(cb.equal(root.get("requestedAt"), cursor.getTimestamp()),
+                         cb.lessThan(root.<UUID>get("id"), cursor.getId()))));
+    }
+}
@@ -0,0 +1,23 @@
+package com.cargopro.loadbooking.repository;
+
+import com.cargopro.loadbooking.entity.BookingTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BookingTombstoneRepository extends JpaRepository<BookingTombstone, Long> {
+    
+    /**
+     * Tombstones left after change {@code (xid, seq)} by transactions below {@code before},
+     * in change order.
+     */
+    @Query("SELECT t FROM BookingTombstone t WHERE t.changeXid >= :xid AND t.changeXid < :before " +
+           "AND (t.changeXid > :xid OR t.changeSeq > :seq) ORDER BY t.changeXid, t.changeSeq")
+    List<BookingTombstone> findChangedAfter(@Param("xid") long xid, @Param("seq") long seq,
+                                            @Param("before") long before, Pageable pageable);
+}
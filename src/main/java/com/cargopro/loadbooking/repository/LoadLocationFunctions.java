@@ -0,0 +1,37 @@
+package com.cargopro.loadbooking.repository;
+
+import com.cargopro.loadbooking.geo.GeoArea;
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the PostgreSQL geometry behind {@link LoadSpecifications#loadingPointWithin}.
+ * The box test is written exactly as the {@code idx_loads_loading_location} GiST
+ * expression index is, so the planner can use it; the distance then only runs on the
+ * rows inside the box. Picked up through {@code META-INF/services}.
+ */
+public class LoadLocationFunctions implements FunctionContributor {
+    
+    static final String IN_BOX = "location_in_box";
+    static final String DISTANCE_KM = "distance_km";
+    
+    // Arguments: latitude and longitude, then the box's minimum latitude, minimum longitude, maximum
+    // latitude and maximum longitude
+    private static final String IN_BOX_PATTERN = "(point(?2, ?1) <@ box(point(?4, ?3), point(?6, ?5)))";
+    
+    // Arguments: two latitude/longitude pairs; haversine, as GeoArea computes it
+    private static final String DISTANCE_KM_PATTERN = "(" + 2 * GeoArea.EARTH_RADIUS_KM + " * asin(least(1, sqrt("
+        + "power(sin(radians(?3 - ?1) / 2), 2)"
+        + " + cos(radians(?1)) * cos(radians(?3)) * power(sin(radians(?4 - ?2) / 2), 2)))))";
+    
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        functionContributions.getFunctionRegistry().registerPattern(IN_BOX, IN_BOX_PATTERN,
+            types.resolve(StandardBasicTypes.BOOLEAN));
+        functionContributions.getFunctionRegistry().registerPattern(DISTANCE_KM, DISTANCE_KM_PATTERN,
+            types.resolve(StandardBasicTypes.DOUBLE));
+    }
+}
@@ -1,11 +1,15 @@
 package com.cargopro.loadbooking.repository;
 
+import com.cargopro.loadbooking.entity.ChangeSequence;
 import com.cargopro.loadbooking.entity.Load;
 import com.cargopro.loadbooking.entity.LoadStatus;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,16 +17,8 @@ import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface LoadRepository extends JpaRepository<Load, UUID> {
-    
-    @Query("SELECT l FROM Load l WHERE " +
-           "(:shipperId IS NULL OR l.shipperId = :shipperId) AND " +
-           "(:truckType IS NULL OR l.truckType = :truckType) AND " +
-           "(:status IS NULL OR l.status = :status)")
-    Page<Load> findLoadsWithFilters(@Param("shipperId") String shipperId,
-                                   @Param("truckType") String truckType,
-                                   @Param("status") LoadStatus status,
-                                   Pageable pageable);
+public interface LoadRepository extends JpaRepository<Load, UUID>, JpaSpecificationExecutor<Load>,
+                                        LoadRepositoryCustom {
     
     List<Load> findByShipperId(String shipperId);
     
@@ -33,6 +29,33 @@ public interface LoadRepository extends JpaRepository<Load, UUID> {
     @Query("SELECT l FROM Load l WHERE l.status = :status ORDER BY l.datePosted DESC")
     List<Load> findByStatusOrderByDatePostedDesc(@Param("status") LoadStatus status);
     
+    /**
+     * Loads last written after change {@code (xid, seq)} by transactions below {@code before},
+     * in change order.
+     */
+    @Query("SELECT l FROM Load l WHERE l.changeXid >= :xid AND l.changeXid < :before " +
+           "AND (l.changeXid > :xid OR l.changeSeq > :seq) ORDER BY l.changeXid, l.changeSeq")
+    List<Load> findChangedAfter(@Param("xid") long xid, @Param("seq") long seq, @Param("before") long before,
+                                Pageable pageable);
+    
+    /**
+     * The oldest transaction still running; see {@link ChangeSequence#OLDEST_RUNNING_TRANSACTION}.
+     */
+    @Query(value = "SELECT " + ChangeSequence.OLDEST_RUNNING_TRANSACTION, nativeQuery = true)
+    long findOldestRunningTransaction();
+    
     @Query("SELECT COUNT(l) FROM Load l WHERE l.shipperId = :shipperId AND l.status = :status")
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "load-counts")
+    })
     long countByShipperIdAndStatus(@Param("shipperId") String shipperId, @Param("status") LoadStatus status);
+    
+    @Query("SELECT new com.cargopro.loadbooking.repository.PointCount(l.facility.loadingPoint, COUNT(l)) " +
+           "FROM Load l GROUP BY l.facility.loadingPoint")
+    List<PointCount> countByLoadingPoint();
+    
+    @Query("SELECT new com.cargopro.loadbooking.repository.PointCount(l.facility.unloadingPoint, COUNT(l)) " +
+           "FROM Load l GROUP BY l.facility.unloadingPoint")
+    List<PointCount> countByUnloadingPoint();
 }
\ No newline at end of file
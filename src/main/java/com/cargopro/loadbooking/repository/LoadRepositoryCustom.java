@@ -0,0 +1,63 @@
+package com.cargopro.loadbooking.repository;
+
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface LoadRepositoryCustom {
+    
+    /**
+     * Returns a page of matching loads selected directly into {@link LoadResponseDto},
+     * without materializing managed entities.
+     */
+    Page<LoadResponseDto> findViews(Specification<Load> spec, Pageable pageable);
+    
+    /**
+     * Returns at most {@code limit} matching loads selected directly into
+     * {@link LoadResponseDto}, in {@code sort} order.
+     */
+    List<LoadResponseDto> findViews(Specification<Load> spec, Sort sort, int limit);
+    
+    /**
+     * Streams matching loads from a forward-only server-side cursor as
+     * {@link LoadResponseDto} projections, like {@link BookingRepositoryCustom#streamViews}.
+     * Must be called inside a transaction and the returned stream must be closed.
+     */
+    Stream<LoadResponseDto> streamViews(Specification<Load> spec, Sort sort);
+    
+    /**
+     * Inserts new loads in one statement, through the PostgreSQL COPY protocol when
+     * the connection supports it and a JDBC batch otherwise. The rows bypass the
+     * persistence context, so ids, timestamps and status must already be set. The
+     * write is all or nothing.
+     */
+    void copyLoads(List<Load> loads);
+    
+    /**
+     * Returns the planner's row estimate for the given filters. This is cheap
+     * compared to {@code COUNT(*)} but only as accurate as the table statistics.
+     */
+    long estimateLoadCount(String shipperId, String truckType, LoadStatus status);
+    
+    /**
+     * Takes a transaction-scoped PostgreSQL advisory lock for the load, blocking until
+     * any other transaction holding it commits or rolls back. Used to serialize booking
+     * state changes per load without locking unrelated rows.
+     */
+    void lockForBookingChanges(UUID loadId);
+    
+    /**
+     * Takes the booking locks of several loads in one round trip. The locks are taken in
+     * a fixed order, so concurrent callers with overlapping loads cannot deadlock.
+     */
+    void lockAllForBookingChanges(Collection<UUID> loadIds);
+}
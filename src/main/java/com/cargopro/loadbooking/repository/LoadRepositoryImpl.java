@@ -0,0 +1,304 @@
+package com.cargopro.loadbooking.repository;
+
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.SessionFactory;
+import org.hibernate.jpa.AvailableHints;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Hand-written query fragments for {@link LoadRepository}.
+ */
+class LoadRepositoryImpl implements LoadRepositoryCustom {
+    
+    private static final ObjectMapper PLAN_READER = new ObjectMapper();
+    
+    // Must list every NOT NULL column of loads except change_seq and change_xid, which their defaults fill,
+    // and every column a new load can carry a value for; keep in step with the Load entity
+    private static final String LOAD_COLUMNS = "id, shipper_id, loading_point, unloading_point, loading_date, " +
+        "unloading_date, loading_latitude, loading_longitude, unloading_latitude, unloading_longitude, " +
+        "product_type, truck_type, no_of_trucks, weight, comment, date_posted, status, " +
+        "pending_bookings, accepted_bookings, rejected_bookings, version";
+    private static final String COPY_LOADS_SQL = "COPY loads (" + LOAD_COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+    private static final String INSERT_LOAD_SQL = "INSERT INTO loads (" + LOAD_COLUMNS + ") " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+    
+    LoadRepositoryImpl(JdbcTemplate jdbcTemplate, @Value("${loadbooking.streaming.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+    
+    @Override
+    public Page<LoadResponseDto> findViews(Specification<Load> spec, Pageable pageable) {
+        TypedQuery<LoadResponseDto> query = createViewQuery(spec, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        // Skips the count when the page itself proves the total, like SimpleJpaRepository
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(spec));
+    }
+    
+    @Override
+    public List<LoadResponseDto> findViews(Specification<Load> spec, Sort sort, int limit) {
+        return createViewQuery(spec, sort).setMaxResults(limit).getResultList();
+    }
+    
+    @Override
+    public Stream<LoadResponseDto> streamViews(Specification<Load> spec, Sort sort) {
+        return createViewQuery(spec, sort)
+            .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+            .getResultStream();
+    }
+    
+    private TypedQuery<LoadResponseDto> createViewQuery(Specification<Load> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<LoadResponseDto> query = cb.createQuery(LoadResponseDto.class);
+        Root<Load> root = query.from(Load.class);
+        Path<Object> facility = root.get("facility");
+        query.select(cb.construct(LoadResponseDto.class,
+            root.get("id"),
+            root.get("shipperId"),
+            facility.get("loadingPoint"),
+            facility.get("unloadingPoint"),
+            facility.get("loadingDate"),
+            facility.get("unloadingDate"),
+            facility.get("loadingLatitude"),
+            facility.get("loadingLongitude"),
+            facility.get("unloadingLatitude"),
+            facility.get("unloadingLongitude"),
+            root.get("productType"),
+            root.get("truckType"),
+            root.get("noOfTrucks"),
+            root.get("weight"),
+            root.get("comment"),
+            root.get("datePosted"),
+            root.get("status"),
+            root.get("pendingBookings"),
+            root.get("acceptedBookings"),
+            root.get("rejectedBookings"),
+            root.get("version")));
+        applyFilter(spec, root, query, cb);
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query);
+    }
+    
+    private long count(Specification<Load> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Load> root = query.from(Load.class);
+        query.select(cb.count(root));
+        applyFilter(spec, root, query, cb);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+    
+    private static void applyFilter(Specification<Load> spec, Root<Load> root, CriteriaQuery<?> query,
+                                    CriteriaBuilder cb) {
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+    
+    @Override
+    public void copyLoads(List<Load> loads) {
+        if (loads.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (connection.isWrapperFor(BaseConnection.class)) {
+                copyIn(connection.unwrap(BaseConnection.class), loads);
+            } else {
+                batchInsert(connection, loads);
+            }
+            return null;
+        });
+        // The rows never went through Hibernate, so cached count results must go
+        entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache().evictQueryRegion("load-counts");
+    }
+    
+    private static void copyIn(BaseConnection connection, List<Load> loads) throws SQLException {
+        StringBuilder csv = new StringBuilder(loads.size() * 256);
+        for (Load load : loads) {
+            csv.append(load.getId()).append(',');
+            appendQuoted(csv, load.getShipperId()).append(',');
+            appendQuoted(csv, load.getFacility().getLoadingPoint()).append(',');
+            appendQuoted(csv, load.getFacility().getUnloadingPoint()).append(',');
+            csv.append(load.getFacility().getLoadingDate()).append(',');
+            csv.append(load.getFacility().getUnloadingDate()).append(',');
+            appendNumber(csv, load.getFacility().getLoadingLatitude()).append(',');
+            appendNumber(csv, load.getFacility().getLoadingLongitude()).append(',');
+            appendNumber(csv, load.getFacility().getUnloadingLatitude()).append(',');
+            appendNumber(csv, load.getFacility().getUnloadingLongitude()).append(',');
+            appendQuoted(csv, load.getProductType()).append(',');
+            appendQuoted(csv, load.getTruckType()).append(',');
+            csv.append(load.getNoOfTrucks()).append(',');
+            csv.append(load.getWeight()).append(',');
+            appendQuoted(csv, load.getComment()).append(',');
+            csv.append(load.getDatePosted()).append(',');
+            csv.append(load.getStatus().name()).append(',');
+            csv.append(load.getPendingBookings()).append(',');
+            csv.append(load.getAcceptedBookings()).append(',');
+            csv.append(load.getRejectedBookings()).append(',');
+            csv.append(0L).append('\n');
+        }
+        try {
+            new CopyManager(connection).copyIn(COPY_LOADS_SQL, new StringReader(csv.toString()));
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("COPY into loads failed", e);
+        }
+    }
+    
+    /**
+     * Quotes every non-null value so that COPY keeps empty strings apart from NULL,
+     * which is written as an unquoted empty field.
+     */
+    private static StringBuilder appendQuoted(StringBuilder csv, String value) {
+        if (value == null) {
+            return csv;
+        }
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        return csv.append('"');
+    }
+    
+    private static StringBuilder appendNumber(StringBuilder csv, Double value) {
+        return value == null ? csv : csv.append(value);
+    }
+    
+    private static void batchInsert(Connection connection, List<Load> loads) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_LOAD_SQL)) {
+            for (Load load : loads) {
+                statement.setObject(1, load.getId());
+                statement.setString(2, load.getShipperId());
+                statement.setString(3, load.getFacility().getLoadingPoint());
+                statement.setString(4, load.getFacility().getUnloadingPoint());
+                statement.setTimestamp(5, toTimestamp(load.getFacility().getLoadingDate()));
+                statement.setTimestamp(6, toTimestamp(load.getFacility().getUnloadingDate()));
+                statement.setObject(7, load.getFacility().getLoadingLatitude(), Types.DOUBLE);
+                statement.setObject(8, load.getFacility().getLoadingLongitude(), Types.DOUBLE);
+                statement.setObject(9, load.getFacility().getUnloadingLatitude(), Types.DOUBLE);
+                statement.setObject(10, load.getFacility().getUnloadingLongitude(), Types.DOUBLE);
+                statement.setString(11, load.getProductType());
+                statement.setString(12, load.getTruckType());
+                statement.setInt(13, load.getNoOfTrucks());
+                statement.setDouble(14, load.getWeight());
+                statement.setString(15, load.getComment());
+                statement.setTimestamp(16, toTimestamp(load.getDatePosted()));
+                statement.setString(17, load.getStatus().name());
+                statement.setInt(18, load.getPendingBookings());
+                statement.setInt(19, load.getAcceptedBookings());
+                statement.setInt(20, load.getRejectedBookings());
+                statement.setLong(21, 0L);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+    
+    private static Timestamp toTimestamp(LocalDateTime value) {
+        return value == null ? null : Timestamp.valueOf(value);
+    }
+    
+    @Override
+    public long estimateLoadCount(String shipperId, String truckType, LoadStatus status) {
+        StringBuilder sql = new StringBuilder("EXPLAIN (FORMAT JSON) SELECT 1 FROM loads WHERE TRUE");
+        List<Object> args = new ArrayList<>();
+        if (shipperId != null) {
+            sql.append(" AND shipper_id = ?");
+            args.add(shipperId);
+        }
+        if (truckType != null) {
+            sql.append(" AND truck_type = ?");
+            args.add(truckType);
+        }
+        if (status != null) {
+            sql.append(" AND status = ?");
+            args.add(status.name());
+        }
+        
+        String plan = jdbcTemplate.queryForObject(sql.toString(), String.class, args.toArray());
+        try {
+            JsonNode root = PLAN_READER.readTree(plan);
+            return root.path(0).path("Plan").path("Plan Rows").asLong(0);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to read query plan", e);
+        }
+    }
+    
+    @Override
+    public void lockForBookingChanges(UUID loadId) {
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(?)", lockKey(loadId));
+    }
+    
+    @Override
+    public void lockAllForBookingChanges(Collection<UUID> loadIds) {
+        // Lock in key order so two batches over overlapping loads cannot deadlock
+        Long[] keys = loadIds.stream().map(LoadRepositoryImpl::lockKey).distinct().sorted().toArray(Long[]::new);
+        if (keys.length == 0) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT pg_advisory_xact_lock(k.key) FROM unnest(?) WITH ORDINALITY AS k(key, n) ORDER BY k.n")) {
+                statement.setArray(1, connection.createArrayOf("bigint", keys));
+                statement.executeQuery().close();
+            }
+            return null;
+        });
+    }
+    
+    private static long lockKey(UUID loadId) {
+        // Fold the UUID into the single bigint key space; a collision only costs extra serialization
+        return loadId.getMostSignificantBits() ^ loadId.getLeastSignificantBits();
+    }
+}
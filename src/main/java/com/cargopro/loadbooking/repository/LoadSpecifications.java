@@ -0,0 +1,181 @@
+package com.cargopro.loadbooking.repository;
+
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.geo.GeoArea;
+import com.cargopro.loadbooking.index.LaneIndex;
+import com.cargopro.loadbooking.index.LoadTextIndex;
+import com.cargopro.loadbooking.pagination.KeysetCursor;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Composable query predicates for {@link Load}. Filters that are not supplied
+ * contribute no SQL at all, so PostgreSQL plans each combination on its own and
+ * can use the matching column index instead of a generic {@code IS NULL OR} plan.
+ */
+public final class LoadSpecifications {
+    
+    private LoadSpecifications() {}
+    
+    public static Specification<Load> withFilters(String shipperId, String truckType, LoadStatus status) {
+        return Specification.where(hasShipperId(shipperId))
+            .and(hasTruckType(truckType))
+            .and(hasStatus(status));
+    }
+    
+    public static Specification<Load> hasShipperId(String shipperId) {
+        return shipperId == null ? null : (root, query, cb) -> cb.equal(root.get("shipperId"), shipperId);
+    }
+    
+    public static Specification<Load> hasTruckType(String truckType) {
+        return truckType == null ? null : (root, query, cb) -> cb.equal(root.get("truckType"), truckType);
+    }
+    
+    public static Specification<Load> hasStatus(LoadStatus status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+    
+    public static Specification<Load> hasStatusIn(Collection<LoadStatus> statuses) {
+        return (root, query, cb) -> root.get("status").in(statuses);
+    }
+    
+    public static Specification<Load> hasProductType(String productType) {
+        return productType == null ? null : (root, query, cb) -> cb.equal(root.get("productType"), productType);
+    }
+    
+    /**
+     * Loads weighing from {@code minWeight} to {@code maxWeight} inclusive; either bound
+     * may be omitted.
+     */
+    public static Specification<Load> weightBetween(Double minWeight, Double maxWeight) {
+        Specification<Load> notLighter = minWeight == null ? null
+            : (root, query, cb) -> cb.greaterThanOrEqualTo(root.<Double>get("weight"), minWeight);
+        Specification<Load> notHeavier = maxWeight == null ? null
+            : (root, query, cb) -> cb.lessThanOrEqualTo(root.<Double>get("weight"), maxWeight);
+        return Specification.where(notLighter).and(notHeavier);
+    }
+    
+    public static Specification<Load> hasIdIn(Collection<UUID> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+    
+    /**
+     * Loads on a lane, comparing points and truck type the way {@link LaneIndex} does.
+     * No column index serves this, so it only stands in while the lane index is built.
+     */
+    public static Specification<Load> onLane(String origin, String destination, String truckType) {
+        Specification<Load> lane = (root, query, cb) -> cb.and(
+            cb.equal(cb.lower(cb.trim(root.get("facility").<String>get("loadingPoint"))), LaneIndex.normalize(origin)),
+            cb.equal(cb.lower(cb.trim(root.get("facility").<String>get("unloadingPoint"))),
+                     LaneIndex.normalize(destination)));
+        Specification<Load> truck = truckType == null ? null
+            : (root, query, cb) -> cb.equal(cb.lower(cb.trim(root.<String>get("truckType"))), LaneIndex.normalize(truckType));
+        return Specification.where(lane).and(truck);
+    }
+    
+    /**
+     * Loads containing each of {@code words} somewhere in their product type, points or
+     * comment, ignoring case. Words are letters and digits only, so none needs escaping.
+     * No index serves a match inside the text; this only stands in for the in-memory
+     * {@link LoadTextIndex} while it is being built.
+     */
+    public static Specification<Load> containsWords(List<String> words) {
+        return (root, query, cb) -> cb.and(words.stream()
+            .map(word -> {
+                String pattern = "%" + word + "%";
+                return cb.or(cb.like(cb.lower(root.<String>get("productType")), pattern),
+                             cb.like(cb.lower(root.get("facility").<String>get("loadingPoint")), pattern),
+                             cb.like(cb.lower(root.get("facility").<String>get("unloadingPoint")), pattern),
+                             cb.like(cb.lower(root.<String>get("comment")), pattern));
+            })
+            .toArray(Predicate[]::new));
+    }
+    
+    /**
+     * Loads whose loading window, from the earlier to the later of the loading and
+     * unloading dates, shares at least a moment with {@code [from, to]}; either bound may
+     * be omitted. Runs as a range overlap served by the {@code idx_loads_loading_window}
+     * GiST index.
+     */
+    public static Specification<Load> loadingWindowOverlaps(LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.isTrue(cb.function(LoadingWindowFunctions.OVERLAPS, Boolean.class,
+            root.get("facility").<LocalDateTime>get("loadingDate"),
+            root.get("facility").<LocalDateTime>get("unloadingDate"),
+            from != null ? cb.literal(from) : cb.nullLiteral(LocalDateTime.class),
+            to != null ? cb.literal(to) : cb.nullLiteral(LocalDateTime.class)));
+    }
+    
+    /**
+     * Loads whose loading point lies in {@code area}; loads without coordinates never
+     * match. The bounding box is tested first, in the form the
+     * {@code idx_loads_loading_location} GiST index serves, and a circle's exact distance
+     * only after it.
+     */
+    public static Specification<Load> loadingPointWithin(GeoArea area) {
+        if (area == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            Path<Double> latitude = root.get("facility").get("loadingLatitude");
+            Path<Double> longitude = root.get("facility").get("loadingLongitude");
+            Predicate inBox = area.wrapsAntimeridian()
+                ? cb.or(inBox(cb, latitude, longitude, area.getMinLatitude(), area.getMinLongitude(),
+                              area.getMaxLatitude(), 180),
+                        inBox(cb, latitude, longitude, area.getMinLatitude(), -180,
+                              area.getMaxLatitude(), area.getMaxLongitude()))
+                : inBox(cb, latitude, longitude, area.getMinLatitude(), area.getMinLongitude(),
+                        area.getMaxLatitude(), area.getMaxLongitude());
+            if (!area.isCircle()) {
+                return inBox;
+            }
+            Expression<Double> distance = cb.function(LoadLocationFunctions.DISTANCE_KM, Double.class,
+                cb.literal(area.getLatitude()), cb.literal(area.getLongitude()), latitude, longitude);
+            return cb.and(inBox, cb.lessThanOrEqualTo(distance, area.getRadiusKm()));
+        };
+    }
+    
+    private static Predicate inBox(CriteriaBuilder cb, Expression<Double> latitude, Expression<Double> longitude,
+                                   double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        return cb.isTrue(cb.function(LoadLocationFunctions.IN_BOX, Boolean.class, latitude, longitude,
+            cb.literal(minLatitude), cb.literal(minLongitude), cb.literal(maxLatitude), cb.literal(maxLongitude)));
+    }
+    
+    /**
+     * Loads posted at or after {@code from} and before {@code to}; either bound may be omitted.
+     */
+    public static Specification<Load> postedBetween(LocalDateTime from, LocalDateTime to) {
+        Specification<Load> notBefore = from == null ? null
+            : (root, query, cb) -> cb.greaterThanOrEqualTo(root.<LocalDateTime>get("datePosted"), from);
+        Specification<Load> before = to == null ? null
+            : (root, query, cb) -> cb.lessThan(root.<LocalDateTime>get("datePosted"), to);
+        return Specification.where(notBefore).and(before);
+    }
+    
+    /**
+     * Loads strictly after the cursor in {@code (datePosted DESC, id DESC)} order. The
+     * OR alone cannot bound an index scan, so the redundant {@code datePosted <= ts} in
+     * front of it lets the database seek to the cursor instead of reading every newer row.
+     */
+    public static Specification<Load> postedBefore(KeysetCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.and(
+            cb.lessThanOrEqualTo(root.<LocalDateTime>get("datePosted"), cursor.getTimestamp()),
+            cb.or(cb.lessThan(root.<LocalDateTime>get("datePosted"), cursor.getTimestamp()),
+                  cb.and(cb.equal(root.get("datePosted"), cursor.getTimestamp()),
+                         cb.lessThan(root.<UUID>get("id"), cursor.getId()))));
+    }
+}
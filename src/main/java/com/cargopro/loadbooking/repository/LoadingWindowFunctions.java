@@ -0,0 +1,26 @@
+package com.cargopro.loadbooking.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the PostgreSQL range overlap behind {@link LoadSpecifications#loadingWindowOverlaps},
+ * which JPA criteria cannot express. The load side of the overlap is written exactly as
+ * the {@code idx_loads_loading_window} GiST expression index is, so the planner can use it.
+ * Picked up through {@code META-INF/services}.
+ */
+public class LoadingWindowFunctions implements FunctionContributor {
+    
+    static final String OVERLAPS = "loading_window_overlaps";
+    
+    // Arguments: loading date, unloading date, query start, query end; a null query bound is unbounded
+    private static final String OVERLAPS_PATTERN =
+        "(tsrange(least(?1, ?2), greatest(?1, ?2), '[]') && tsrange(cast(?3 as timestamp), cast(?4 as timestamp), '[]'))";
+    
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions.getFunctionRegistry().registerPattern(OVERLAPS, OVERLAPS_PATTERN,
+            functionContributions.getTypeConfiguration().getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN));
+    }
+}
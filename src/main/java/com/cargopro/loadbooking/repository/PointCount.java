@@ -0,0 +1,6 @@
+package com.cargopro.loadbooking.repository;
+
+/**
+ * How many loads name a point, exactly as spelled, as their loading or unloading point.
+ */
+public record PointCount(String point, long loads) {}
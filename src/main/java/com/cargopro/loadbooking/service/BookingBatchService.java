@@ -0,0 +1,361 @@
+package com.cargopro.loadbooking.service;
+
+import com.cargopro.loadbooking.cache.BookingLookupCache;
+import com.cargopro.loadbooking.dto.BookingBatchItemResultDto;
+import com.cargopro.loadbooking.dto.BookingBatchResultDto;
+import com.cargopro.loadbooking.dto.BookingDecisionDto;
+import com.cargopro.loadbooking.dto.BookingRequestDto;
+import com.cargopro.loadbooking.entity.Booking;
+import com.cargopro.loadbooking.entity.BookingStatus;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.mapper.BookingMapper;
+import com.cargopro.loadbooking.repository.BookingRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Creates, accepts and rejects bookings in batches. Items are grouped by load, every
+ * load involved is locked and read once, and the resulting inserts and updates are
+ * flushed together as JDBC batches. Each item gets its own result: an item that breaks
+ * a business rule fails on its own and the rest of the batch still applies.
+ */
+@Service
+public class BookingBatchService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BookingBatchService.class);
+    
+    private final BookingRepository bookingRepository;
+    private final BookingMapper bookingMapper;
+    private final LoadService loadService;
+    private final BookingLookupCache bookingCache;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxItems;
+    
+    @Autowired
+    public BookingBatchService(BookingRepository bookingRepository, BookingMapper bookingMapper, LoadService loadService,
+                               BookingLookupCache bookingCache, Validator validator,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${loadbooking.batch.max-items:1000}") int maxItems) {
+        this.bookingRepository = bookingRepository;
+        this.bookingMapper = bookingMapper;
+        this.loadService = loadService;
+        this.bookingCache = bookingCache;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.maxItems = maxItems;
+    }
+    
+    public BookingBatchResultDto createBookings(List<BookingRequestDto> requests) {
+        logger.info("Creating batch of {} bookings", requests.size());
+        
+        BookingBatchItemResultDto[] results = new BookingBatchItemResultDto[checkSize(requests).size()];
+        Map<UUID, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String violations = validate(requests.get(i));
+            if (violations != null) {
+                results[i] = failed(i, violations);
+            } else {
+                groups.computeIfAbsent(requests.get(i).getLoadId(), loadId -> new ArrayList<>()).add(i);
+            }
+        }
+        
+        apply(groups, results, loadGroups -> createGroups(loadGroups, requests));
+        return finish("Booking batch created", results);
+    }
+    
+    public BookingBatchResultDto decideBookings(List<BookingDecisionDto> decisions) {
+        logger.info("Deciding batch of {} bookings", decisions.size());
+        
+        BookingBatchItemResultDto[] results = new BookingBatchItemResultDto[checkSize(decisions).size()];
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < decisions.size(); i++) {
+            String violations = validate(decisions.get(i));
+            if (violations != null) {
+                results[i] = failed(i, violations);
+            } else {
+                valid.add(i);
+            }
+        }
+        
+        if (!valid.isEmpty()) {
+            try {
+                copy(transactionTemplate.execute(status -> decideGroups(valid, decisions)), results);
+            } catch (DataAccessException e) {
+                // The load of each booking is only known after reading it, so regroup before retrying
+                logger.warn("Booking decision batch failed, retrying load by load: {}", e.getMessage());
+                Map<UUID, List<Integer>> groups = transactionTemplate.execute(status -> groupDecisionsByLoad(valid, decisions));
+                for (List<Integer> indices : groups.values()) {
+                    applyOne(indices, results, () -> decideGroups(indices, decisions));
+                }
+            }
+        }
+        return finish("Booking decision batch applied", results);
+    }
+    
+    /**
+     * Runs the whole batch in one transaction. If the database rejects it, every load
+     * group is retried in its own transaction so a failure only affects its own load.
+     */
+    private void apply(Map<UUID, List<Integer>> groups, BookingBatchItemResultDto[] results,
+                       Function<Map<UUID, List<Integer>>, Map<Integer, BookingBatchItemResultDto>> work) {
+        if (groups.isEmpty()) {
+            return;
+        }
+        try {
+            copy(transactionTemplate.execute(status -> work.apply(groups)), results);
+        } catch (DataAccessException e) {
+            logger.warn("Booking batch over {} loads failed, retrying load by load: {}", groups.size(), e.getMessage());
+            for (Map.Entry<UUID, List<Integer>> group : groups.entrySet()) {
+                applyOne(group.getValue(), results, () -> work.apply(Map.of(group.getKey(), group.getValue())));
+            }
+        }
+    }
+    
+    private void applyOne(List<Integer> indices, BookingBatchItemResultDto[] results,
+                          Supplier<Map<Integer, BookingBatchItemResultDto>> work) {
+        try {
+            copy(transactionTemplate.execute(status -> work.get()), results);
+        } catch (DataAccessException e) {
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (int index : indices) {
+                results[index] = failed(index, message);
+            }
+        }
+    }
+    
+    private Map<Integer, BookingBatchItemResultDto> createGroups(Map<UUID, List<Integer>> groups,
+                                                                  List<BookingRequestDto> requests) {
+        loadService.lockAllForBookingChanges(groups.keySet());
+        Map<UUID, Load> loads = loadService.getLoadEntitiesById(groups.keySet());
+        
+        Map<Integer, BookingBatchItemResultDto> results = new HashMap<>();
+        Map<Integer, Booking> created = new LinkedHashMap<>();
+        Map<Load, LoadStatus> statusChanges = new LinkedHashMap<>();
+        for (Map.Entry<UUID, List<Integer>> group : groups.entrySet()) {
+            Load load = loads.get(group.getKey());
+            String error = null;
+            if (load == null) {
+                error = "Load not found with ID: " + group.getKey();
+            } else if (load.getStatus() == LoadStatus.CANCELLED) {
+                // Business rule: Cannot book cancelled loads
+                error = "Cannot create booking for cancelled load";
+            }
+            if (error != null) {
+                for (int index : group.getValue()) {
+                    results.put(index, failed(index, error));
+                }
+                continue;
+            }
+            
+            for (int index : group.getValue()) {
+                Booking booking = bookingMapper.toEntity(requests.get(index), load);
+                booking.setStatus(BookingStatus.PENDING); // Default status
+                created.put(index, booking);
+            }
+            load.adjustBookingCount(BookingStatus.PENDING, group.getValue().size());
+            
+            // Business rule: When a booking is made, update load status to BOOKED
+            LoadStatus previousStatus = load.getStatus();
+            if (previousStatus == LoadStatus.POSTED) {
+                load.setStatus(LoadStatus.BOOKED);
+            }
+            loadService.evictCachedLoad(load.getId());
+            indexOrQueue(load, previousStatus, statusChanges);
+        }
+        
+        bookingRepository.saveAll(created.values());
+        bookingRepository.flush();
+        // Published after the flush, so each event carries the version it wrote
+        statusChanges.forEach(loadService::publishStatusChange);
+        created.forEach((index, booking) -> {
+            bookingCache.invalidate(booking.getId());
+            results.put(index, succeeded(index, booking));
+        });
+        return results;
+    }
+    
+    private Map<UUID, List<Integer>> groupDecisionsByLoad(List<Integer> indices, List<BookingDecisionDto> decisions) {
+        Set<UUID> bookingIds = indices.stream().map(index -> decisions.get(index).getBookingId()).collect(Collectors.toSet());
+        Map<UUID, Booking> bookings = bookingRepository.findWithLoadByIdIn(bookingIds).stream()
+            .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        
+        Map<UUID, List<Integer>> groups = new LinkedHashMap<>();
+        for (int index : indices) {
+            Booking booking = bookings.get(decisions.get(index).getBookingId());
+            UUID loadId = booking == null ? null : booking.getLoad().getId();
+            groups.computeIfAbsent(loadId, key -> new ArrayList<>()).add(index);
+        }
+        return groups;
+    }
+    
+    private Map<Integer, BookingBatchItemResultDto> decideGroups(List<Integer> indices,
+                                                                  List<BookingDecisionDto> decisions) {
+        Set<UUID> bookingIds = indices.stream().map(index -> decisions.get(index).getBookingId()).collect(Collectors.toSet());
+        
+        // Take the load locks before reading the bookings, as the single-booking path does
+        loadService.lockAllForBookingChanges(bookingRepository.findLoadIdsByIdIn(bookingIds));
+        Map<UUID, Booking> bookings = bookingRepository.findWithLoadByIdIn(bookingIds).stream()
+            .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        
+        Map<Integer, BookingBatchItemResultDto> results = new HashMap<>();
+        Map<UUID, List<Integer>> groups = new LinkedHashMap<>();
+        for (int index : indices) {
+            UUID bookingId = decisions.get(index).getBookingId();
+            Booking booking = bookings.get(bookingId);
+            if (booking == null) {
+                results.put(index, failed(index, "Booking not found with ID: " + bookingId));
+            } else {
+                groups.computeIfAbsent(booking.getLoad().getId(), loadId -> new ArrayList<>()).add(index);
+            }
+        }
+        
+        Map<Integer, Booking> decided = new LinkedHashMap<>();
+        Map<UUID, Integer> rejectedByAccepted = new HashMap<>();
+        Map<Load, LoadStatus> statusChanges = new LinkedHashMap<>();
+        for (List<Integer> group : groups.values()) {
+            Load load = bookings.get(decisions.get(group.get(0)).getBookingId()).getLoad();
+            Booking accepted = null;
+            for (int index : group) {
+                BookingDecisionDto decision = decisions.get(index);
+                Booking booking = bookings.get(decision.getBookingId());
+                String error = decide(booking, load, decision.getDecision());
+                if (error != null) {
+                    results.put(index, failed(index, error));
+                    continue;
+                }
+                decided.put(index, booking);
+                if (booking.getStatus() == BookingStatus.ACCEPTED) {
+                    accepted = booking;
+                }
+            }
+            
+            UUID loadId = load.getId();
+            LoadStatus previousStatus = load.getStatus();
+            if (accepted != null) {
+                // Business rule: When a booking is accepted, reject all other pending bookings for the same load
+                int rejectedCount = bookingRepository.rejectOtherPendingBookings(loadId, accepted.getId());
+                load.adjustBookingCount(BookingStatus.PENDING, -rejectedCount);
+                load.adjustBookingCount(BookingStatus.REJECTED, rejectedCount);
+                rejectedByAccepted.put(accepted.getId(), rejectedCount);
+                bookingCache.invalidateIf(cached -> loadId.equals(cached.getLoadId()));
+            }
+            
+            // Business rule: If all bookings are rejected, revert load status to POSTED
+            if (load.getStatus() == LoadStatus.BOOKED && !load.hasActiveBookings()) {
+                load.setStatus(LoadStatus.POSTED);
+            }
+            loadService.evictCachedLoad(loadId);
+            indexOrQueue(load, previousStatus, statusChanges);
+        }
+        
+        bookingRepository.flush();
+        // Published after the flush, so each event carries the version it wrote
+        statusChanges.forEach(loadService::publishStatusChange);
+        decided.forEach((index, booking) -> {
+            bookingCache.invalidate(booking.getId());
+            BookingBatchItemResultDto result = succeeded(index, booking);
+            result.getBooking().setRejectedBookings(rejectedByAccepted.get(booking.getId()));
+            results.put(index, result);
+        });
+        return results;
+    }
+    
+    /**
+     * Queues the load in {@code statusChanges} for publishing to the feed if the batch moved
+     * it to another status, and only reindexes it otherwise.
+     */
+    private void indexOrQueue(Load load, LoadStatus previousStatus, Map<Load, LoadStatus> statusChanges) {
+        if (load.getStatus() != previousStatus) {
+            statusChanges.put(load, previousStatus);
+        } else {
+            loadService.indexLoad(load);
+        }
+    }
+    
+    /**
+     * Applies one decision in memory and returns the business rule it breaks, if any.
+     */
+    private static String decide(Booking booking, Load load, BookingDecisionDto.Decision decision) {
+        if (decision == BookingDecisionDto.Decision.ACCEPT) {
+            if (booking.getStatus() != BookingStatus.PENDING) {
+                return "Only pending bookings can be accepted";
+            }
+            // Business rule: A load can have only one accepted booking
+            if (load.getAcceptedBookings() > 0) {
+                return "Load already has an accepted booking";
+            }
+            booking.setStatus(BookingStatus.ACCEPTED);
+            load.adjustBookingCount(BookingStatus.PENDING, -1);
+            load.adjustBookingCount(BookingStatus.ACCEPTED, 1);
+        } else {
+            if (booking.getStatus() != BookingStatus.PENDING) {
+                return "Only pending bookings can be rejected";
+            }
+            booking.setStatus(BookingStatus.REJECTED);
+            load.adjustBookingCount(BookingStatus.PENDING, -1);
+            load.adjustBookingCount(BookingStatus.REJECTED, 1);
+        }
+        return null;
+    }
+    
+    private <T> List<T> checkSize(List<T> items) {
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxItems + " items");
+        }
+        return items;
+    }
+    
+    private String validate(Object item) {
+        if (item == null) {
+            return "Item is required";
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining("; "));
+    }
+    
+    private BookingBatchItemResultDto succeeded(int index, Booking booking) {
+        return new BookingBatchItemResultDto(index, true, bookingMapper.toResponseDto(booking), null);
+    }
+    
+    private static BookingBatchItemResultDto failed(int index, String error) {
+        return new BookingBatchItemResultDto(index, false, null, error);
+    }
+    
+    private static void copy(Map<Integer, BookingBatchItemResultDto> source, BookingBatchItemResultDto[] results) {
+        source.forEach((index, result) -> results[index] = result);
+    }
+    
+    private static BookingBatchResultDto finish(String message, BookingBatchItemResultDto[] results) {
+        BookingBatchResultDto result = new BookingBatchResultDto(Arrays.asList(results));
+        logger.info("{} - succeeded: {}, failed: {}", message, result.getSucceeded(), result.getFailed());
+        return result;
+    }
+}
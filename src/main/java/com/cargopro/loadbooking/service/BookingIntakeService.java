@@ -0,0 +1,300 @@
+package com.cargopro.loadbooking.service;
+
+import com.cargopro.loadbooking.dto.BookingRequestDto;
+import com.cargopro.loadbooking.dto.BookingResponseDto;
+import com.cargopro.loadbooking.dto.BookingTicketDto;
+import com.cargopro.loadbooking.exception.BusinessException;
+import com.cargopro.loadbooking.exception.IntakeFullException;
+import com.cargopro.loadbooking.exception.ResourceNotFoundException;
+import com.cargopro.loadbooking.journal.IntakeJournal;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts booking requests by appending them to an {@link IntakeJournal} and answering
+ * with a ticket, instead of creating the booking while the caller waits. A single worker
+ * thread drains the journal in batches through {@link BookingService#createBooking} and
+ * records the outcome against the ticket. Each batch is applied in one transaction; if
+ * any record in it fails, the batch is rolled back and applied again one record at a
+ * time, so the failure is pinned on its own ticket.
+ *
+ * <p>A record is retried only while the database is unreachable or reports a transient
+ * error. Any other failure, such as a constraint violation, fails its ticket and the
+ * worker moves on.
+ *
+ * <p>The ticket ID becomes the booking ID. Records that may already have been attempted,
+ * because they were still in the journal at startup or because a database error
+ * interrupted their batch, are only applied if that booking does not exist yet, so a
+ * replay never creates a booking twice.
+ *
+ * <p>When the journal is full, {@link #submit} fails with {@link IntakeFullException}
+ * rather than blocking the request thread.
+ */
+@Service
+public class BookingIntakeService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BookingIntakeService.class);
+    
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+    private static final long RETRY_BACKOFF_MILLIS = 1000;
+    
+    private final BookingService bookingService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Cache<UUID, BookingTicketDto> tickets;
+    private final IntakeJournal journal;
+    private final Thread worker;
+    
+    private volatile boolean running = true;
+    // Records below this sequence number may have been attempted before
+    private long replayBelow;
+    
+    @Autowired
+    public BookingIntakeService(BookingService bookingService, TransactionTemplate transactionTemplate,
+                                ObjectMapper objectMapper,
+                                @Value("${loadbooking.intake.async.enabled:false}") boolean enabled,
+                                @Value("${loadbooking.intake.journal-path:./data/booking-intake.journal}") Path journalPath,
+                                @Value("${loadbooking.intake.capacity:64MB}") DataSize capacity,
+                                @Value("${loadbooking.intake.fsync:false}") boolean fsync,
+                                @Value("${loadbooking.intake.batch-size:256}") int batchSize,
+                                @Value("${loadbooking.intake.ticket-retention:1h}") Duration ticketRetention,
+                                @Value("${loadbooking.intake.max-tickets:100000}") long maxTickets) {
+        this.bookingService = bookingService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.tickets = Caffeine.newBuilder()
+            .maximumSize(maxTickets)
+            .expireAfterWrite(ticketRetention)
+            .build();
+        
+        if (!enabled) {
+            this.journal = null;
+            this.worker = null;
+            return;
+        }
+        
+        try {
+            this.journal = new IntakeJournal(journalPath, Math.toIntExact(capacity.toBytes()), fsync);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open booking intake journal " + journalPath, e);
+        }
+        this.replayBelow = journal.nextSequence();
+        this.worker = new Thread(this::drain, "booking-intake");
+        this.worker.setDaemon(true);
+        this.worker.start();
+        logger.info("Asynchronous booking intake enabled - journal: {}, capacity: {}, fsync: {}, replaying: {}",
+                   journalPath, capacity, fsync, journal.pending());
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Journals a booking request and returns its ticket. The booking is created later by
+     * the intake worker.
+     */
+    public BookingTicketDto submit(BookingRequestDto requestDto) {
+        if (!enabled) {
+            throw new IllegalStateException("Asynchronous booking intake is disabled");
+        }
+        
+        UUID ticketId = UUID.randomUUID();
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(requestDto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize booking request", e);
+        }
+        
+        // Register the ticket first, so that the worker's outcome is never overwritten by it
+        BookingTicketDto ticket = new BookingTicketDto(ticketId, BookingTicketDto.Status.QUEUED, null, null);
+        tickets.put(ticketId, ticket);
+        if (!journal.tryAppend(ticketId, payload)) {
+            tickets.invalidate(ticketId);
+            throw new IntakeFullException("Booking intake is full. Please retry shortly.");
+        }
+        
+        logger.debug("Booking request for load {} journaled with ticket {}", requestDto.getLoadId(), ticketId);
+        return ticket;
+    }
+    
+    /**
+     * Returns the state of a ticket. Once a completed ticket has expired, the booking it
+     * created is still found by the same ID.
+     */
+    public BookingTicketDto getTicket(UUID ticketId) {
+        BookingTicketDto ticket = tickets.getIfPresent(ticketId);
+        if (ticket != null) {
+            return ticket;
+        }
+        try {
+            BookingResponseDto booking = bookingService.getBookingById(ticketId);
+            return new BookingTicketDto(ticketId, BookingTicketDto.Status.COMPLETED, booking, null);
+        } catch (ResourceNotFoundException e) {
+            throw new ResourceNotFoundException("Ticket not found with ID: " + ticketId);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+            journal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.warn("Failed to close booking intake journal: {}", e.getMessage());
+        }
+    }
+    
+    private void drain() {
+        while (running) {
+            try {
+                process(journal.read(batchSize, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                logger.error("Booking intake worker failed unexpectedly", e);
+            }
+        }
+    }
+    
+    private void process(List<IntakeJournal.Entry> entries) throws InterruptedException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        IntakeJournal.Entry last = entries.get(entries.size() - 1);
+        if (entries.size() > 1) {
+            if (applyTogether(entries)) {
+                journal.acknowledge(last);
+                return;
+            }
+            // The commit may have gone through before it failed, so every record checks for its booking first
+            replayBelow = Math.max(replayBelow, last.getSequence() + 1);
+        }
+        
+        IntakeJournal.Entry processed = null;
+        for (IntakeJournal.Entry entry : entries) {
+            while (!apply(entry)) {
+                // Keep what is done, then wait for the database and try this record again
+                if (processed != null) {
+                    journal.acknowledge(processed);
+                    processed = null;
+                }
+                replayBelow = Math.max(replayBelow, entry.getSequence() + 1);
+                Thread.sleep(RETRY_BACKOFF_MILLIS);
+            }
+            processed = entry;
+        }
+        if (processed != null) {
+            journal.acknowledge(processed);
+        }
+    }
+    
+    /**
+     * Creates the bookings of a whole batch in one transaction and completes their
+     * tickets once it has committed. Returns {@code false}, with no ticket changed, if
+     * any record or the commit failed.
+     */
+    private boolean applyTogether(List<IntakeJournal.Entry> entries) {
+        List<BookingTicketDto> completed = new ArrayList<>(entries.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (IntakeJournal.Entry entry : entries) {
+                    try {
+                        completed.add(new BookingTicketDto(entry.getTicketId(), BookingTicketDto.Status.COMPLETED,
+                            create(entry), null));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.info("Batch of {} booking requests failed, applying them one by one: {}",
+                       entries.size(), e.getMessage());
+            return false;
+        }
+        completed.forEach(ticket -> tickets.put(ticket.getTicketId(), ticket));
+        return true;
+    }
+    
+    /**
+     * Creates the booking for one record and returns whether the record is done with,
+     * or {@code false} if it failed for a reason that retrying may fix.
+     */
+    private boolean apply(IntakeJournal.Entry entry) {
+        UUID ticketId = entry.getTicketId();
+        try {
+            BookingResponseDto booking = create(entry);
+            tickets.put(ticketId, new BookingTicketDto(ticketId, BookingTicketDto.Status.COMPLETED, booking, null));
+            return true;
+        } catch (BusinessException | ResourceNotFoundException e) {
+            fail(ticketId, e.getMessage());
+            return true;
+        } catch (TransientDataAccessException | RecoverableDataAccessException | DataAccessResourceFailureException
+                 | CannotCreateTransactionException e) {
+            // The database is briefly unavailable or busy; the same record may well succeed later
+            logger.warn("Booking intake for ticket {} failed, retrying: {}", ticketId, e.getMessage());
+            return false;
+        } catch (DataAccessException e) {
+            // Retrying would fail the same way, e.g. a comment longer than its column
+            logger.warn("Booking intake for ticket {} was refused by the database: {}", ticketId, e.getMessage());
+            fail(ticketId, "Booking could not be stored: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Booking intake for ticket {} failed", ticketId, e);
+            fail(ticketId, "Booking could not be processed");
+            return true;
+        }
+    }
+    
+    private BookingResponseDto create(IntakeJournal.Entry entry) throws IOException {
+        UUID ticketId = entry.getTicketId();
+        if (entry.getSequence() < replayBelow && bookingService.bookingExists(ticketId)) {
+            return bookingService.getBookingById(ticketId);
+        }
+        BookingRequestDto requestDto = objectMapper.readValue(entry.getPayload(), BookingRequestDto.class);
+        return bookingService.createBooking(requestDto, ticketId);
+    }
+    
+    private void fail(UUID ticketId, String error) {
+        logger.info("Booking intake for ticket {} failed: {}", ticketId, error);
+        tickets.put(ticketId, new BookingTicketDto(ticketId, BookingTicketDto.Status.FAILED, null, error));
+    }
+}
@@ -1,24 +1,36 @@
 package com.cargopro.loadbooking.service;
 
+import com.cargopro.loadbooking.cache.BookingLookupCache;
 import com.cargopro.loadbooking.dto.BookingRequestDto;
 import com.cargopro.loadbooking.dto.BookingResponseDto;
+import com.cargopro.loadbooking.dto.CursorPageDto;
 import com.cargopro.loadbooking.entity.Booking;
 import com.cargopro.loadbooking.entity.BookingStatus;
+import com.cargopro.loadbooking.entity.BookingTombstone;
 import com.cargopro.loadbooking.entity.Load;
 import com.cargopro.loadbooking.entity.LoadStatus;
 import com.cargopro.loadbooking.exception.BusinessException;
 import com.cargopro.loadbooking.exception.ResourceNotFoundException;
 import com.cargopro.loadbooking.mapper.BookingMapper;
+import com.cargopro.loadbooking.pagination.KeysetCursor;
 import com.cargopro.loadbooking.repository.BookingRepository;
+import com.cargopro.loadbooking.repository.BookingSpecifications;
+import com.cargopro.loadbooking.repository.BookingTombstoneRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -26,40 +38,67 @@ public class BookingService {
     
     private static final Logger logger = LoggerFactory.getLogger(BookingService.class);
     
+    private static final Sort KEYSET_ORDER = Sort.by(Sort.Order.desc("requestedAt"), Sort.Order.desc("id"));
+    
     private final BookingRepository bookingRepository;
     private final BookingMapper bookingMapper;
     private final LoadService loadService;
+    private final BookingLookupCache bookingCache;
+    private final BookingTombstoneRepository tombstoneRepository;
     
     @Autowired
-    public BookingService(BookingRepository bookingRepository, BookingMapper bookingMapper, LoadService loadService) {
+    public BookingService(BookingRepository bookingRepository, BookingMapper bookingMapper, LoadService loadService,
+                          BookingLookupCache bookingCache, BookingTombstoneRepository tombstoneRepository) {
         this.bookingRepository = bookingRepository;
         this.bookingMapper = bookingMapper;
         this.loadService = loadService;
+        this.bookingCache = bookingCache;
+        this.tombstoneRepository = tombstoneRepository;
     }
     
+    /**
+     * Creates a booking in two statements after the per-load lock: one that checks the
+     * load, inserts the booking and updates the load's counter and status together, and
+     * the commit. Nothing is read into the persistence context.
+     */
     public BookingResponseDto createBooking(BookingRequestDto requestDto) {
+        return createBooking(requestDto, UUID.randomUUID());
+    }
+    
+    /**
+     * Creates a booking with a caller-chosen ID, so that a request replayed from the
+     * intake journal maps onto the booking its first attempt may already have created.
+     */
+    public BookingResponseDto createBooking(BookingRequestDto requestDto, UUID bookingId) {
         logger.info("Creating new booking for load: {} by transporter: {}", 
                    requestDto.getLoadId(), requestDto.getTransporterId());
         
-        Load load = loadService.getLoadEntityById(requestDto.getLoadId());
+        UUID loadId = requestDto.getLoadId();
+        loadService.lockForBookingChanges(loadId);
+        
+        Booking booking = bookingMapper.toEntity(requestDto, loadService.getLoadReference(loadId));
+        booking.setId(bookingId);
+        booking.setStatus(BookingStatus.PENDING); // Default status
+        booking.setRequestedAt(LocalDateTime.now());
+        
+        // Business rule: When a booking is made, update load status to BOOKED (done by the same statement)
+        LoadStatus loadStatus = bookingRepository.insertPendingBooking(booking)
+            .orElseThrow(() -> new ResourceNotFoundException("Load not found with ID: " + loadId));
         
         // Business rule: Cannot book cancelled loads
-        if (load.getStatus() == LoadStatus.CANCELLED) {
+        if (loadStatus == LoadStatus.CANCELLED) {
             throw new BusinessException("Cannot create booking for cancelled load");
         }
         
-        Booking booking = bookingMapper.toEntity(requestDto, load);
-        booking.setStatus(BookingStatus.PENDING); // Default status
-        
-        Booking savedBooking = bookingRepository.save(booking);
-        
-        // Business rule: When a booking is made, update load status to BOOKED
-        if (load.getStatus() == LoadStatus.POSTED) {
-            loadService.updateLoadStatus(load.getId(), LoadStatus.BOOKED);
+        bookingCache.invalidate(booking.getId());
+        loadService.evictCachedLoad(loadId);
+        if (loadStatus == LoadStatus.POSTED) {
+            // The first booking took the load off the board
+            loadService.publishStatusChange(loadId, LoadStatus.POSTED);
         }
         
-        logger.info("Booking created with ID: {}", savedBooking.getId());
-        return bookingMapper.toResponseDto(savedBooking);
+        logger.info("Booking created with ID: {}", booking.getId());
+        return bookingMapper.toResponseDto(booking);
     }
     
     @Transactional(readOnly = true)
@@ -67,21 +106,75 @@ public class BookingService {
         logger.info("Fetching bookings with filters - loadId: {}, transporterId: {}, status: {}", 
                    loadId, transporterId, status);
         
-        List<Booking> bookings = bookingRepository.findBookingsWithFilters(loadId, transporterId, status);
+        return bookingRepository.findViews(
+            BookingSpecifications.withFilters(loadId, transporterId, status), Sort.unsorted(), 0);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPageDto<BookingResponseDto> getBookingsByCursor(UUID loadId, String transporterId, BookingStatus status,
+                                                                String cursor, int size) {
+        logger.info("Fetching bookings by cursor - loadId: {}, transporterId: {}, status: {}, size: {}", 
+                   loadId, transporterId, status, size);
+        
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        Specification<Booking> spec = BookingSpecifications.withFilters(loadId, transporterId, status)
+            .and(BookingSpecifications.requestedBefore(position));
         
-        return bookings.stream()
-                .map(bookingMapper::toResponseDto)
-                .collect(Collectors.toList());
+        // Fetch one extra row to learn whether another page exists without counting
+        List<BookingResponseDto> bookings = bookingRepository.findViews(spec, KEYSET_ORDER, size + 1);
+        boolean hasNext = bookings.size() > size;
+        List<BookingResponseDto> content = hasNext ? bookings.subList(0, size) : bookings;
+        
+        String nextCursor = null;
+        if (hasNext) {
+            BookingResponseDto last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getRequestedAt(), last.getId()).encode();
+        }
+        
+        return new CursorPageDto<>(content, size, hasNext, nextCursor, null);
     }
     
+    /**
+     * Pushes every matching booking, newest first, to {@code sink} while reading from a
+     * database cursor, so memory use is independent of the number of matches.
+     *
+     * @return the number of bookings written
+     */
     @Transactional(readOnly = true)
+    public long streamBookings(UUID loadId, String transporterId, BookingStatus status,
+                               Consumer<BookingResponseDto> sink) {
+        logger.info("Streaming bookings with filters - loadId: {}, transporterId: {}, status: {}", 
+                   loadId, transporterId, status);
+        
+        Specification<Booking> spec = BookingSpecifications.withFilters(loadId, transporterId, status);
+        long count = 0;
+        try (Stream<BookingResponseDto> bookings = bookingRepository.streamViews(spec, KEYSET_ORDER)) {
+            Iterator<BookingResponseDto> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                sink.accept(iterator.next());
+                count++;
+            }
+        }
+        
+        logger.info("Streamed {} bookings", count);
+        return count;
+    }
+    
+    // SUPPORTS: a cache hit must not open a transaction or borrow a connection
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public BookingResponseDto getBookingById(UUID bookingId) {
         logger.info("Fetching booking with ID: {}", bookingId);
         
-        Booking booking = bookingRepository.findById(bookingId)
+        return bookingCache.get(bookingId, id -> bookingRepository.findById(id).map(bookingMapper::toResponseDto))
             .orElseThrow(() -> new ResourceNotFoundException("Booking not found with ID: " + bookingId));
-        
-        return bookingMapper.toResponseDto(booking);
+    }
+    
+    @Transactional(readOnly = true)
+    public boolean bookingExists(UUID bookingId) {
+        return bookingRepository.existsById(bookingId);
     }
     
     public BookingResponseDto updateBooking(UUID bookingId, BookingRequestDto requestDto) {
@@ -97,6 +190,7 @@ public class BookingService {
         
         bookingMapper.updateEntity(existingBooking, requestDto);
         Booking updatedBooking = bookingRepository.save(existingBooking);
+        bookingCache.invalidate(bookingId);
         
         logger.info("Booking updated successfully with ID: {}", bookingId);
         return bookingMapper.toResponseDto(updatedBooking);
@@ -105,36 +199,43 @@ public class BookingService {
     public BookingResponseDto acceptBooking(UUID bookingId) {
         logger.info("Accepting booking with ID: {}", bookingId);
         
-        Booking booking = bookingRepository.findById(bookingId)
-            .orElseThrow(() -> new ResourceNotFoundException("Booking not found with ID: " + bookingId));
+        Booking booking = findBookingWithLoadLocked(bookingId);
         
         if (booking.getStatus() != BookingStatus.PENDING) {
             throw new BusinessException("Only pending bookings can be accepted");
         }
         
+        // Business rule: A load can have only one accepted booking
+        Load load = booking.getLoad();
+        if (load.getAcceptedBookings() > 0) {
+            throw new BusinessException("Load already has an accepted booking");
+        }
+        
         booking.setStatus(BookingStatus.ACCEPTED);
         Booking savedBooking = bookingRepository.save(booking);
+        load.adjustBookingCount(BookingStatus.PENDING, -1);
+        load.adjustBookingCount(BookingStatus.ACCEPTED, 1);
         
         // Business rule: When a booking is accepted, reject all other pending bookings for the same load
-        List<Booking> otherBookings = bookingRepository.findByLoadIdAndStatus(
-            booking.getLoad().getId(), BookingStatus.PENDING);
+        int rejectedCount = bookingRepository.rejectOtherPendingBookings(load.getId(), bookingId);
+        load.adjustBookingCount(BookingStatus.PENDING, -rejectedCount);
+        load.adjustBookingCount(BookingStatus.REJECTED, rejectedCount);
         
-        otherBookings.stream()
-            .filter(b -> !b.getId().equals(bookingId))
-            .forEach(b -> {
-                b.setStatus(BookingStatus.REJECTED);
-                bookingRepository.save(b);
-            });
+        // The bulk update does not report which bookings it rejected, so drop every cached booking of the load
+        UUID loadId = load.getId();
+        bookingCache.invalidateIf(cached -> loadId.equals(cached.getLoadId()));
+        loadService.evictCachedLoad(loadId);
         
-        logger.info("Booking accepted with ID: {} and other pending bookings rejected", bookingId);
-        return bookingMapper.toResponseDto(savedBooking);
+        logger.info("Booking accepted with ID: {} and {} other pending bookings rejected", bookingId, rejectedCount);
+        BookingResponseDto responseDto = bookingMapper.toResponseDto(savedBooking);
+        responseDto.setRejectedBookings(rejectedCount);
+        return responseDto;
     }
     
     public BookingResponseDto rejectBooking(UUID bookingId) {
         logger.info("Rejecting booking with ID: {}", bookingId);
         
-        Booking booking = bookingRepository.findById(bookingId)
-            .orElseThrow(() -> new ResourceNotFoundException("Booking not found with ID: " + bookingId));
+        Booking booking = findBookingWithLoadLocked(bookingId);
         
         if (booking.getStatus() != BookingStatus.PENDING) {
             throw new BusinessException("Only pending bookings can be rejected");
@@ -142,9 +243,14 @@ public class BookingService {
         
         booking.setStatus(BookingStatus.REJECTED);
         Booking savedBooking = bookingRepository.save(booking);
+        Load load = booking.getLoad();
+        load.adjustBookingCount(BookingStatus.PENDING, -1);
+        load.adjustBookingCount(BookingStatus.REJECTED, 1);
+        bookingCache.invalidate(bookingId);
+        loadService.evictCachedLoad(load.getId());
         
         // Check if all bookings for this load are rejected, then revert load status to POSTED
-        checkAndUpdateLoadStatus(booking.getLoad().getId());
+        checkAndUpdateLoadStatus(load);
         
         logger.info("Booking rejected with ID: {}", bookingId);
         return bookingMapper.toResponseDto(savedBooking);
@@ -153,30 +259,40 @@ public class BookingService {
     public void deleteBooking(UUID bookingId) {
         logger.info("Deleting booking with ID: {}", bookingId);
         
-        Booking booking = bookingRepository.findById(bookingId)
-            .orElseThrow(() -> new ResourceNotFoundException("Booking not found with ID: " + bookingId));
+        Booking booking = findBookingWithLoadLocked(bookingId);
         
-        UUID loadId = booking.getLoad().getId();
+        Load load = booking.getLoad();
         bookingRepository.delete(booking);
+        // Lets clients syncing changes know the booking is gone
+        tombstoneRepository.save(new BookingTombstone(bookingId, load.getId()));
+        load.adjustBookingCount(booking.getStatus(), -1);
+        bookingCache.invalidate(bookingId);
+        loadService.evictCachedLoad(load.getId());
         
         // Business rule: If all bookings are deleted or rejected, revert load status to POSTED
-        checkAndUpdateLoadStatus(loadId);
+        checkAndUpdateLoadStatus(load);
         
         logger.info("Booking deleted with ID: {}", bookingId);
     }
     
-    private void checkAndUpdateLoadStatus(UUID loadId) {
-        Load load = loadService.getLoadEntityById(loadId);
-        
-        if (load.getStatus() == LoadStatus.BOOKED) {
-            List<Booking> activeBookings = bookingRepository.findByLoadIdAndStatus(loadId, BookingStatus.PENDING);
-            List<Booking> acceptedBookings = bookingRepository.findByLoadIdAndStatus(loadId, BookingStatus.ACCEPTED);
-            
-            // If no active or accepted bookings exist, revert to POSTED
-            if (activeBookings.isEmpty() && acceptedBookings.isEmpty()) {
-                loadService.updateLoadStatus(loadId, LoadStatus.POSTED);
-                logger.info("Load status reverted to POSTED for load ID: {}", loadId);
-            }
+    /**
+     * Takes the per-load lock before reading the booking, so the status checks that
+     * follow see the latest committed state and no other transition can interleave.
+     */
+    private Booking findBookingWithLoadLocked(UUID bookingId) {
+        UUID loadId = bookingRepository.findLoadIdById(bookingId)
+            .orElseThrow(() -> new ResourceNotFoundException("Booking not found with ID: " + bookingId));
+        loadService.lockForBookingChanges(loadId);
+        
+        return bookingRepository.findById(bookingId)
+            .orElseThrow(() -> new ResourceNotFoundException("Booking not found with ID: " + bookingId));
+    }
+    
+    private void checkAndUpdateLoadStatus(Load load) {
+        // If no active or accepted bookings exist, revert to POSTED
+        if (load.getStatus() == LoadStatus.BOOKED && !load.hasActiveBookings()) {
+            loadService.updateLoadStatus(load.getId(), LoadStatus.POSTED);
+            logger.info("Load status reverted to POSTED for load ID: {}", load.getId());
         }
     }
 }
\ No newline at end of file
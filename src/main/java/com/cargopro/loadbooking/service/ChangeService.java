@@ -0,0 +1,148 @@
+package com.cargopro.loadbooking.service;
+
+import com.cargopro.loadbooking.dto.BookingResponseDto;
+import com.cargopro.loadbooking.dto.ChangesPageDto;
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.dto.TombstoneDto;
+import com.cargopro.loadbooking.entity.Booking;
+import com.cargopro.loadbooking.entity.BookingTombstone;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.mapper.BookingMapper;
+import com.cargopro.loadbooking.mapper.LoadMapper;
+import com.cargopro.loadbooking.pagination.ChangeToken;
+import com.cargopro.loadbooking.repository.BookingRepository;
+import com.cargopro.loadbooking.repository.BookingTombstoneRepository;
+import com.cargopro.loadbooking.repository.LoadRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Answers "what changed since token T" for clients that keep a local copy of loads or
+ * bookings. Every write to a load or booking stamps the row with its transaction and
+ * the next value of the shared change sequence, and deleting a booking leaves a
+ * tombstone stamped the same way. Changes are ordered by transaction, then number, and
+ * a token is the last position a client has seen, so a page is a range scan of the
+ * change index, and a row changed several times since the token is returned once in
+ * its latest state.
+ *
+ * <p>Numbers are taken when a row is written, not when its transaction commits, so a
+ * change that is still uncommitted can end up ordered before one that is already
+ * visible. A page therefore only holds changes of transactions older than every
+ * transaction still running. A transaction that commits later has a higher
+ * transaction ID than all of them, so it sorts after any token already handed out.
+ * The cost is that one long-running write holds back the changes committed after it
+ * started until it ends.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ChangeService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ChangeService.class);
+    
+    private static final Comparator<ChangeToken> CHANGE_ORDER = Comparator.comparingLong(ChangeToken::getTransaction)
+        .thenComparingLong(ChangeToken::getSequence);
+    
+    private final LoadRepository loadRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingTombstoneRepository tombstoneRepository;
+    private final LoadMapper loadMapper;
+    private final BookingMapper bookingMapper;
+    
+    @Autowired
+    public ChangeService(LoadRepository loadRepository, BookingRepository bookingRepository,
+                         BookingTombstoneRepository tombstoneRepository, LoadMapper loadMapper,
+                         BookingMapper bookingMapper) {
+        this.loadRepository = loadRepository;
+        this.bookingRepository = bookingRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.loadMapper = loadMapper;
+        this.bookingMapper = bookingMapper;
+    }
+    
+    /**
+     * Returns up to {@code size} loads created, updated or cancelled after {@code since}.
+     * Loads are never deleted; a cancelled load is returned with status CANCELLED.
+     */
+    public ChangesPageDto<LoadResponseDto> getLoadChanges(String since, int size) {
+        logger.info("Fetching load changes - since: {}, size: {}", since, size);
+        
+        checkSize(size);
+        ChangeToken after = ChangeToken.decode(since);
+        long before = loadRepository.findOldestRunningTransaction();
+        List<Load> loads = loadRepository.findChangedAfter(after.getTransaction(), after.getSequence(), before,
+                                                           PageRequest.of(0, size + 1));
+        boolean hasMore = loads.size() > size;
+        List<Load> page = hasMore ? loads.subList(0, size) : loads;
+        
+        ChangeToken token = page.isEmpty() ? after : token(page.get(page.size() - 1));
+        return new ChangesPageDto<>(page.stream().map(loadMapper::toResponseDto).toList(), null, token.encode(),
+                                    hasMore);
+    }
+    
+    /**
+     * Returns up to {@code size} bookings created, updated or deleted after {@code since}.
+     * Bookings and tombstones share one numbering and are merged in that order, so the
+     * token never skips a deletion.
+     */
+    public ChangesPageDto<BookingResponseDto> getBookingChanges(String since, int size) {
+        logger.info("Fetching booking changes - since: {}, size: {}", since, size);
+        
+        checkSize(size);
+        ChangeToken after = ChangeToken.decode(since);
+        // Taken once, so both queries stop at the same transaction and the merge cannot skip a change
+        long before = loadRepository.findOldestRunningTransaction();
+        List<Booking> bookings = bookingRepository.findChangedAfter(after.getTransaction(), after.getSequence(),
+                                                                    before, PageRequest.of(0, size + 1));
+        List<BookingTombstone> tombstones = tombstoneRepository.findChangedAfter(after.getTransaction(),
+            after.getSequence(), before, PageRequest.of(0, size + 1));
+        
+        List<BookingResponseDto> changes = new ArrayList<>();
+        List<TombstoneDto> deleted = new ArrayList<>();
+        ChangeToken token = after;
+        int b = 0;
+        int t = 0;
+        while (b + t < size && (b < bookings.size() || t < tombstones.size())) {
+            if (t == tombstones.size()
+                    || (b < bookings.size() && CHANGE_ORDER.compare(token(bookings.get(b)),
+                                                                    token(tombstones.get(t))) < 0)) {
+                Booking booking = bookings.get(b++);
+                changes.add(bookingMapper.toResponseDto(booking));
+                token = token(booking);
+            } else {
+                BookingTombstone tombstone = tombstones.get(t++);
+                deleted.add(new TombstoneDto(tombstone.getBookingId(), tombstone.getLoadId(),
+                                             tombstone.getDeletedAt()));
+                token = token(tombstone);
+            }
+        }
+        
+        boolean hasMore = b < bookings.size() || t < tombstones.size();
+        return new ChangesPageDto<>(changes, deleted, token.encode(), hasMore);
+    }
+    
+    private static ChangeToken token(Load load) {
+        return new ChangeToken(load.getChangeXid(), load.getChangeSeq());
+    }
+    
+    private static ChangeToken token(Booking booking) {
+        return new ChangeToken(booking.getChangeXid(), booking.getChangeSeq());
+    }
+    
+    private static ChangeToken token(BookingTombstone tombstone) {
+        return new ChangeToken(tombstone.getChangeXid(), tombstone.getChangeSeq());
+    }
+    
+    private static void checkSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.cargopro.loadbooking.service;
+
+import com.cargopro.loadbooking.dto.BookingResponseDto;
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.Booking;
+import com.cargopro.loadbooking.entity.BookingStatus;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.repository.BookingRepository;
+import com.cargopro.loadbooking.repository.BookingSpecifications;
+import com.cargopro.loadbooking.repository.LoadRepository;
+import com.cargopro.loadbooking.repository.LoadSpecifications;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes full load and booking histories as NDJSON or CSV. Rows come from a
+ * forward-only database cursor as DTO projections and are written as they arrive,
+ * so an export of any size runs in constant memory. The output is flushed every
+ * {@code flush-rows} rows to keep the response moving. With gzip, each flush also
+ * emits the compressed data buffered so far.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ExportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+    
+    // Oldest first, so that an export reads as a history and repeated exports line up
+    private static final Sort LOAD_ORDER = Sort.by("datePosted", "id");
+    private static final Sort BOOKING_ORDER = Sort.by("requestedAt", "id");
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    
+    static final List<String> LOAD_CSV_COLUMNS = List.of("id", "shipperId", "loadingPoint", "unloadingPoint",
+        "loadingDate", "unloadingDate", "productType", "truckType", "noOfTrucks", "weight", "comment", "datePosted",
+        "status", "pendingBookings", "acceptedBookings", "rejectedBookings", "version", "loadingLatitude",
+        "loadingLongitude", "unloadingLatitude", "unloadingLongitude");
+    static final List<String> BOOKING_CSV_COLUMNS = List.of("id", "loadId", "transporterId", "proposedRate", "comment",
+        "status", "requestedAt");
+    
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+        
+        private final String contentType;
+        private final String extension;
+        
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+        
+        public String getContentType() {
+            return contentType;
+        }
+        
+        public String getExtension() {
+            return extension;
+        }
+    }
+    
+    private final LoadRepository loadRepository;
+    private final BookingRepository bookingRepository;
+    private final ObjectMapper objectMapper;
+    private final int flushRows;
+    
+    @Autowired
+    public ExportService(LoadRepository loadRepository, BookingRepository bookingRepository, ObjectMapper objectMapper,
+                         @Value("${loadbooking.export.flush-rows:1000}") int flushRows) {
+        this.loadRepository = loadRepository;
+        this.bookingRepository = bookingRepository;
+        this.objectMapper = objectMapper;
+        this.flushRows = flushRows;
+    }
+    
+    /**
+     * Writes the matching loads posted in {@code [from, to)} to {@code out}.
+     *
+     * @return the number of loads written
+     */
+    public long exportLoads(String shipperId, String truckType, LoadStatus status, LocalDateTime from,
+                            LocalDateTime to, Format format, boolean gzip, OutputStream out) throws IOException {
+        logger.info("Exporting loads as {} - shipperId: {}, truckType: {}, status: {}, from: {}, to: {}",
+                   format, shipperId, truckType, status, from, to);
+        
+        Specification<Load> spec = LoadSpecifications.withFilters(shipperId, truckType, status)
+            .and(LoadSpecifications.postedBetween(from, to));
+        long count;
+        try (Stream<LoadResponseDto> loads = loadRepository.streamViews(spec, LOAD_ORDER)) {
+            count = write(loads.iterator(), format, gzip, LOAD_CSV_COLUMNS, ExportService::loadFields, out);
+        }
+        
+        logger.info("Exported {} loads", count);
+        return count;
+    }
+    
+    /**
+     * Writes the matching bookings requested in {@code [from, to)} to {@code out}.
+     *
+     * @return the number of bookings written
+     */
+    public long exportBookings(UUID loadId, String transporterId, BookingStatus status, LocalDateTime from,
+                               LocalDateTime to, Format format, boolean gzip, OutputStream out)
+            throws IOException {
+        logger.info("Exporting bookings as {} - loadId: {}, transporterId: {}, status: {}, from: {}, to: {}",
+                   format, loadId, transporterId, status, from, to);
+        
+        Specification<Booking> spec = BookingSpecifications.withFilters(loadId, transporterId, status)
+            .and(BookingSpecifications.requestedBetween(from, to));
+        long count;
+        try (Stream<BookingResponseDto> bookings = bookingRepository.streamViews(spec, BOOKING_ORDER)) {
+            count = write(bookings.iterator(), format, gzip, BOOKING_CSV_COLUMNS, ExportService::bookingFields, out);
+        }
+        
+        logger.info("Exported {} bookings", count);
+        return count;
+    }
+    
+    private <T> long write(Iterator<T> rows, Format format, boolean gzip, List<String> columns, CsvFields<T> fields,
+                           OutputStream target) throws IOException {
+        // syncFlush, so that every flush below reaches the client instead of waiting for the deflater
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(target, GZIP_BUFFER_SIZE, true) : null;
+        OutputStream out = gzip ? compressed : target;
+        long count = 0;
+        if (format == Format.NDJSON) {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            // One document per line instead of Jackson's default space between root values
+            generator.setRootValueSeparator(null);
+            while (rows.hasNext()) {
+                generator.writeObject(rows.next());
+                generator.writeRaw('\n');
+                if (++count % flushRows == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        } else {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writeCsvLine(writer, columns.toArray());
+            while (rows.hasNext()) {
+                writeCsvLine(writer, fields.of(rows.next()));
+                if (++count % flushRows == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        }
+        if (compressed != null) {
+            compressed.finish();
+        }
+        return count;
+    }
+    
+    private static Object[] loadFields(LoadResponseDto load) {
+        FacilityDto facility = load.getFacility();
+        return new Object[] {load.getId(), load.getShipperId(), facility.getLoadingPoint(),
+            facility.getUnloadingPoint(), facility.getLoadingDate(), facility.getUnloadingDate(),
+            load.getProductType(), load.getTruckType(), load.getNoOfTrucks(), load.getWeight(), load.getComment(),
+            load.getDatePosted(), load.getStatus(), load.getPendingBookings(), load.getAcceptedBookings(),
+            load.getRejectedBookings(), load.getVersion(), facility.getLoadingLatitude(),
+            facility.getLoadingLongitude(), facility.getUnloadingLatitude(), facility.getUnloadingLongitude()};
+    }
+    
+    private static Object[] bookingFields(BookingResponseDto booking) {
+        return new Object[] {booking.getId(), booking.getLoadId(), booking.getTransporterId(),
+            booking.getProposedRate(), booking.getComment(), booking.getStatus(), booking.getRequestedAt()};
+    }
+    
+    /**
+     * Writes one CSV line, quoting fields the way {@link LoadIngestService} reads them.
+     * A field with line breaks is quoted and written as is; the ingest reads it back with
+     * each line break as {@code \n}.
+     */
+    static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            String text = value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0
+                    || text.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(text);
+            }
+        }
+        writer.write('\n');
+    }
+    
+    @FunctionalInterface
+    private interface CsvFields<T> {
+        Object[] of(T row);
+    }
+}
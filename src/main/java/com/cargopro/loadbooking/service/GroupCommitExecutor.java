@@ -0,0 +1,222 @@
+package com.cargopro.loadbooking.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs booking writes from concurrent requests in shared transactions, so that one
+ * commit (and one WAL flush) covers many writes. The caller still blocks until its
+ * write has committed and gets the same result or exception as when the write runs
+ * on its own.
+ *
+ * <p>A single writer thread takes the first queued write, waits up to the linger time
+ * for more, and runs up to {@code max-batch-size} of them in one transaction. If a
+ * write fails, the transaction is rolled back, that write's caller gets the exception,
+ * and the other writes run again without it. A failed write therefore sees the effects
+ * of the writes queued before it, as it would have on its own. If the commit itself
+ * fails, each write is retried in its own transaction.
+ *
+ * <p>When group commit is disabled, {@link #execute} runs the write on the calling
+ * thread and the write opens its own transaction as usual.
+ */
+@Component
+public class GroupCommitExecutor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitExecutor.class);
+    
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<Write<?>> queue;
+    private final Thread writer;
+    
+    private volatile boolean running = true;
+    
+    @Autowired
+    public GroupCommitExecutor(TransactionTemplate transactionTemplate,
+                               @Value("${loadbooking.group-commit.enabled:false}") boolean enabled,
+                               @Value("${loadbooking.group-commit.max-batch-size:64}") int maxBatchSize,
+                               @Value("${loadbooking.group-commit.linger:200us}") Duration linger,
+                               @Value("${loadbooking.group-commit.queue-capacity:10000}") int queueCapacity) {
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = linger.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::drain, "booking-group-commit");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            writer.start();
+            logger.info("Booking group commit enabled - max batch size: {}, linger: {}", maxBatchSize, linger);
+        }
+    }
+    
+    /**
+     * Runs {@code write} and returns its result once it has committed. Blocks while the
+     * queue is full.
+     */
+    public <T> T execute(Supplier<T> write) {
+        if (!enabled) {
+            return write.get();
+        }
+        Write<T> pending = new Write<>(write);
+        try {
+            queue.put(pending);
+            return pending.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for booking write", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        writer.interrupt();
+    }
+    
+    private void drain() {
+        List<Write<?>> group = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                Write<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (group.size() < maxBatchSize) {
+                    queue.drainTo(group, maxBatchSize - group.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (group.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    Write<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+                commit(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException | Error e) {
+                logger.error("Booking group commit failed unexpectedly", e);
+                group.forEach(write -> write.future.completeExceptionally(e));
+            } finally {
+                group.clear();
+            }
+        }
+        
+        IllegalStateException stopped = new IllegalStateException("Booking group commit has been shut down");
+        queue.forEach(write -> write.future.completeExceptionally(stopped));
+    }
+    
+    private void commit(List<Write<?>> group) {
+        logger.debug("Committing {} booking writes in one transaction", group.size());
+        
+        List<Write<?>> remaining = new ArrayList<>(group);
+        while (!remaining.isEmpty()) {
+            List<Write<?>> failed = new ArrayList<>(1);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (Write<?> write : remaining) {
+                        if (!write.run()) {
+                            // The failed write may have left partial changes behind, so nothing in this pass may commit
+                            failed.add(write);
+                            status.setRollbackOnly();
+                            return;
+                        }
+                    }
+                });
+            } catch (RuntimeException e) {
+                logger.warn("Commit of {} booking writes failed, retrying one by one: {}", remaining.size(), e.getMessage());
+                remaining.forEach(this::commitAlone);
+                return;
+            }
+            
+            if (failed.isEmpty()) {
+                remaining.forEach(Write::complete);
+                return;
+            }
+            failed.forEach(Write::complete);
+            remaining.removeAll(failed);
+        }
+    }
+    
+    private void commitAlone(Write<?> write) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!write.run()) {
+                    status.setRollbackOnly();
+                }
+            });
+        } catch (RuntimeException e) {
+            write.failure = e;
+        }
+        write.complete();
+    }
+    
+    /**
+     * One queued write and the outcome of its latest run.
+     */
+    private static final class Write<T> {
+        
+        private final Supplier<T> operation;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private RuntimeException failure;
+        
+        Write(Supplier<T> operation) {
+            this.operation = operation;
+        }
+        
+        /**
+         * Runs the write in the current transaction and returns whether it succeeded.
+         */
+        boolean run() {
+            result = null;
+            failure = null;
+            try {
+                result = operation.get();
+                return true;
+            } catch (RuntimeException e) {
+                failure = e;
+                return false;
+            }
+        }
+        
+        void complete() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
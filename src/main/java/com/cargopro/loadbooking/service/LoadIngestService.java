@@ -0,0 +1,361 @@
+package com.cargopro.loadbooking.service;
+
+import com.cargopro.loadbooking.dto.BulkIngestResultDto;
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadRequestDto;
+import com.cargopro.loadbooking.dto.RowErrorDto;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.feed.LoadFeed;
+import com.cargopro.loadbooking.index.LoadIndexer;
+import com.cargopro.loadbooking.mapper.LoadMapper;
+import com.cargopro.loadbooking.repository.LoadRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Creates loads in bulk from an NDJSON or CSV upload. The upload is read line by line
+ * and written in chunks, so memory use depends on the chunk size and not on the
+ * upload size. Every chunk commits on its own. Rows that fail parsing, validation
+ * or the insert are reported by line number and do not stop the rest of the upload.
+ * Inserted loads are indexed and published to the load feed like loads created one by one.
+ */
+@Service
+public class LoadIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadIngestService.class);
+
+    static final List<String> CSV_COLUMNS = List.of("shipperId", "loadingPoint", "unloadingPoint", "loadingDate",
+        "unloadingDate", "productType", "truckType", "noOfTrucks", "weight", "comment", "loadingLatitude",
+        "loadingLongitude", "unloadingLatitude", "unloadingLongitude");
+    static final Set<String> OPTIONAL_CSV_COLUMNS = Set.of("comment", "loadingLatitude", "loadingLongitude",
+        "unloadingLatitude", "unloadingLongitude");
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private final LoadRepository loadRepository;
+    private final LoadMapper loadMapper;
+    private final LoadIndexer loadIndexer;
+    private final LoadFeed loadFeed;
+    private final Validator validator;
+    private final ObjectReader loadReader;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    @Autowired
+    public LoadIngestService(LoadRepository loadRepository, LoadMapper loadMapper, LoadIndexer loadIndexer,
+                             LoadFeed loadFeed, Validator validator, ObjectMapper objectMapper,
+                             @Value("${loadbooking.ingest.chunk-size:5000}") int chunkSize,
+                             @Value("${loadbooking.ingest.max-reported-errors:1000}") int maxReportedErrors) {
+        this.loadRepository = loadRepository;
+        this.loadMapper = loadMapper;
+        this.loadIndexer = loadIndexer;
+        this.loadFeed = loadFeed;
+        this.validator = validator;
+        this.loadReader = objectMapper.readerFor(LoadRequestDto.class);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public BulkIngestResultDto ingest(InputStream body, Format format, Charset charset) throws IOException {
+        logger.info("Starting bulk load ingest, format: {}", format);
+
+        Ingest ingest = new Ingest();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset))) {
+            if (format == Format.CSV) {
+                readCsv(reader, ingest);
+            } else {
+                readNdjson(reader, ingest);
+            }
+        }
+        ingest.flush();
+
+        logger.info("Bulk load ingest finished - received: {}, inserted: {}, failed: {}",
+                   ingest.result.getReceived(), ingest.result.getInserted(), ingest.result.getFailed());
+        return ingest.result;
+    }
+
+    private void readNdjson(BufferedReader reader, Ingest ingest) throws IOException {
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            LoadRequestDto requestDto;
+            try {
+                requestDto = loadReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                ingest.reject(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            if (requestDto == null) {
+                ingest.reject(lineNumber, "Expected a JSON object but got null");
+                continue;
+            }
+            ingest.accept(lineNumber, requestDto);
+        }
+    }
+
+    private void readCsv(BufferedReader reader, Ingest ingest) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> positions = new HashMap<>();
+        List<String> headerFields = CsvRecord.split(header);
+        for (int i = 0; i < headerFields.size(); i++) {
+            positions.put(headerFields.get(i).trim(), i);
+        }
+        List<String> missing = CSV_COLUMNS.stream()
+            .filter(column -> !OPTIONAL_CSV_COLUMNS.contains(column) && !positions.containsKey(column))
+            .toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header is missing columns: " + String.join(", ", missing));
+        }
+
+        String line;
+        long lineNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            // A quoted field may run over several lines; the record is reported by its first
+            long recordLine = lineNumber;
+            CsvRecord record = new CsvRecord();
+            while (!record.append(line)) {
+                line = reader.readLine();
+                if (line == null) {
+                    ingest.reject(recordLine, "Unterminated quoted field");
+                    return;
+                }
+                lineNumber++;
+            }
+            try {
+                ingest.accept(recordLine, toRequestDto(record.fields(), positions));
+            } catch (IllegalArgumentException e) {
+                ingest.reject(recordLine, e.getMessage());
+            }
+        }
+    }
+
+    private static LoadRequestDto toRequestDto(List<String> fields, Map<String, Integer> positions) {
+        FacilityDto facility = new FacilityDto(
+            field(fields, positions, "loadingPoint"),
+            field(fields, positions, "unloadingPoint"),
+            parseDate(field(fields, positions, "loadingDate"), "loadingDate"),
+            parseDate(field(fields, positions, "unloadingDate"), "unloadingDate")
+        );
+        facility.setLoadingLatitude(parseDouble(field(fields, positions, "loadingLatitude"), "loadingLatitude"));
+        facility.setLoadingLongitude(parseDouble(field(fields, positions, "loadingLongitude"), "loadingLongitude"));
+        facility.setUnloadingLatitude(parseDouble(field(fields, positions, "unloadingLatitude"), "unloadingLatitude"));
+        facility.setUnloadingLongitude(parseDouble(field(fields, positions, "unloadingLongitude"),
+            "unloadingLongitude"));
+        return new LoadRequestDto(
+            field(fields, positions, "shipperId"),
+            facility,
+            field(fields, positions, "productType"),
+            field(fields, positions, "truckType"),
+            parseInteger(field(fields, positions, "noOfTrucks"), "noOfTrucks"),
+            parseDouble(field(fields, positions, "weight"), "weight"),
+            field(fields, positions, "comment")
+        );
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> positions, String column) {
+        Integer position = positions.get(column);
+        if (position == null || position >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(position);
+        return value.isEmpty() ? null : value;
+    }
+
+    private static LocalDateTime parseDate(String value, String column) {
+        try {
+            return value == null ? null : LocalDateTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static Integer parseInteger(String value, String column) {
+        try {
+            return value == null ? null : Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static Double parseDouble(String value, String column) {
+        try {
+            return value == null ? null : Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    /**
+     * State of one upload: the pending chunk and the running result.
+     */
+    private final class Ingest {
+
+        private final BulkIngestResultDto result = new BulkIngestResultDto();
+        private final List<Load> chunk = new ArrayList<>(chunkSize);
+        private final List<Long> chunkLines = new ArrayList<>(chunkSize);
+
+        void accept(long lineNumber, LoadRequestDto requestDto) {
+            result.setReceived(result.getReceived() + 1);
+            Set<ConstraintViolation<LoadRequestDto>> violations = validator.validate(requestDto);
+            if (!violations.isEmpty()) {
+                fail(lineNumber, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+                return;
+            }
+
+            Load load = loadMapper.toEntity(requestDto);
+            load.setId(UUID.randomUUID());
+            load.setStatus(LoadStatus.POSTED); // Default status
+            load.setDatePosted(LocalDateTime.now());
+            chunk.add(load);
+            chunkLines.add(lineNumber);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(long lineNumber, String message) {
+            result.setReceived(result.getReceived() + 1);
+            fail(lineNumber, message);
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                loadRepository.copyLoads(chunk);
+                // Each COPY commits on its own
+                chunk.forEach(this::inserted);
+            } catch (DataAccessException e) {
+                logger.warn("Bulk insert of {} loads failed, retrying row by row: {}", chunk.size(), e.getMessage());
+                for (int i = 0; i < chunk.size(); i++) {
+                    try {
+                        loadRepository.copyLoads(List.of(chunk.get(i)));
+                        inserted(chunk.get(i));
+                    } catch (DataAccessException rowError) {
+                        fail(chunkLines.get(i), NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                    }
+                }
+            }
+            chunk.clear();
+            chunkLines.clear();
+        }
+
+        private void inserted(Load load) {
+            result.setInserted(result.getInserted() + 1);
+            loadIndexer.indexCreated(load);
+            loadFeed.publish(LoadFeed.EventType.CREATED, loadMapper.toResponseDto(load), null);
+        }
+
+        private void fail(long lineNumber, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < maxReportedErrors) {
+                result.getErrors().add(new RowErrorDto(lineNumber, message));
+            } else {
+                result.setErrorsTruncated(true);
+            }
+        }
+    }
+
+    /**
+     * One CSV record (RFC 4180 quoting), read line by line. A quoted field may contain
+     * line breaks, which are kept as {@code \n}.
+     */
+    static final class CsvRecord {
+
+        private final List<String> fields = new ArrayList<>();
+        private final StringBuilder field = new StringBuilder();
+        private boolean quoted;
+
+        static List<String> split(String line) {
+            CsvRecord record = new CsvRecord();
+            if (!record.append(line)) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            return record.fields;
+        }
+
+        /**
+         * Adds the next line of the record and returns whether the record is complete,
+         * that is whether the line does not end inside a quoted field.
+         */
+        boolean append(String line) {
+            if (quoted) {
+                field.append('\n');
+            }
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                return false;
+            }
+            fields.add(field.toString());
+            field.setLength(0);
+            return true;
+        }
+
+        List<String> fields() {
+            return fields;
+        }
+    }
+}
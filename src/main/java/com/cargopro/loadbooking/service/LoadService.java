@@ -1,24 +1,53 @@
 package com.cargopro.loadbooking.service;
 
+import com.cargopro.loadbooking.cache.LoadJsonCache;
+import com.cargopro.loadbooking.cache.LoadLookupCache;
+import com.cargopro.loadbooking.dto.CursorPageDto;
 import com.cargopro.loadbooking.dto.LoadRequestDto;
 import com.cargopro.loadbooking.dto.LoadResponseDto;
 import com.cargopro.loadbooking.entity.Load;
 import com.cargopro.loadbooking.entity.LoadStatus;
 import com.cargopro.loadbooking.exception.BusinessException;
 import com.cargopro.loadbooking.exception.ResourceNotFoundException;
+import com.cargopro.loadbooking.feed.LoadFeed;
+import com.cargopro.loadbooking.geo.GeoArea;
+import com.cargopro.loadbooking.index.AttributeDictionary;
+import com.cargopro.loadbooking.index.LaneIndex;
+import com.cargopro.loadbooking.index.LoadIndexer;
+import com.cargopro.loadbooking.index.LoadSlice;
+import com.cargopro.loadbooking.index.LoadTextIndex;
+import com.cargopro.loadbooking.index.LoadingWindowIndex;
+import com.cargopro.loadbooking.index.LocationIndex;
+import com.cargopro.loadbooking.index.OpenLoadSnapshot;
+import com.cargopro.loadbooking.index.PointTrie;
 import com.cargopro.loadbooking.mapper.LoadMapper;
+import com.cargopro.loadbooking.pagination.KeysetCursor;
+import com.cargopro.loadbooking.pagination.RelevanceCursor;
 import com.cargopro.loadbooking.repository.LoadRepository;
+import com.cargopro.loadbooking.repository.LoadSpecifications;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 @Service
 @Transactional
@@ -26,13 +55,41 @@ public class LoadService {
     
     private static final Logger logger = LoggerFactory.getLogger(LoadService.class);
     
+    private static final Sort KEYSET_ORDER = Sort.by(Sort.Order.desc("datePosted"), Sort.Order.desc("id"));
+    
     private final LoadRepository loadRepository;
     private final LoadMapper loadMapper;
+    private final LoadLookupCache loadCache;
+    private final LoadJsonCache loadJsonCache;
+    private final LoadFeed loadFeed;
+    private final LoadIndexer loadIndexer;
+    private final LaneIndex laneIndex;
+    private final LoadingWindowIndex loadingWindowIndex;
+    private final LocationIndex locationIndex;
+    private final OpenLoadSnapshot openLoadSnapshot;
+    private final AttributeDictionary attributeDictionary;
+    private final LoadTextIndex loadTextIndex;
+    private final PointTrie pointTrie;
     
     @Autowired
-    public LoadService(LoadRepository loadRepository, LoadMapper loadMapper) {
+    public LoadService(LoadRepository loadRepository, LoadMapper loadMapper, LoadLookupCache loadCache,
+                       LoadJsonCache loadJsonCache, LoadFeed loadFeed, LoadIndexer loadIndexer, LaneIndex laneIndex,
+                       LoadingWindowIndex loadingWindowIndex, LocationIndex locationIndex,
+                       OpenLoadSnapshot openLoadSnapshot, AttributeDictionary attributeDictionary,
+                       LoadTextIndex loadTextIndex, PointTrie pointTrie) {
         this.loadRepository = loadRepository;
         this.loadMapper = loadMapper;
+        this.loadCache = loadCache;
+        this.loadJsonCache = loadJsonCache;
+        this.loadFeed = loadFeed;
+        this.loadIndexer = loadIndexer;
+        this.laneIndex = laneIndex;
+        this.loadingWindowIndex = loadingWindowIndex;
+        this.locationIndex = locationIndex;
+        this.openLoadSnapshot = openLoadSnapshot;
+        this.attributeDictionary = attributeDictionary;
+        this.loadTextIndex = loadTextIndex;
+        this.pointTrie = pointTrie;
     }
     
     public LoadResponseDto createLoad(LoadRequestDto requestDto) {
@@ -42,31 +99,267 @@ public class LoadService {
         load.setStatus(LoadStatus.POSTED); // Default status
         
         Load savedLoad = loadRepository.save(load);
+        evictCachedLoad(savedLoad.getId());
+        loadIndexer.indexCreated(savedLoad);
         logger.info("Load created with ID: {}", savedLoad.getId());
         
-        return loadMapper.toResponseDto(savedLoad);
+        LoadResponseDto responseDto = loadMapper.toResponseDto(savedLoad);
+        loadFeed.publish(LoadFeed.EventType.CREATED, responseDto, null);
+        return responseDto;
     }
     
     @Transactional(readOnly = true)
-    public Page<LoadResponseDto> getLoads(String shipperId, String truckType, LoadStatus status, 
-                                         int page, int size) {
-        logger.info("Fetching loads with filters - shipperId: {}, truckType: {}, status: {}, page: {}, size: {}", 
-                   shipperId, truckType, status, page, size);
+    public Page<LoadResponseDto> getLoads(String shipperId, String truckType, String productType, LoadStatus status,
+                                         String origin, String destination, LocalDateTime availableFrom,
+                                         LocalDateTime availableTo, Double minWeight, Double maxWeight,
+                                         GeoArea near, int page, int size) {
+        logger.info("Fetching loads with filters - shipperId: {}, truckType: {}, productType: {}, status: {}, " +
+                   "origin: {}, destination: {}, availableFrom: {}, availableTo: {}, minWeight: {}, maxWeight: {}, " +
+                   "near: {}, page: {}, size: {}", shipperId, truckType, productType, status, origin, destination,
+                   availableFrom, availableTo, minWeight, maxWeight, near, page, size);
         
+        if (availableFrom != null && availableTo != null && availableFrom.isAfter(availableTo)) {
+            throw new IllegalArgumentException("availableFrom must not be after availableTo");
+        }
+        if (minWeight != null && maxWeight != null && minWeight > maxWeight) {
+            throw new IllegalArgumentException("minWeight must not be greater than maxWeight");
+        }
         Pageable pageable = PageRequest.of(page - 1, size, Sort.by("datePosted").descending());
-        Page<Load> loads = loadRepository.findLoadsWithFilters(shipperId, truckType, status, pageable);
+        LoadDetails details = new LoadDetails(productType, minWeight, maxWeight);
+        if (origin != null || destination != null) {
+            return getLoadsOnLane(shipperId, truckType, status, origin, destination, availableFrom, availableTo,
+                                  near, details, pageable);
+        }
+        boolean anyWindow = availableFrom != null || availableTo != null;
+        if (near != null || (status == LoadStatus.POSTED && anyWindow)) {
+            return getLoadsByPlaceAndTime(shipperId, truckType, status, availableFrom, availableTo, near, details,
+                                          pageable);
+        }
+        
+        // The rest of the open board is answered from the snapshot's bitmaps
+        if (OpenLoadSnapshot.isOpen(status) && loadIndexer.isReady()) {
+            LoadSlice slice = openLoadSnapshot.find(status, shipperId, truckType, productType, minWeight, maxWeight,
+                                                    availableFrom, availableTo, pageable.getOffset(),
+                                                    pageable.getPageSize());
+            return readPage(slice, pageable);
+        }
+        Specification<Load> spec = LoadSpecifications.withFilters(shipperId, truckType, status)
+            .and(details.toSpecification())
+            .and(LoadSpecifications.loadingWindowOverlaps(availableFrom, availableTo));
+        return loadRepository.findViews(spec, pageable);
+    }
+    
+    /**
+     * Pages through the POSTED loads on a lane using the lane index, so only the loads on
+     * the requested page are read from the database. Points and truck type are compared
+     * ignoring case and surrounding spaces. A loading window, an area, a product type or
+     * a weight range narrows the lane down through the other indexes.
+     */
+    private Page<LoadResponseDto> getLoadsOnLane(String shipperId, String truckType, LoadStatus status,
+                                                 String origin, String destination, LocalDateTime availableFrom,
+                                                 LocalDateTime availableTo, GeoArea near, LoadDetails details,
+                                                 Pageable pageable) {
+        if (origin == null || destination == null) {
+            throw new IllegalArgumentException("Origin and destination must be given together");
+        }
+        // Only loads on the board have a lane to match
+        if (status != null && status != LoadStatus.POSTED) {
+            throw new IllegalArgumentException("Lane filters only match POSTED loads");
+        }
+        
+        if (!loadIndexer.isReady()) {
+            Specification<Load> spec = LoadSpecifications.withFilters(shipperId, null, LoadStatus.POSTED)
+                .and(LoadSpecifications.onLane(origin, destination, truckType))
+                .and(LoadSpecifications.loadingWindowOverlaps(availableFrom, availableTo))
+                .and(LoadSpecifications.loadingPointWithin(near))
+                .and(details.toSpecification());
+            return loadRepository.findViews(spec, pageable);
+        }
+        
+        LoadSlice slice = laneIndex.find(origin, destination, truckType, shipperId,
+                                         indexFilter(availableFrom, availableTo, near, details),
+                                         pageable.getOffset(), pageable.getPageSize());
+        return readPage(slice, pageable);
+    }
+    
+    /**
+     * Pages through the loads whose loading point lies in {@code near} and whose loading
+     * window overlaps {@code [availableFrom, availableTo]}, either of which may be absent.
+     * POSTED loads come from the location index, or the loading window index without an
+     * area; other statuses in an area are left to the database's GiST indexes.
+     */
+    private Page<LoadResponseDto> getLoadsByPlaceAndTime(String shipperId, String truckType, LoadStatus status,
+                                                         LocalDateTime availableFrom, LocalDateTime availableTo,
+                                                         GeoArea near, LoadDetails details, Pageable pageable) {
+        if (status != LoadStatus.POSTED || !loadIndexer.isReady()) {
+            Specification<Load> spec = LoadSpecifications.withFilters(shipperId, truckType, status)
+                .and(LoadSpecifications.loadingWindowOverlaps(availableFrom, availableTo))
+                .and(LoadSpecifications.loadingPointWithin(near))
+                .and(details.toSpecification());
+            return loadRepository.findViews(spec, pageable);
+        }
+        
+        LoadSlice slice = near != null
+            ? locationIndex.find(near, shipperId, truckType, indexFilter(availableFrom, availableTo, null, details),
+                                 pageable.getOffset(), pageable.getPageSize())
+            : loadingWindowIndex.find(availableFrom, availableTo, shipperId, truckType,
+                                      indexFilter(null, null, null, details), pageable.getOffset(),
+                                      pageable.getPageSize());
+        return readPage(slice, pageable);
+    }
+    
+    /**
+     * Combines the window, area and load detail filters for another index to apply, or
+     * {@code null} when there are none.
+     */
+    private Predicate<UUID> indexFilter(LocalDateTime availableFrom, LocalDateTime availableTo, GeoArea near,
+                                        LoadDetails details) {
+        List<Predicate<UUID>> filters = new ArrayList<>(3);
+        if (availableFrom != null || availableTo != null) {
+            filters.add(loadingWindowIndex.overlapping(availableFrom, availableTo));
+        }
+        if (near != null) {
+            filters.add(locationIndex.within(near));
+        }
+        if (details.isPresent()) {
+            filters.add(openLoadSnapshot.matching(details.productType(), details.minWeight(), details.maxWeight()));
+        }
+        return filters.stream().reduce(Predicate::and).orElse(null);
+    }
+    
+    /**
+     * Reads the loads of an index page from the database, keeping the index's total.
+     */
+    private Page<LoadResponseDto> readPage(LoadSlice slice, Pageable pageable) {
+        if (slice.ids().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, slice.total());
+        }
+        List<LoadResponseDto> loads = loadRepository.findViews(LoadSpecifications.hasIdIn(slice.ids()),
+                                                               Pageable.unpaged(pageable.getSort())).getContent();
+        return new PageImpl<>(loads, pageable, slice.total());
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPageDto<LoadResponseDto> getLoadsByCursor(String shipperId, String truckType, LoadStatus status,
+                                                          String cursor, int size, boolean includeTotal) {
+        logger.info("Fetching loads by cursor - shipperId: {}, truckType: {}, status: {}, size: {}", 
+                   shipperId, truckType, status, size);
+        
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        Specification<Load> spec = LoadSpecifications.withFilters(shipperId, truckType, status)
+            .and(LoadSpecifications.postedBefore(position));
+        
+        // Fetch one extra row to learn whether another page exists without counting
+        List<LoadResponseDto> loads = loadRepository.findViews(spec, KEYSET_ORDER, size + 1);
+        boolean hasNext = loads.size() > size;
+        List<LoadResponseDto> content = hasNext ? loads.subList(0, size) : loads;
         
-        return loads.map(loadMapper::toResponseDto);
+        String nextCursor = null;
+        if (hasNext) {
+            LoadResponseDto last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getDatePosted(), last.getId()).encode();
+        }
+        Long approximateTotal = includeTotal
+            ? loadRepository.estimateLoadCount(shipperId, truckType, status)
+            : null;
+        
+        return new CursorPageDto<>(content, size, hasNext, nextCursor, approximateTotal);
     }
     
+    /**
+     * Searches the open loads' product type, points and comment for every word of
+     * {@code query}, best match first, with relevance-ordered cursor pagination. Until
+     * the text index is built the database matches the words anywhere in the text,
+     * newest first and without ranking or total.
+     */
     @Transactional(readOnly = true)
+    public CursorPageDto<LoadResponseDto> searchLoads(String query, LoadStatus status, String cursor, int size) {
+        logger.info("Searching loads - q: {}, status: {}, size: {}", query, status, size);
+        
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        RelevanceCursor position = RelevanceCursor.decode(cursor);
+        if (!loadIndexer.isReady()) {
+            return searchLoadsInDatabase(query, status, position, size);
+        }
+        
+        // Ask for one extra match to learn whether another page exists
+        LoadTextIndex.SearchResult result = loadTextIndex.search(query, status, position, size + 1);
+        boolean hasNext = result.hits().size() > size;
+        List<LoadTextIndex.Hit> hits = hasNext ? result.hits().subList(0, size) : result.hits();
+        List<LoadResponseDto> content = readInOrder(hits.stream().map(LoadTextIndex.Hit::id).toList());
+        
+        String nextCursor = null;
+        if (hasNext) {
+            LoadTextIndex.Hit last = hits.get(hits.size() - 1);
+            nextCursor = new RelevanceCursor(last.score(), last.posted(), last.id(), result.weights()).encode();
+        }
+        return new CursorPageDto<>(content, size, hasNext, nextCursor, result.total());
+    }
+    
+    private CursorPageDto<LoadResponseDto> searchLoadsInDatabase(String query, LoadStatus status,
+                                                                 RelevanceCursor position, int size) {
+        if (status != null && !OpenLoadSnapshot.isOpen(status)) {
+            throw new IllegalArgumentException("Only POSTED and BOOKED loads can be searched");
+        }
+        Specification<Load> spec = LoadSpecifications.hasStatusIn(
+                status != null ? EnumSet.of(status) : EnumSet.of(LoadStatus.POSTED, LoadStatus.BOOKED))
+            .and(LoadSpecifications.containsWords(LoadTextIndex.queryWords(query)))
+            .and(LoadSpecifications.postedBefore(
+                position != null ? new KeysetCursor(position.getTimestamp(), position.getId()) : null));
+        
+        List<LoadResponseDto> loads = loadRepository.findViews(spec, KEYSET_ORDER, size + 1);
+        boolean hasNext = loads.size() > size;
+        List<LoadResponseDto> content = hasNext ? loads.subList(0, size) : loads;
+        
+        // Unranked matches all score zero
+        String nextCursor = null;
+        if (hasNext) {
+            LoadResponseDto last = content.get(content.size() - 1);
+            nextCursor = new RelevanceCursor(0, last.getDatePosted(), last.getId()).encode();
+        }
+        return new CursorPageDto<>(content, size, hasNext, nextCursor, null);
+    }
+    
+    /**
+     * Reads loads from the database in the order of {@code ids}.
+     */
+    private List<LoadResponseDto> readInOrder(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, LoadResponseDto> loads = new HashMap<>();
+        for (LoadResponseDto load : loadRepository.findViews(LoadSpecifications.hasIdIn(ids),
+                                                             Pageable.unpaged()).getContent()) {
+            loads.put(load.getId(), load);
+        }
+        return ids.stream().map(loads::get).filter(Objects::nonNull).toList();
+    }
+    
+    /**
+     * Suggests known loading and unloading points beginning with {@code prefix}, most
+     * used first, from memory only. Empty until the points are loaded at startup.
+     */
+    // SUPPORTS: suggestions must not open a transaction or borrow a connection
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<String> suggestPoints(String prefix, int limit) {
+        return pointTrie.suggest(prefix, limit);
+    }
+    
+    // SUPPORTS: a cache hit must not open a transaction or borrow a connection
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public LoadResponseDto getLoadById(UUID loadId) {
         logger.info("Fetching load with ID: {}", loadId);
         
-        Load load = loadRepository.findById(loadId)
+        // Cached loads share one instance of each repeating string
+        return loadCache.get(loadId, id -> loadRepository.findById(id)
+                .map(loadMapper::toResponseDto)
+                .map(attributeDictionary::intern))
             .orElseThrow(() -> new ResourceNotFoundException("Load not found with ID: " + loadId));
-        
-        return loadMapper.toResponseDto(load);
     }
     
     public LoadResponseDto updateLoad(UUID loadId, LoadRequestDto requestDto) {
@@ -81,21 +374,32 @@ public class LoadService {
         }
         
         loadMapper.updateEntity(existingLoad, requestDto);
-        Load updatedLoad = loadRepository.save(existingLoad);
+        // Flushed so the response and the event carry the version this update writes
+        Load updatedLoad = loadRepository.saveAndFlush(existingLoad);
+        evictCachedLoad(loadId);
+        loadIndexer.index(updatedLoad);
         
         logger.info("Load updated successfully with ID: {}", loadId);
-        return loadMapper.toResponseDto(updatedLoad);
+        LoadResponseDto responseDto = loadMapper.toResponseDto(updatedLoad);
+        loadFeed.publish(LoadFeed.EventType.UPDATED, responseDto, null);
+        return responseDto;
     }
     
     public void deleteLoad(UUID loadId) {
         logger.info("Deleting load with ID: {}", loadId);
         
+        // Serialize with in-flight booking changes so a cancel cannot interleave with them
+        loadRepository.lockForBookingChanges(loadId);
         Load load = loadRepository.findById(loadId)
             .orElseThrow(() -> new ResourceNotFoundException("Load not found with ID: " + loadId));
         
         // Business rule: Set status to CANCELLED instead of hard delete to maintain data integrity
+        LoadStatus previousStatus = load.getStatus();
         load.setStatus(LoadStatus.CANCELLED);
-        loadRepository.save(load);
+        loadRepository.saveAndFlush(load);
+        evictCachedLoad(loadId);
+        loadIndexer.index(load);
+        loadFeed.publish(LoadFeed.EventType.CANCELLED, loadMapper.toResponseDto(load), previousStatus);
         
         logger.info("Load cancelled with ID: {}", loadId);
     }
@@ -115,18 +419,96 @@ public class LoadService {
         }
         
         load.setStatus(newStatus);
-        loadRepository.save(load);
+        loadRepository.saveAndFlush(load);
+        evictCachedLoad(loadId);
+        loadIndexer.index(load);
+        loadFeed.publish(LoadFeed.EventType.STATUS_CHANGED, loadMapper.toResponseDto(load), currentStatus);
         
         logger.info("Load status updated successfully for ID: {} from {} to {}", 
                    loadId, currentStatus, newStatus);
     }
     
+    /**
+     * Publishes and indexes a status change that was written without going through this service,
+     * such as a booking moving its load from POSTED to BOOKED. Reads the load as it is
+     * now in the current transaction.
+     */
+    public void publishStatusChange(UUID loadId, LoadStatus previousStatus) {
+        publishStatusChange(getLoadEntityById(loadId), previousStatus);
+    }
+    
+    /**
+     * Like {@link #publishStatusChange(UUID, LoadStatus)}, for a load the caller has already read.
+     * The caller flushes its changes to the load first, so the event carries their version.
+     */
+    public void publishStatusChange(Load load, LoadStatus previousStatus) {
+        loadIndexer.index(load);
+        loadFeed.publish(LoadFeed.EventType.STATUS_CHANGED, loadMapper.toResponseDto(load), previousStatus);
+    }
+    
+    /**
+     * Indexes a load changed without going through this service; see {@link LoadIndexer#index(Load)}.
+     */
+    public void indexLoad(Load load) {
+        loadIndexer.index(load);
+    }
+    
+    /**
+     * Serializes booking state changes for a load until the current transaction ends.
+     * Callers must take the lock before reading the load or its bookings.
+     */
+    public void lockForBookingChanges(UUID loadId) {
+        loadRepository.lockForBookingChanges(loadId);
+    }
+    
+    /**
+     * Takes the booking locks of several loads at once; see {@link #lockForBookingChanges(UUID)}.
+     */
+    public void lockAllForBookingChanges(Collection<UUID> loadIds) {
+        loadRepository.lockAllForBookingChanges(loadIds);
+    }
+    
+    /**
+     * Drops every cached view of a load (DTO and serialized JSON) that changed in the
+     * current transaction, including booking counter changes made by {@link BookingService}.
+     */
+    public void evictCachedLoad(UUID loadId) {
+        loadCache.invalidate(loadId);
+        loadJsonCache.invalidate(loadId);
+    }
+    
+    /**
+     * Always reads through the persistence context rather than the lookup cache, because
+     * callers modify the returned entity. Repeated reads within one transaction are
+     * served by the persistence context without another query.
+     */
     @Transactional(readOnly = true)
     public Load getLoadEntityById(UUID loadId) {
         return loadRepository.findById(loadId)
             .orElseThrow(() -> new ResourceNotFoundException("Load not found with ID: " + loadId));
     }
     
+    /**
+     * Returns an uninitialized reference to the load without querying it, for callers
+     * that only need the ID to link a new row to.
+     */
+    public Load getLoadReference(UUID loadId) {
+        return loadRepository.getReferenceById(loadId);
+    }
+    
+    /**
+     * Reads several loads in one query for batch callers that modify them, keyed by ID.
+     * IDs that do not exist are absent from the result.
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, Load> getLoadEntitiesById(Collection<UUID> loadIds) {
+        Map<UUID, Load> loads = new HashMap<>();
+        for (Load load : loadRepository.findAllById(loadIds)) {
+            loads.put(load.getId(), load);
+        }
+        return loads;
+    }
+    
     private boolean isValidStatusTransition(LoadStatus current, LoadStatus target) {
         // Define valid status transitions
         switch (current) {
@@ -140,4 +522,19 @@ public class LoadService {
                 return false;
         }
     }
+    
+    /**
+     * The product type and weight filters, which every search path applies the same way.
+     */
+    private record LoadDetails(String productType, Double minWeight, Double maxWeight) {
+        
+        boolean isPresent() {
+            return productType != null || minWeight != null || maxWeight != null;
+        }
+        
+        Specification<Load> toSpecification() {
+            return Specification.where(LoadSpecifications.hasProductType(productType))
+                .and(LoadSpecifications.weightBetween(minWeight, maxWeight));
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+-- Runs after Hibernate has created or updated the tables (spring.jpa.defer-datasource-initialization),
+-- on every start, so each statement must be safe to repeat.
+
+-- Stamps every updated load or booking with the next change number and the writing transaction; the
+-- column defaults do the same for inserts. See ChangeSequence.
+CREATE OR REPLACE FUNCTION stamp_change() RETURNS trigger LANGUAGE plpgsql AS '
+BEGIN
+    NEW.change_seq := nextval(''change_seq'');
+    NEW.change_xid := CAST(CAST(pg_current_xact_id() AS text) AS bigint);
+    RETURN NEW;
+END';
+
+CREATE OR REPLACE TRIGGER loads_stamp_change BEFORE UPDATE ON loads
+    FOR EACH ROW EXECUTE FUNCTION stamp_change();
+
+CREATE OR REPLACE TRIGGER bookings_stamp_change BEFORE UPDATE ON bookings
+    FOR EACH ROW EXECUTE FUNCTION stamp_change();
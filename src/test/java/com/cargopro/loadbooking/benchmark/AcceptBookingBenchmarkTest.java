@@ -0,0 +1,74 @@
+package com.cargopro.loadbooking.benchmark;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadRequestDto;
+import com.cargopro.loadbooking.entity.Booking;
+import com.cargopro.loadbooking.entity.BookingStatus;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.repository.BookingRepository;
+import com.cargopro.loadbooking.service.BookingService;
+import com.cargopro.loadbooking.service.LoadService;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures {@link BookingService#acceptBooking} latency as the number of competing
+ * pending bids on the load grows. With the bulk reject this should stay close to
+ * flat instead of growing linearly with the bid count.
+ */
+class AcceptBookingBenchmarkTest extends AbstractPostgresBenchmark {
+    
+    private static final int ROUNDS = 7;
+    
+    @Autowired
+    private LoadService loadService;
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @ParameterizedTest(name = "{0} competing bids")
+    @ValueSource(ints = {1, 10, 100, 1_000, 5_000})
+    void acceptLatency(int competingBids) {
+        long[] nanos = new long[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            UUID winner = seedLoadWithBids(competingBids);
+            
+            long start = System.nanoTime();
+            bookingService.acceptBooking(winner);
+            nanos[round] = System.nanoTime() - start;
+            
+            UUID loadId = bookingRepository.findById(winner).orElseThrow().getLoad().getId();
+            assertEquals(competingBids, bookingRepository.countByLoadIdAndStatus(loadId, BookingStatus.REJECTED));
+        }
+        
+        Arrays.sort(nanos);
+        report("acceptBooking with %,d competing bids: median %.2f ms, min %.2f ms, max %.2f ms",
+               competingBids, nanos[ROUNDS / 2] / 1e6, nanos[0] / 1e6, nanos[ROUNDS - 1] / 1e6);
+    }
+    
+    private UUID seedLoadWithBids(int competingBids) {
+        FacilityDto facility = new FacilityDto("Pune", "Mumbai",
+            LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+        UUID loadId = loadService.createLoad(
+            new LoadRequestDto("SHIPPER-BENCH", facility, "Steel", "Flatbed", 1, 1000.0, null)).getId();
+        Load load = loadService.getLoadEntityById(loadId);
+        
+        List<Booking> bids = new ArrayList<>(competingBids + 1);
+        for (int i = 0; i <= competingBids; i++) {
+            bids.add(new Booking(load, "TRANSPORTER-" + i, 1000.0 + i, null));
+        }
+        return bookingRepository.saveAll(bids).get(0).getId();
+    }
+}
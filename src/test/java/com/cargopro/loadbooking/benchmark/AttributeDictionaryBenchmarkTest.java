@@ -0,0 +1,71 @@
+package com.cargopro.loadbooking.benchmark;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.index.AttributeDictionary;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures the heap held by a million loads as read from the database, where every row
+ * carries its own copy of each shipper, truck type, product type and point, and again
+ * after the repeating strings are interned through the {@link AttributeDictionary}.
+ * In memory only, so it needs no database.
+ */
+@Tag("benchmark")
+class AttributeDictionaryBenchmarkTest {
+
+    private static final int LOADS = 1_000_000;
+    private static final int SHIPPERS = 5_000;
+    private static final int POINTS = 500;
+    private static final String[] TRUCK_TYPES = {"Flatbed", "Container", "Trailer", "Tanker"};
+    private static final String[] PRODUCT_TYPES = {"Steel", "Grain", "Cement", "Electronics", "Textiles", "Chemicals"};
+
+    @Test
+    void heapHeldByAMillionLoadsBeforeAndAfterInterning() {
+        long baseline = usedHeap();
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.of(2024, 6, 1, 0, 0);
+        List<LoadResponseDto> loads = new ArrayList<>(LOADS);
+        for (int i = 0; i < LOADS; i++) {
+            // new String() stands in for the driver, which decodes every column into a fresh instance
+            FacilityDto facility = new FacilityDto(new String("City " + random.nextInt(POINTS)),
+                new String("City " + random.nextInt(POINTS)), now.plusDays(1), now.plusDays(2));
+            loads.add(Benchmarks.load(new String(Benchmarks.shipper(random, SHIPPERS)), facility,
+                new String(PRODUCT_TYPES[random.nextInt(PRODUCT_TYPES.length)]),
+                new String(TRUCK_TYPES[random.nextInt(TRUCK_TYPES.length)]), 1000.0, null, now, LoadStatus.POSTED));
+        }
+        long separate = usedHeap() - baseline;
+
+        AttributeDictionary dictionary = new AttributeDictionary();
+        long started = System.nanoTime();
+        loads.forEach(dictionary::intern);
+        long internNanos = System.nanoTime() - started;
+        long interned = usedHeap() - baseline;
+
+        assertEquals(SHIPPERS, dictionary.size(AttributeDictionary.Attribute.SHIPPER_ID));
+        assertSame(loads.get(0).getTruckType(), dictionary.intern(AttributeDictionary.Attribute.TRUCK_TYPE,
+            new String(loads.get(0).getTruckType())));
+        Benchmarks.report("%,d loads with separate strings: %,d MB (%d bytes per load)", LOADS, separate >> 20,
+                          separate / LOADS);
+        Benchmarks.report("after interning: %,d MB (%d bytes per load), %.0f%% less, in %d ms", interned >> 20,
+                          interned / LOADS, 100.0 * (separate - interned) / separate, internNanos / 1_000_000);
+        assertEquals(LOADS, loads.size());
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
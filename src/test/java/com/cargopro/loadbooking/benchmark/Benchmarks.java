@@ -0,0 +1,110 @@
+package com.cargopro.loadbooking.benchmark;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongSupplier;
+
+/**
+ * Fixtures and measurements shared by the benchmarks, so that they all build loads the
+ * same way and report their numbers in the same form.
+ */
+final class Benchmarks {
+
+    private Benchmarks() {}
+
+    static void report(String format, Object... args) {
+        System.out.printf("[benchmark] " + format + "%n", args);
+    }
+
+    /**
+     * A shipper ID drawn from {@code shippers} different ones.
+     */
+    static String shipper(Random random, int shippers) {
+        return "SHIPPER-" + random.nextInt(shippers);
+    }
+
+    /**
+     * A load of one truck of steel weighing 1000, as the index benchmarks read them from the database.
+     */
+    static LoadResponseDto load(Random random, int shippers, FacilityDto facility, String truckType,
+                                LocalDateTime datePosted) {
+        return load(shipper(random, shippers), facility, "Steel", truckType, 1000.0, null, datePosted,
+                    LoadStatus.POSTED);
+    }
+
+    static LoadResponseDto load(String shipperId, FacilityDto facility, String productType, String truckType,
+                                double weight, String comments, LocalDateTime datePosted, LoadStatus status) {
+        LoadResponseDto load = new LoadResponseDto(UUID.randomUUID(), shipperId, facility, productType, truckType, 1,
+            weight, comments, datePosted, status);
+        load.setVersion(0L);
+        return load;
+    }
+
+    /**
+     * Runs {@code build} and reports how long it took, for filling an index.
+     */
+    static void timed(String description, Runnable build) {
+        long started = System.nanoTime();
+        build.run();
+        report("%s in %d ms", description, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Runs {@code query} {@code warmupRounds} times, then {@code rounds} times one at a
+     * time, and reports the median, 99th percentile and slowest of those, with the mean
+     * of the counts the query returns, such as its matches.
+     */
+    static void latency(String name, int warmupRounds, int rounds, LongSupplier query) {
+        for (int i = 0; i < warmupRounds; i++) {
+            query.getAsLong();
+        }
+        long[] nanos = new long[rounds];
+        long results = 0;
+        for (int i = 0; i < rounds; i++) {
+            long begin = System.nanoTime();
+            results += query.getAsLong();
+            nanos[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(nanos);
+        report("%s, ~%,.1f results: median %.2f us, p99 %.2f us, max %.2f us", name, (double) results / rounds,
+               nanos[rounds / 2] / 1e3, nanos[rounds * 99 / 100] / 1e3, nanos[rounds - 1] / 1e3);
+    }
+
+    /**
+     * Runs {@code query} {@code rounds} times on each of {@code threads} threads at once
+     * and reports the queries per second they reached together.
+     */
+    static void throughput(String name, int threads, int rounds, Runnable query) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            long begin = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    for (int i = 0; i < rounds; i++) {
+                        query.run();
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            report("%s, %d threads on %d cores: %,.0f queries per second", name, threads,
+                   Runtime.getRuntime().availableProcessors(), threads * rounds / seconds);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.cargopro.loadbooking.benchmark;
+
+import com.cargopro.loadbooking.dto.BookingRequestDto;
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadRequestDto;
+import com.cargopro.loadbooking.entity.BookingStatus;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.exception.BusinessException;
+import com.cargopro.loadbooking.repository.BookingRepository;
+import com.cargopro.loadbooking.service.BookingService;
+import com.cargopro.loadbooking.service.LoadService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fires thousands of concurrent create/accept/reject calls at a small set of hot
+ * loads and then checks the booking invariants that per-load serialization must
+ * preserve:
+ * <ul>
+ *   <li>a load never has more than one ACCEPTED booking;</li>
+ *   <li>a load is BOOKED exactly when it has a PENDING or ACCEPTED booking;</li>
+ *   <li>the denormalized booking counters on the load match the booking rows.</li>
+ * </ul>
+ */
+class BookingConcurrencyStressTest extends AbstractPostgresBenchmark {
+    
+    private static final int LOADS = 20;
+    private static final int THREADS = 32;
+    private static final int OPERATIONS = 5_000;
+    
+    @Autowired
+    private LoadService loadService;
+    
+    @Autowired
+    private BookingService bookingService;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Test
+    void concurrentBookingTransitions_ShouldPreserveInvariants() throws InterruptedException {
+        List<UUID> loadIds = new ArrayList<>();
+        for (int i = 0; i < LOADS; i++) {
+            loadIds.add(createLoad());
+        }
+        List<UUID> bookingIds = Collections.synchronizedList(new ArrayList<>());
+        
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong refused = new AtomicLong();
+        AtomicLong conflicts = new AtomicLong();
+        List<Throwable> unexpected = Collections.synchronizedList(new ArrayList<>());
+        
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < OPERATIONS; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    runRandomOperation(loadIds, bookingIds);
+                    succeeded.incrementAndGet();
+                } catch (BusinessException e) {
+                    refused.incrementAndGet();
+                } catch (OptimisticLockingFailureException e) {
+                    conflicts.incrementAndGet();
+                } catch (Throwable t) {
+                    unexpected.add(t);
+                }
+            });
+        }
+        
+        long startNanos = System.nanoTime();
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.MINUTES), "Stress run did not finish in time");
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        
+        report("%,d operations on %d loads with %d threads in %.2f s: %,.0f ops/s " +
+               "(%,d succeeded, %,d refused by business rules, %,d version conflicts)",
+               OPERATIONS, LOADS, THREADS, seconds, OPERATIONS / seconds,
+               succeeded.get(), refused.get(), conflicts.get());
+        
+        assertTrue(unexpected.isEmpty(), () -> "Unexpected failures: " + unexpected);
+        for (UUID loadId : loadIds) {
+            assertInvariants(loadId);
+        }
+    }
+    
+    private void runRandomOperation(List<UUID> loadIds, List<UUID> bookingIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double roll = random.nextDouble();
+        if (roll < 0.5 || bookingIds.isEmpty()) {
+            UUID loadId = loadIds.get(random.nextInt(loadIds.size()));
+            BookingRequestDto request = new BookingRequestDto(
+                loadId, "TRANSPORTER-" + random.nextInt(1_000), 1000.0 + random.nextInt(500), null);
+            bookingIds.add(bookingService.createBooking(request).getId());
+            return;
+        }
+        
+        UUID bookingId;
+        synchronized (bookingIds) {
+            bookingId = bookingIds.get(random.nextInt(bookingIds.size()));
+        }
+        if (roll < 0.75) {
+            bookingService.acceptBooking(bookingId);
+        } else {
+            bookingService.rejectBooking(bookingId);
+        }
+    }
+    
+    private void assertInvariants(UUID loadId) {
+        long accepted = bookingRepository.countByLoadIdAndStatus(loadId, BookingStatus.ACCEPTED);
+        long pending = bookingRepository.countByLoadIdAndStatus(loadId, BookingStatus.PENDING);
+        long rejected = bookingRepository.countByLoadIdAndStatus(loadId, BookingStatus.REJECTED);
+        Load load = loadService.getLoadEntityById(loadId);
+        
+        assertTrue(accepted <= 1, () -> "Load " + loadId + " has " + accepted + " accepted bookings");
+        LoadStatus expected = accepted + pending > 0 ? LoadStatus.BOOKED : LoadStatus.POSTED;
+        assertEquals(expected, load.getStatus(),
+            () -> "Load " + loadId + " with " + pending + " pending and " + accepted + " accepted bookings");
+        assertEquals(pending, load.getPendingBookings().longValue(), "pending counter of " + loadId);
+        assertEquals(accepted, load.getAcceptedBookings().longValue(), "accepted counter of " + loadId);
+        assertEquals(rejected, load.getRejectedBookings().longValue(), "rejected counter of " + loadId);
+    }
+    
+    private UUID createLoad() {
+        FacilityDto facility = new FacilityDto("Pune", "Mumbai",
+            LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+        return loadService.createLoad(
+            new LoadRequestDto("SHIPPER-STRESS", facility, "Steel", "Flatbed", 1, 1000.0, null)).getId();
+    }
+}
@@ -0,0 +1,168 @@
+package com.cargopro.loadbooking.benchmark;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadRequestDto;
+import com.cargopro.loadbooking.entity.Booking;
+import com.cargopro.loadbooking.entity.BookingStatus;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.repository.BookingRepository;
+import com.cargopro.loadbooking.service.LoadService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the per-load advisory lock that serializes booking transitions with the
+ * alternative of relying on the load's {@code @Version} alone and retrying a bounded
+ * number of times on a conflict. Both place bids the same way (read the load, insert
+ * the booking, bump the load's pending counter) from several threads, first on a few
+ * hot loads and then spread over many.
+ */
+class BookingLockBenchmarkTest extends AbstractPostgresBenchmark {
+
+    private static final int THREADS = 16;
+    private static final int WARMUP_BIDS_PER_THREAD = 50;
+    private static final int BIDS_PER_THREAD = 250;
+    private static final int HOT_LOADS = 4;
+    private static final int SPREAD_LOADS = 1_000;
+    private static final int MAX_ATTEMPTS = 5;
+
+    @Autowired
+    private LoadService loadService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void advisoryLockVersusOptimisticRetry() throws Exception {
+        run(SPREAD_LOADS, true, WARMUP_BIDS_PER_THREAD);
+        run(SPREAD_LOADS, false, WARMUP_BIDS_PER_THREAD);
+        for (int loads : new int[] {HOT_LOADS, SPREAD_LOADS}) {
+            measure("advisory lock", loads, true);
+            measure("optimistic retry", loads, false);
+        }
+    }
+
+    private void measure(String label, int loadCount, boolean lock) throws Exception {
+        long started = System.nanoTime();
+        Run run = run(loadCount, lock, BIDS_PER_THREAD);
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long[] nanos = run.nanos();
+        Arrays.sort(nanos);
+        report("%s, %d threads on %,d loads: %,.0f bids/s, median %.2f ms, p99 %.2f ms, %,d retries, %,d given up",
+               label, THREADS, loadCount, run.placed() / seconds, nanos[nanos.length / 2] / 1e6,
+               nanos[nanos.length * 99 / 100] / 1e6, run.retries(), run.givenUp());
+    }
+
+    private Run run(int loadCount, boolean lock, int bidsPerThread) throws Exception {
+        List<UUID> loads = seedLoads(loadCount);
+        AtomicLong retries = new AtomicLong();
+        AtomicLong givenUp = new AtomicLong();
+        long[] nanos = new long[THREADS * bidsPerThread];
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int offset = t * bidsPerThread;
+                workers.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < bidsPerThread; i++) {
+                        UUID loadId = loads.get(random.nextInt(loads.size()));
+                        long begin = System.nanoTime();
+                        if (lock) {
+                            bid(loadId, true);
+                        } else {
+                            bidWithRetry(loadId, retries, givenUp);
+                        }
+                        nanos[offset + i] = System.nanoTime() - begin;
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        long placed = 0;
+        for (UUID loadId : loads) {
+            Load load = loadService.getLoadEntityById(loadId);
+            long bookings = bookingRepository.countByLoadIdAndStatus(loadId, BookingStatus.PENDING);
+            assertEquals(bookings, load.getPendingBookings().longValue(), "pending counter of " + loadId);
+            placed += bookings;
+        }
+        assertEquals(nanos.length - givenUp.get(), placed);
+        return new Run(nanos, placed, retries.get(), givenUp.get());
+    }
+
+    private void bidWithRetry(UUID loadId, AtomicLong retries, AtomicLong givenUp) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                bid(loadId, false);
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    // A client would get 409 Conflict
+                    givenUp.incrementAndGet();
+                    return;
+                }
+                retries.incrementAndGet();
+                // Back off a little, more with every attempt, so the retries do not collide again at once
+                try {
+                    Thread.sleep(0, ThreadLocalRandom.current().nextInt(1, 250_000 * attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void bid(UUID loadId, boolean lock) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (lock) {
+                loadService.lockForBookingChanges(loadId);
+            }
+            Load load = loadService.getLoadEntityById(loadId);
+            Booking booking = new Booking(load, "TRANSPORTER-BENCH", 2500.0, null);
+            booking.setStatus(BookingStatus.PENDING);
+            bookingRepository.save(booking);
+            load.adjustBookingCount(BookingStatus.PENDING, 1);
+            load.setStatus(LoadStatus.BOOKED);
+        });
+    }
+
+    private List<UUID> seedLoads(int count) {
+        List<UUID> loads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            FacilityDto facility = new FacilityDto("Pune", "Mumbai",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+            loads.add(loadService.createLoad(
+                new LoadRequestDto("SHIPPER-BENCH", facility, "Steel", "Flatbed", 1, 1000.0, null)).getId());
+        }
+        return loads;
+    }
+
+    private record Run(long[] nanos, long placed, long retries, long givenUp) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.cargopro.loadbooking.benchmark;
+
+import com.cargopro.loadbooking.dto.BookingRequestDto;
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadRequestDto;
+import com.cargopro.loadbooking.entity.Booking;
+import com.cargopro.loadbooking.entity.BookingStatus;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.repository.BookingRepository;
+import com.cargopro.loadbooking.service.BookingService;
+import com.cargopro.loadbooking.service.LoadService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares {@link BookingService#createBooking}, which checks the load, inserts the
+ * booking and updates the load in one statement, with the previous entity-based path
+ * (read the load, save the booking, then {@link LoadService#updateLoadStatus}).
+ */
+class CreateBookingBenchmarkTest extends AbstractPostgresBenchmark {
+
+    private static final int WARMUP_ROUNDS = 500;
+    private static final int ROUNDS = 2_000;
+
+    @Autowired
+    private LoadService loadService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void singleStatementVersusEntityPath() {
+        measure("entity path", this::createThroughEntities);
+        measure("single statement", bookingService::createBooking);
+    }
+
+    private void measure(String label, Consumer<BookingRequestDto> create) {
+        List<UUID> loads = seedLoads(WARMUP_ROUNDS + ROUNDS);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            create.accept(request(loads.get(i)));
+        }
+
+        long[] nanos = new long[ROUNDS];
+        long started = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            create.accept(request(loads.get(WARMUP_ROUNDS + i)));
+            nanos[i] = System.nanoTime() - start;
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        Load last = loadService.getLoadEntityById(loads.get(loads.size() - 1));
+        assertEquals(LoadStatus.BOOKED, last.getStatus());
+        assertEquals(1, last.getPendingBookings());
+
+        Arrays.sort(nanos);
+        report("createBooking, %s: median %.3f ms, p99 %.3f ms, %,.0f bookings/s",
+               label, nanos[ROUNDS / 2] / 1e6, nanos[ROUNDS * 99 / 100] / 1e6, ROUNDS / seconds);
+    }
+
+    /**
+     * The createBooking implementation this benchmark measures against.
+     */
+    private void createThroughEntities(BookingRequestDto requestDto) {
+        transactionTemplate.executeWithoutResult(status -> {
+            loadService.lockForBookingChanges(requestDto.getLoadId());
+            Load load = loadService.getLoadEntityById(requestDto.getLoadId());
+            Booking booking = new Booking(load, requestDto.getTransporterId(), requestDto.getProposedRate(),
+                                          requestDto.getComment());
+            booking.setStatus(BookingStatus.PENDING);
+            bookingRepository.save(booking);
+            load.adjustBookingCount(BookingStatus.PENDING, 1);
+            if (load.getStatus() == LoadStatus.POSTED) {
+                loadService.updateLoadStatus(load.getId(), LoadStatus.BOOKED);
+            }
+        });
+    }
+
+    private List<UUID> seedLoads(int count) {
+        List<UUID> loads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            FacilityDto facility = new FacilityDto("Pune", "Mumbai",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+            loads.add(loadService.createLoad(
+                new LoadRequestDto("SHIPPER-BENCH", facility, "Steel", "Flatbed", 1, 1000.0, null)).getId());
+        }
+        return loads;
+    }
+
+    private static BookingRequestDto request(UUID loadId) {
+        return new BookingRequestDto(loadId, "TRANSPORTER-BENCH", 2500.0, null);
+    }
+}
@@ -0,0 +1,49 @@
+package com.cargopro.loadbooking.benchmark;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.index.AttributeDictionary;
+import com.cargopro.loadbooking.index.LaneIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures lane lookups against a million POSTED loads spread over 200 cities and four
+ * truck types. In memory only, so it needs no database.
+ */
+@Tag("benchmark")
+class LaneIndexBenchmarkTest {
+
+    private static final int LOADS = 1_000_000;
+    private static final int CITIES = 200;
+    private static final String[] TRUCK_TYPES = {"Flatbed", "Container", "Trailer", "Tanker"};
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int ROUNDS = 100_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Test
+    void laneLookupsOverAMillionOpenLoads() {
+        LaneIndex laneIndex = new LaneIndex(new AttributeDictionary());
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        Benchmarks.timed(String.format("indexed %,d loads", LOADS), () -> {
+            for (int i = 0; i < LOADS; i++) {
+                FacilityDto facility = new FacilityDto("City " + random.nextInt(CITIES),
+                    "City " + random.nextInt(CITIES), now.plusDays(1), now.plusDays(2));
+                laneIndex.update(Benchmarks.load(random, 1_000, facility,
+                    TRUCK_TYPES[random.nextInt(TRUCK_TYPES.length)], now.minusSeconds(random.nextInt(30 * 24 * 3600))));
+            }
+        });
+        assertEquals(LOADS, laneIndex.size());
+
+        Benchmarks.latency("lane lookup, page of " + PAGE_SIZE, WARMUP_ROUNDS, ROUNDS, () -> {
+            String truckType = random.nextBoolean() ? null : TRUCK_TYPES[random.nextInt(TRUCK_TYPES.length)];
+            return laneIndex.find("City " + random.nextInt(CITIES), "City " + random.nextInt(CITIES), truckType,
+                                  null, null, random.nextInt(3) * PAGE_SIZE, PAGE_SIZE).total();
+        });
+    }
+}
@@ -0,0 +1,108 @@
+package com.cargopro.loadbooking.benchmark;
+
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.Facility;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.mapper.LoadMapper;
+import com.cargopro.loadbooking.repository.LoadRepository;
+import com.cargopro.loadbooking.repository.LoadSpecifications;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares one page of {@code GET /api/load} read as managed entities and mapped with
+ * {@link LoadMapper} against the same page selected straight into
+ * {@link LoadResponseDto}. Reports median latency and bytes allocated per page.
+ */
+class ListProjectionBenchmarkTest extends AbstractPostgresBenchmark {
+
+    private static final int LOADS = 20_000;
+    private static final int PAGE_SIZE = 100;
+    private static final int WARMUP_ROUNDS = 50;
+    private static final int ROUNDS = 200;
+
+    private static boolean seeded;
+
+    @Autowired
+    private LoadRepository loadRepository;
+
+    @Autowired
+    private LoadMapper loadMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void seed() {
+        if (seeded) {
+            return;
+        }
+        List<Load> batch = new ArrayList<>(1_000);
+        for (int i = 0; i < LOADS; i++) {
+            Facility facility = new Facility("Origin " + (i % 50), "Destination " + (i % 70),
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(3));
+            Load load = new Load("SHIPPER-" + (i % 20), facility, "Steel", "Flatbed", 1, 1000.0 + i, null);
+            load.setStatus(LoadStatus.POSTED);
+            batch.add(load);
+            if (batch.size() == 1_000) {
+                loadRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        seeded = true;
+    }
+
+    @Test
+    void entityMappingVersusProjection() {
+        Specification<Load> spec = LoadSpecifications.withFilters(null, "Flatbed", LoadStatus.POSTED);
+        Pageable pageable = PageRequest.of(3, PAGE_SIZE, Sort.by("datePosted").descending());
+
+        Supplier<List<LoadResponseDto>> entities = () -> transactionTemplate.execute(status ->
+            loadRepository.findAll(spec, pageable).map(loadMapper::toResponseDto).getContent());
+        Supplier<List<LoadResponseDto>> projections = () -> transactionTemplate.execute(status ->
+            loadRepository.findViews(spec, pageable).getContent());
+
+        assertEquals(entities.get().stream().map(LoadResponseDto::getId).toList(),
+                     projections.get().stream().map(LoadResponseDto::getId).toList());
+
+        measure("entities + LoadMapper", entities);
+        measure("DTO projection", projections);
+    }
+
+    private void measure(String label, Supplier<List<LoadResponseDto>> page) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            page.get();
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long[] nanos = new long[ROUNDS];
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            page.get();
+            nanos[i] = System.nanoTime() - start;
+        }
+        long allocatedPerPage = (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / ROUNDS;
+
+        Arrays.sort(nanos);
+        report("%s, %d rows per page: median %.2f ms, p95 %.2f ms, %,d bytes allocated per page",
+               label, PAGE_SIZE, nanos[ROUNDS / 2] / 1e6, nanos[ROUNDS * 95 / 100] / 1e6, allocatedPerPage);
+    }
+}
@@ -0,0 +1,66 @@
+package com.cargopro.loadbooking.benchmark;
+
+import com.cargopro.loadbooking.dto.BulkIngestResultDto;
+import com.cargopro.loadbooking.service.LoadIngestService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures end-to-end throughput of {@link LoadIngestService} (parse, validate, COPY)
+ * for an NDJSON and a CSV upload. The target is 50k+ loads per second on one node.
+ */
+class LoadIngestBenchmarkTest extends AbstractPostgresBenchmark {
+
+    private static final int ROWS = 200_000;
+
+    @Autowired
+    private LoadIngestService loadIngestService;
+
+    @Test
+    void ndjsonThroughput() throws Exception {
+        StringBuilder body = new StringBuilder(ROWS * 320);
+        LocalDateTime loadingDate = LocalDateTime.now().plusDays(1).withNano(0);
+        for (int i = 0; i < ROWS; i++) {
+            body.append("{\"shipperId\":\"SHIPPER-").append(i % 100)
+                .append("\",\"facility\":{\"loadingPoint\":\"Origin ").append(i % 500)
+                .append("\",\"unloadingPoint\":\"Destination ").append(i % 700)
+                .append("\",\"loadingDate\":\"").append(loadingDate)
+                .append("\",\"unloadingDate\":\"").append(loadingDate.plusDays(2))
+                .append("\"},\"productType\":\"Steel\",\"truckType\":\"Flatbed\",\"noOfTrucks\":1,\"weight\":")
+                .append(1000 + i).append("}\n");
+        }
+        run("NDJSON", body.toString(), LoadIngestService.Format.NDJSON);
+    }
+
+    @Test
+    void csvThroughput() throws Exception {
+        StringBuilder body = new StringBuilder(ROWS * 160);
+        body.append("shipperId,loadingPoint,unloadingPoint,loadingDate,unloadingDate,productType,truckType,noOfTrucks,weight,comment\n");
+        LocalDateTime loadingDate = LocalDateTime.now().plusDays(1).withNano(0);
+        for (int i = 0; i < ROWS; i++) {
+            body.append("SHIPPER-").append(i % 100).append(',')
+                .append("Origin ").append(i % 500).append(',')
+                .append("Destination ").append(i % 700).append(',')
+                .append(loadingDate).append(',')
+                .append(loadingDate.plusDays(2)).append(',')
+                .append("Steel,Flatbed,1,").append(1000 + i).append(",\n");
+        }
+        run("CSV", body.toString(), LoadIngestService.Format.CSV);
+    }
+
+    private void run(String label, String body, LoadIngestService.Format format) throws Exception {
+        long start = System.nanoTime();
+        BulkIngestResultDto result = loadIngestService.ingest(
+            new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, StandardCharsets.UTF_8);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        assertEquals(ROWS, result.getInserted());
+        report("%s ingest of %,d loads: %.2f s, %,.0f loads/s", label, ROWS, seconds, ROWS / seconds);
+    }
+}
@@ -0,0 +1,58 @@
+package com.cargopro.loadbooking.benchmark;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.index.LoadTextIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures full-text searches against a million open loads: a product and a point, a
+ * common word with a prefix, and a rare word from the comments. In memory only, so it
+ * needs no database.
+ */
+@Tag("benchmark")
+class LoadTextIndexBenchmarkTest {
+
+    private static final int LOADS = 1_000_000;
+    private static final int POINTS = 500;
+    private static final String[] PRODUCT_TYPES = {"Steel Coils", "Steel Pipes", "Grain", "Cement", "Electronics",
+        "Textiles", "Chemicals", "Machinery"};
+    private static final String[] COMMENT_WORDS = {"fragile", "urgent", "covered", "tarpaulin", "odc", "returnable",
+        "pallets", "crane", "forklift", "night"};
+    private static final int WARMUP_ROUNDS = 500;
+    private static final int ROUNDS = 2_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Test
+    void searchesOverAMillionOpenLoads() {
+        LoadTextIndex index = new LoadTextIndex();
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.of(2024, 6, 1, 0, 0);
+        Benchmarks.timed(String.format("indexed %,d loads", LOADS), () -> {
+            for (int i = 0; i < LOADS; i++) {
+                FacilityDto facility = new FacilityDto("City" + random.nextInt(POINTS), "City" + random.nextInt(POINTS),
+                    now.plusDays(1), now.plusDays(2));
+                String comment = COMMENT_WORDS[random.nextInt(COMMENT_WORDS.length)] + " "
+                    + COMMENT_WORDS[random.nextInt(COMMENT_WORDS.length)] + " ref " + random.nextInt(100_000);
+                index.update(Benchmarks.load(Benchmarks.shipper(random, 5_000), facility,
+                    PRODUCT_TYPES[random.nextInt(PRODUCT_TYPES.length)], "Flatbed", 1000.0, comment,
+                    now.minusMinutes(random.nextInt(14 * 24 * 60)),
+                    random.nextInt(4) == 0 ? LoadStatus.BOOKED : LoadStatus.POSTED));
+            }
+        });
+        assertEquals(LOADS, index.size());
+
+        Benchmarks.latency("product + point, page of " + PAGE_SIZE, WARMUP_ROUNDS, ROUNDS,
+            () -> index.search("steel city" + random.nextInt(POINTS), null, null, PAGE_SIZE).total());
+        Benchmarks.latency("common word + prefix, page of " + PAGE_SIZE, WARMUP_ROUNDS, ROUNDS,
+            () -> index.search("steel co", LoadStatus.POSTED, null, PAGE_SIZE).total());
+        Benchmarks.latency("rare comment word, page of " + PAGE_SIZE, WARMUP_ROUNDS, ROUNDS,
+            () -> index.search("ref " + random.nextInt(100_000), null, null, PAGE_SIZE).total());
+    }
+}
@@ -0,0 +1,50 @@
+package com.cargopro.loadbooking.benchmark;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.index.AttributeDictionary;
+import com.cargopro.loadbooking.index.LoadingWindowIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures three-day loading window queries against a million POSTED loads whose one to
+ * three day windows are spread over a year. In memory only, so it needs no database.
+ */
+@Tag("benchmark")
+class LoadingWindowIndexBenchmarkTest {
+
+    private static final int LOADS = 1_000_000;
+    private static final int DAYS = 365;
+    private static final String[] TRUCK_TYPES = {"Flatbed", "Container", "Trailer", "Tanker"};
+    private static final int WARMUP_ROUNDS = 500;
+    private static final int ROUNDS = 2_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Test
+    void windowQueriesOverAMillionOpenLoads() {
+        LoadingWindowIndex index = new LoadingWindowIndex(new AttributeDictionary());
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Benchmarks.timed(String.format("indexed %,d loads", LOADS), () -> {
+            for (int i = 0; i < LOADS; i++) {
+                LocalDateTime loadingDate = start.plusMinutes(random.nextInt(DAYS * 24 * 60));
+                FacilityDto facility = new FacilityDto("Pune", "Mumbai", loadingDate,
+                    loadingDate.plusHours(24 + random.nextInt(48)));
+                index.update(Benchmarks.load(random, 1_000, facility, TRUCK_TYPES[random.nextInt(TRUCK_TYPES.length)],
+                    loadingDate.minusDays(random.nextInt(14))));
+            }
+        });
+        assertEquals(LOADS, index.size());
+
+        Benchmarks.latency("3-day window, page of " + PAGE_SIZE, WARMUP_ROUNDS, ROUNDS, () -> {
+            LocalDateTime from = start.plusDays(random.nextInt(DAYS));
+            String truckType = random.nextBoolean() ? null : TRUCK_TYPES[random.nextInt(TRUCK_TYPES.length)];
+            return index.find(from, from.plusDays(3), null, truckType, null, 0, PAGE_SIZE).total();
+        });
+    }
+}
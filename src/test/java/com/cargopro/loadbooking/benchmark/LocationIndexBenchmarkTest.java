@@ -0,0 +1,90 @@
+package com.cargopro.loadbooking.benchmark;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.geo.GeoArea;
+import com.cargopro.loadbooking.index.AttributeDictionary;
+import com.cargopro.loadbooking.index.LocationIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures 50 km radius queries against a million POSTED loads in India, first one at a
+ * time for latency and then from several threads at once for throughput: once spread
+ * evenly, and once clustered around a few hubs, where tens of thousands of loads share
+ * a cell. In memory only, so it needs no database.
+ */
+@Tag("benchmark")
+class LocationIndexBenchmarkTest {
+
+    private static final int LOADS = 1_000_000;
+    private static final double MIN_LATITUDE = 8;
+    private static final double MIN_LONGITUDE = 68;
+    private static final double SPAN = 27;
+    private static final int HUBS = 20;
+    // About 5 km
+    private static final double HUB_SPREAD = 0.05;
+    private static final double RADIUS_KM = 50;
+    private static final int ROUNDS = 5_000;
+    // A query at a hub checks every load there, so fewer of them take as long
+    private static final int HUB_ROUNDS = 500;
+    private static final int THREADS = 8;
+    private static final int PAGE_SIZE = 20;
+
+    @Test
+    void radiusQueriesOverAMillionOpenLoads() throws Exception {
+        measure("spread out", random -> new double[] {MIN_LATITUDE + random.nextDouble() * SPAN,
+                                                      MIN_LONGITUDE + random.nextDouble() * SPAN}, ROUNDS);
+    }
+
+    @Test
+    void radiusQueriesOverAMillionOpenLoadsClusteredAtHubs() throws Exception {
+        Random hubRandom = new Random(7);
+        double[][] hubs = new double[HUBS][];
+        for (int i = 0; i < HUBS; i++) {
+            hubs[i] = new double[] {MIN_LATITUDE + hubRandom.nextDouble() * SPAN,
+                                    MIN_LONGITUDE + hubRandom.nextDouble() * SPAN};
+        }
+        measure("clustered at " + HUBS + " hubs", random -> {
+            double[] hub = hubs[random.nextInt(HUBS)];
+            return new double[] {hub[0] + random.nextGaussian() * HUB_SPREAD,
+                                 hub[1] + random.nextGaussian() * HUB_SPREAD};
+        }, HUB_ROUNDS);
+    }
+
+    /**
+     * Indexes {@link #LOADS} loads at the positions {@code position} draws and queries
+     * around positions it draws as well, so the queries land where the loads are.
+     */
+    private static void measure(String layout, Function<Random, double[]> position, int rounds) throws Exception {
+        LocationIndex index = new LocationIndex(new AttributeDictionary());
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.of(2024, 6, 1, 0, 0);
+        Benchmarks.timed(String.format("indexed %,d loads %s", LOADS, layout), () -> {
+            for (int i = 0; i < LOADS; i++) {
+                double[] point = position.apply(random);
+                FacilityDto facility = new FacilityDto("Pune", "Mumbai", now.plusDays(1), now.plusDays(2));
+                facility.setLoadingLatitude(point[0]);
+                facility.setLoadingLongitude(point[1]);
+                index.update(Benchmarks.load(random, 1_000, facility, "Flatbed",
+                    now.minusMinutes(random.nextInt(14 * 24 * 60))));
+            }
+        });
+        assertEquals(LOADS, index.size());
+
+        String name = String.format("%s, %.0f km radius, page of %d", layout, RADIUS_KM, PAGE_SIZE);
+        Benchmarks.latency(name, rounds * 2 / 5, rounds, () -> query(index, position));
+        Benchmarks.throughput(name, THREADS, rounds, () -> query(index, position));
+    }
+
+    private static long query(LocationIndex index, Function<Random, double[]> position) {
+        double[] center = position.apply(ThreadLocalRandom.current());
+        return index.find(GeoArea.circle(center[0], center[1], RADIUS_KM), null, null, null, 0, PAGE_SIZE).total();
+    }
+}
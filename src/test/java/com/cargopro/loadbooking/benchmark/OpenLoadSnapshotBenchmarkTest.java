@@ -0,0 +1,58 @@
+package com.cargopro.loadbooking.benchmark;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.index.AttributeDictionary;
+import com.cargopro.loadbooking.index.OpenLoadSnapshot;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures board queries against a million open loads: a shipper's POSTED loads of one
+ * truck type and product type, and all POSTED loads of a truck type in a weight range.
+ * In memory only, so it needs no database.
+ */
+@Tag("benchmark")
+class OpenLoadSnapshotBenchmarkTest {
+
+    private static final int LOADS = 1_000_000;
+    private static final int SHIPPERS = 5_000;
+    private static final String[] TRUCK_TYPES = {"Flatbed", "Container", "Trailer", "Tanker"};
+    private static final String[] PRODUCT_TYPES = {"Steel", "Grain", "Cement", "Electronics", "Textiles", "Chemicals"};
+    private static final int WARMUP_ROUNDS = 500;
+    private static final int ROUNDS = 2_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Test
+    void boardQueriesOverAMillionOpenLoads() {
+        OpenLoadSnapshot snapshot = new OpenLoadSnapshot(new AttributeDictionary());
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Benchmarks.timed(String.format("indexed %,d loads", LOADS), () -> {
+            for (int i = 0; i < LOADS; i++) {
+                LocalDateTime loadingDate = start.plusMinutes(random.nextInt(365 * 24 * 60));
+                FacilityDto facility = new FacilityDto("Pune", "Mumbai", loadingDate, loadingDate.plusDays(2));
+                snapshot.update(Benchmarks.load(Benchmarks.shipper(random, SHIPPERS), facility,
+                    PRODUCT_TYPES[random.nextInt(PRODUCT_TYPES.length)], TRUCK_TYPES[random.nextInt(TRUCK_TYPES.length)],
+                    500.0 + random.nextInt(30_000), null, loadingDate.minusDays(random.nextInt(14)),
+                    random.nextInt(4) == 0 ? LoadStatus.BOOKED : LoadStatus.POSTED));
+            }
+        });
+        assertEquals(LOADS, snapshot.size());
+
+        Benchmarks.latency("shipper + truck type + product type, page of " + PAGE_SIZE, WARMUP_ROUNDS, ROUNDS,
+            () -> snapshot.find(LoadStatus.POSTED, Benchmarks.shipper(random, SHIPPERS),
+                TRUCK_TYPES[random.nextInt(TRUCK_TYPES.length)], PRODUCT_TYPES[random.nextInt(PRODUCT_TYPES.length)],
+                null, null, null, null, 0, PAGE_SIZE).total());
+        Benchmarks.latency("truck type + weight range, page of " + PAGE_SIZE, WARMUP_ROUNDS, ROUNDS, () -> {
+            double minWeight = 500.0 + random.nextInt(25_000);
+            return snapshot.find(LoadStatus.POSTED, null, TRUCK_TYPES[random.nextInt(TRUCK_TYPES.length)], null,
+                minWeight, minWeight + 2_000, null, null, 0, PAGE_SIZE).total();
+        });
+    }
+}
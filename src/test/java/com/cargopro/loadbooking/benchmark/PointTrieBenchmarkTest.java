@@ -0,0 +1,76 @@
+package com.cargopro.loadbooking.benchmark;
+
+import com.cargopro.loadbooking.index.PointTrie;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures point suggestions for prefixes of one to four letters over 50,000 points,
+ * first one at a time for latency and then from several threads at once for throughput,
+ * while another thread keeps adding the points of new loads. In memory only, so it needs
+ * no database.
+ */
+@Tag("benchmark")
+class PointTrieBenchmarkTest {
+
+    private static final int POINTS = 50_000;
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int ROUNDS = 100_000;
+    private static final int THREADS = 8;
+    private static final int LIMIT = 10;
+
+    @Test
+    void suggestionsOverFiftyThousandPoints() throws Exception {
+        PointTrie trie = new PointTrie();
+        Random random = new Random(42);
+        String[] names = new String[POINTS];
+        Benchmarks.timed(String.format("added %,d points", POINTS), () -> {
+            for (int i = 0; i < POINTS; i++) {
+                names[i] = name(random);
+                // Few points carry most loads
+                trie.add(names[i], 1 + (long) (100_000 / Math.pow(i + 1, 0.8)));
+            }
+        });
+        assertTrue(trie.size() > POINTS * 9 / 10);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread creator = new Thread(() -> {
+            ThreadLocalRandom creatorRandom = ThreadLocalRandom.current();
+            while (running.get()) {
+                trie.add(names[creatorRandom.nextInt(POINTS)], 1);
+                Thread.onSpinWait();
+            }
+        });
+        creator.start();
+        try {
+            String name = "prefixes of 1-4 letters, up to " + LIMIT;
+            Benchmarks.latency(name, WARMUP_ROUNDS, ROUNDS, () -> suggest(trie, names));
+            Benchmarks.throughput(name, THREADS, ROUNDS, () -> suggest(trie, names));
+        } finally {
+            running.set(false);
+            creator.join();
+        }
+    }
+
+    private static int suggest(PointTrie trie, String[] names) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String name = names[random.nextInt(names.length)];
+        return trie.suggest(name.substring(0, 1 + random.nextInt(Math.min(4, name.length()))), LIMIT).size();
+    }
+
+    private static String name(Random random) {
+        StringBuilder name = new StringBuilder();
+        int length = 4 + random.nextInt(8);
+        name.append((char) ('A' + random.nextInt(26)));
+        for (int i = 1; i < length; i++) {
+            name.append((char) ('a' + random.nextInt(26)));
+        }
+        return name.toString();
+    }
+}
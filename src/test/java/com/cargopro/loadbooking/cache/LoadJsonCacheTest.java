@@ -0,0 +1,77 @@
+package com.cargopro.loadbooking.cache;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadJsonCacheTest {
+
+    private ObjectMapper objectMapper;
+    private LoadJsonCache loadJsonCache;
+    private LoadResponseDto load;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        loadJsonCache = new LoadJsonCache(objectMapper, 1024 * 1024, Duration.ofMinutes(10));
+
+        load = new LoadResponseDto(
+            UUID.randomUUID(),
+            "SHIPPER001",
+            new FacilityDto("Origin City", "Destination City", LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(3)),
+            "Electronics",
+            "Flatbed",
+            2,
+            1500.0,
+            "Handle with care",
+            LocalDateTime.now(),
+            LoadStatus.POSTED
+        );
+        load.setVersion(3L);
+    }
+
+    @Test
+    void serialize_ShouldReuseBytes_WhileVersionIsUnchanged() throws Exception {
+        LoadJsonCache.SerializedLoad first = loadJsonCache.serialize(load);
+        LoadJsonCache.SerializedLoad second = loadJsonCache.serialize(load);
+
+        assertSame(first.getBytes(), second.getBytes());
+        assertEquals("\"3\"", second.getETag());
+        assertEquals(load.getId().toString(), objectMapper.readTree(second.getBytes()).get("id").asText());
+    }
+
+    @Test
+    void serialize_ShouldReserialize_WhenVersionChanges() throws Exception {
+        LoadJsonCache.SerializedLoad first = loadJsonCache.serialize(load);
+        load.setVersion(4L);
+        load.setStatus(LoadStatus.BOOKED);
+
+        LoadJsonCache.SerializedLoad second = loadJsonCache.serialize(load);
+
+        assertNotSame(first.getBytes(), second.getBytes());
+        assertEquals("\"4\"", second.getETag());
+        assertEquals("BOOKED", objectMapper.readTree(second.getBytes()).get("status").asText());
+    }
+
+    @Test
+    void invalidate_ShouldDropEntry() {
+        loadJsonCache.serialize(load);
+
+        loadJsonCache.invalidate(load.getId());
+
+        assertNull(loadJsonCache.nativeCache().getIfPresent(load.getId()));
+    }
+}
@@ -0,0 +1,47 @@
+package com.cargopro.loadbooking.cache;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that every region Hibernate asks for is defined in application.conf; the
+ * missing cache strategy is {@code fail}, so a missing region would stop startup.
+ */
+class SecondLevelCacheRegionsTest {
+
+    private CachingProvider provider;
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        cacheManager = provider.getCacheManager();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheManager.close();
+    }
+
+    @Test
+    void applicationConf_ShouldDefineEveryRegion() {
+        for (String region : new String[] {
+                "loads", "bookings", "load-bookings", "load-counts", "booking-counts",
+                "default-query-results-region", "default-update-timestamps-region"}) {
+            assertNotNull(cacheManager.getCache(region), "region " + region);
+        }
+    }
+
+    @Test
+    void applicationConf_ShouldNotDefineUnknownRegions() {
+        assertNull(cacheManager.getCache("com.cargopro.loadbooking.entity.Load"));
+    }
+}
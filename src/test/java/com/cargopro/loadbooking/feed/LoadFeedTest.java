@@ -0,0 +1,172 @@
+package com.cargopro.loadbooking.feed;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LoadFeedTest {
+
+    private LoadFeed loadFeed;
+
+    @AfterEach
+    void tearDown() {
+        loadFeed.shutdown();
+    }
+
+    @Test
+    void publish_ShouldOnlySendMatchingLoadsIncludingLoadsLeavingTheStatus() throws Exception {
+        // Given
+        loadFeed = feed(16);
+        SseEmitter emitter = mock(SseEmitter.class);
+        loadFeed.subscribe(emitter, "Flatbed", null, LoadStatus.POSTED, null);
+        LoadResponseDto flatbed = load("Flatbed", LoadStatus.POSTED);
+        LoadResponseDto booked = load("Flatbed", LoadStatus.BOOKED);
+
+        // When
+        loadFeed.publish(LoadFeed.EventType.CREATED, load("Container", LoadStatus.POSTED), null);
+        loadFeed.publish(LoadFeed.EventType.CREATED, flatbed, null);
+        loadFeed.publish(LoadFeed.EventType.STATUS_CHANGED, booked, LoadStatus.POSTED);
+        loadFeed.publish(LoadFeed.EventType.UPDATED, load("Flatbed", LoadStatus.BOOKED), null);
+
+        // Then
+        List<String> sent = sent(emitter, 2);
+        assertTrue(sent.get(0).contains("event:CREATED") && sent.get(0).contains(flatbed.getId().toString()));
+        assertTrue(sent.get(1).contains("event:STATUS_CHANGED") && sent.get(1).contains(booked.getId().toString()));
+    }
+
+    @Test
+    void subscribe_ShouldReplayEventsAfterLastEventIdOrAskForAReset() throws Exception {
+        // Given
+        loadFeed = feed(16);
+        SseEmitter first = mock(SseEmitter.class);
+        loadFeed.subscribe(first, null, null, null, null);
+        for (int i = 0; i < 3; i++) {
+            loadFeed.publish(LoadFeed.EventType.CREATED, load("Flatbed", LoadStatus.POSTED), null);
+        }
+        long firstEventId = eventId(sent(first, 3).get(0));
+
+        // When
+        SseEmitter resumed = mock(SseEmitter.class);
+        loadFeed.subscribe(resumed, null, null, null, firstEventId);
+        SseEmitter stale = mock(SseEmitter.class);
+        loadFeed.subscribe(stale, null, null, null, 42L);
+
+        // Then
+        List<String> replayed = sent(resumed, 2);
+        assertEquals(firstEventId + 1, eventId(replayed.get(0)));
+        assertEquals(firstEventId + 2, eventId(replayed.get(1)));
+        assertTrue(sent(stale, 1).get(0).contains("event:" + LoadFeed.RESET_EVENT));
+    }
+
+    @Test
+    void publish_ShouldDropASubscriberWhoseBufferOverflows() throws Exception {
+        // Given
+        loadFeed = feed(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SseEmitter slow = mock(SseEmitter.class);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(slow).send(any(SseEmitter.SseEventBuilder.class));
+        loadFeed.subscribe(slow, null, null, null, null);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            loadFeed.publish(LoadFeed.EventType.CREATED, load("Flatbed", LoadStatus.POSTED), null);
+        }
+        release.countDown();
+
+        // Then
+        verify(slow, after(200).atMost(1)).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(0, loadFeed.getSubscriberCount());
+        verify(slow, timeout(1000)).complete();
+    }
+
+    @Test
+    void publish_ShouldDropASubscriberWhoseSendIsStuckAndKeepServingTheOthers() throws Exception {
+        // Given
+        loadFeed = feed(16, 1, Duration.ofMillis(200));
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(1);
+        SseEmitter stuck = mock(SseEmitter.class);
+        doAnswer(invocation -> {
+            sending.countDown();
+            release.await();
+            return null;
+        }).when(stuck).send(any(SseEmitter.SseEventBuilder.class));
+        // Waited on with a latch: a verify with a timeout would hold up the sender's call to the mock
+        doAnswer(invocation -> {
+            completed.countDown();
+            return null;
+        }).when(stuck).complete();
+        loadFeed.subscribe(stuck, null, null, null, null);
+        loadFeed.publish(LoadFeed.EventType.CREATED, load("Flatbed", LoadStatus.POSTED), null);
+        assertTrue(sending.await(1, TimeUnit.SECONDS));
+        SseEmitter healthy = mock(SseEmitter.class);
+        loadFeed.subscribe(healthy, null, null, null, null);
+
+        // When
+        loadFeed.publish(LoadFeed.EventType.CREATED, load("Flatbed", LoadStatus.POSTED), null);
+
+        // Then
+        // The only sender thread is stuck, so the healthy subscriber is served by its replacement
+        sent(healthy, 1);
+        assertEquals(1, loadFeed.getSubscriberCount());
+        assertEquals(1, completed.getCount());
+        release.countDown();
+        assertTrue(completed.await(1, TimeUnit.SECONDS));
+        verify(stuck, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    private static LoadFeed feed(int bufferSize) {
+        return feed(bufferSize, 2, Duration.ofSeconds(10));
+    }
+
+    private static LoadFeed feed(int bufferSize, int senderThreads, Duration sendTimeout) {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return new LoadFeed(objectMapper, bufferSize, 100, senderThreads, Duration.ofMinutes(1), Duration.ofMinutes(5),
+            sendTimeout);
+    }
+
+    private static List<String> sent(SseEmitter emitter, int count) throws Exception {
+        ArgumentCaptor<SseEmitter.SseEventBuilder> events = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, timeout(1000).times(count)).send(events.capture());
+        return events.getAllValues().stream()
+            .map(event -> event.build().stream()
+                .map(part -> part.getData().toString())
+                .collect(Collectors.joining()))
+            .toList();
+    }
+
+    private static long eventId(String event) {
+        return Long.parseLong(event.substring(event.indexOf("id:") + 3, event.indexOf('\n', event.indexOf("id:"))));
+    }
+
+    private static LoadResponseDto load(String truckType, LoadStatus status) {
+        FacilityDto facility = new FacilityDto("Mumbai", "Delhi", LocalDateTime.now().plusDays(1),
+            LocalDateTime.now().plusDays(2));
+        return new LoadResponseDto(UUID.randomUUID(), "SHIPPER001", facility, "Steel", truckType, 1, 1000.0, null,
+            LocalDateTime.now(), status);
+    }
+}
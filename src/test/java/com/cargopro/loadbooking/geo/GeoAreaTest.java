@@ -0,0 +1,74 @@
+package com.cargopro.loadbooking.geo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoAreaTest {
+
+    @Test
+    void circle_ShouldWrapItsBoundingBoxAcrossTheAntimeridian() {
+        // When
+        GeoArea nearSuva = GeoArea.circle(-17, 179.5, 200);
+
+        // Then
+        assertTrue(nearSuva.wrapsAntimeridian());
+        assertTrue(nearSuva.getMinLongitude() > 177 && nearSuva.getMinLongitude() < 178);
+        assertTrue(nearSuva.getMaxLongitude() > -179 && nearSuva.getMaxLongitude() < -178);
+        assertTrue(nearSuva.contains(-17, -179));
+        assertTrue(nearSuva.contains(-17, 178));
+        assertFalse(nearSuva.contains(-17, -177.5));
+        assertFalse(nearSuva.contains(-17, 0));
+    }
+
+    @Test
+    void circle_ShouldWidenItsBoundingBoxTowardsThePoleAndCoverAPoleItReaches() {
+        // When
+        GeoArea arctic = GeoArea.circle(85, 0, 100);
+        GeoArea aroundThePole = GeoArea.circle(89.5, 10, 100);
+
+        // Then
+        // 0.9 degrees of latitude either way; as wide as a degree of longitude is short at 85.9
+        assertEquals(84.1, arctic.getMinLatitude(), 0.01);
+        assertEquals(85.9, arctic.getMaxLatitude(), 0.01);
+        assertEquals(12.58, arctic.getMaxLongitude(), 0.01);
+        assertFalse(arctic.wrapsAntimeridian());
+        assertTrue(arctic.contains(85.1, 10.3));
+        assertFalse(arctic.contains(85.1, 10.4));
+
+        assertEquals(90, aroundThePole.getMaxLatitude());
+        assertEquals(-180, aroundThePole.getMinLongitude());
+        assertEquals(180, aroundThePole.getMaxLongitude());
+        // Across the pole, on the far side of it
+        assertTrue(aroundThePole.contains(89.8, -170));
+        assertFalse(aroundThePole.contains(89.5, -170));
+    }
+
+    @Test
+    void contains_ShouldCheckTheExactDistanceInsideTheBoundingBox() {
+        // Given
+        GeoArea nearPune = GeoArea.circle(18.5204, 73.8567, 50);
+
+        // Then
+        assertEquals(120, GeoArea.distanceKm(18.5204, 73.8567, 19.0760, 72.8777), 1);
+        assertTrue(nearPune.contains(18.9, 73.8567));
+        // The bounding box's corner is some 70 km away
+        assertFalse(nearPune.contains(nearPune.getMaxLatitude() - 0.01, nearPune.getMaxLongitude() - 0.01));
+        assertFalse(nearPune.contains(19.0760, 72.8777));
+        assertTrue(GeoArea.box(18, 73, 19, 74).contains(18.99, 73.99));
+    }
+
+    @Test
+    void box_ShouldWrapWhenItsMinimumLongitudeIsEastOfItsMaximum() {
+        // When
+        GeoArea pacific = GeoArea.box(-20, 170, -10, -170);
+
+        // Then
+        assertTrue(pacific.wrapsAntimeridian());
+        assertTrue(pacific.contains(-15, 180));
+        assertTrue(pacific.contains(-15, -175));
+        assertFalse(pacific.contains(-15, 0));
+        assertThrows(IllegalArgumentException.class, () -> GeoArea.box(10, 0, -10, 1));
+        assertThrows(IllegalArgumentException.class, () -> GeoArea.of(18.5, 73.8, 10.0, 18.0, 73.0, 19.0, 74.0));
+    }
+}
@@ -0,0 +1,86 @@
+package com.cargopro.loadbooking.index;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttributeDictionaryTest {
+
+    private final AttributeDictionary dictionary = new AttributeDictionary();
+
+    @Test
+    void encode_ShouldAssignCodesPerAttributeInOrderOfFirstUse() {
+        // When
+        int flatbed = dictionary.encode(AttributeDictionary.Attribute.TRUCK_TYPE, "Flatbed");
+        int container = dictionary.encode(AttributeDictionary.Attribute.TRUCK_TYPE, "Container");
+        int shipper = dictionary.encode(AttributeDictionary.Attribute.SHIPPER_ID, "Flatbed");
+
+        // Then
+        assertEquals(0, flatbed);
+        assertEquals(1, container);
+        assertEquals(0, shipper);
+        assertEquals(flatbed, dictionary.encode(AttributeDictionary.Attribute.TRUCK_TYPE, "Flatbed"));
+        assertEquals("Container", dictionary.decode(AttributeDictionary.Attribute.TRUCK_TYPE, container));
+        assertEquals(AttributeDictionary.UNKNOWN, dictionary.codeOf(AttributeDictionary.Attribute.TRUCK_TYPE, "Tanker"));
+        assertEquals(AttributeDictionary.ANY, dictionary.filterCode(AttributeDictionary.Attribute.TRUCK_TYPE, null));
+        assertEquals(2, dictionary.size(AttributeDictionary.Attribute.TRUCK_TYPE));
+    }
+
+    @Test
+    void intern_ShouldShareOneInstanceOfEachRepeatingString() {
+        // Given
+        LoadResponseDto first = load();
+        LoadResponseDto second = load();
+        assertNotSame(first.getShipperId(), second.getShipperId());
+
+        // When
+        dictionary.intern(first);
+        dictionary.intern(second);
+
+        // Then
+        assertSame(first.getShipperId(), second.getShipperId());
+        assertSame(first.getTruckType(), second.getTruckType());
+        assertSame(first.getProductType(), second.getProductType());
+        assertSame(first.getFacility().getLoadingPoint(), second.getFacility().getLoadingPoint());
+        assertSame(first.getFacility().getLoadingPoint(), second.getFacility().getUnloadingPoint());
+        assertNull(dictionary.intern(AttributeDictionary.Attribute.TRUCK_TYPE, null));
+    }
+
+    @Test
+    void intern_ShouldShareOnlyAsManyPointsAsItIsBoundTo() {
+        // Given
+        AttributeDictionary bounded = new AttributeDictionary(100);
+        for (int i = 0; i < 50; i++) {
+            bounded.intern(load());
+        }
+
+        // When
+        for (int i = 0; i < 1_000; i++) {
+            LoadResponseDto load = load();
+            load.getFacility().setLoadingPoint("Village " + i);
+            load.getFacility().setUnloadingPoint("Hamlet " + i);
+            bounded.intern(load);
+        }
+        LoadResponseDto first = bounded.intern(load());
+        LoadResponseDto second = bounded.intern(load());
+
+        // Then
+        assertTrue(bounded.sharedPoints() <= 100);
+        assertSame(first.getFacility().getLoadingPoint(), second.getFacility().getLoadingPoint());
+        assertEquals(1, bounded.size(AttributeDictionary.Attribute.SHIPPER_ID));
+        assertEquals(1, bounded.size(AttributeDictionary.Attribute.PRODUCT_TYPE));
+    }
+
+    private static LoadResponseDto load() {
+        FacilityDto facility = new FacilityDto(new String("Pune"), new String("Pune"), LocalDateTime.now().plusDays(1),
+            LocalDateTime.now().plusDays(2));
+        return new LoadResponseDto(UUID.randomUUID(), new String("SHIPPER001"), facility, new String("Steel"),
+            new String("Flatbed"), 1, 1000.0, null, LocalDateTime.now(), LoadStatus.POSTED);
+    }
+}
@@ -0,0 +1,91 @@
+package com.cargopro.loadbooking.index;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LaneIndexTest {
+
+    private final LaneIndex laneIndex = new LaneIndex(new AttributeDictionary());
+
+    @Test
+    void find_ShouldPageNewestFirstAndFilterByTruckTypeAndShipper() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        LoadResponseDto first = load("SHIPPER001", "Pune", "Flatbed", now.minusHours(3));
+        LoadResponseDto second = load("SHIPPER002", "Pune", "Container", now.minusHours(2));
+        LoadResponseDto third = load("SHIPPER001", "Pune", "Flatbed", now.minusHours(1));
+        List.of(first, second, third).forEach(laneIndex::update);
+
+        // When
+        LoadSlice page = laneIndex.find("pune", "MUMBAI ", null, null, null, 1, 1);
+        LoadSlice flatbeds = laneIndex.find("Pune", "Mumbai", "FLATBED", null, null, 0, 10);
+        LoadSlice shipper = laneIndex.find("Pune", "Mumbai", null, "SHIPPER001", null, 1, 10);
+
+        // Then
+        assertEquals(List.of(second.getId()), page.ids());
+        assertEquals(3, page.total());
+        assertEquals(List.of(third.getId(), first.getId()), flatbeds.ids());
+        assertEquals(List.of(first.getId()), shipper.ids());
+        assertEquals(2, shipper.total());
+    }
+
+    @Test
+    void update_ShouldKeepALoadOnceUnderAnyTruckTypeWhenItsTruckTypeChanges() {
+        // Given
+        LoadResponseDto load = load("SHIPPER001", "Pune", "Flatbed", LocalDateTime.now());
+        laneIndex.update(load);
+
+        // When
+        LoadResponseDto container = load("SHIPPER001", "Pune", "Container", load.getDatePosted());
+        container.setId(load.getId());
+        container.setVersion(1L);
+        laneIndex.update(container);
+
+        // Then
+        assertEquals(0, laneIndex.find("Pune", "Mumbai", "Flatbed", null, null, 0, 10).total());
+        assertEquals(List.of(load.getId()), laneIndex.find("Pune", "Mumbai", "Container", null, null, 0, 10).ids());
+        LoadSlice anyTruckType = laneIndex.find("Pune", "Mumbai", null, null, null, 0, 10);
+        assertEquals(List.of(load.getId()), anyTruckType.ids());
+        assertEquals(1, anyTruckType.total());
+    }
+
+    @Test
+    void find_ShouldStopAtTheLimitAndStillCountTheWholeLane() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            laneIndex.update(load("SHIPPER001", " pune", "Flatbed", now.minusHours(i)));
+        }
+        LoadResponseDto otherShipper = load("SHIPPER002", "PUNE ", "Flatbed", now.minusHours(5));
+        laneIndex.update(otherShipper);
+
+        // When
+        LoadSlice firstTwo = laneIndex.find("Pune", "Mumbai", "Flatbed", null, null, 0, 2);
+        LoadSlice filtered = laneIndex.find("Pune", "Mumbai", "Flatbed", null,
+            id -> id.equals(otherShipper.getId()), 0, 2);
+
+        // Then
+        assertEquals(2, firstTwo.ids().size());
+        assertEquals(6, firstTwo.total());
+        assertEquals(List.of(otherShipper.getId()), filtered.ids());
+        assertEquals(1, filtered.total());
+        assertEquals(0, laneIndex.find("Pune", "Mumbai", null, "SHIPPER404", null, 0, 10).total());
+    }
+
+    private static LoadResponseDto load(String shipperId, String loadingPoint, String truckType,
+                                        LocalDateTime datePosted) {
+        FacilityDto facility = new FacilityDto(loadingPoint, "Mumbai", datePosted.plusDays(1), datePosted.plusDays(2));
+        LoadResponseDto load = new LoadResponseDto(UUID.randomUUID(), shipperId, facility, "Steel", truckType, 1,
+            1000.0, null, datePosted, LoadStatus.POSTED);
+        load.setVersion(0L);
+        return load;
+    }
+}
@@ -0,0 +1,126 @@
+package com.cargopro.loadbooking.index;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.pagination.RelevanceCursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadTextIndexTest {
+
+    private static final LocalDateTime POSTED = LocalDateTime.of(2024, 6, 4, 0, 0);
+
+    private final LoadTextIndex index = new LoadTextIndex();
+
+    @Test
+    void search_ShouldRankByFieldAndWholeWordsThenNewestFirst() {
+        // Given
+        LoadResponseDto coils = load("Steel Coils", "Pune", "Mumbai", null, 3);
+        LoadResponseDto newerCoils = load("Steel coils", "Pune", "Chennai", null, 1);
+        LoadResponseDto steelInComment = load("Machinery", "Pune", "Delhi", "Steel frames and coils", 2);
+        LoadResponseDto steelworks = load("Steelworks scrap coils", "Pune", "Delhi", null, 4);
+        LoadResponseDto noCoils = load("Steel", "Pune", "Delhi", null, 5);
+        List.of(coils, newerCoils, steelInComment, steelworks, noCoils).forEach(index::update);
+
+        // When
+        LoadTextIndex.SearchResult all = index.search("steel COILS, pune", null, null, 10);
+        LoadTextIndex.SearchResult firstTwo = index.search("steel coils pune", null, null, 2);
+        LoadTextIndex.Hit last = firstTwo.hits().get(1);
+        LoadTextIndex.SearchResult rest = index.search("steel coils pune", null,
+            new RelevanceCursor(last.score(), last.posted(), last.id(), firstTwo.weights()), 10);
+
+        // Then
+        assertEquals(List.of(newerCoils.getId(), coils.getId(), steelworks.getId(), steelInComment.getId()),
+            ids(all));
+        assertEquals(4, all.total());
+        assertEquals(all.hits().get(0).score(), all.hits().get(1).score());
+        assertEquals(List.of(steelworks.getId(), steelInComment.getId()), ids(rest));
+        assertEquals(4, rest.total());
+        assertEquals(List.of(steelInComment.getId()), ids(index.search("fram", null, null, 10)));
+        assertEquals(0, index.search("copper", null, null, 10).total());
+        assertThrows(IllegalArgumentException.class, () -> index.search("--", null, null, 10));
+        assertThrows(IllegalArgumentException.class, () -> index.search("steel", LoadStatus.CANCELLED, null, 10));
+    }
+
+    @Test
+    void search_ShouldScoreLaterPagesWithTheWeightsOfTheFirstWhileLoadsAreWritten() {
+        // Given
+        LoadResponseDto steelProduct = load("Steel", "Nagpur", "Delhi", "Pune pickup", 1);
+        LoadResponseDto puneProduct = load("Pune granite", "Nagpur", "Delhi", "Steel crates", 2);
+        List.of(steelProduct, puneProduct).forEach(index::update);
+        for (int i = 0; i < 3; i++) {
+            index.update(load("Cement", "Pune", "Mumbai", null, 10 + i));
+        }
+        LoadTextIndex.SearchResult first = index.search("steel pune", null, null, 1);
+        LoadTextIndex.Hit last = first.hits().get(0);
+
+        // When
+        // Steel becomes common, so it would now weigh less than Pune and the two loads would swap places
+        for (int i = 0; i < 10; i++) {
+            index.update(load("Cement", "Nagpur", "Delhi", "Steel", 20 + i));
+        }
+        LoadTextIndex.SearchResult second = index.search("steel pune", null,
+            new RelevanceCursor(last.score(), last.posted(), last.id(), first.weights()), 10);
+
+        // Then
+        assertEquals(List.of(steelProduct.getId()), ids(first));
+        assertEquals(List.of(puneProduct.getId()), ids(second));
+        assertTrue(index.search("steel pune", null, null, 1).weights().get(0) < first.weights().get(0));
+        assertThrows(IllegalArgumentException.class, () -> index.search("steel", null,
+            new RelevanceCursor(last.score(), last.posted(), last.id(), first.weights()), 10));
+    }
+
+    @Test
+    void update_ShouldDropTheWordsOnlyTheChangedLoadHad() {
+        // Given
+        LoadResponseDto steelworks = load("Steelworks scrap", "Pune", "Mumbai", null, 1);
+        LoadResponseDto steel = load("Steel", "Pune", "Mumbai", "Scrap on top", 2);
+        List.of(steelworks, steel).forEach(index::update);
+
+        // When
+        index.update(copy(steelworks, "Cement", LoadStatus.BOOKED, 1));
+
+        // Then
+        assertEquals(0, index.search("steelw", null, null, 10).total());
+        assertEquals(List.of(steel.getId()), ids(index.search("stee", null, null, 10)));
+        assertEquals(List.of(steel.getId()), ids(index.search("scrap", null, null, 10)));
+        assertEquals(List.of(steelworks.getId()), ids(index.search("cem", LoadStatus.BOOKED, null, 10)));
+        assertEquals(0, index.search("cement", LoadStatus.POSTED, null, 10).total());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void tokenize_ShouldSplitOnAnythingButLettersAndDigitsAndDropRepeats() {
+        assertEquals(List.of("steel", "coils", "12mm"), LoadTextIndex.tokenize("Steel-coils, 12mm STEEL"));
+        assertEquals(List.of("pune", "mumbai"), LoadTextIndex.tokenize("  Pune/Mumbai_pune "));
+        assertEquals(List.of(), LoadTextIndex.tokenize(null));
+        assertThrows(IllegalArgumentException.class, () -> LoadTextIndex.queryWords("a b c d e f g h i j k"));
+    }
+
+    private static List<UUID> ids(LoadTextIndex.SearchResult result) {
+        return result.hits().stream().map(LoadTextIndex.Hit::id).toList();
+    }
+
+    private static LoadResponseDto load(String productType, String loadingPoint, String unloadingPoint,
+                                        String comment, int hoursAgo) {
+        FacilityDto facility = new FacilityDto(loadingPoint, unloadingPoint, POSTED.plusDays(1), POSTED.plusDays(2));
+        LoadResponseDto load = new LoadResponseDto(UUID.randomUUID(), "SHIPPER001", facility, productType, "Flatbed",
+            1, 1000.0, comment, POSTED.minusHours(hoursAgo), LoadStatus.POSTED);
+        load.setVersion(0L);
+        return load;
+    }
+
+    private static LoadResponseDto copy(LoadResponseDto load, String productType, LoadStatus status, long version) {
+        LoadResponseDto copy = new LoadResponseDto(load.getId(), load.getShipperId(), load.getFacility(), productType,
+            load.getTruckType(), load.getNoOfTrucks(), load.getWeight(), load.getComment(), load.getDatePosted(),
+            status);
+        copy.setVersion(version);
+        return copy;
+    }
+}
@@ -0,0 +1,102 @@
+package com.cargopro.loadbooking.index;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadingWindowIndexTest {
+
+    private static final LocalDateTime TUESDAY = LocalDateTime.of(2024, 6, 4, 0, 0);
+
+    private final LoadingWindowIndex index = new LoadingWindowIndex(new AttributeDictionary());
+
+    @Test
+    void find_ShouldReturnOverlappingWindowsNewestFirst() {
+        // Given
+        LoadResponseDto longBefore = load(TUESDAY.minusDays(10), TUESDAY.plusHours(1), 1);
+        LoadResponseDto touching = load(TUESDAY.plusDays(2), TUESDAY.plusDays(3), 2);
+        LoadResponseDto backwards = load(TUESDAY.plusDays(1), TUESDAY.minusDays(1), 3);
+        LoadResponseDto after = load(TUESDAY.plusDays(2).plusMinutes(1), TUESDAY.plusDays(4), 4);
+        LoadResponseDto before = load(TUESDAY.minusDays(3), TUESDAY.minusMinutes(1), 5);
+        List.of(longBefore, touching, backwards, after, before).forEach(index::update);
+
+        // When
+        LoadSlice window = index.find(TUESDAY, TUESDAY.plusDays(2), null, null, null, 0, 10);
+        LoadSlice secondPage = index.find(TUESDAY, TUESDAY.plusDays(2), null, null, null, 2, 2);
+        LoadSlice openEnded = index.find(TUESDAY.plusDays(3), null, null, null, null, 0, 10);
+
+        // Then
+        assertEquals(List.of(longBefore.getId(), touching.getId(), backwards.getId()), window.ids());
+        assertEquals(3, window.total());
+        assertEquals(List.of(backwards.getId()), secondPage.ids());
+        assertEquals(List.of(touching.getId(), after.getId()), openEnded.ids());
+        assertTrue(index.overlapping(TUESDAY, TUESDAY.plusDays(2)).test(touching.getId()));
+        assertFalse(index.overlapping(TUESDAY, TUESDAY.plusDays(2)).test(after.getId()));
+    }
+
+    @Test
+    void find_ShouldFollowTheLatestEndOfADayAsLoadsLeaveAndJoinIt() {
+        // Given
+        LoadResponseDto longWindow = load(TUESDAY, TUESDAY.plusDays(10), 1);
+        LoadResponseDto shortWindow = load(TUESDAY.plusHours(2), TUESDAY.plusDays(1), 2);
+        List.of(longWindow, shortWindow).forEach(index::update);
+
+        // When
+        LoadSlice beforeBooking = index.find(TUESDAY.plusDays(5), null, null, null, null, 0, 10);
+        index.update(booked(longWindow));
+        LoadSlice afterBooking = index.find(TUESDAY.plusDays(5), null, null, null, null, 0, 10);
+        LoadSlice stillThere = index.find(TUESDAY.plusHours(12), null, null, null, null, 0, 10);
+        LoadResponseDto joining = load(TUESDAY.plusHours(3), TUESDAY.plusDays(8), 3);
+        index.update(joining);
+
+        // Then
+        assertEquals(List.of(longWindow.getId()), beforeBooking.ids());
+        assertEquals(0, afterBooking.total());
+        assertEquals(List.of(shortWindow.getId()), stillThere.ids());
+        assertEquals(List.of(joining.getId()), index.find(TUESDAY.plusDays(5), null, null, null, null, 0, 10).ids());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void find_ShouldCompareWindowEdgesExactlyAcrossDays() {
+        // Given
+        LocalDateTime from = TUESDAY;
+        LocalDateTime to = TUESDAY.plusDays(2);
+        LoadResponseDto overnight = load(from.minusMinutes(1), from, 1);
+        LoadResponseDto endsJustBefore = load(from.minusDays(1), from.minusNanos(1_000), 2);
+        LoadResponseDto startsAtTheEnd = load(to, to.plusHours(4), 3);
+        LoadResponseDto startsJustAfter = load(to.plusNanos(1_000), to.plusHours(4), 4);
+        List.of(overnight, endsJustBefore, startsAtTheEnd, startsJustAfter).forEach(index::update);
+
+        // When
+        LoadSlice window = index.find(from, to, null, null, null, 0, 10);
+
+        // Then
+        assertEquals(List.of(overnight.getId(), startsAtTheEnd.getId()), window.ids());
+        assertFalse(index.overlapping(from, to).test(endsJustBefore.getId()));
+        assertTrue(index.overlapping(from, null).test(startsJustAfter.getId()));
+    }
+
+    private static LoadResponseDto load(LocalDateTime loadingDate, LocalDateTime unloadingDate, int hoursAgo) {
+        FacilityDto facility = new FacilityDto("Pune", "Mumbai", loadingDate, unloadingDate);
+        LoadResponseDto load = new LoadResponseDto(UUID.randomUUID(), "SHIPPER001", facility, "Steel", "Flatbed", 1,
+            1000.0, null, TUESDAY.minusDays(14).minusHours(hoursAgo), LoadStatus.POSTED);
+        load.setVersion(0L);
+        return load;
+    }
+
+    private static LoadResponseDto booked(LoadResponseDto load) {
+        LoadResponseDto copy = new LoadResponseDto(load.getId(), load.getShipperId(), load.getFacility(),
+            load.getProductType(), load.getTruckType(), load.getNoOfTrucks(), load.getWeight(), null,
+            load.getDatePosted(), LoadStatus.BOOKED);
+        copy.setVersion(load.getVersion() + 1);
+        return copy;
+    }
+}
@@ -0,0 +1,129 @@
+package com.cargopro.loadbooking.index;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.geo.GeoArea;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationIndexTest {
+
+    private static final LocalDateTime POSTED = LocalDateTime.of(2024, 6, 4, 0, 0);
+
+    private final LocationIndex index = new LocationIndex(new AttributeDictionary());
+
+    @Test
+    void find_ShouldReturnLoadsInsideTheAreaNewestFirst() {
+        // Given
+        LoadResponseDto pune = load(18.5204, 73.8567, 1);
+        LoadResponseDto chakan = load(18.7606, 73.8636, 2);
+        LoadResponseDto mumbai = load(19.0760, 72.8777, 3);
+        LoadResponseDto suva = load(-18.1416, 178.4419, 4);
+        LoadResponseDto apia = load(-13.8333, -171.7667, 5);
+        List.of(pune, chakan, mumbai, suva, apia).forEach(index::update);
+
+        // When
+        LoadSlice nearPune = index.find(GeoArea.circle(18.5204, 73.8567, 50), null, null, null, 0, 10);
+        LoadSlice secondPage = index.find(GeoArea.circle(18.5204, 73.8567, 150), null, null, null, 1, 1);
+        LoadSlice pacific = index.find(GeoArea.box(-20, 170, -10, -170), null, null, null, 0, 10);
+
+        // Then
+        assertEquals(List.of(pune.getId(), chakan.getId()), nearPune.ids());
+        assertEquals(List.of(chakan.getId()), secondPage.ids());
+        assertEquals(3, secondPage.total());
+        assertEquals(List.of(suva.getId(), apia.getId()), pacific.ids());
+        assertFalse(index.within(GeoArea.circle(18.5204, 73.8567, 50)).test(mumbai.getId()));
+    }
+
+    @Test
+    void update_ShouldKeepTheOtherLoadsOfACellWhenOneLeaves() {
+        // Given
+        LoadResponseDto pune = load(18.5204, 73.8567, 1);
+        LoadResponseDto shivajinagar = load(18.5308, 73.8475, 2);
+        List.of(pune, shivajinagar).forEach(index::update);
+
+        // When
+        index.update(copy(pune, null, null, LoadStatus.POSTED, 1));
+        LoadSlice afterLosingCoordinates = index.find(GeoArea.circle(18.5204, 73.8567, 10), null, null, null, 0, 10);
+        index.update(copy(shivajinagar, 18.5308, 73.8475, LoadStatus.BOOKED, 1));
+
+        // Then
+        assertEquals(List.of(shivajinagar.getId()), afterLosingCoordinates.ids());
+        assertEquals(0, index.find(GeoArea.circle(18.5204, 73.8567, 10), null, null, null, 0, 10).total());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void update_ShouldKeepACrowdedCellWholeAsLoadsComeAndGoAcrossItsChunks() {
+        // Given
+        List<LoadResponseDto> crowded = new ArrayList<>();
+        for (int i = 0; i < LocationIndex.CHUNK_SIZE * 2 + 10; i++) {
+            crowded.add(load(18.5204 + i * 1e-5, 73.8567, i));
+        }
+        crowded.forEach(index::update);
+        GeoArea nearPune = GeoArea.circle(18.5204, 73.8567, 5);
+
+        // When
+        List<LoadResponseDto> leaving = List.of(crowded.get(0), crowded.get(LocationIndex.CHUNK_SIZE + 3),
+                                                crowded.get(crowded.size() - 1));
+        leaving.forEach(load -> index.update(copy(load, 18.5204, 73.8567, LoadStatus.BOOKED, 1)));
+        LoadResponseDto returning = copy(crowded.get(0), 18.5204, 73.8567, LoadStatus.POSTED, 2);
+        index.update(returning);
+
+        // Then
+        List<UUID> expected = new ArrayList<>(crowded.stream().map(LoadResponseDto::getId).toList());
+        expected.remove(leaving.get(2).getId());
+        expected.remove(leaving.get(1).getId());
+        assertEquals(expected, index.find(nearPune, null, null, null, 0, crowded.size()).ids());
+
+        crowded.forEach(load -> index.update(copy(load, 18.5204, 73.8567, LoadStatus.BOOKED, 3)));
+        assertEquals(0, index.find(nearPune, null, null, null, 0, 10).total());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void find_ShouldReachTheLastRowAndColumnAndScanAreasTooWideToProbe() {
+        // Given
+        LoadResponseDto northPole = load(90, 0, 1);
+        LoadResponseDto dateLine = load(0, 180, 2);
+        LoadResponseDto pune = load(18.5204, 73.8567, 3);
+        List.of(northPole, dateLine, pune).forEach(index::update);
+
+        // When
+        LoadSlice arctic = index.find(GeoArea.box(89.9, -1, 90, 1), null, null, null, 0, 10);
+        LoadSlice eastEdge = index.find(GeoArea.box(-0.1, 179.9, 0.1, 180), null, null, null, 0, 10);
+        LoadSlice world = index.find(GeoArea.box(-90, -180, 90, 180), null, null, null, 0, 10);
+        LoadSlice tropics = index.find(GeoArea.box(-30, -180, 30, 180), "SHIPPER001", "Flatbed",
+            id -> !id.equals(dateLine.getId()), 0, 10);
+
+        // Then
+        assertEquals(List.of(northPole.getId()), arctic.ids());
+        assertEquals(List.of(dateLine.getId()), eastEdge.ids());
+        assertEquals(List.of(northPole.getId(), dateLine.getId(), pune.getId()), world.ids());
+        assertEquals(List.of(pune.getId()), tropics.ids());
+    }
+
+    private static LoadResponseDto load(double latitude, double longitude, int hoursAgo) {
+        LoadResponseDto load = copy(null, latitude, longitude, LoadStatus.POSTED, 0);
+        load.setDatePosted(POSTED.minusHours(hoursAgo));
+        return load;
+    }
+
+    private static LoadResponseDto copy(LoadResponseDto load, Double latitude, Double longitude, LoadStatus status,
+                                        long version) {
+        FacilityDto facility = new FacilityDto("Pune", "Mumbai", POSTED.plusDays(1), POSTED.plusDays(2));
+        facility.setLoadingLatitude(latitude);
+        facility.setLoadingLongitude(longitude);
+        LoadResponseDto copy = new LoadResponseDto(load != null ? load.getId() : UUID.randomUUID(), "SHIPPER001",
+            facility, "Steel", "Flatbed", 1, 1000.0, null, load != null ? load.getDatePosted() : POSTED, status);
+        copy.setVersion(version);
+        return copy;
+    }
+}
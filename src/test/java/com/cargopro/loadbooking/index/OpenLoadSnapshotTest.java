@@ -0,0 +1,109 @@
+package com.cargopro.loadbooking.index;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenLoadSnapshotTest {
+
+    private static final LocalDateTime TUESDAY = LocalDateTime.of(2024, 6, 4, 0, 0);
+
+    private final OpenLoadSnapshot snapshot = new OpenLoadSnapshot(new AttributeDictionary());
+
+    @Test
+    void find_ShouldIntersectFiltersAndReturnNewestFirst() {
+        // Given
+        LoadResponseDto steel = load("SHIPPER001", "Flatbed", "Steel", 1000.0, TUESDAY, LoadStatus.POSTED, 1);
+        LoadResponseDto heavySteel = load("SHIPPER001", "Flatbed", "Steel", 9000.0, TUESDAY, LoadStatus.POSTED, 2);
+        LoadResponseDto laterSteel = load("SHIPPER001", "Flatbed", "Steel", 1500.0, TUESDAY.plusDays(5),
+            LoadStatus.POSTED, 3);
+        LoadResponseDto bookedSteel = load("SHIPPER001", "Flatbed", "Steel", 1200.0, TUESDAY, LoadStatus.BOOKED, 4);
+        LoadResponseDto grain = load("SHIPPER002", "Container", "Grain", 1100.0, TUESDAY, LoadStatus.POSTED, 5);
+        List.of(steel, heavySteel, laterSteel, bookedSteel, grain).forEach(snapshot::update);
+
+        // When
+        LoadSlice posted = snapshot.find(LoadStatus.POSTED, "SHIPPER001", "Flatbed", "Steel", null, 5000.0, null, null,
+            0, 10);
+        LoadSlice inWindow = snapshot.find(null, null, null, "Steel", 1000.0, 2000.0, TUESDAY, TUESDAY.plusDays(2),
+            0, 10);
+        LoadSlice secondPage = snapshot.find(null, null, null, null, null, null, null, null, 3, 10);
+
+        // Then
+        assertEquals(List.of(steel.getId(), laterSteel.getId()), posted.ids());
+        assertEquals(List.of(steel.getId(), bookedSteel.getId()), inWindow.ids());
+        assertEquals(List.of(bookedSteel.getId(), grain.getId()), secondPage.ids());
+        assertEquals(5, secondPage.total());
+        assertEquals(0, snapshot.find(null, "SHIPPER404", null, null, null, null, null, null, 0, 10).total());
+        assertThrows(IllegalArgumentException.class,
+            () -> snapshot.find(LoadStatus.CANCELLED, null, null, null, null, null, null, null, 0, 10));
+    }
+
+    @Test
+    void update_ShouldGiveTheRowOfALoadThatLeftToTheNextWithoutItsFilters() {
+        // Given
+        LoadResponseDto steel = load("SHIPPER001", "Flatbed", "Steel", 1000.0, TUESDAY, LoadStatus.POSTED, 1);
+        snapshot.update(steel);
+        snapshot.update(copy(steel, LoadStatus.CANCELLED, "Flatbed", 1));
+
+        // When
+        LoadResponseDto grain = load("SHIPPER002", "Trailer", "Grain", 2000.0, TUESDAY.plusDays(3),
+            LoadStatus.BOOKED, 2);
+        snapshot.update(grain);
+
+        // Then
+        assertEquals(1, snapshot.size());
+        assertEquals(0, snapshot.find(null, "SHIPPER001", null, null, null, null, null, null, 0, 10).total());
+        assertEquals(0, snapshot.find(null, null, "Flatbed", null, null, null, null, null, 0, 10).total());
+        assertEquals(0, snapshot.find(LoadStatus.POSTED, null, null, null, null, null, null, null, 0, 10).total());
+        assertEquals(0, snapshot.find(null, null, null, null, 900.0, 1100.0, null, null, 0, 10).total());
+        assertEquals(List.of(grain.getId()),
+            snapshot.find(LoadStatus.BOOKED, "SHIPPER002", "Trailer", "Grain", 2000.0, 2000.0, TUESDAY.plusDays(3),
+                null, 0, 10).ids());
+        assertFalse(snapshot.matching("Steel", null, null).test(steel.getId()));
+    }
+
+    @Test
+    void find_ShouldCheckTheExactWeightOfRowsInTheBinsAtEitherEnd() {
+        // Given
+        LoadResponseDto light = load("SHIPPER001", "Flatbed", "Steel", 1000.0, TUESDAY, LoadStatus.POSTED, 1);
+        LoadResponseDto sameBin = load("SHIPPER001", "Flatbed", "Steel", 1010.0, TUESDAY, LoadStatus.POSTED, 2);
+        LoadResponseDto nextBin = load("SHIPPER001", "Flatbed", "Steel", 1024.0, TUESDAY, LoadStatus.POSTED, 3);
+        List.of(light, sameBin, nextBin).forEach(snapshot::update);
+
+        // When
+        LoadSlice exact = snapshot.find(null, null, null, null, 1000.0, 1000.0, null, null, 0, 10);
+        LoadSlice between = snapshot.find(null, null, null, null, 1001.0, 1009.0, null, null, 0, 10);
+        LoadSlice upTo = snapshot.find(null, null, null, null, null, 1023.9, null, null, 0, 10);
+        LoadSlice from = snapshot.find(null, null, null, null, 1010.0, null, null, null, 0, 10);
+
+        // Then
+        assertEquals(List.of(light.getId()), exact.ids());
+        assertEquals(0, between.total());
+        assertEquals(List.of(light.getId(), sameBin.getId()), upTo.ids());
+        assertEquals(List.of(sameBin.getId(), nextBin.getId()), from.ids());
+    }
+
+    private static LoadResponseDto load(String shipperId, String truckType, String productType, double weight,
+                                        LocalDateTime loadingDate, LoadStatus status, int hoursAgo) {
+        FacilityDto facility = new FacilityDto("Pune", "Mumbai", loadingDate, loadingDate.plusDays(1));
+        LoadResponseDto load = new LoadResponseDto(UUID.randomUUID(), shipperId, facility, productType, truckType, 1,
+            weight, null, TUESDAY.minusDays(14).minusHours(hoursAgo), status);
+        load.setVersion(0L);
+        return load;
+    }
+
+    private static LoadResponseDto copy(LoadResponseDto load, LoadStatus status, String truckType, long version) {
+        LoadResponseDto copy = new LoadResponseDto(load.getId(), load.getShipperId(), load.getFacility(),
+            load.getProductType(), truckType, load.getNoOfTrucks(), load.getWeight(), null, load.getDatePosted(),
+            status);
+        copy.setVersion(version);
+        return copy;
+    }
+}
@@ -0,0 +1,58 @@
+package com.cargopro.loadbooking.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PointTrieTest {
+
+    private final PointTrie trie = new PointTrie();
+
+    @Test
+    void suggest_ShouldReturnPointsStartingWithThePrefixMostUsedFirst() {
+        // Given
+        trie.add("Pune", 40);
+        trie.add("Punjab", 25);
+        trie.add("Puducherry", 10);
+        trie.add("Patna", 30);
+        trie.add("Mumbai", 50);
+        trie.add("Mumbai Port", 5);
+
+        // Then
+        assertEquals(List.of("Pune", "Punjab", "Puducherry"), trie.suggest("pu", 10));
+        assertEquals(List.of("Pune", "Punjab"), trie.suggest("PUN", 10));
+        assertEquals(List.of("Pune"), trie.suggest("pune", 10));
+        assertEquals(List.of("Mumbai", "Mumbai Port"), trie.suggest("mumbai", 10));
+        assertEquals(List.of("Mumbai Port"), trie.suggest("mumbai p", 10));
+        assertEquals(List.of("Mumbai", "Pune"), trie.suggest("", 2));
+        assertEquals(List.of(), trie.suggest("punx", 10));
+        assertEquals(List.of(), trie.suggest("x", 10));
+        assertEquals(6, trie.size());
+        assertThrows(IllegalArgumentException.class, () -> trie.suggest("p", 0));
+    }
+
+    @Test
+    void add_ShouldCountEverySpellingOfAPointAndKeepTheTopPointsOfEachPrefix() {
+        // Given
+        for (int i = 0; i < 15; i++) {
+            trie.add("City " + i, i + 1);
+        }
+        trie.add(" pune ", 2);
+        trie.add("PUNE", 2);
+        trie.add("   ", 1);
+
+        // When
+        trie.add("City 0", 20);
+
+        // Then
+        assertEquals(List.of("pune"), trie.suggest("Pune", 10));
+        assertEquals(16, trie.size());
+        List<String> cities = trie.suggest("city", 10);
+        assertEquals(10, cities.size());
+        assertEquals(List.of("City 0", "City 14", "City 13"), cities.subList(0, 3));
+        assertEquals("City 6", cities.get(9));
+        assertEquals(List.of("City 0", "City 14"), trie.suggest("", 2));
+    }
+}
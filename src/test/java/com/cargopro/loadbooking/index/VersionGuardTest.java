@@ -0,0 +1,99 @@
+package com.cargopro.loadbooking.index;
+
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionGuardTest {
+
+    private static final LocalDateTime POSTED = LocalDateTime.of(2024, 6, 4, 0, 0);
+
+    private final VersionGuard versions = new VersionGuard();
+
+    @Test
+    void isStale_ShouldCompareWithTheIndexedVersion() {
+        // Given
+        UUID id = UUID.randomUUID();
+
+        // Then
+        assertTrue(versions.isStale(id, 1, 2L));
+        assertFalse(versions.isStale(id, 2, 2L));
+        assertFalse(versions.isStale(id, 3, 2L));
+        assertFalse(versions.isStale(id, 0, null));
+    }
+
+    @Test
+    void isStale_ShouldRememberTheVersionOfALoadTakenOffTheIndex() {
+        // Given
+        UUID id = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+
+        // When
+        versions.removed(id, 2);
+
+        // Then
+        assertTrue(versions.isStale(id, 1, null));
+        assertFalse(versions.isStale(id, 3, null));
+        assertFalse(versions.isStale(other, 1, null));
+
+        versions.indexed(id);
+        assertFalse(versions.isStale(id, 1, null));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("indexes")
+    void update_ShouldNotPutBackALoadThatLeftOnAnOlderUpdate(String name, LoadIndex index, IntSupplier size) {
+        // Given
+        UUID id = UUID.randomUUID();
+        LoadResponseDto moved = load(id, "Delhi", LoadStatus.POSTED, 1);
+        index.update(load(id, "Mumbai", LoadStatus.POSTED, 0));
+
+        // When
+        index.update(load(id, "Delhi", LoadStatus.CANCELLED, 2));
+        index.update(moved);
+
+        // Then
+        assertEquals(0, size.getAsInt());
+
+        index.update(load(id, "Delhi", LoadStatus.POSTED, 3));
+        index.update(load(id, "Chennai", LoadStatus.CANCELLED, 2));
+        assertEquals(1, size.getAsInt());
+    }
+
+    static Stream<Arguments> indexes() {
+        AttributeDictionary dictionary = new AttributeDictionary();
+        LaneIndex laneIndex = new LaneIndex(dictionary);
+        LoadingWindowIndex loadingWindowIndex = new LoadingWindowIndex(dictionary);
+        LocationIndex locationIndex = new LocationIndex(dictionary);
+        OpenLoadSnapshot openLoadSnapshot = new OpenLoadSnapshot(dictionary);
+        LoadTextIndex loadTextIndex = new LoadTextIndex();
+        return Stream.of(
+            Arguments.of("LaneIndex", laneIndex, (IntSupplier) laneIndex::size),
+            Arguments.of("LoadingWindowIndex", loadingWindowIndex, (IntSupplier) loadingWindowIndex::size),
+            Arguments.of("LocationIndex", locationIndex, (IntSupplier) locationIndex::size),
+            Arguments.of("OpenLoadSnapshot", openLoadSnapshot, (IntSupplier) openLoadSnapshot::size),
+            Arguments.of("LoadTextIndex", loadTextIndex, (IntSupplier) loadTextIndex::size));
+    }
+
+    private static LoadResponseDto load(UUID id, String destination, LoadStatus status, long version) {
+        FacilityDto facility = new FacilityDto("Pune", destination, POSTED.plusDays(version),
+            POSTED.plusDays(version + 1));
+        facility.setLoadingLatitude(18.5204);
+        facility.setLoadingLongitude(73.8567 + version);
+        LoadResponseDto load = new LoadResponseDto(id, "SHIPPER001", facility, "Steel", "Flatbed", 1, 1000.0, null,
+            POSTED, status);
+        load.setVersion(version);
+        return load;
+    }
+}
@@ -0,0 +1,110 @@
+package com.cargopro.loadbooking.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntakeJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void read_ShouldReturnRecordsInOrderUntilAcknowledged() throws Exception {
+        try (IntakeJournal journal = open(4096)) {
+            UUID first = UUID.randomUUID();
+            UUID second = UUID.randomUUID();
+            assertTrue(journal.tryAppend(first, bytes("first")));
+            assertTrue(journal.tryAppend(second, bytes("second")));
+
+            List<IntakeJournal.Entry> entries = journal.read(10, 0, TimeUnit.MILLISECONDS);
+            assertEquals(List.of(first, second), entries.stream().map(IntakeJournal.Entry::getTicketId).toList());
+            assertEquals("second", text(entries.get(1)));
+            assertEquals(2, journal.read(10, 0, TimeUnit.MILLISECONDS).size());
+
+            journal.acknowledge(entries.get(0));
+            assertEquals(1, journal.pending());
+            assertEquals(second, journal.read(10, 0, TimeUnit.MILLISECONDS).get(0).getTicketId());
+        }
+    }
+
+    @Test
+    void open_ShouldReplayRecordsThatWereNotAcknowledged() throws Exception {
+        UUID second = UUID.randomUUID();
+        try (IntakeJournal journal = open(4096)) {
+            journal.tryAppend(UUID.randomUUID(), bytes("first"));
+            journal.tryAppend(second, bytes("second"));
+            journal.acknowledge(journal.read(1, 0, TimeUnit.MILLISECONDS).get(0));
+        }
+
+        try (IntakeJournal journal = open(4096)) {
+            List<IntakeJournal.Entry> entries = journal.read(10, 0, TimeUnit.MILLISECONDS);
+            assertEquals(1, entries.size());
+            assertEquals(second, entries.get(0).getTicketId());
+            assertEquals(2, entries.get(0).getSequence());
+            assertEquals(3, journal.nextSequence());
+        }
+    }
+
+    @Test
+    void tryAppend_ShouldRefuseWhenFullAndReuseSpaceAfterAcknowledgement() throws Exception {
+        int recordSize = IntakeJournal.RECORD_OVERHEAD + 100;
+        try (IntakeJournal journal = open(IntakeJournal.HEADER_SIZE + 3 * recordSize + 10)) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(journal.tryAppend(UUID.randomUUID(), new byte[100]));
+            }
+            assertFalse(journal.tryAppend(UUID.randomUUID(), new byte[100]));
+
+            List<IntakeJournal.Entry> entries = journal.read(2, 0, TimeUnit.MILLISECONDS);
+            journal.acknowledge(entries.get(1));
+            UUID wrapped = UUID.randomUUID();
+            assertTrue(journal.tryAppend(wrapped, new byte[100]));
+
+            List<IntakeJournal.Entry> remaining = journal.read(10, 0, TimeUnit.MILLISECONDS);
+            assertEquals(2, remaining.size());
+            assertEquals(wrapped, remaining.get(1).getTicketId());
+        }
+    }
+
+    @Test
+    void open_ShouldDropATornRecord() throws Exception {
+        UUID intact = UUID.randomUUID();
+        try (IntakeJournal journal = open(4096)) {
+            journal.tryAppend(intact, bytes("intact"));
+            journal.tryAppend(UUID.randomUUID(), bytes("torn"));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("intake.journal").toFile(), "rw")) {
+            long tornPayload = IntakeJournal.HEADER_SIZE + 2L * IntakeJournal.RECORD_OVERHEAD + "intact".length();
+            file.seek(tornPayload);
+            file.write('X');
+        }
+
+        try (IntakeJournal journal = open(4096)) {
+            List<IntakeJournal.Entry> entries = journal.read(10, 0, TimeUnit.MILLISECONDS);
+            assertEquals(1, entries.size());
+            assertEquals(intact, entries.get(0).getTicketId());
+            assertEquals(2, journal.nextSequence());
+        }
+    }
+
+    private IntakeJournal open(int capacity) throws IOException {
+        return new IntakeJournal(directory.resolve("intake.journal"), capacity, false);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(IntakeJournal.Entry entry) {
+        return new String(entry.getPayload(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,35 @@
+package com.cargopro.loadbooking.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records every SQL statement Hibernate prepares so tests can inspect the
+ * exact text that reaches PostgreSQL.
+ */
+public class CapturingStatementInspector implements StatementInspector {
+    
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+    
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+    
+    static void clear() {
+        STATEMENTS.clear();
+    }
+    
+    static String lastSelectFrom(String table) {
+        for (int i = STATEMENTS.size() - 1; i >= 0; i--) {
+            String sql = STATEMENTS.get(i).toLowerCase();
+            if (sql.startsWith("select") && sql.contains(" from " + table) && !sql.contains("count(")) {
+                return STATEMENTS.get(i);
+            }
+        }
+        throw new IllegalStateException("No select against " + table + " was captured");
+    }
+}
@@ -0,0 +1,181 @@
+package com.cargopro.loadbooking.repository;
+
+import com.cargopro.loadbooking.entity.BookingStatus;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.pagination.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that every combination of load and booking filters produces SQL whose
+ * <em>generic</em> plan (the one PostgreSQL caches for prepared statements) uses the
+ * index of its most selective filter. The tables are filled with a few thousand rows
+ * spread like production data (many shippers and transporters, a few common truck
+ * types with a long tail of specialised ones, few statuses) and analyzed, so the
+ * planner weighs the indexes, and a sequential scan, by real statistics rather than
+ * breaking ties on empty tables.
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.cargopro.loadbooking.repository.CapturingStatementInspector"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class FilterQueryIndexUsageTest {
+    
+    // EXPLAIN (GENERIC_PLAN) requires PostgreSQL 16
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+    
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        // EXPLAIN (GENERIC_PLAN) takes $n placeholders, which the driver only leaves alone in simple query mode
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl() + "&preferQueryMode=simple");
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+    
+    private static final int ROWS = 5_000;
+    
+    @Autowired
+    private LoadRepository loadRepository;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO loads (id, shipper_id, product_type, truck_type, no_of_trucks, weight, " +
+                            "date_posted, status, pending_bookings, accepted_bookings, rejected_bookings, version) " +
+                            "SELECT gen_random_uuid(), 'SHIPPER' || (i % 500), 'Steel', " +
+                            "CASE WHEN i % 10 = 0 THEN 'SPECIAL' || (i / 10 % 200) ELSE 'TRUCK' || (i % 5) END, 1, 1000, " +
+                            "now() - i * interval '1 minute', (ARRAY['POSTED', 'BOOKED', 'CANCELLED'])[1 + i % 3], " +
+                            "0, 0, 0, 0 FROM generate_series(1, " + ROWS + ") AS i");
+        jdbcTemplate.update("INSERT INTO bookings (id, load_id, transporter_id, proposed_rate, status, requested_at, " +
+                            "version) SELECT gen_random_uuid(), id, 'TRANSPORTER' || (row_number() OVER () % 1000), " +
+                            "1000, (ARRAY['PENDING', 'ACCEPTED', 'REJECTED'])[1 + (row_number() OVER ())::int % 3], " +
+                            "date_posted, 0 FROM loads");
+        jdbcTemplate.execute("ANALYZE loads");
+        jdbcTemplate.execute("ANALYZE bookings");
+        CapturingStatementInspector.clear();
+    }
+    
+    // A status alone matches too many loads to beat walking the newest first
+    static Stream<Arguments> loadFilters() {
+        return Stream.of(
+            Arguments.of("SHIPPER001", null, null, "idx_loads_shipper_id"),
+            Arguments.of(null, "Flatbed", null, "idx_loads_truck_type"),
+            Arguments.of(null, null, LoadStatus.POSTED, "idx_loads_date_posted"),
+            Arguments.of("SHIPPER001", "Flatbed", null, "idx_loads_shipper_id"),
+            Arguments.of("SHIPPER001", null, LoadStatus.POSTED, "idx_loads_shipper_id"),
+            Arguments.of(null, "Flatbed", LoadStatus.POSTED, "idx_loads_truck_type"),
+            Arguments.of("SHIPPER001", "Flatbed", LoadStatus.POSTED, "idx_loads_shipper_id")
+        );
+    }
+    
+    static Stream<Arguments> bookingFilters() {
+        UUID loadId = UUID.randomUUID();
+        return Stream.of(
+            Arguments.of(loadId, null, null, "idx_bookings_load_id"),
+            Arguments.of(null, "TRANSPORTER001", null, "idx_bookings_transporter_id"),
+            Arguments.of(null, null, BookingStatus.PENDING, "idx_bookings_status"),
+            Arguments.of(loadId, "TRANSPORTER001", null, "idx_bookings_load_id"),
+            Arguments.of(loadId, null, BookingStatus.PENDING, "idx_bookings_load_id"),
+            Arguments.of(null, "TRANSPORTER001", BookingStatus.PENDING, "idx_bookings_transporter_id"),
+            Arguments.of(loadId, "TRANSPORTER001", BookingStatus.PENDING, "idx_bookings_load_id")
+        );
+    }
+    
+    @ParameterizedTest
+    @MethodSource("loadFilters")
+    void loadFilters_ShouldUseTheMostSelectiveIndex(String shipperId, String truckType, LoadStatus status,
+                                                    String expectedIndex) {
+        loadRepository.findViews(LoadSpecifications.withFilters(shipperId, truckType, status),
+                                 PageRequest.of(0, 10, Sort.by("datePosted").descending()));
+        
+        String plan = explainGenericPlan(CapturingStatementInspector.lastSelectFrom("loads"));
+        
+        assertFalse(plan.contains("Seq Scan"), () -> "Expected an index scan but got:\n" + plan);
+        assertTrue(plan.contains(expectedIndex + " "),
+                   () -> "Expected a scan of " + expectedIndex + " but got:\n" + plan);
+    }
+    
+    @ParameterizedTest
+    @MethodSource("bookingFilters")
+    void bookingFilters_ShouldUseTheMostSelectiveIndex(UUID loadId, String transporterId, BookingStatus status,
+                                                       String expectedIndex) {
+        bookingRepository.findViews(BookingSpecifications.withFilters(loadId, transporterId, status), Sort.unsorted(), 0);
+        
+        String plan = explainGenericPlan(CapturingStatementInspector.lastSelectFrom("bookings"));
+        
+        assertFalse(plan.contains("Seq Scan"), () -> "Expected an index scan but got:\n" + plan);
+        assertTrue(plan.contains(expectedIndex + " "),
+                   () -> "Expected a scan of " + expectedIndex + " but got:\n" + plan);
+    }
+    
+    @Test
+    void postedBefore_ShouldSeekTheKeysetIndexOnADeepPage() {
+        KeysetCursor deep = new KeysetCursor(LocalDateTime.now().minusMinutes(ROWS - 100), UUID.randomUUID());
+        loadRepository.findViews(LoadSpecifications.postedBefore(deep),
+                                 Sort.by(Sort.Order.desc("datePosted"), Sort.Order.desc("id")), 11);
+        
+        String plan = explainGenericPlan(CapturingStatementInspector.lastSelectFrom("loads"));
+        
+        // Either date_posted index will do, as long as the scan starts at the cursor
+        assertFalse(plan.contains("Seq Scan"), () -> "Expected an index scan but got:\n" + plan);
+        assertTrue(plan.contains("Index Cond: (date_posted <= $"),
+                   () -> "Expected the scan to start at the cursor but got:\n" + plan);
+    }
+    
+    @Test
+    void requestedBefore_ShouldSeekTheKeysetIndexOnADeepPage() {
+        KeysetCursor deep = new KeysetCursor(LocalDateTime.now().minusMinutes(ROWS - 100), UUID.randomUUID());
+        bookingRepository.findViews(BookingSpecifications.requestedBefore(deep),
+                                    Sort.by(Sort.Order.desc("requestedAt"), Sort.Order.desc("id")), 11);
+        
+        String plan = explainGenericPlan(CapturingStatementInspector.lastSelectFrom("bookings"));
+        
+        assertFalse(plan.contains("Seq Scan"), () -> "Expected an index scan but got:\n" + plan);
+        assertTrue(plan.contains("Index Cond: (requested_at <= $"),
+                   () -> "Expected the scan to start at the cursor but got:\n" + plan);
+    }
+    
+    private String explainGenericPlan(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        List<String> lines = jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + numbered, String.class);
+        return String.join("\n", lines);
+    }
+}
@@ -0,0 +1,232 @@
+package com.cargopro.loadbooking.service;
+
+import com.cargopro.loadbooking.cache.BookingLookupCache;
+import com.cargopro.loadbooking.dto.BookingBatchItemResultDto;
+import com.cargopro.loadbooking.dto.BookingBatchResultDto;
+import com.cargopro.loadbooking.dto.BookingDecisionDto;
+import com.cargopro.loadbooking.dto.BookingRequestDto;
+import com.cargopro.loadbooking.entity.Booking;
+import com.cargopro.loadbooking.entity.BookingStatus;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.mapper.BookingMapper;
+import com.cargopro.loadbooking.repository.BookingRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingBatchServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private LoadService loadService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ValidatorFactory validatorFactory;
+    private BookingBatchService bookingBatchService;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        bookingBatchService = new BookingBatchService(bookingRepository, new BookingMapper(), loadService,
+            new BookingLookupCache(100, Duration.ofMinutes(5), Duration.ofSeconds(30)),
+            validatorFactory.getValidator(), new TransactionTemplate(transactionManager), 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void createBookings_ShouldReadEachLoadOnceAndReportItemsIndividually() {
+        // Given
+        Load posted = load(LoadStatus.POSTED);
+        Load cancelled = load(LoadStatus.CANCELLED);
+        UUID missing = UUID.randomUUID();
+        when(loadService.getLoadEntitiesById(Set.of(posted.getId(), cancelled.getId(), missing)))
+            .thenReturn(Map.of(posted.getId(), posted, cancelled.getId(), cancelled));
+        List<Booking> saved = new ArrayList<>();
+        when(bookingRepository.saveAll(anyCollection())).thenAnswer(invocation -> {
+            Collection<Booking> bookings = invocation.getArgument(0);
+            bookings.forEach(booking -> booking.setId(UUID.randomUUID()));
+            saved.addAll(bookings);
+            return new ArrayList<>(bookings);
+        });
+
+        // When
+        BookingBatchResultDto result = bookingBatchService.createBookings(List.of(
+            request(posted.getId()),
+            request(cancelled.getId()),
+            new BookingRequestDto(posted.getId(), "TRANSPORTER002", -1.0, null),
+            request(posted.getId()),
+            request(missing)));
+
+        // Then
+        assertEquals(5, result.getReceived());
+        assertEquals(2, result.getSucceeded());
+        assertEquals(List.of(true, false, false, true, false),
+                     result.getItems().stream().map(BookingBatchItemResultDto::isSuccess).toList());
+        assertEquals("Cannot create booking for cancelled load", result.getItems().get(1).getError());
+        assertTrue(result.getItems().get(2).getError().contains("proposedRate"));
+        assertEquals("Load not found with ID: " + missing, result.getItems().get(4).getError());
+        assertEquals(2, saved.size());
+        assertEquals(2, posted.getPendingBookings());
+        assertEquals(LoadStatus.BOOKED, posted.getStatus());
+        verify(loadService).lockAllForBookingChanges(Set.of(posted.getId(), cancelled.getId(), missing));
+        verify(loadService).publishStatusChange(posted, LoadStatus.POSTED);
+        verify(bookingRepository, times(1)).saveAll(anyCollection());
+    }
+
+    @Test
+    void createBookings_ShouldRetryLoadByLoadWhenTheBatchIsRejected() {
+        // Given
+        Load good = load(LoadStatus.POSTED);
+        Load bad = load(LoadStatus.POSTED);
+        when(loadService.getLoadEntitiesById(anyCollection())).thenAnswer(invocation -> {
+            Map<UUID, Load> loads = new HashMap<>();
+            for (Object id : (Collection<?>) invocation.getArgument(0)) {
+                loads.put((UUID) id, id.equals(good.getId()) ? load(good.getId()) : load(bad.getId()));
+            }
+            return loads;
+        });
+        when(bookingRepository.saveAll(anyCollection())).thenAnswer(invocation -> {
+            Collection<Booking> bookings = invocation.getArgument(0);
+            if (bookings.stream().anyMatch(booking -> booking.getLoad().getId().equals(bad.getId()))) {
+                throw new DataIntegrityViolationException("constraint violated");
+            }
+            bookings.forEach(booking -> booking.setId(UUID.randomUUID()));
+            return new ArrayList<>(bookings);
+        });
+
+        // When
+        BookingBatchResultDto result = bookingBatchService.createBookings(
+            List.of(request(good.getId()), request(bad.getId())));
+
+        // Then
+        assertTrue(result.getItems().get(0).isSuccess());
+        assertFalse(result.getItems().get(1).isSuccess());
+        assertEquals("constraint violated", result.getItems().get(1).getError());
+        verify(bookingRepository, times(3)).saveAll(anyCollection());
+    }
+
+    @Test
+    void decideBookings_ShouldApplyDecisionsPerLoadInRequestOrder() {
+        // Given
+        Load load = load(LoadStatus.BOOKED);
+        load.setPendingBookings(3);
+        Booking first = booking(load);
+        Booking second = booking(load);
+        UUID missing = UUID.randomUUID();
+        when(bookingRepository.findLoadIdsByIdIn(anyCollection())).thenReturn(List.of(load.getId()));
+        when(bookingRepository.findWithLoadByIdIn(anyCollection())).thenReturn(List.of(first, second));
+        when(bookingRepository.rejectOtherPendingBookings(load.getId(), first.getId())).thenReturn(1);
+
+        // When
+        BookingBatchResultDto result = bookingBatchService.decideBookings(List.of(
+            new BookingDecisionDto(first.getId(), BookingDecisionDto.Decision.ACCEPT),
+            new BookingDecisionDto(second.getId(), BookingDecisionDto.Decision.ACCEPT),
+            new BookingDecisionDto(second.getId(), BookingDecisionDto.Decision.REJECT),
+            new BookingDecisionDto(missing, BookingDecisionDto.Decision.REJECT),
+            new BookingDecisionDto(first.getId(), null)));
+
+        // Then
+        List<BookingBatchItemResultDto> items = result.getItems();
+        assertEquals(BookingStatus.ACCEPTED, items.get(0).getBooking().getStatus());
+        assertEquals(1, items.get(0).getBooking().getRejectedBookings());
+        assertNull(items.get(2).getBooking().getRejectedBookings());
+        assertEquals("Load already has an accepted booking", items.get(1).getError());
+        assertEquals(BookingStatus.REJECTED, items.get(2).getBooking().getStatus());
+        assertEquals("Booking not found with ID: " + missing, items.get(3).getError());
+        assertTrue(items.get(4).getError().contains("decision"));
+        assertEquals(0, load.getPendingBookings());
+        assertEquals(1, load.getAcceptedBookings());
+        assertEquals(2, load.getRejectedBookings());
+        verify(bookingRepository, times(1)).rejectOtherPendingBookings(load.getId(), first.getId());
+        verify(bookingRepository, times(1)).flush();
+        verify(loadService).indexLoad(load);
+        verify(loadService, never()).publishStatusChange(any(Load.class), any());
+    }
+
+    @Test
+    void decideBookings_ShouldPublishLoadsThatReturnToTheBoard() {
+        // Given
+        Load load = load(LoadStatus.BOOKED);
+        load.setPendingBookings(1);
+        Booking booking = booking(load);
+        when(bookingRepository.findLoadIdsByIdIn(anyCollection())).thenReturn(List.of(load.getId()));
+        when(bookingRepository.findWithLoadByIdIn(anyCollection())).thenReturn(List.of(booking));
+
+        // When
+        bookingBatchService.decideBookings(List.of(
+            new BookingDecisionDto(booking.getId(), BookingDecisionDto.Decision.REJECT)));
+
+        // Then
+        assertEquals(LoadStatus.POSTED, load.getStatus());
+        // After the flush, so the event carries the version it wrote
+        InOrder order = inOrder(bookingRepository, loadService);
+        order.verify(bookingRepository).flush();
+        order.verify(loadService).publishStatusChange(load, LoadStatus.BOOKED);
+    }
+
+    @Test
+    void createBookings_ShouldRejectOversizedBatches() {
+        List<BookingRequestDto> requests = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            requests.add(request(UUID.randomUUID()));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> bookingBatchService.createBookings(requests));
+        verifyNoInteractions(bookingRepository, loadService);
+    }
+
+    private static Load load(LoadStatus status) {
+        Load load = load(UUID.randomUUID());
+        load.setStatus(status);
+        return load;
+    }
+
+    private static Load load(UUID id) {
+        Load load = new Load();
+        load.setId(id);
+        return load;
+    }
+
+    private static Booking booking(Load load) {
+        Booking booking = new Booking(load, "TRANSPORTER001", 2500.0, null);
+        booking.setId(UUID.randomUUID());
+        booking.setStatus(BookingStatus.PENDING);
+        return booking;
+    }
+
+    private static BookingRequestDto request(UUID loadId) {
+        return new BookingRequestDto(loadId, "TRANSPORTER001", 2500.0, null);
+    }
+}
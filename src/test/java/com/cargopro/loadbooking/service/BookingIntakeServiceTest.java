@@ -0,0 +1,177 @@
+package com.cargopro.loadbooking.service;
+
+import com.cargopro.loadbooking.dto.BookingRequestDto;
+import com.cargopro.loadbooking.dto.BookingResponseDto;
+import com.cargopro.loadbooking.dto.BookingTicketDto;
+import com.cargopro.loadbooking.entity.BookingStatus;
+import com.cargopro.loadbooking.exception.ResourceNotFoundException;
+import com.cargopro.loadbooking.journal.IntakeJournal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BookingIntakeServiceTest {
+
+    private static final UUID LOAD_ID = UUID.randomUUID();
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private BookingService bookingService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<TransactionStatus> committed = new CopyOnWriteArrayList<>();
+    private BookingIntakeService bookingIntakeService;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        doAnswer(invocation -> committed.add(invocation.getArgument(0))).when(transactionManager).commit(any());
+        when(bookingService.getBookingById(any())).thenThrow(new ResourceNotFoundException("Booking not found"));
+        when(bookingService.createBooking(any(), any())).thenAnswer(invocation -> booking(invocation.getArgument(1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (bookingIntakeService != null) {
+            bookingIntakeService.shutdown();
+        }
+    }
+
+    @Test
+    void drain_ShouldApplyABatchInOneTransaction() throws Exception {
+        // Given
+        List<UUID> ticketIds = journal("TRANSPORTER001", "TRANSPORTER002", "TRANSPORTER003");
+
+        // When
+        start();
+
+        // Then
+        for (UUID ticketId : ticketIds) {
+            assertEquals(BookingTicketDto.Status.COMPLETED, awaitOutcome(ticketId).getStatus());
+        }
+        assertEquals(1, committed.size());
+        verify(transactionManager, never()).rollback(any());
+    }
+
+    @Test
+    void drain_ShouldFailRecordsTheDatabaseRefusesWithoutRetryingThem() throws Exception {
+        // Given
+        when(bookingService.createBooking(argThat(request -> request.getTransporterId().length() > 255), any()))
+            .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new IllegalStateException("value too long for type character varying(255)")));
+        List<UUID> ticketIds = journal("TRANSPORTER001", "T".repeat(300), "TRANSPORTER003");
+
+        // When
+        start();
+
+        // Then
+        assertEquals(BookingTicketDto.Status.COMPLETED, awaitOutcome(ticketIds.get(0)).getStatus());
+        BookingTicketDto refused = awaitOutcome(ticketIds.get(1));
+        assertEquals(BookingTicketDto.Status.FAILED, refused.getStatus());
+        assertEquals("Booking could not be stored: value too long for type character varying(255)",
+            refused.getError());
+        assertEquals(BookingTicketDto.Status.COMPLETED, awaitOutcome(ticketIds.get(2)).getStatus());
+        // The batch stopped at the refused record and was rolled back, then applied one record at a time
+        verify(bookingService, times(2)).createBooking(any(), eq(ticketIds.get(0)));
+        verify(bookingService, times(2)).createBooking(any(), eq(ticketIds.get(1)));
+        verify(bookingService, times(1)).createBooking(any(), eq(ticketIds.get(2)));
+        verify(transactionManager).rollback(any());
+        assertTrue(committed.isEmpty());
+    }
+
+    @Test
+    void drain_ShouldRetryTransientFailures() throws Exception {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+        when(bookingService.createBooking(any(), any())).thenAnswer(invocation -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new QueryTimeoutException("canceling statement due to statement timeout");
+            }
+            return booking(invocation.getArgument(1));
+        });
+        List<UUID> ticketIds = journal("TRANSPORTER001");
+
+        // When
+        start();
+
+        // Then
+        assertEquals(BookingTicketDto.Status.COMPLETED, awaitOutcome(ticketIds.get(0)).getStatus());
+        assertEquals(2, attempts.get());
+    }
+
+    /**
+     * Appends requests to the journal before the service opens it, so the worker reads them as one batch.
+     */
+    private List<UUID> journal(String... transporterIds) throws Exception {
+        List<UUID> ticketIds = new ArrayList<>();
+        try (IntakeJournal journal = new IntakeJournal(journalPath(), 1 << 20, false)) {
+            for (String transporterId : transporterIds) {
+                UUID ticketId = UUID.randomUUID();
+                BookingRequestDto request = new BookingRequestDto(LOAD_ID, transporterId, 2500.0, null);
+                assertTrue(journal.tryAppend(ticketId, objectMapper.writeValueAsBytes(request)));
+                ticketIds.add(ticketId);
+            }
+        }
+        return ticketIds;
+    }
+
+    private void start() {
+        bookingIntakeService = new BookingIntakeService(bookingService, new TransactionTemplate(transactionManager),
+            objectMapper, true, journalPath(), DataSize.ofMegabytes(1), false, 16, Duration.ofHours(1), 1000);
+    }
+
+    private BookingTicketDto awaitOutcome(UUID ticketId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                return bookingIntakeService.getTicket(ticketId);
+            } catch (ResourceNotFoundException e) {
+                Thread.sleep(10);
+            }
+        }
+        return fail("No outcome for ticket " + ticketId);
+    }
+
+    private Path journalPath() {
+        return directory.resolve("intake.journal");
+    }
+
+    private static BookingResponseDto booking(UUID id) {
+        return new BookingResponseDto(id, LOAD_ID, "TRANSPORTER001", 2500.0, null, BookingStatus.PENDING,
+            LocalDateTime.now());
+    }
+}
@@ -1,7 +1,9 @@
 package com.cargopro.loadbooking.service;
 
+import com.cargopro.loadbooking.cache.BookingLookupCache;
 import com.cargopro.loadbooking.dto.BookingRequestDto;
 import com.cargopro.loadbooking.dto.BookingResponseDto;
+import com.cargopro.loadbooking.dto.CursorPageDto;
 import com.cargopro.loadbooking.entity.Booking;
 import com.cargopro.loadbooking.entity.BookingStatus;
 import com.cargopro.loadbooking.entity.Load;
@@ -9,19 +11,27 @@ import com.cargopro.loadbooking.entity.LoadStatus;
 import com.cargopro.loadbooking.exception.BusinessException;
 import com.cargopro.loadbooking.exception.ResourceNotFoundException;
 import com.cargopro.loadbooking.mapper.BookingMapper;
+import com.cargopro.loadbooking.pagination.KeysetCursor;
 import com.cargopro.loadbooking.repository.BookingRepository;
+import com.cargopro.loadbooking.repository.BookingTombstoneRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -39,6 +49,12 @@ class BookingServiceTest {
     @Mock
     private LoadService loadService;
 
+    @Mock
+    private BookingTombstoneRepository tombstoneRepository;
+
+    @Spy
+    private BookingLookupCache bookingCache = new BookingLookupCache(100, Duration.ofMinutes(5), Duration.ofSeconds(30));
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -53,6 +69,7 @@ class BookingServiceTest {
         testLoad = new Load();
         testLoad.setId(UUID.randomUUID());
         testLoad.setStatus(LoadStatus.POSTED);
+        testLoad.setPendingBookings(1);
 
         testRequestDto = new BookingRequestDto(
             testLoad.getId(),
@@ -85,9 +102,9 @@ class BookingServiceTest {
     @Test
     void createBooking_ShouldReturnBookingResponseDto_WhenValidRequest() {
         // Given
-        when(loadService.getLoadEntityById(testLoad.getId())).thenReturn(testLoad);
+        when(loadService.getLoadReference(testLoad.getId())).thenReturn(testLoad);
         when(bookingMapper.toEntity(testRequestDto, testLoad)).thenReturn(testBooking);
-        when(bookingRepository.save(any(Booking.class))).thenReturn(testBooking);
+        when(bookingRepository.insertPendingBooking(testBooking)).thenReturn(Optional.of(LoadStatus.POSTED));
         when(bookingMapper.toResponseDto(testBooking)).thenReturn(testResponseDto);
 
         // When
@@ -97,30 +114,44 @@ class BookingServiceTest {
         assertNotNull(result);
         assertEquals(testResponseDto.getId(), result.getId());
         assertEquals(BookingStatus.PENDING, testBooking.getStatus());
-        verify(loadService).getLoadEntityById(testLoad.getId());
-        verify(loadService).updateLoadStatus(testLoad.getId(), LoadStatus.BOOKED);
-        verify(bookingRepository).save(any(Booking.class));
+        assertNotNull(testBooking.getId());
+        assertNotNull(testBooking.getRequestedAt());
+        verify(loadService).lockForBookingChanges(testLoad.getId());
+        verify(loadService).evictCachedLoad(testLoad.getId());
+        verify(loadService, never()).getLoadEntityById(any());
+        verify(loadService, never()).updateLoadStatus(any(), any());
+        verify(bookingRepository, never()).save(any());
     }
 
     @Test
     void createBooking_ShouldThrowBusinessException_WhenLoadIsCancelled() {
         // Given
-        testLoad.setStatus(LoadStatus.CANCELLED);
-        when(loadService.getLoadEntityById(testLoad.getId())).thenReturn(testLoad);
+        when(loadService.getLoadReference(testLoad.getId())).thenReturn(testLoad);
+        when(bookingMapper.toEntity(testRequestDto, testLoad)).thenReturn(testBooking);
+        when(bookingRepository.insertPendingBooking(testBooking)).thenReturn(Optional.of(LoadStatus.CANCELLED));
 
         // When & Then
         assertThrows(BusinessException.class, () -> bookingService.createBooking(testRequestDto));
-        verify(loadService).getLoadEntityById(testLoad.getId());
-        verifyNoInteractions(bookingMapper);
-        verify(bookingRepository, never()).save(any());
+        verify(bookingMapper, never()).toResponseDto(any());
+        verify(loadService, never()).evictCachedLoad(any());
+    }
+
+    @Test
+    void createBooking_ShouldThrowResourceNotFoundException_WhenLoadDoesNotExist() {
+        // Given
+        when(loadService.getLoadReference(testLoad.getId())).thenReturn(testLoad);
+        when(bookingMapper.toEntity(testRequestDto, testLoad)).thenReturn(testBooking);
+        when(bookingRepository.insertPendingBooking(testBooking)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> bookingService.createBooking(testRequestDto));
     }
 
     @Test
     void getBookings_ShouldReturnBookingList_WhenValidFilters() {
         // Given
-        List<Booking> bookings = Arrays.asList(testBooking);
-        when(bookingRepository.findBookingsWithFilters(any(), any(), any())).thenReturn(bookings);
-        when(bookingMapper.toResponseDto(testBooking)).thenReturn(testResponseDto);
+        when(bookingRepository.findViews(any(Specification.class), any(Sort.class), eq(0)))
+            .thenReturn(List.of(testResponseDto));
 
         // When
         List<BookingResponseDto> result = bookingService.getBookings(
@@ -130,7 +161,42 @@ class BookingServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testResponseDto.getId(), result.get(0).getId());
-        verify(bookingRepository).findBookingsWithFilters(testLoad.getId(), "TRANSPORTER001", BookingStatus.PENDING);
+        verifyNoInteractions(bookingMapper);
+    }
+
+    @Test
+    void getBookingsByCursor_ShouldReturnSliceWithNextCursor_WhenMoreRowsExist() {
+        // Given
+        BookingResponseDto olderResponseDto = new BookingResponseDto(UUID.randomUUID(), testLoad.getId(),
+            "TRANSPORTER002", 2000.0, null, BookingStatus.PENDING, LocalDateTime.now().minusHours(1));
+        when(bookingRepository.findViews(any(Specification.class), any(Sort.class), eq(2)))
+            .thenReturn(List.of(testResponseDto, olderResponseDto));
+
+        // When
+        CursorPageDto<BookingResponseDto> result = bookingService.getBookingsByCursor(
+            null, "TRANSPORTER001", null, "", 1);
+
+        // Then
+        assertTrue(result.isHasNext());
+        assertEquals(List.of(testResponseDto), result.getContent());
+        assertEquals(new KeysetCursor(testBooking.getRequestedAt(), testBooking.getId()),
+            KeysetCursor.decode(result.getNextCursor()));
+    }
+
+    @Test
+    void streamBookings_ShouldPushEveryRowToSink() {
+        // Given
+        when(bookingRepository.streamViews(any(Specification.class), any(Sort.class)))
+            .thenReturn(Stream.of(testResponseDto, testResponseDto));
+        List<BookingResponseDto> received = new ArrayList<>();
+
+        // When
+        long count = bookingService.streamBookings(testLoad.getId(), null, null, received::add);
+
+        // Then
+        assertEquals(2, count);
+        assertEquals(2, received.size());
+        verify(bookingRepository, never()).findViews(any(Specification.class), any(Sort.class), anyInt());
     }
 
     @Test
@@ -197,14 +263,12 @@ class BookingServiceTest {
     void acceptBooking_ShouldAcceptBookingAndRejectOthers_WhenValidRequest() {
         // Given
         UUID bookingId = testBooking.getId();
-        Booking otherBooking = new Booking(testLoad, "TRANSPORTER002", 2000.0, "Alternative option");
-        otherBooking.setId(UUID.randomUUID());
-        otherBooking.setStatus(BookingStatus.PENDING);
         
+        when(bookingRepository.findLoadIdById(bookingId)).thenReturn(Optional.of(testLoad.getId()));
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(testBooking));
         when(bookingRepository.save(testBooking)).thenReturn(testBooking);
-        when(bookingRepository.findByLoadIdAndStatus(testLoad.getId(), BookingStatus.PENDING))
-            .thenReturn(Arrays.asList(testBooking, otherBooking));
+        testLoad.setPendingBookings(4);
+        when(bookingRepository.rejectOtherPendingBookings(testLoad.getId(), bookingId)).thenReturn(3);
         when(bookingMapper.toResponseDto(testBooking)).thenReturn(testResponseDto);
 
         // When
@@ -214,7 +278,53 @@ class BookingServiceTest {
         assertNotNull(result);
         assertEquals(BookingStatus.ACCEPTED, testBooking.getStatus());
         verify(bookingRepository).findById(bookingId);
-        verify(bookingRepository, times(2)).save(any(Booking.class)); // testBooking + otherBooking
+        verify(bookingRepository).save(testBooking); // competing bids are rejected in bulk, not saved one by one
+        verify(bookingRepository).rejectOtherPendingBookings(testLoad.getId(), bookingId);
+        verify(bookingRepository, never()).findByLoadIdAndStatus(any(), any());
+        verify(loadService).lockForBookingChanges(testLoad.getId());
+        assertEquals(0, testLoad.getPendingBookings());
+        assertEquals(1, testLoad.getAcceptedBookings());
+        assertEquals(3, testLoad.getRejectedBookings());
+        assertEquals(3, result.getRejectedBookings());
+        verify(loadService).evictCachedLoad(testLoad.getId());
+    }
+
+    @Test
+    void acceptBooking_ShouldDropCachedBookingsOfTheLoad() {
+        // Given
+        UUID bookingId = testBooking.getId();
+        UUID otherBookingId = UUID.randomUUID();
+        BookingResponseDto otherResponseDto = new BookingResponseDto(otherBookingId, testLoad.getId(), "TRANSPORTER002",
+            2400.0, null, BookingStatus.PENDING, LocalDateTime.now());
+        bookingCache.get(otherBookingId, id -> Optional.of(otherResponseDto));
+
+        when(bookingRepository.findLoadIdById(bookingId)).thenReturn(Optional.of(testLoad.getId()));
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(testBooking));
+        when(bookingRepository.save(testBooking)).thenReturn(testBooking);
+        when(bookingRepository.rejectOtherPendingBookings(testLoad.getId(), bookingId)).thenReturn(1);
+        testLoad.setPendingBookings(2);
+        when(bookingMapper.toResponseDto(testBooking)).thenReturn(testResponseDto);
+
+        // When
+        bookingService.acceptBooking(bookingId);
+
+        // Then
+        assertNull(bookingCache.nativeCache().getIfPresent(otherBookingId));
+    }
+
+    @Test
+    void acceptBooking_ShouldThrowBusinessException_WhenLoadAlreadyHasAcceptedBooking() {
+        // Given
+        UUID bookingId = testBooking.getId();
+        when(bookingRepository.findLoadIdById(bookingId)).thenReturn(Optional.of(testLoad.getId()));
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(testBooking));
+        testLoad.setAcceptedBookings(1);
+
+        // When & Then
+        assertThrows(BusinessException.class, () -> bookingService.acceptBooking(bookingId));
+        assertEquals(BookingStatus.PENDING, testBooking.getStatus());
+        verify(bookingRepository, never()).save(any());
+        verify(bookingRepository, never()).rejectOtherPendingBookings(any(), any());
     }
 
     @Test
@@ -222,22 +332,24 @@ class BookingServiceTest {
         // Given
         UUID bookingId = testBooking.getId();
         testBooking.setStatus(BookingStatus.ACCEPTED);
+        when(bookingRepository.findLoadIdById(bookingId)).thenReturn(Optional.of(testLoad.getId()));
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(testBooking));
 
         // When & Then
         assertThrows(BusinessException.class, () -> bookingService.acceptBooking(bookingId));
         verify(bookingRepository).findById(bookingId);
         verify(bookingRepository, never()).save(any());
+        verify(bookingRepository, never()).rejectOtherPendingBookings(any(), any());
     }
 
     @Test
     void rejectBooking_ShouldRejectBooking_WhenValidRequest() {
         // Given
         UUID bookingId = testBooking.getId();
+        when(bookingRepository.findLoadIdById(bookingId)).thenReturn(Optional.of(testLoad.getId()));
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(testBooking));
         when(bookingRepository.save(testBooking)).thenReturn(testBooking);
         when(bookingMapper.toResponseDto(testBooking)).thenReturn(testResponseDto);
-        when(loadService.getLoadEntityById(testLoad.getId())).thenReturn(testLoad);
 
         // When
         BookingResponseDto result = bookingService.rejectBooking(bookingId);
@@ -247,14 +359,53 @@ class BookingServiceTest {
         assertEquals(BookingStatus.REJECTED, testBooking.getStatus());
         verify(bookingRepository).findById(bookingId);
         verify(bookingRepository).save(testBooking);
+        verify(bookingRepository, never()).findByLoadIdAndStatus(any(), any());
+        assertEquals(0, testLoad.getPendingBookings());
+        assertEquals(1, testLoad.getRejectedBookings());
+    }
+
+    @Test
+    void rejectBooking_ShouldRevertLoadToPosted_WhenLastActiveBookingRejected() {
+        // Given
+        UUID bookingId = testBooking.getId();
+        testLoad.setStatus(LoadStatus.BOOKED);
+        when(bookingRepository.findLoadIdById(bookingId)).thenReturn(Optional.of(testLoad.getId()));
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(testBooking));
+        when(bookingRepository.save(testBooking)).thenReturn(testBooking);
+        when(bookingMapper.toResponseDto(testBooking)).thenReturn(testResponseDto);
+
+        // When
+        bookingService.rejectBooking(bookingId);
+
+        // Then
+        verify(loadService).updateLoadStatus(testLoad.getId(), LoadStatus.POSTED);
+    }
+
+    @Test
+    void rejectBooking_ShouldKeepLoadBooked_WhenOtherBookingsStillPending() {
+        // Given
+        UUID bookingId = testBooking.getId();
+        testLoad.setStatus(LoadStatus.BOOKED);
+        testLoad.setPendingBookings(2);
+        when(bookingRepository.findLoadIdById(bookingId)).thenReturn(Optional.of(testLoad.getId()));
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(testBooking));
+        when(bookingRepository.save(testBooking)).thenReturn(testBooking);
+        when(bookingMapper.toResponseDto(testBooking)).thenReturn(testResponseDto);
+
+        // When
+        bookingService.rejectBooking(bookingId);
+
+        // Then
+        assertEquals(1, testLoad.getPendingBookings());
+        verify(loadService, never()).updateLoadStatus(any(), any());
     }
 
     @Test
     void deleteBooking_ShouldDeleteBooking_WhenBookingExists() {
         // Given
         UUID bookingId = testBooking.getId();
+        when(bookingRepository.findLoadIdById(bookingId)).thenReturn(Optional.of(testLoad.getId()));
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(testBooking));
-        when(loadService.getLoadEntityById(testLoad.getId())).thenReturn(testLoad);
 
         // When
         bookingService.deleteBooking(bookingId);
@@ -262,17 +413,21 @@ class BookingServiceTest {
         // Then
         verify(bookingRepository).findById(bookingId);
         verify(bookingRepository).delete(testBooking);
+        verify(tombstoneRepository).save(argThat(tombstone ->
+            tombstone.getBookingId().equals(bookingId) && tombstone.getLoadId().equals(testLoad.getId())));
+        assertEquals(0, testLoad.getPendingBookings());
     }
 
     @Test
     void deleteBooking_ShouldThrowResourceNotFoundException_WhenBookingNotExists() {
         // Given
         UUID bookingId = UUID.randomUUID();
-        when(bookingRepository.findById(bookingId)).thenReturn(Optional.empty());
+        when(bookingRepository.findLoadIdById(bookingId)).thenReturn(Optional.empty());
 
         // When & Then
         assertThrows(ResourceNotFoundException.class, () -> bookingService.deleteBooking(bookingId));
-        verify(bookingRepository).findById(bookingId);
-        verify(bookingRepository, never()).delete(any());
+        verify(bookingRepository).findLoadIdById(bookingId);
+        verify(loadService, never()).lockForBookingChanges(any());
+        verify(bookingRepository, never()).delete(any(Booking.class));
     }
 }
\ No newline at end of file
@@ -0,0 +1,170 @@
+package com.cargopro.loadbooking.service;
+
+import com.cargopro.loadbooking.dto.ChangesPageDto;
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadRequestDto;
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.mapper.LoadMapper;
+import com.cargopro.loadbooking.repository.LoadRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs change numbering against PostgreSQL, where the database stamps every insert and
+ * update of a load: Hibernate must still send the writes in batches, and a sync must
+ * never hand out a token past a change that is not yet committed.
+ */
+@SpringBootTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@Testcontainers(disabledWithoutDocker = true)
+class ChangeServicePostgresTest {
+
+    private static final int LOADS = 20;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private ChangeService changeService;
+
+    @Autowired
+    private LoadRepository loadRepository;
+
+    @Autowired
+    private LoadMapper loadMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void saveAndUpdate_ShouldSendBatchesWhileTheDatabaseNumbersEveryRow() {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Load> loads = new ArrayList<>();
+        for (int i = 0; i < LOADS; i++) {
+            loads.add(newLoad());
+        }
+
+        // When
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status -> loadRepository.saveAll(loads));
+        long insertStatements = statistics.getPrepareStatementCount();
+        List<UUID> ids = loads.stream().map(Load::getId).toList();
+        long insertedUpTo = highestChange(ids);
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status ->
+            loadRepository.findAllById(ids).forEach(load -> load.setWeight(load.getWeight() + 1)));
+        long updateStatements = statistics.getPrepareStatementCount();
+
+        // Then
+        // One batched INSERT; then the SELECT and one batched UPDATE
+        assertEquals(1, insertStatements);
+        assertEquals(2, updateStatements);
+        assertEquals(LOADS, statistics.getEntityUpdateCount());
+        assertEquals(LOADS, jdbcTemplate.queryForObject(
+            "SELECT COUNT(DISTINCT change_seq) FROM loads WHERE id = ANY(?) AND change_seq > ?", Integer.class,
+            ids.toArray(new UUID[0]), insertedUpTo));
+    }
+
+    @Test
+    void getLoadChanges_ShouldNotPassAChangeThatCommitsOutOfOrder() throws Exception {
+        // Given
+        UUID first = loadRepository.save(newLoad()).getId();
+        UUID second = loadRepository.save(newLoad()).getId();
+        UUID third = loadRepository.save(newLoad()).getId();
+        String token = syncAll(null);
+
+        ChangesPageDto<LoadResponseDto> whileOpen;
+        ChangesPageDto<LoadResponseDto> afterCommit;
+        try (Connection older = dataSource.getConnection(); Connection newer = dataSource.getConnection()) {
+            older.setAutoCommit(false);
+            newer.setAutoCommit(false);
+            // The older transaction takes a change number first, the newer one a higher number and commits first
+            touch(older, first);
+            touch(newer, second);
+            newer.commit();
+
+            // When
+            whileOpen = changeService.getLoadChanges(token, 10);
+            touch(older, third);
+            older.commit();
+            afterCommit = changeService.getLoadChanges(whileOpen.getToken(), 10);
+        }
+
+        // Then
+        assertTrue(whileOpen.getChanges().isEmpty());
+        assertEquals(token, whileOpen.getToken());
+        assertEquals(List.of(first, third, second),
+                     afterCommit.getChanges().stream().map(LoadResponseDto::getId).toList());
+        assertTrue(changeService.getLoadChanges(afterCommit.getToken(), 10).getChanges().isEmpty());
+    }
+
+    private String syncAll(String token) {
+        ChangesPageDto<LoadResponseDto> page;
+        do {
+            page = changeService.getLoadChanges(token, 100);
+            token = page.getToken();
+        } while (page.isHasMore());
+        return token;
+    }
+
+    private long highestChange(List<UUID> ids) {
+        return jdbcTemplate.queryForObject("SELECT MAX(change_seq) FROM loads WHERE id = ANY(?)", Long.class,
+            (Object) ids.toArray(new UUID[0]));
+    }
+
+    private static void touch(Connection connection, UUID loadId) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "UPDATE loads SET weight = weight + 1 WHERE id = ?")) {
+            statement.setObject(1, loadId);
+            assertEquals(1, statement.executeUpdate());
+        }
+    }
+
+    private Load newLoad() {
+        FacilityDto facility = new FacilityDto("Pune", "Mumbai",
+            LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+        Load load = loadMapper.toEntity(new LoadRequestDto("SHIPPER001", facility, "Steel", "Flatbed", 1, 1000.0,
+            null));
+        load.setStatus(LoadStatus.POSTED);
+        return load;
+    }
+}
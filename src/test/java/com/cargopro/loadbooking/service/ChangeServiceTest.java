@@ -0,0 +1,133 @@
+package com.cargopro.loadbooking.service;
+
+import com.cargopro.loadbooking.dto.BookingResponseDto;
+import com.cargopro.loadbooking.dto.ChangesPageDto;
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.Booking;
+import com.cargopro.loadbooking.entity.BookingTombstone;
+import com.cargopro.loadbooking.entity.Facility;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.mapper.BookingMapper;
+import com.cargopro.loadbooking.mapper.LoadMapper;
+import com.cargopro.loadbooking.pagination.ChangeToken;
+import com.cargopro.loadbooking.repository.BookingRepository;
+import com.cargopro.loadbooking.repository.BookingTombstoneRepository;
+import com.cargopro.loadbooking.repository.LoadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeServiceTest {
+
+    @Mock
+    private LoadRepository loadRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingTombstoneRepository tombstoneRepository;
+
+    private ChangeService changeService;
+    private Load load;
+
+    @BeforeEach
+    void setUp() {
+        changeService = new ChangeService(loadRepository, bookingRepository, tombstoneRepository, new LoadMapper(),
+            new BookingMapper());
+        load = new Load();
+        load.setId(UUID.randomUUID());
+    }
+
+    @Test
+    void getBookingChanges_ShouldMergeTombstonesInChangeOrderAndStopAtThePageSize() {
+        // Given
+        // Ordered by transaction first, so the tombstone comes before the booking with the lower number
+        Booking first = booking(7, 11);
+        BookingTombstone second = tombstone(7, 13);
+        Booking third = booking(8, 12);
+        ChangeToken since = new ChangeToken(5, 10);
+        when(loadRepository.findOldestRunningTransaction()).thenReturn(9L);
+        when(bookingRepository.findChangedAfter(5, 10, 9, PageRequest.of(0, 3))).thenReturn(List.of(first, third));
+        when(tombstoneRepository.findChangedAfter(5, 10, 9, PageRequest.of(0, 3))).thenReturn(List.of(second));
+
+        // When
+        ChangesPageDto<BookingResponseDto> page = changeService.getBookingChanges(since.encode(), 2);
+
+        // Then
+        assertEquals(List.of(first.getId()), page.getChanges().stream().map(BookingResponseDto::getId).toList());
+        assertEquals(1, page.getDeleted().size());
+        assertEquals(second.getBookingId(), page.getDeleted().get(0).getId());
+        assertEquals(new ChangeToken(7, 13), ChangeToken.decode(page.getToken()));
+        assertTrue(page.isHasMore());
+    }
+
+    @Test
+    void getBookingChanges_ShouldKeepTheTokenWhenNothingChanged() {
+        // Given
+        String since = new ChangeToken(42, 420).encode();
+        when(loadRepository.findOldestRunningTransaction()).thenReturn(50L);
+        when(bookingRepository.findChangedAfter(eq(42L), eq(420L), eq(50L), any())).thenReturn(List.of());
+        when(tombstoneRepository.findChangedAfter(eq(42L), eq(420L), eq(50L), any())).thenReturn(List.of());
+
+        // When
+        ChangesPageDto<BookingResponseDto> page = changeService.getBookingChanges(since, 10);
+
+        // Then
+        assertTrue(page.getChanges().isEmpty());
+        assertEquals(since, page.getToken());
+        assertFalse(page.isHasMore());
+    }
+
+    @Test
+    void getLoadChanges_ShouldStartFromTheFirstChangeWithoutAToken() {
+        // Given
+        load.setFacility(new Facility("Pune", "Mumbai", LocalDateTime.now(), LocalDateTime.now().plusDays(1)));
+        ReflectionTestUtils.setField(load, "changeXid", 3L);
+        ReflectionTestUtils.setField(load, "changeSeq", 30L);
+        when(loadRepository.findOldestRunningTransaction()).thenReturn(4L);
+        when(loadRepository.findChangedAfter(0, 0, 4, PageRequest.of(0, 11))).thenReturn(List.of(load));
+
+        // When
+        ChangesPageDto<LoadResponseDto> page = changeService.getLoadChanges(null, 10);
+
+        // Then
+        assertEquals(List.of(load.getId()), page.getChanges().stream().map(LoadResponseDto::getId).toList());
+        assertEquals(new ChangeToken(3, 30), ChangeToken.decode(page.getToken()));
+        assertFalse(page.isHasMore());
+    }
+
+    @Test
+    void getLoadChanges_ShouldRejectAMalformedToken() {
+        assertThrows(IllegalArgumentException.class, () -> changeService.getLoadChanges("42", 10));
+        verifyNoInteractions(loadRepository);
+    }
+
+    private Booking booking(long changeXid, long changeSeq) {
+        Booking booking = new Booking(load, "TRANSPORTER001", 2500.0, null);
+        booking.setId(UUID.randomUUID());
+        ReflectionTestUtils.setField(booking, "changeXid", changeXid);
+        ReflectionTestUtils.setField(booking, "changeSeq", changeSeq);
+        return booking;
+    }
+
+    private BookingTombstone tombstone(long changeXid, long changeSeq) {
+        BookingTombstone tombstone = new BookingTombstone(UUID.randomUUID(), load.getId());
+        ReflectionTestUtils.setField(tombstone, "changeXid", changeXid);
+        ReflectionTestUtils.setField(tombstone, "changeSeq", changeSeq);
+        return tombstone;
+    }
+}
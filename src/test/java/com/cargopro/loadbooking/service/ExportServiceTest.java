@@ -0,0 +1,150 @@
+package com.cargopro.loadbooking.service;
+
+import com.cargopro.loadbooking.dto.BookingResponseDto;
+import com.cargopro.loadbooking.dto.BulkIngestResultDto;
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadResponseDto;
+import com.cargopro.loadbooking.entity.BookingStatus;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.feed.LoadFeed;
+import com.cargopro.loadbooking.index.LoadIndexer;
+import com.cargopro.loadbooking.mapper.LoadMapper;
+import com.cargopro.loadbooking.repository.BookingRepository;
+import com.cargopro.loadbooking.repository.LoadRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    @Mock
+    private LoadRepository loadRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private LoadIndexer loadIndexer;
+
+    private ObjectMapper objectMapper;
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new ExportService(loadRepository, bookingRepository, objectMapper, 1);
+    }
+
+    @Test
+    void exportLoads_ShouldWriteCsvWithHeaderAndQuotedFields() throws IOException {
+        // Given
+        LoadResponseDto load = load("Fragile, \"handle with care\"");
+        when(loadRepository.streamViews(any(), any())).thenReturn(Stream.of(load));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long count = exportService.exportLoads(null, null, null, null, null, ExportService.Format.CSV, false, out);
+
+        // Then
+        assertEquals(1, count);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(String.join(",", ExportService.LOAD_CSV_COLUMNS), lines[0]);
+        assertTrue(lines[1].startsWith(load.getId() + ",SHIPPER001,Mumbai,Delhi,"));
+        assertTrue(lines[1].contains(",\"Fragile, \"\"handle with care\"\"\","));
+        assertEquals(LoadIngestService.CsvRecord.split(lines[1]).size(), ExportService.LOAD_CSV_COLUMNS.size());
+    }
+
+    @Test
+    void exportLoads_ShouldWriteCsvThatIngestReadsBack() throws IOException {
+        // Given
+        LoadResponseDto load = load("Gate 4, \"B\" shift\r\nno stacking\rcall ahead\n");
+        load.getFacility().setLoadingPoint("Pune, MH");
+        load.getFacility().setLoadingLatitude(18.52);
+        load.getFacility().setLoadingLongitude(73.86);
+        when(loadRepository.streamViews(any(), any())).thenReturn(Stream.of(load));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportLoads(null, null, null, null, null, ExportService.Format.CSV, false, out);
+        List<Load> ingested = new ArrayList<>();
+        doAnswer(invocation -> ingested.addAll(invocation.getArgument(0))).when(loadRepository).copyLoads(anyList());
+
+        // When
+        BulkIngestResultDto result;
+        try (ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory()) {
+            LoadIngestService loadIngestService = new LoadIngestService(loadRepository, new LoadMapper(), loadIndexer,
+                mock(LoadFeed.class), validatorFactory.getValidator(), objectMapper, 10, 10);
+            result = loadIngestService.ingest(new ByteArrayInputStream(out.toByteArray()),
+                LoadIngestService.Format.CSV, StandardCharsets.UTF_8);
+        }
+
+        // Then
+        assertEquals(0, result.getFailed(), () -> result.getErrors().toString());
+        Load copy = ingested.get(0);
+        assertEquals("Gate 4, \"B\" shift\nno stacking\ncall ahead\n", copy.getComment());
+        assertEquals("Pune, MH", copy.getFacility().getLoadingPoint());
+        assertEquals(load.getFacility().getLoadingDate(), copy.getFacility().getLoadingDate());
+        assertEquals(18.52, copy.getFacility().getLoadingLatitude());
+        assertEquals(load.getShipperId(), copy.getShipperId());
+        assertEquals(load.getWeight(), copy.getWeight());
+    }
+
+    @Test
+    void exportBookings_ShouldWriteOneJsonDocumentPerLineThroughGzip() throws IOException {
+        // Given
+        BookingResponseDto first = booking();
+        BookingResponseDto second = booking();
+        when(bookingRepository.streamViews(any(), any())).thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long count = exportService.exportBookings(null, null, BookingStatus.PENDING, LocalDateTime.now().minusDays(1),
+            null, ExportService.Format.NDJSON, true, out);
+
+        // Then
+        assertEquals(2, count);
+        String text;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = text.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(first.getId(), objectMapper.readValue(lines[0], BookingResponseDto.class).getId());
+        assertEquals(second.getId(), objectMapper.readValue(lines[1], BookingResponseDto.class).getId());
+    }
+
+    private static LoadResponseDto load(String comment) {
+        FacilityDto facility = new FacilityDto("Mumbai", "Delhi", LocalDateTime.now().plusDays(1),
+            LocalDateTime.now().plusDays(2));
+        return new LoadResponseDto(UUID.randomUUID(), "SHIPPER001", facility, "Electronics", "Container", 2, 1500.0,
+            comment, LocalDateTime.now(), LoadStatus.POSTED);
+    }
+
+    private static BookingResponseDto booking() {
+        return new BookingResponseDto(UUID.randomUUID(), UUID.randomUUID(), "TRANSPORTER001", 2500.0, null,
+            BookingStatus.PENDING, LocalDateTime.now());
+    }
+}
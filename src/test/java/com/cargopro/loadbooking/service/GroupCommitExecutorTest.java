@@ -0,0 +1,132 @@
+package com.cargopro.loadbooking.service;
+
+import com.cargopro.loadbooking.exception.BusinessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitExecutorTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<TransactionStatus> committed = new CopyOnWriteArrayList<>();
+    private ExecutorService callers;
+    private GroupCommitExecutor groupCommitExecutor;
+
+    @BeforeEach
+    void setUp() {
+        callers = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (groupCommitExecutor != null) {
+            groupCommitExecutor.shutdown();
+        }
+    }
+
+    @Test
+    void execute_ShouldCommitConcurrentWritesTogether() throws Exception {
+        // Given
+        startExecutor(8, Duration.ofSeconds(5));
+
+        // When
+        List<Future<Integer>> results = submitAll(8, i -> i);
+
+        // Then
+        for (int i = 0; i < 8; i++) {
+            assertEquals(i, results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        verify(transactionManager, times(1)).getTransaction(any());
+        assertEquals(1, committed.size());
+        assertFalse(committed.get(0).isRollbackOnly());
+    }
+
+    @Test
+    void execute_ShouldFailOnlyTheWriteThatThrewAndCommitTheRest() throws Exception {
+        // Given
+        startExecutor(4, Duration.ofSeconds(5));
+
+        // When
+        List<Future<Integer>> results = submitAll(4, i -> {
+            if (i == 2) {
+                throw new BusinessException("Only pending bookings can be accepted");
+            }
+            return i;
+        });
+
+        // Then
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> results.get(2).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(BusinessException.class, failure.getCause());
+        for (int i : new int[] {0, 1, 3}) {
+            assertEquals(i, results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2, committed.size());
+        assertTrue(committed.get(0).isRollbackOnly());
+        assertFalse(committed.get(1).isRollbackOnly());
+    }
+
+    @Test
+    void execute_ShouldRunInlineWhenDisabled() {
+        // Given
+        groupCommitExecutor = new GroupCommitExecutor(new TransactionTemplate(transactionManager), false, 8,
+            Duration.ofMillis(1), 10);
+
+        // When
+        String result = groupCommitExecutor.execute(() -> Thread.currentThread().getName());
+
+        // Then
+        assertEquals(Thread.currentThread().getName(), result);
+        verifyNoInteractions(transactionManager);
+    }
+
+    private void startExecutor(int maxBatchSize, Duration linger) {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        doAnswer(invocation -> committed.add(invocation.getArgument(0))).when(transactionManager).commit(any());
+        groupCommitExecutor = new GroupCommitExecutor(new TransactionTemplate(transactionManager), true, maxBatchSize,
+            linger, 100);
+    }
+
+    /**
+     * Submits {@code count} writes from separate threads at the same time, so they queue up together.
+     */
+    private List<Future<Integer>> submitAll(int count, IntFunction<Integer> write) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            results.add(callers.submit(() -> {
+                start.await();
+                return groupCommitExecutor.execute(() -> write.apply(index));
+            }));
+        }
+        start.countDown();
+        return results;
+    }
+}
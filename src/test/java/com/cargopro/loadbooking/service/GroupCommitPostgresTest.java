@@ -0,0 +1,128 @@
+package com.cargopro.loadbooking.service;
+
+import com.cargopro.loadbooking.dto.BookingRequestDto;
+import com.cargopro.loadbooking.dto.BookingResponseDto;
+import com.cargopro.loadbooking.dto.FacilityDto;
+import com.cargopro.loadbooking.dto.LoadRequestDto;
+import com.cargopro.loadbooking.entity.BookingStatus;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.repository.BookingRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs booking writes on one load through group commit against PostgreSQL, where
+ * creating a booking updates the load with SQL that Hibernate does not see while an
+ * accept in the same transaction changes the same load through the entity.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "loadbooking.group-commit.enabled=true",
+    "loadbooking.group-commit.max-batch-size=3",
+    // Long enough for all three writes below to join one group
+    "loadbooking.group-commit.linger=5s"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class GroupCommitPostgresTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private GroupCommitExecutor groupCommitExecutor;
+
+    @Autowired
+    private LoadService loadService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void createAcceptCreateOnOneLoad_ShouldCommitTogetherWithConsistentCounters() throws Exception {
+        // Given
+        FacilityDto facility = new FacilityDto("Pune", "Mumbai",
+            LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
+        UUID loadId = loadService.createLoad(
+            new LoadRequestDto("SHIPPER001", facility, "Steel", "Flatbed", 1, 1000.0, null)).getId();
+        UUID bid = bookingService.createBooking(request(loadId)).getId();
+        AtomicLong[] transactions = {new AtomicLong(), new AtomicLong(), new AtomicLong()};
+
+        // When
+        ExecutorService clients = Executors.newFixedThreadPool(3);
+        Future<BookingResponseDto> rejected;
+        Future<BookingResponseDto> accepted;
+        Future<BookingResponseDto> pending;
+        try {
+            rejected = clients.submit(() -> groupCommitExecutor.execute(
+                inTransaction(transactions[0], () -> bookingService.createBooking(request(loadId)))));
+            Thread.sleep(200);
+            // Reads the load into the persistence context and changes its counters
+            accepted = clients.submit(() -> groupCommitExecutor.execute(
+                inTransaction(transactions[1], () -> bookingService.acceptBooking(bid))));
+            Thread.sleep(200);
+            // Updates the same load row with SQL
+            pending = clients.submit(() -> groupCommitExecutor.execute(
+                inTransaction(transactions[2], () -> bookingService.createBooking(request(loadId)))));
+
+            // Then
+            assertEquals(BookingStatus.ACCEPTED, accepted.get().getStatus());
+            assertEquals(1, accepted.get().getRejectedBookings());
+            rejected.get();
+            pending.get();
+        } finally {
+            clients.shutdown();
+        }
+        assertEquals(transactions[0].get(), transactions[1].get(), "create and accept ran in separate transactions");
+        assertEquals(transactions[1].get(), transactions[2].get(), "accept and create ran in separate transactions");
+
+        Load load = loadService.getLoadEntityById(loadId);
+        assertEquals(1, load.getPendingBookings());
+        assertEquals(1, load.getAcceptedBookings());
+        assertEquals(1, load.getRejectedBookings());
+        assertEquals(1, bookingRepository.countByLoadIdAndStatus(loadId, BookingStatus.PENDING));
+        assertEquals(1, bookingRepository.countByLoadIdAndStatus(loadId, BookingStatus.REJECTED));
+        assertEquals(BookingStatus.REJECTED, bookingService.getBookingById(rejected.get().getId()).getStatus());
+    }
+
+    private <T> Supplier<T> inTransaction(AtomicLong transaction, Supplier<T> write) {
+        return () -> {
+            T result = write.get();
+            transaction.set(jdbcTemplate.queryForObject("SELECT txid_current()", Long.class));
+            return result;
+        };
+    }
+
+    private static BookingRequestDto request(UUID loadId) {
+        return new BookingRequestDto(loadId, "TRANSPORTER001", 2500.0, null);
+    }
+}
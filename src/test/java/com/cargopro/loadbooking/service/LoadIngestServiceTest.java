@@ -0,0 +1,171 @@
+package com.cargopro.loadbooking.service;
+
+import com.cargopro.loadbooking.dto.BulkIngestResultDto;
+import com.cargopro.loadbooking.entity.Load;
+import com.cargopro.loadbooking.entity.LoadStatus;
+import com.cargopro.loadbooking.feed.LoadFeed;
+import com.cargopro.loadbooking.index.LoadIndexer;
+import com.cargopro.loadbooking.mapper.LoadMapper;
+import com.cargopro.loadbooking.repository.LoadRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoadIngestServiceTest {
+
+    private static final String NDJSON_ROW = "{\"shipperId\":\"SHIPPER001\",\"facility\":{\"loadingPoint\":\"Pune\"," +
+        "\"unloadingPoint\":\"Mumbai\",\"loadingDate\":\"2030-01-01T08:00:00\",\"unloadingDate\":\"2030-01-02T08:00:00\"}," +
+        "\"productType\":\"Steel\",\"truckType\":\"Flatbed\",\"noOfTrucks\":2,\"weight\":1500.0}";
+
+    @Mock
+    private LoadRepository loadRepository;
+
+    @Mock
+    private LoadIndexer loadIndexer;
+
+    @Mock
+    private LoadFeed loadFeed;
+
+    private ValidatorFactory validatorFactory;
+    private LoadIngestService loadIngestService;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        loadIngestService = new LoadIngestService(loadRepository, new LoadMapper(), loadIndexer, loadFeed,
+            validatorFactory.getValidator(), objectMapper, 2, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void ingest_ShouldWriteValidNdjsonRowsInChunksAndReportInvalidOnes() throws Exception {
+        // Given
+        List<List<Load>> chunks = new ArrayList<>();
+        doAnswer(invocation -> chunks.add(new ArrayList<>(invocation.getArgument(0))))
+            .when(loadRepository).copyLoads(anyList());
+        String body = String.join("\n",
+            NDJSON_ROW,
+            "{not json",
+            NDJSON_ROW.replace("\"noOfTrucks\":2", "\"noOfTrucks\":0"),
+            "",
+            NDJSON_ROW,
+            "null",
+            NDJSON_ROW);
+
+        // When
+        BulkIngestResultDto result = ingest(body, LoadIngestService.Format.NDJSON);
+
+        // Then
+        assertEquals(6, result.getReceived());
+        assertEquals(3, result.getInserted());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(2L, 3L, 6L), result.getErrors().stream().map(error -> error.getLine()).toList());
+        assertTrue(result.getErrors().get(1).getMessage().contains("noOfTrucks"));
+        assertEquals("Expected a JSON object but got null", result.getErrors().get(2).getMessage());
+        assertEquals(List.of(2, 1), chunks.stream().map(List::size).toList());
+        Load first = chunks.get(0).get(0);
+        assertNotNull(first.getId());
+        assertNotNull(first.getDatePosted());
+        assertEquals(LoadStatus.POSTED, first.getStatus());
+        verify(loadIndexer).indexCreated(first);
+        verify(loadFeed, times(3)).publish(eq(LoadFeed.EventType.CREATED), any(), isNull());
+    }
+
+    @Test
+    void ingest_ShouldParseQuotedCsvFields() throws Exception {
+        // Given
+        List<Load> written = new ArrayList<>();
+        doAnswer(invocation -> written.addAll(invocation.getArgument(0))).when(loadRepository).copyLoads(anyList());
+        String body = "shipperId,loadingPoint,unloadingPoint,loadingDate,unloadingDate,productType,truckType,noOfTrucks,weight,comment\n" +
+            "SHIPPER001,\"Pune, MH\",Mumbai,2030-01-01T08:00:00,2030-01-02T08:00:00,Steel,Flatbed,2,1500,\"Say \"\"hi\"\"\"\n" +
+            "SHIPPER001,Pune,Mumbai,tomorrow,2030-01-02T08:00:00,Steel,Flatbed,2,1500,\n";
+
+        // When
+        BulkIngestResultDto result = ingest(body, LoadIngestService.Format.CSV);
+
+        // Then
+        Load load = written.get(0);
+        assertEquals("Pune, MH", load.getFacility().getLoadingPoint());
+        assertEquals("Say \"hi\"", load.getComment());
+        assertEquals(1, result.getInserted());
+        assertEquals(3L, result.getErrors().get(0).getLine());
+        assertEquals("Invalid loadingDate: tomorrow", result.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void ingest_ShouldReadQuotedCsvFieldsOverSeveralLines() throws Exception {
+        // Given
+        List<Load> written = new ArrayList<>();
+        doAnswer(invocation -> written.addAll(invocation.getArgument(0))).when(loadRepository).copyLoads(anyList());
+        String body = "shipperId,loadingPoint,unloadingPoint,loadingDate,unloadingDate,productType,truckType,noOfTrucks,weight,comment\r\n" +
+            "SHIPPER001,Pune,Mumbai,2030-01-01T08:00:00,2030-01-02T08:00:00,Steel,Flatbed,2,1500,\"Gate 4\r\n\r\n\"\"B\"\" shift\"\r\n" +
+            "SHIPPER001,Pune,Mumbai,tomorrow,2030-01-02T08:00:00,Steel,Flatbed,2,1500,\r\n" +
+            "SHIPPER001,Pune,Mumbai,2030-01-01T08:00:00,2030-01-02T08:00:00,Steel,Flatbed,2,1500,\"never\nclosed\n";
+
+        // When
+        BulkIngestResultDto result = ingest(body, LoadIngestService.Format.CSV);
+
+        // Then
+        assertEquals(1, result.getInserted());
+        assertEquals("Gate 4\n\n\"B\" shift", written.get(0).getComment());
+        assertEquals(List.of(5L, 6L), result.getErrors().stream().map(error -> error.getLine()).toList());
+        assertEquals("Unterminated quoted field", result.getErrors().get(1).getMessage());
+    }
+
+    @Test
+    void ingest_ShouldRejectCsvWithoutRequiredColumns() {
+        assertThrows(IllegalArgumentException.class,
+            () -> ingest("shipperId,loadingPoint\nSHIPPER001,Pune\n", LoadIngestService.Format.CSV));
+        verifyNoInteractions(loadRepository);
+    }
+
+    @Test
+    void ingest_ShouldIsolateRowsRejectedByTheDatabase() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            List<Load> loads = invocation.getArgument(0);
+            if (loads.stream().anyMatch(load -> "BAD".equals(load.getShipperId()))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            return null;
+        }).when(loadRepository).copyLoads(anyList());
+        String body = NDJSON_ROW + "\n" + NDJSON_ROW.replace("SHIPPER001", "BAD");
+
+        // When
+        BulkIngestResultDto result = ingest(body, LoadIngestService.Format.NDJSON);
+
+        // Then
+        assertEquals(1, result.getInserted());
+        assertEquals(1, result.getFailed());
+        assertEquals(2L, result.getErrors().get(0).getLine());
+        verify(loadRepository, times(3)).copyLoads(anyList());
+    }
+
+    private BulkIngestResultDto ingest(String body, LoadIngestService.Format format) throws Exception {
+        return loadIngestService.ingest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+            format, StandardCharsets.UTF_8);
+    }
+}
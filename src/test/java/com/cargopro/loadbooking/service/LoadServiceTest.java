@@ -1,5 +1,8 @@
 package com.cargopro.loadbooking.service;
 
+import com.cargopro.loadbooking.cache.LoadJsonCache;
+import com.cargopro.loadbooking.cache.LoadLookupCache;
+import com.cargopro.loadbooking.dto.CursorPageDto;
 import com.cargopro.loadbooking.dto.FacilityDto;
 import com.cargopro.loadbooking.dto.LoadRequestDto;
 import com.cargopro.loadbooking.dto.LoadResponseDto;
@@ -8,19 +11,35 @@ import com.cargopro.loadbooking.entity.Load;
 import com.cargopro.loadbooking.entity.LoadStatus;
 import com.cargopro.loadbooking.exception.BusinessException;
 import com.cargopro.loadbooking.exception.ResourceNotFoundException;
+import com.cargopro.loadbooking.feed.LoadFeed;
+import com.cargopro.loadbooking.index.AttributeDictionary;
+import com.cargopro.loadbooking.index.LaneIndex;
+import com.cargopro.loadbooking.index.LoadingWindowIndex;
+import com.cargopro.loadbooking.index.LocationIndex;
+import com.cargopro.loadbooking.index.LoadIndexer;
+import com.cargopro.loadbooking.index.LoadTextIndex;
+import com.cargopro.loadbooking.index.OpenLoadSnapshot;
+import com.cargopro.loadbooking.index.PointTrie;
 import com.cargopro.loadbooking.mapper.LoadMapper;
+import com.cargopro.loadbooking.pagination.KeysetCursor;
+import com.cargopro.loadbooking.pagination.RelevanceCursor;
 import com.cargopro.loadbooking.repository.LoadRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -39,6 +58,39 @@ class LoadServiceTest {
     @Mock
     private LoadMapper loadMapper;
 
+    @Mock
+    private LoadJsonCache loadJsonCache;
+
+    @Mock
+    private LoadFeed loadFeed;
+
+    @Mock
+    private LoadIndexer loadIndexer;
+
+    @Spy
+    private AttributeDictionary attributeDictionary = new AttributeDictionary();
+
+    @Spy
+    private LaneIndex laneIndex = new LaneIndex(attributeDictionary);
+
+    @Spy
+    private LoadingWindowIndex loadingWindowIndex = new LoadingWindowIndex(attributeDictionary);
+
+    @Spy
+    private LocationIndex locationIndex = new LocationIndex(attributeDictionary);
+
+    @Spy
+    private OpenLoadSnapshot openLoadSnapshot = new OpenLoadSnapshot(attributeDictionary);
+
+    @Spy
+    private LoadTextIndex loadTextIndex = new LoadTextIndex();
+
+    @Spy
+    private PointTrie pointTrie = new PointTrie();
+
+    @Spy
+    private LoadLookupCache loadCache = new LoadLookupCache(100, Duration.ofMinutes(5), Duration.ofSeconds(30));
+
     @InjectMocks
     private LoadService loadService;
 
@@ -124,21 +176,209 @@ class LoadServiceTest {
     @Test
     void getLoads_ShouldReturnPagedLoads_WhenValidParameters() {
         // Given
-        List<Load> loads = List.of(testLoad);
-        Page<Load> loadPage = new PageImpl<>(loads, PageRequest.of(0, 10), 1);
+        Page<LoadResponseDto> loadPage = new PageImpl<>(List.of(testResponseDto), PageRequest.of(0, 10), 1);
         
-        when(loadRepository.findLoadsWithFilters(any(), any(), any(), any(Pageable.class)))
-            .thenReturn(loadPage);
-        when(loadMapper.toResponseDto(testLoad)).thenReturn(testResponseDto);
+        when(loadRepository.findViews(any(Specification.class), any(Pageable.class))).thenReturn(loadPage);
 
         // When
-        Page<LoadResponseDto> result = loadService.getLoads("SHIPPER001", "Flatbed", LoadStatus.POSTED, 1, 10);
+        Page<LoadResponseDto> result = loadService.getLoads("SHIPPER001", "Flatbed", null, LoadStatus.POSTED, null, null,
+            null, null, null, null, null, 1, 10);
 
         // Then
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(testResponseDto.getId(), result.getContent().get(0).getId());
-        verify(loadRepository).findLoadsWithFilters(eq("SHIPPER001"), eq("Flatbed"), eq(LoadStatus.POSTED), any(Pageable.class));
+        verify(loadRepository).findViews(any(Specification.class), any(Pageable.class));
+        verifyNoInteractions(loadMapper);
+    }
+
+    @Test
+    void getLoads_ShouldReadOnlyThePageFromTheDatabase_WhenFilteringByLane() {
+        // Given
+        LoadResponseDto older = postedLoad(" Pune ", "Mumbai", LocalDateTime.now().minusHours(2));
+        LoadResponseDto newer = postedLoad("pune", "MUMBAI", LocalDateTime.now().minusHours(1));
+        laneIndex.update(older);
+        laneIndex.update(newer);
+        laneIndex.update(postedLoad("Pune", "Delhi", LocalDateTime.now()));
+        when(loadIndexer.isReady()).thenReturn(true);
+        when(loadRepository.findViews(any(Specification.class), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(List.of(newer)));
+
+        // When
+        Page<LoadResponseDto> result = loadService.getLoads(null, "flatbed", null, null, "PUNE", "mumbai", null, null,
+            null, null, null, 1, 1);
+
+        // Then
+        assertEquals(2, result.getTotalElements());
+        assertEquals(List.of(newer), result.getContent());
+        verify(laneIndex).find("PUNE", "mumbai", "flatbed", null, null, 0, 1);
+        verify(loadRepository).findViews(any(Specification.class), argThat(Pageable::isUnpaged));
+    }
+
+    @Test
+    void getLoads_ShouldRejectLaneFiltersForLoadsOffTheBoard() {
+        assertThrows(IllegalArgumentException.class,
+            () -> loadService.getLoads(null, null, null, LoadStatus.BOOKED, "Pune", "Mumbai", null, null, null, null,
+                null, 1, 10));
+        assertThrows(IllegalArgumentException.class,
+            () -> loadService.getLoads(null, null, null, null, "Pune", null, null, null, null, null, null, 1, 10));
+        verifyNoInteractions(loadRepository);
+    }
+
+    @Test
+    void getLoads_ShouldServePostedLoadsInAWindowFromTheIndexAndOtherStatusesFromTheDatabase() {
+        // Given
+        LocalDateTime tuesday = LocalDateTime.of(2024, 6, 4, 0, 0);
+        LoadResponseDto inWindow = postedLoad("Pune", "Mumbai", tuesday.minusDays(1));
+        loadingWindowIndex.update(inWindow);
+        when(loadIndexer.isReady()).thenReturn(true);
+        when(loadRepository.findViews(any(Specification.class), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(List.of(inWindow)));
+
+        // When
+        Page<LoadResponseDto> posted = loadService.getLoads(null, null, null, LoadStatus.POSTED, null, null, tuesday,
+            tuesday.plusDays(2), null, null, null, 1, 10);
+        loadService.getLoads(null, null, null, LoadStatus.CANCELLED, null, null, tuesday, tuesday.plusDays(2), null, null,
+            null, 1, 10);
+
+        // Then
+        assertEquals(List.of(inWindow), posted.getContent());
+        verify(loadingWindowIndex).find(tuesday, tuesday.plusDays(2), null, null, null, 0, 10);
+        verify(loadRepository).findViews(any(Specification.class), argThat(Pageable::isUnpaged));
+        verify(loadRepository).findViews(any(Specification.class), argThat(Pageable::isPaged));
+        assertThrows(IllegalArgumentException.class, () -> loadService.getLoads(null, null, null, null, null, null,
+            tuesday.plusDays(2), tuesday, null, null, null, 1, 10));
+    }
+
+    @Test
+    void getLoads_ShouldServeOpenLoadsFromTheSnapshot_WhenItIsReady() {
+        // Given
+        LoadResponseDto light = postedLoad("Pune", "Mumbai", LocalDateTime.now().minusHours(1));
+        LoadResponseDto heavy = postedLoad("Pune", "Mumbai", LocalDateTime.now());
+        heavy.setWeight(20000.0);
+        heavy.setStatus(LoadStatus.BOOKED);
+        openLoadSnapshot.update(light);
+        openLoadSnapshot.update(heavy);
+        when(loadIndexer.isReady()).thenReturn(true);
+        when(loadRepository.findViews(any(Specification.class), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(List.of(heavy)));
+
+        // When
+        Page<LoadResponseDto> result = loadService.getLoads("SHIPPER001", null, "Steel", LoadStatus.BOOKED, null, null,
+            null, null, 10000.0, null, null, 1, 10);
+
+        // Then
+        assertEquals(1, result.getTotalElements());
+        verify(openLoadSnapshot).find(LoadStatus.BOOKED, "SHIPPER001", null, "Steel", 10000.0, null, null, null, 0, 10);
+        verify(loadRepository).findViews(any(Specification.class), argThat(Pageable::isUnpaged));
+        assertThrows(IllegalArgumentException.class, () -> loadService.getLoads(null, null, null, null, null, null,
+            null, null, 2.0, 1.0, null, 1, 10));
+    }
+
+    @Test
+    void getLoadsByCursor_ShouldReturnFirstSliceWithNextCursor_WhenCursorIsBlank() {
+        // Given
+        LoadResponseDto olderResponseDto = new LoadResponseDto();
+        olderResponseDto.setId(UUID.randomUUID());
+        when(loadRepository.findViews(any(Specification.class), any(Sort.class), eq(2)))
+            .thenReturn(List.of(testResponseDto, olderResponseDto));
+
+        // When
+        CursorPageDto<LoadResponseDto> result = loadService.getLoadsByCursor("SHIPPER001", null, LoadStatus.POSTED, "", 1, false);
+
+        // Then
+        assertTrue(result.isHasNext());
+        assertEquals(1, result.getContent().size());
+        assertEquals(new KeysetCursor(testLoad.getDatePosted(), testLoad.getId()), KeysetCursor.decode(result.getNextCursor()));
+        assertEquals(List.of(testResponseDto), result.getContent());
+        assertNull(result.getApproximateTotal());
+        verify(loadRepository, never()).findViews(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void getLoadsByCursor_ShouldSeekPastCursorAndEstimateTotal_WhenCursorGiven() {
+        // Given
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.now(), UUID.randomUUID());
+        when(loadRepository.findViews(any(Specification.class), any(Sort.class), eq(11))).thenReturn(List.of(testResponseDto));
+        when(loadRepository.estimateLoadCount(null, null, null)).thenReturn(42L);
+
+        // When
+        CursorPageDto<LoadResponseDto> result = loadService.getLoadsByCursor(null, null, null, cursor.encode(), 10, true);
+
+        // Then
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+        assertEquals(42L, result.getApproximateTotal());
+    }
+
+    @Test
+    void getLoadsByCursor_ShouldThrowIllegalArgumentException_WhenCursorMalformed() {
+        assertThrows(IllegalArgumentException.class,
+            () -> loadService.getLoadsByCursor(null, null, null, "not-a-cursor", 10, false));
+        verifyNoInteractions(loadRepository);
+    }
+
+    @Test
+    void searchLoads_ShouldRankMatchesFromTheTextIndexAndContinueFromTheCursor() {
+        // Given
+        LoadResponseDto steel = postedLoad("Pune", "Mumbai", LocalDateTime.now().minusHours(1));
+        LoadResponseDto steelComment = postedLoad("Nagpur", "Delhi", LocalDateTime.now());
+        steelComment.setProductType("Machinery");
+        steelComment.setComment("Steel frames, Pune pickup");
+        LoadResponseDto grain = postedLoad("Pune", "Mumbai", LocalDateTime.now());
+        grain.setProductType("Grain");
+        List.of(steel, steelComment, grain).forEach(loadTextIndex::update);
+        when(loadIndexer.isReady()).thenReturn(true);
+        when(loadRepository.findViews(any(Specification.class), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(List.of(steelComment, steel)), new PageImpl<>(List.of(steelComment)));
+
+        // When
+        CursorPageDto<LoadResponseDto> first = loadService.searchLoads("stee pune", null, "", 1);
+        CursorPageDto<LoadResponseDto> second = loadService.searchLoads("stee pune", null, first.getNextCursor(), 1);
+
+        // Then
+        assertEquals(List.of(steel), first.getContent());
+        assertTrue(first.isHasNext());
+        assertEquals(2L, first.getApproximateTotal());
+        assertEquals(steel.getId(), RelevanceCursor.decode(first.getNextCursor()).getId());
+        assertEquals(2, RelevanceCursor.decode(first.getNextCursor()).getWeights().size());
+        assertEquals(List.of(steelComment), second.getContent());
+        assertFalse(second.isHasNext());
+        assertThrows(IllegalArgumentException.class, () -> loadService.searchLoads(" , ", null, "", 10));
+    }
+
+    @Test
+    void searchLoads_ShouldMatchWordsInTheDatabase_UntilTheIndexIsBuilt() {
+        // Given
+        when(loadRepository.findViews(any(Specification.class), any(Sort.class), eq(11))).thenReturn(List.of(testResponseDto));
+
+        // When
+        CursorPageDto<LoadResponseDto> result = loadService.searchLoads("steel", LoadStatus.POSTED, "", 10);
+
+        // Then
+        assertEquals(List.of(testResponseDto), result.getContent());
+        assertFalse(result.isHasNext());
+        assertNull(result.getApproximateTotal());
+        verify(loadTextIndex, never()).search(any(), any(), any(), anyInt());
+        assertThrows(IllegalArgumentException.class,
+            () -> loadService.searchLoads("steel", LoadStatus.CANCELLED, "", 10));
+    }
+
+    @Test
+    void suggestPoints_ShouldAnswerFromMemoryWithoutTheDatabase() {
+        // Given
+        pointTrie.add("Pune", 3);
+        pointTrie.add("Punjab", 5);
+        pointTrie.add("Mumbai", 9);
+
+        // When
+        List<String> suggestions = loadService.suggestPoints(" PU", 10);
+
+        // Then
+        assertEquals(List.of("Punjab", "Pune"), suggestions);
+        assertEquals(List.of("Mumbai"), loadService.suggestPoints("", 1));
+        assertThrows(IllegalArgumentException.class, () -> loadService.suggestPoints("pu", 11));
+        verifyNoInteractions(loadRepository);
     }
 
     @Test
@@ -170,12 +410,60 @@ class LoadServiceTest {
         verifyNoInteractions(loadMapper);
     }
 
+    @Test
+    void getLoadById_ShouldServeRepeatedReadsFromCache() {
+        // Given
+        UUID loadId = testLoad.getId();
+        when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
+        when(loadMapper.toResponseDto(testLoad)).thenReturn(testResponseDto);
+
+        // When
+        loadService.getLoadById(loadId);
+        LoadResponseDto result = loadService.getLoadById(loadId);
+
+        // Then
+        assertSame(testResponseDto, result);
+        verify(loadRepository, times(1)).findById(loadId);
+        assertEquals(1, loadCache.stats().hitCount());
+    }
+
+    @Test
+    void getLoadById_ShouldCacheUnknownIds() {
+        // Given
+        UUID loadId = UUID.randomUUID();
+        when(loadRepository.findById(loadId)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () -> loadService.getLoadById(loadId));
+        assertThrows(ResourceNotFoundException.class, () -> loadService.getLoadById(loadId));
+        verify(loadRepository, times(1)).findById(loadId);
+    }
+
+    @Test
+    void updateLoad_ShouldInvalidateCachedLoad() {
+        // Given
+        UUID loadId = testLoad.getId();
+        when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
+        when(loadRepository.saveAndFlush(testLoad)).thenReturn(testLoad);
+        when(loadMapper.toResponseDto(testLoad)).thenReturn(testResponseDto);
+        loadService.getLoadById(loadId);
+
+        // When
+        loadService.updateLoad(loadId, testRequestDto);
+        loadService.getLoadById(loadId);
+
+        // Then
+        verify(loadCache).invalidate(loadId);
+        verify(loadJsonCache).invalidate(loadId);
+        verify(loadRepository, times(3)).findById(loadId);
+    }
+
     @Test
     void updateLoad_ShouldReturnUpdatedLoad_WhenValidRequest() {
         // Given
         UUID loadId = testLoad.getId();
         when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
-        when(loadRepository.save(testLoad)).thenReturn(testLoad);
+        when(loadRepository.saveAndFlush(testLoad)).thenReturn(testLoad);
         when(loadMapper.toResponseDto(testLoad)).thenReturn(testResponseDto);
 
         // When
@@ -185,10 +473,29 @@ class LoadServiceTest {
         assertNotNull(result);
         verify(loadRepository).findById(loadId);
         verify(loadMapper).updateEntity(testLoad, testRequestDto);
-        verify(loadRepository).save(testLoad);
+        verify(loadRepository).saveAndFlush(testLoad);
         verify(loadMapper).toResponseDto(testLoad);
     }
 
+    @Test
+    void updateLoad_ShouldMapTheResponseAndEventOnlyAfterTheVersionBumpIsFlushed() {
+        // Given
+        UUID loadId = testLoad.getId();
+        when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
+        when(loadRepository.saveAndFlush(testLoad)).thenReturn(testLoad);
+        when(loadMapper.toResponseDto(testLoad)).thenReturn(testResponseDto);
+
+        // When
+        LoadResponseDto result = loadService.updateLoad(loadId, testRequestDto);
+
+        // Then
+        assertSame(testResponseDto, result);
+        InOrder order = inOrder(loadRepository, loadMapper, loadFeed);
+        order.verify(loadRepository).saveAndFlush(testLoad);
+        order.verify(loadMapper).toResponseDto(testLoad);
+        order.verify(loadFeed).publish(LoadFeed.EventType.UPDATED, testResponseDto, null);
+    }
+
     @Test
     void updateLoad_ShouldThrowBusinessException_WhenLoadIsCancelled() {
         // Given
@@ -199,7 +506,7 @@ class LoadServiceTest {
         // When & Then
         assertThrows(BusinessException.class, () -> loadService.updateLoad(loadId, testRequestDto));
         verify(loadRepository).findById(loadId);
-        verify(loadRepository, never()).save(any());
+        verify(loadRepository, never()).saveAndFlush(any());
     }
 
     @Test
@@ -207,7 +514,7 @@ class LoadServiceTest {
         // Given
         UUID loadId = testLoad.getId();
         when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
-        when(loadRepository.save(testLoad)).thenReturn(testLoad);
+        when(loadRepository.saveAndFlush(testLoad)).thenReturn(testLoad);
 
         // When
         loadService.deleteLoad(loadId);
@@ -215,7 +522,7 @@ class LoadServiceTest {
         // Then
         assertEquals(LoadStatus.CANCELLED, testLoad.getStatus());
         verify(loadRepository).findById(loadId);
-        verify(loadRepository).save(testLoad);
+        verify(loadRepository).saveAndFlush(testLoad);
     }
 
     @Test
@@ -224,7 +531,7 @@ class LoadServiceTest {
         UUID loadId = testLoad.getId();
         testLoad.setStatus(LoadStatus.POSTED);
         when(loadRepository.findById(loadId)).thenReturn(Optional.of(testLoad));
-        when(loadRepository.save(testLoad)).thenReturn(testLoad);
+        when(loadRepository.saveAndFlush(testLoad)).thenReturn(testLoad);
 
         // When
         loadService.updateLoadStatus(loadId, LoadStatus.BOOKED);
@@ -232,7 +539,7 @@ class LoadServiceTest {
         // Then
         assertEquals(LoadStatus.BOOKED, testLoad.getStatus());
         verify(loadRepository).findById(loadId);
-        verify(loadRepository).save(testLoad);
+        verify(loadRepository).saveAndFlush(testLoad);
     }
 
     @Test
@@ -245,7 +552,7 @@ class LoadServiceTest {
         // When & Then
         assertThrows(BusinessException.class, () -> loadService.updateLoadStatus(loadId, LoadStatus.POSTED));
         verify(loadRepository).findById(loadId);
-        verify(loadRepository, never()).save(any());
+        verify(loadRepository, never()).saveAndFlush(any());
     }
 
     @Test
@@ -262,4 +569,12 @@ class LoadServiceTest {
         assertEquals(testLoad.getId(), result.getId());
         verify(loadRepository).findById(loadId);
     }
-}
\ No newline at end of file
+
+    private static LoadResponseDto postedLoad(String origin, String destination, LocalDateTime datePosted) {
+        FacilityDto facility = new FacilityDto(origin, destination, datePosted.plusDays(1), datePosted.plusDays(2));
+        LoadResponseDto load = new LoadResponseDto(UUID.randomUUID(), "SHIPPER001", facility, "Steel", "Flatbed", 1,
+            1000.0, null, datePosted, LoadStatus.POSTED);
+        load.setVersion(0L);
+        return load;
+    }
+}